@@ -0,0 +1,149 @@
+package com.reservas.hotel.api_gestion_hotelera.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.TipoHabitacionRepository;
+
+/**
+ * Cache de lectura delante de HabitacionRepository y TipoHabitacionRepository: la primera
+ * búsqueda de una clave va a la base y las siguientes salen de memoria. Cada cache tiene un
+ * tamaño máximo y Caffeine elige qué desalojar con W-TinyLFU.
+ *
+ * Se guardan copias desconectadas de las entidades y cada búsqueda devuelve una copia nueva, así
+ * quien la modifique no le cambia los datos a los demás. Guardar una copia modificada es un merge
+ * con la versión que tenía al leerse: si quedó vieja, la escritura falla por concurrencia
+ * optimista en vez de pisar datos.
+ *
+ * HabitacionService la mantiene al día: al confirmar una escritura guarda la habitación nueva y
+ * si la transacción se revierte la descarta. Los tipos solo se escriben con los datos iniciales.
+ */
+@Component
+public class CacheHabitaciones {
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private TipoHabitacionRepository tipoHabitacionRepository;
+
+    private final LoadingCache<Integer, Habitacion> habitaciones;
+    private final LoadingCache<Long, TipoHabitacion> tipos;
+
+    @Autowired
+    public CacheHabitaciones(@Value("${reservas.cache.habitaciones.maximo:2000}") long maximoHabitaciones,
+                             @Value("${reservas.cache.tipos.maximo:200}") long maximoTipos) {
+        // El mantenimiento (desalojos) corre en el hilo que usa la cache: con pocos miles de
+        // entradas es barato y el tamaño y las métricas quedan al día sin un pool aparte
+        this.habitaciones = Caffeine.newBuilder()
+            .maximumSize(maximoHabitaciones)
+            .executor(Runnable::run)
+            .recordStats()
+            .build(new CacheLoader<>() {
+                @Override
+                public Habitacion load(Integer numero) {
+                    return habitacionRepository.findByNumero(numero).map(CacheHabitaciones::copiar).orElse(null);
+                }
+
+                // Las que faltan se cargan juntas, con una sola consulta
+                @Override
+                public Map<Integer, Habitacion> loadAll(Set<? extends Integer> numeros) {
+                    Map<Integer, Habitacion> cargadas = new HashMap<>();
+                    for (Habitacion habitacion : habitacionRepository.findByNumeroIn(List.copyOf(numeros))) {
+                        cargadas.put(habitacion.getNumero(), copiar(habitacion));
+                    }
+                    return cargadas;
+                }
+            });
+        this.tipos = Caffeine.newBuilder()
+            .maximumSize(maximoTipos)
+            .executor(Runnable::run)
+            .recordStats()
+            .build(id -> tipoHabitacionRepository.findById(id).map(CacheHabitaciones::copiar).orElse(null));
+    }
+
+    public Optional<Habitacion> buscar(Integer numero) {
+        if (numero == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(habitaciones.get(numero)).map(CacheHabitaciones::copiar);
+    }
+
+    /**
+     * Las habitaciones que existen entre las pedidas, en el orden pedido.
+     */
+    public List<Habitacion> buscarTodas(Collection<Integer> numeros) {
+        Map<Integer, Habitacion> encontradas = habitaciones.getAll(numeros.stream().filter(Objects::nonNull).toList());
+        return encontradas.values().stream().map(CacheHabitaciones::copiar).toList();
+    }
+
+    public Optional<TipoHabitacion> buscarTipo(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(tipos.get(id)).map(CacheHabitaciones::copiar);
+    }
+
+    /**
+     * Reemplaza la habitación por su estado confirmado; se llama después del commit.
+     */
+    public void guardar(Habitacion habitacion) {
+        if (habitacion.getNumero() != null) {
+            habitaciones.put(habitacion.getNumero(), copiar(habitacion));
+        }
+    }
+
+    public void invalidar(Integer numero) {
+        if (numero != null) {
+            habitaciones.invalidate(numero);
+        }
+    }
+
+    /**
+     * Aciertos, fallos y desalojos de cada cache desde el arranque.
+     */
+    public Map<String, Object> metricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habitaciones", metricas(habitaciones.stats(), habitaciones.estimatedSize()));
+        metricas.put("tipos", metricas(tipos.stats(), tipos.estimatedSize()));
+        return metricas;
+    }
+
+    private static Map<String, Object> metricas(CacheStats stats, long tamano) {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("aciertos", stats.hitCount());
+        metricas.put("fallos", stats.missCount());
+        metricas.put("tasaAciertos", stats.hitRate());
+        metricas.put("desalojos", stats.evictionCount());
+        metricas.put("tamano", tamano);
+        return metricas;
+    }
+
+    private static Habitacion copiar(Habitacion habitacion) {
+        TipoHabitacion tipo = habitacion.getTipoHabitacion();
+        return new Habitacion(habitacion.getNumero(), habitacion.getEstado(),
+            tipo == null ? null : copiar(tipo), habitacion.getVersion());
+    }
+
+    private static TipoHabitacion copiar(TipoHabitacion tipo) {
+        return new TipoHabitacion(tipo.getId(), tipo.getNombre(), tipo.getCostoPorNoche(),
+            tipo.getCantidadDisponible(), tipo.getCapacidad());
+    }
+}
@@ -0,0 +1,101 @@
+package com.reservas.hotel.api_gestion_hotelera.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.TipoHabitacionVista;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+
+/**
+ * El catálogo de habitaciones y de tipos ya serializado, en UTF-8 y en gzip, para escribirlo tal
+ * cual en la respuesta.
+ *
+ * Cada arreglo queda asociado a la versión de habitaciones con la que se armó: solo se vuelve a
+ * serializar en la primera lectura después de una escritura confirmada. Mientras tanto cada
+ * pedido cuesta una comparación de versión, sin pasar por Jackson ni por el compresor.
+ */
+@Component
+public class CatalogoJson {
+
+    /**
+     * Un recurso serializado; los arreglos no se modifican una vez armados.
+     */
+    public record Json(String version, byte[] utf8, byte[] gzip) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HabitacionService habitacionService;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    private volatile Json habitaciones;
+    private volatile Json tipos;
+
+    /**
+     * Todas las habitaciones ordenadas por número, como las devuelve /cambios sin versión.
+     */
+    public Json habitaciones() {
+        Json actual = habitaciones;
+        if (actual != null && actual.version().equals(habitacionService.version())) {
+            return actual;
+        }
+        synchronized (this) {
+            if (habitaciones == null || !habitaciones.version().equals(habitacionService.version())) {
+                Cambios<HabitacionVista, Integer> todas = habitacionService.cambiosDesde(null);
+                habitaciones = serializar(todas.version(), todas.cambiados());
+            }
+            return habitaciones;
+        }
+    }
+
+    /**
+     * Tipos con habitaciones, ordenados por nombre. Los tipos solo llegan al catálogo a través
+     * de las habitaciones, así que comparten la versión.
+     */
+    public Json tipos() {
+        Json actual = tipos;
+        if (actual != null && actual.version().equals(habitacionService.version())) {
+            return actual;
+        }
+        synchronized (this) {
+            if (tipos == null || !tipos.version().equals(habitacionService.version())) {
+                // La versión se lee antes que los datos: nunca queda más nueva que lo serializado
+                String version = habitacionService.version();
+                tipos = serializar(version, catalogoHabitaciones.tipos().stream()
+                    .map(t -> new TipoHabitacionVista(t.id(), t.nombre(), t.costoPorNoche(), t.capacidad()))
+                    .toList());
+            }
+            return tipos;
+        }
+    }
+
+    private Json serializar(String version, List<?> datos) {
+        try {
+            byte[] utf8 = objectMapper.writeValueAsBytes(datos);
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream(utf8.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(utf8);
+            }
+            return new Json(version, utf8, comprimido.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
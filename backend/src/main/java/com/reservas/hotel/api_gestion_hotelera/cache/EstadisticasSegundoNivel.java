@@ -0,0 +1,52 @@
+package com.reservas.hotel.api_gestion_hotelera.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Aciertos de la cache de segundo nivel de Hibernate, leídos de sus estadísticas: por región de
+ * entidad (ver @Cache en Habitacion y TipoHabitacion).
+ *
+ * Con hibernate.generate_statistics apagado (lo normal fuera del perfil "metricas") Hibernate no
+ * cuenta nada: todo queda en cero y estadisticasActivas lo indica.
+ */
+@Component
+public class EstadisticasSegundoNivel {
+
+    // Las regiones declaradas en las entidades
+    private static final String[] REGIONES = {"habitaciones", "tiposHabitacion"};
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Aciertos, fallos y entradas guardadas de cada región desde el arranque.
+     */
+    public Map<String, Object> metricas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("estadisticasActivas", estadisticas.isStatisticsEnabled());
+        for (String region : REGIONES) {
+            CacheRegionStatistics deRegion = estadisticas.getDomainDataRegionStatistics(region);
+            metricas.put(region, metricas(deRegion.getHitCount(), deRegion.getMissCount(), deRegion.getPutCount()));
+        }
+        return metricas;
+    }
+
+    private static Map<String, Object> metricas(long aciertos, long fallos, long guardadas) {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("aciertos", aciertos);
+        metricas.put("fallos", fallos);
+        metricas.put("tasaAciertos", aciertos + fallos == 0 ? 1.0 : (double) aciertos / (aciertos + fallos));
+        metricas.put("guardadas", guardadas);
+        return metricas;
+    }
+}
@@ -0,0 +1,104 @@
+package com.reservas.hotel.api_gestion_hotelera.concurrencia;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+
+/**
+ * Serializa las escrituras sobre una misma habitación con bloqueos por franjas (lock striping).
+ *
+ * Cada número de habitación cae en una de FRANJAS locks; habitaciones distintas casi siempre
+ * caen en franjas distintas y avanzan en paralelo. Para reservas de varias habitaciones las
+ * franjas se toman siempre en orden ascendente, lo que evita interbloqueos.
+ */
+@Component
+public class CoordinadorReservas {
+
+    private static final int FRANJAS = 256;
+    private static final long ESPERA_MAXIMA_MS = 5000;
+
+    private final ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+
+    public CoordinadorReservas() {
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Toma los locks de las habitaciones y los libera cuando termina la transacción actual
+     * (después del commit o del rollback), así nadie lee el estado de la habitación antes de
+     * que se confirme la escritura anterior.
+     */
+    public void bloquearHastaFinDeTransaccion(Collection<Integer> numeros) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El bloqueo de habitaciones requiere una transacción activa");
+        }
+        int[] tomadas = adquirir(numeros);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                liberar(tomadas);
+            }
+        });
+    }
+
+    /**
+     * Ejecuta la acción con los locks de las habitaciones tomados, fuera de una transacción.
+     */
+    public <T> T ejecutarConBloqueo(Collection<Integer> numeros, Supplier<T> accion) {
+        int[] tomadas = adquirir(numeros);
+        try {
+            return accion.get();
+        } finally {
+            liberar(tomadas);
+        }
+    }
+
+    private int[] adquirir(Collection<Integer> numeros) {
+        int[] indices = numeros.stream()
+                .mapToInt(CoordinadorReservas::franja)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int tomadas = 0;
+        try {
+            for (int indice : indices) {
+                if (!franjas[indice].tryLock(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS)) {
+                    throw new ConflictoReservaException(
+                        "Las habitaciones " + numeros + " están siendo modificadas por otra operación. Intente nuevamente");
+                }
+                tomadas++;
+            }
+            return indices;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el bloqueo de habitaciones", e);
+        } finally {
+            if (tomadas < indices.length) {
+                for (int i = 0; i < tomadas; i++) {
+                    franjas[indices[i]].unlock();
+                }
+            }
+        }
+    }
+
+    private void liberar(int[] indices) {
+        for (int i = indices.length - 1; i >= 0; i--) {
+            franjas[indices[i]].unlock();
+        }
+    }
+
+    private static int franja(Integer numero) {
+        // Mezcla de Fibonacci para repartir números consecutivos entre franjas
+        return (numero * 0x9E3779B9) >>> 24;
+    }
+}
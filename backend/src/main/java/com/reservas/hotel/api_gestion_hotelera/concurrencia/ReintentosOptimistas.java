@@ -0,0 +1,81 @@
+package com.reservas.hotel.api_gestion_hotelera.concurrencia;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reintenta operaciones transaccionales que fallan por conflicto de versión (@Version).
+ *
+ * Cada reintento espera un tiempo aleatorio entre 0 y esperaBase * 2^intento (backoff
+ * exponencial con jitter completo) para que los competidores no vuelvan a chocar en el
+ * mismo instante. Debe envolver a la transacción completa, nunca ejecutarse dentro de ella.
+ */
+@Slf4j
+@Component
+public class ReintentosOptimistas {
+
+    @Value("${reservas.reintentos.maximo-intentos:4}")
+    private int maximoIntentos;
+
+    @Value("${reservas.reintentos.espera-base-ms:20}")
+    private long esperaBaseMs;
+
+    private final AtomicLong operaciones = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong agotadas = new AtomicLong();
+
+    public <T> T ejecutar(String operacion, Supplier<T> accion) {
+        operaciones.incrementAndGet();
+        for (int intento = 1; ; intento++) {
+            try {
+                return accion.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (intento >= maximoIntentos) {
+                    agotadas.incrementAndGet();
+                    log.warn("Conflicto de versión en " + operacion + " tras " + intento + " intentos");
+                    throw new ConflictoReservaException(
+                        "Los datos fueron modificados por otra operación. Intente nuevamente");
+                }
+                reintentos.incrementAndGet();
+                esperar(intento);
+            }
+        }
+    }
+
+    public void ejecutar(String operacion, Runnable accion) {
+        ejecutar(operacion, () -> {
+            accion.run();
+            return null;
+        });
+    }
+
+    public Map<String, Long> metricas() {
+        Map<String, Long> metricas = new LinkedHashMap<>();
+        metricas.put("operaciones", operaciones.get());
+        metricas.put("reintentos", reintentos.get());
+        metricas.put("agotadas", agotadas.get());
+        return metricas;
+    }
+
+    private void esperar(int intento) {
+        long tope = esperaBaseMs << Math.min(intento, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(tope + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido durante el reintento", e);
+        }
+    }
+}
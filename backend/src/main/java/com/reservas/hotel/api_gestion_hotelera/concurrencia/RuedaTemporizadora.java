@@ -0,0 +1,146 @@
+package com.reservas.hotel.api_gestion_hotelera.concurrencia;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rueda de temporizadores (hashed timing wheel) para vencimientos masivos y baratos.
+ *
+ * Cada temporizador cae en la ranura de su tick de vencimiento (tick % RANURAS). Un único hilo
+ * avanza un tick por vez y solo recorre la ranura actual, así el costo de programar o cancelar
+ * es O(1) y el de vencer no depende de cuántos temporizadores haya pendientes. Los que vencen
+ * en una vuelta posterior de la rueda se quedan en la ranura hasta que les toque.
+ *
+ * Las tareas corren en el hilo de la rueda: deben ser cortas y no bloquear. El hilo arranca en
+ * iniciar(), una vez construido el bean.
+ */
+@Slf4j
+@Component
+public class RuedaTemporizadora {
+
+    private final long tickMs;
+    private final ArrayDeque<Temporizador>[] ranuras;
+    private final int mascara;
+
+    // Los temporizadores nuevos pasan por esta cola; solo el hilo de la rueda toca las ranuras
+    private final Queue<Temporizador> pendientes = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService reloj;
+    private final long inicioNanos = System.nanoTime();
+    private long tickActual;
+
+    public static final class Temporizador {
+        private final long tickVencimiento;
+        private final Runnable tarea;
+        private volatile boolean cancelado;
+
+        private Temporizador(long tickVencimiento, Runnable tarea) {
+            this.tickVencimiento = tickVencimiento;
+            this.tarea = tarea;
+        }
+
+        public void cancelar() {
+            cancelado = true;
+        }
+    }
+
+    @Autowired
+    public RuedaTemporizadora(@Value("${reservas.rueda.tick-ms:1000}") long tickMs,
+                              @Value("${reservas.rueda.ranuras:512}") int ranuras) {
+        if (Integer.bitCount(ranuras) != 1) {
+            throw new IllegalArgumentException("La cantidad de ranuras debe ser potencia de 2");
+        }
+        this.tickMs = tickMs;
+        this.mascara = ranuras - 1;
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Temporizador>[] arreglo = new ArrayDeque[ranuras];
+        for (int i = 0; i < ranuras; i++) {
+            arreglo[i] = new ArrayDeque<>();
+        }
+        this.ranuras = arreglo;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        reloj = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "rueda-temporizadora");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        reloj.scheduleAtFixedRate(this::avanzar, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Programa la tarea para dentro de demoraMs (redondeado hacia arriba al tick siguiente).
+     */
+    public Temporizador programar(long demoraMs, Runnable tarea) {
+        long transcurridoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos);
+        long tick = (transcurridoMs + Math.max(0, demoraMs) + tickMs - 1) / tickMs;
+        Temporizador temporizador = new Temporizador(tick, tarea);
+        pendientes.add(temporizador);
+        return temporizador;
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (reloj != null) {
+            reloj.shutdownNow();
+        }
+    }
+
+    private void avanzar() {
+        // Una excepción que escape cancela para siempre la ejecución periódica: se registra y sigue
+        try {
+            long objetivo = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos) / tickMs;
+            // Si el hilo se atrasó, se procesan todos los ticks perdidos
+            while (tickActual <= objetivo) {
+                ubicarPendientes();
+                vencer(ranuras[(int) (tickActual & mascara)]);
+                tickActual++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Falló un tick de la rueda temporizadora", e);
+        }
+    }
+
+    private void ubicarPendientes() {
+        Temporizador temporizador;
+        while ((temporizador = pendientes.poll()) != null) {
+            if (temporizador.cancelado) {
+                continue;
+            }
+            // Uno que ya venció va a la ranura actual para correr en este mismo tick
+            long tick = Math.max(temporizador.tickVencimiento, tickActual);
+            ranuras[(int) (tick & mascara)].add(temporizador);
+        }
+    }
+
+    private void vencer(ArrayDeque<Temporizador> ranura) {
+        Iterator<Temporizador> it = ranura.iterator();
+        while (it.hasNext()) {
+            Temporizador temporizador = it.next();
+            if (temporizador.cancelado) {
+                it.remove();
+            } else if (temporizador.tickVencimiento <= tickActual) {
+                it.remove();
+                try {
+                    temporizador.tarea.run();
+                } catch (RuntimeException e) {
+                    log.error("Falló una tarea de la rueda temporizadora", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Un solo hilo para la lista de espera: las liberaciones se atienden en orden de llegada
+     * y dos asignaciones nunca compiten por el mismo pedido.
+     */
+    @Bean(name = "ejecutorListaEspera")
+    public Executor ejecutorListaEspera() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("lista-espera-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import java.net.URI;
+import java.util.Properties;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    /**
+     * Las regiones de la cache de segundo nivel, propias de este contexto. Pedido al proveedor de
+     * JCache, el CacheManager es uno solo por JVM: dos contextos sobre bases distintas (como en los
+     * tests) compartirían las mismas entradas de Habitacion y se pisarían las versiones.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerSegundoNivel(
+            @Value("${reservas.cache.segundo-nivel.configuracion:classpath:cache-segundo-nivel.conf}") URI configuracion) {
+        return new CacheManagerImpl(Caching.getCachingProvider(CaffeineCachingProvider.class.getName()), false,
+            configuracion, getClass().getClassLoader(), new Properties());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager cacheManagerSegundoNivel) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerSegundoNivel);
+    }
+}
@@ -0,0 +1,50 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import java.util.Objects;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository.ClavesPasajero;
+import com.reservas.hotel.api_gestion_hotelera.util.TextoUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recalcula con TextoUtils.normalizarBusqueda las claves de búsqueda que no coinciden con el
+ * nombre y apellido del pasajero. La migración 005 las rellenó con unaccent, que no normaliza
+ * igual letras como ø, ß o ł: sin esto el mismo nombre tendría una clave distinta según cuándo
+ * se guardó. Una vez corregidas no hay nada que actualizar y solo se leen las claves.
+ *
+ * Corre antes que IndicesInitializer para que los índices se armen con las claves corregidas.
+ */
+@Slf4j
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class ClavesBusquedaInitializer implements CommandLineRunner {
+
+    private final PasajeroRepository pasajeroRepository;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        int corregidas = 0;
+        for (ClavesPasajero pasajero : pasajeroRepository.buscarClaves()) {
+            String nombre = TextoUtils.normalizarBusqueda(pasajero.getNombre());
+            String apellido = TextoUtils.normalizarBusqueda(pasajero.getApellido());
+            if (!Objects.equals(nombre, pasajero.getNombreBusqueda())
+                    || !Objects.equals(apellido, pasajero.getApellidoBusqueda())) {
+                pasajeroRepository.actualizarClavesBusqueda(pasajero.getId(), nombre, apellido);
+                corregidas++;
+            }
+        }
+        if (corregidas > 0) {
+            log.info("Claves de búsqueda recalculadas para " + corregidas + " pasajeros");
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.reservas.hotel.api_gestion_hotelera.config;
 import java.math.BigDecimal;
 
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
@@ -17,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Component
+@Order(1)
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
@@ -37,30 +39,35 @@ public class DataInitializer implements CommandLineRunner {
         TipoHabitacion individualEstandar = crearTipoHabitacion(
             "Individual Estándar", 
             new BigDecimal("50800"), 
-            10
+            10,
+            1
         );
 
         TipoHabitacion dobleEstandar = crearTipoHabitacion(
             "Doble Estándar", 
             new BigDecimal("70230"), 
-            18
+            18,
+            2
         );
 
         TipoHabitacion dobleSuperior = crearTipoHabitacion(
             "Doble Superior", 
             new BigDecimal("90560"), 
-            8
+            8,
+            2
         );
 
         TipoHabitacion superiorFamily = crearTipoHabitacion(
             "Superior Family Plan", 
             new BigDecimal("110500"), 
-            10
+            10,
+            4
         );
 
         TipoHabitacion suiteDoble = crearTipoHabitacion(
             "Suite Doble", 
             new BigDecimal("128600"), 
+            2,
             2
         );
 
@@ -74,8 +81,8 @@ public class DataInitializer implements CommandLineRunner {
         log.info("Inicialización completada. Total de habitaciones: " + habitacionRepository.count());
     }
 
-    private TipoHabitacion crearTipoHabitacion(String nombre, BigDecimal costo, Integer cantidad) {
-        TipoHabitacion tipo = new TipoHabitacion(nombre, costo, cantidad);
+    private TipoHabitacion crearTipoHabitacion(String nombre, BigDecimal costo, Integer cantidad, Integer capacidad) {
+        TipoHabitacion tipo = new TipoHabitacion(nombre, costo, cantidad, capacidad);
         return tipoHabitacionRepository.save(tipo);
     }
 
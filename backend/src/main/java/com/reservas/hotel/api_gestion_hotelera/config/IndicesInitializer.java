@@ -0,0 +1,100 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.SugerenciaPasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.SolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoSolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceEstadosHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceListaEspera;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndicePasajeros;
+import com.reservas.hotel.api_gestion_hotelera.indice.MapaDni;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceSugerencias;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository.ClavesPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository.OcupacionReserva;
+import com.reservas.hotel.api_gestion_hotelera.repository.SolicitudEsperaRepository;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reconstruye los índices en memoria a partir de la base de datos al iniciar la aplicación.
+ * Corre después de DataInitializer para incluir las habitaciones recién creadas, y después de
+ * ClavesBusquedaInitializer para indexar las claves de búsqueda ya corregidas.
+ */
+@Slf4j
+@Component
+@Order(3)
+@RequiredArgsConstructor
+public class IndicesInitializer implements CommandLineRunner {
+
+    private final ReservaRepository reservaRepository;
+    private final HabitacionRepository habitacionRepository;
+    private final CatalogoHabitaciones catalogoHabitaciones;
+    private final IndiceEstadosHabitacion indiceEstadosHabitacion;
+    private final CalendarioDisponibilidad calendarioDisponibilidad;
+    private final IndiceReservas indiceReservas;
+    private final SolicitudEsperaRepository solicitudEsperaRepository;
+    private final IndiceListaEspera indiceListaEspera;
+    private final PasajeroRepository pasajeroRepository;
+    private final IndicePasajeros indicePasajeros;
+    private final MapaDni mapaDni;
+    private final IndiceSugerencias indiceSugerencias;
+
+    @Override
+    public void run(String... args) {
+        List<Habitacion> habitaciones = new ArrayList<>();
+        habitacionRepository.findAll().forEach(habitaciones::add);
+        catalogoHabitaciones.registrarTodas(habitaciones);
+        indiceEstadosHabitacion.registrarTodas(habitaciones);
+        log.info("Catálogo de habitaciones cargado con " + habitaciones.size() + " habitaciones");
+
+        List<OcupacionReserva> ocupaciones = reservaRepository.buscarOcupaciones();
+
+        calendarioDisponibilidad.limpiar();
+        indiceReservas.limpiar();
+        for (OcupacionReserva ocupacion : ocupaciones) {
+            LocalDate ingreso = FechaUtils.aLocalDate(ocupacion.getFechaIngreso());
+            LocalDate egreso = FechaUtils.aLocalDate(ocupacion.getFechaEgreso());
+            calendarioDisponibilidad.ocupar(ocupacion.getNumeroHabitacion(), ingreso, egreso);
+            indiceReservas.registrar(ocupacion.getNumeroHabitacion(), ocupacion.getId(), ingreso, egreso);
+        }
+
+        log.info("Calendario de disponibilidad e índice de reservas cargados con " + ocupaciones.size() + " reservas");
+
+        List<SolicitudEspera> pendientes = solicitudEsperaRepository.findByEstadoOrderByIdAsc(EstadoSolicitudEspera.PENDIENTE);
+        indiceListaEspera.limpiar();
+        for (SolicitudEspera solicitud : pendientes) {
+            indiceListaEspera.registrar(solicitud.getTipoHabitacion().getId(), solicitud.getId(),
+                FechaUtils.aLocalDate(solicitud.getFechaIngreso()), FechaUtils.aLocalDate(solicitud.getFechaEgreso()));
+        }
+        log.info("Lista de espera cargada con " + pendientes.size() + " pedidos pendientes");
+
+        List<ClavesPasajero> pasajeros = pasajeroRepository.buscarClaves();
+        indicePasajeros.limpiar();
+        mapaDni.limpiar();
+        indiceSugerencias.limpiar();
+        for (ClavesPasajero pasajero : pasajeros) {
+            indicePasajeros.registrar(pasajero.getId(), pasajero.getNombreBusqueda(), pasajero.getApellidoBusqueda());
+            mapaDni.registrar(pasajero.getDniNormalizado(), pasajero.getId());
+            indiceSugerencias.registrar(
+                new SugerenciaPasajero(pasajero.getId(), pasajero.getNombre(), pasajero.getApellido(), pasajero.getNroDocumento()),
+                pasajero.getNombreBusqueda(), pasajero.getApellidoBusqueda(), pasajero.getDniNormalizado());
+        }
+        log.info("Índices de pasajeros (nombres, DNI y sugerencias) cargados con " + pasajeros.size() + " pasajeros");
+    }
+}
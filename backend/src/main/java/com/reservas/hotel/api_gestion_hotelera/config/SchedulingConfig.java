@@ -0,0 +1,12 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (optimización nocturna de la asignación de habitaciones).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
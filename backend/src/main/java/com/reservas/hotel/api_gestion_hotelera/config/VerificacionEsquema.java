@@ -0,0 +1,63 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controla al iniciar que la base tenga lo que Hibernate no crea con ddl-auto: la columna
+ * generada reserva.periodo y la restricción reserva_sin_solapamiento (migraciones/001 y 002).
+ * Sin ellas dos reservas solapadas entrarían sin error y las consultas sobre periodo fallarían,
+ * así que la aplicación no arranca. Corre antes que DataInitializer.
+ *
+ * Solo aplica a PostgreSQL; sobre H2 (tests) el solapamiento lo controla la aplicación.
+ */
+@Slf4j
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class VerificacionEsquema implements CommandLineRunner {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void run(String... args) throws SQLException {
+        if (!esPostgres()) {
+            log.info("Base sin rangos de fechas: no se verifica la restricción de solapamiento");
+            return;
+        }
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Integer columnas = jdbc.queryForObject("""
+            select count(*) from information_schema.columns
+            where table_schema = current_schema() and table_name = 'reserva' and column_name = 'periodo'
+            """, Integer.class);
+        Integer restricciones = jdbc.queryForObject("""
+            select count(*) from pg_constraint c
+            join pg_namespace n on n.oid = c.connamespace
+            where n.nspname = current_schema() and c.conname = 'reserva_sin_solapamiento'
+            """, Integer.class);
+
+        if (columnas == null || columnas == 0 || restricciones == null || restricciones == 0) {
+            throw new IllegalStateException(
+                "Falta la columna reserva.periodo o la restricción reserva_sin_solapamiento: "
+                + "ejecutar migraciones/001_reserva_periodo_sin_solapamiento.sql y "
+                + "migraciones/002_reserva_asignacion_automatica.sql antes de iniciar la aplicación");
+        }
+    }
+
+    private boolean esPostgres() throws SQLException {
+        try (Connection conexion = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(conexion.getMetaData().getDatabaseProductName());
+        }
+    }
+}
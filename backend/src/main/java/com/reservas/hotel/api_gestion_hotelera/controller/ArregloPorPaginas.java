@@ -0,0 +1,47 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+
+/**
+ * Respuesta de los listados que todavía devuelven el arreglo JSON completo: se escribe página
+ * por página a medida que se leen, así la memoria usada no crece con la tabla y el primer
+ * elemento sale sin esperar al último.
+ */
+final class ArregloPorPaginas {
+
+    private ArregloPorPaginas() {
+    }
+
+    static <T> StreamingResponseBody escribir(ObjectMapper objectMapper, Class<T> tipo,
+                                              Function<Long, Pagina<T>> pedirDespues) {
+        // Sin vaciar el buffer por elemento: se vacía al terminar cada página
+        ObjectWriter escritor = objectMapper.writerFor(tipo).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return salida -> {
+            JsonGenerator generador = objectMapper.getFactory().createGenerator(salida);
+            generador.writeStartArray();
+            Pagina.recorrer(pedirDespues, elementos -> {
+                try {
+                    for (T elemento : elementos) {
+                        escritor.writeValue(generador, elemento);
+                    }
+                    generador.flush();
+                } catch (IOException e) {
+                    // El cliente cortó la descarga: no se piden más páginas
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generador.writeEndArray();
+            generador.flush();
+        };
+    }
+}
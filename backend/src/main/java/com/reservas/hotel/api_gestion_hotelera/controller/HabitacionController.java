@@ -1,17 +1,32 @@
 package com.reservas.hotel.api_gestion_hotelera.controller;
 
-import java.util.Set;
+import java.time.LocalDate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.cache.CatalogoJson;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.DisponibilidadTipo;
+import com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResumenHabitaciones;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.eventos.DifusorEstadosHabitacion;
 import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
 
 import java.util.List;
@@ -23,13 +38,48 @@ public class HabitacionController {
     @Autowired
     private HabitacionService habitacionService;
 
+    @Autowired
+    private DifusorEstadosHabitacion difusorEstadosHabitacion;
+
+    @Autowired
+    private CatalogoJson catalogoJson;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * CU05 - Obtener todas las habitaciones
+     * CU05 - Obtener todas las habitaciones, ordenadas por número (arreglo JSON, escrito de a una página)
      */
     @GetMapping("/listar")
-    public ResponseEntity<Set<Habitacion>> obtenerTodas() {
-        Set<Habitacion> habitaciones = habitacionService.buscarTodas();
-        return new ResponseEntity<>(habitaciones, HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> obtenerTodas(WebRequest request) {
+        String etag = etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        StreamingResponseBody habitaciones = ArregloPorPaginas.escribir(objectMapper, HabitacionVista.class,
+            despues -> habitacionService.buscarPagina(despues == null ? null : despues.intValue(), Pagina.TAMANO_MAXIMO));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON).body(habitaciones);
+    }
+
+    /**
+     * CU05 - Listar las habitaciones de a una página: se elige mandando "tamano"
+     * Ejemplo: /api/habitaciones/listar?tamano=100 y después ?despues=<siguiente>&tamano=100
+     */
+    @GetMapping(value = "/listar", params = "tamano")
+    public ResponseEntity<Pagina<HabitacionVista>> obtenerPagina(
+            @RequestParam(required = false) Integer despues,
+            @RequestParam int tamano,
+            WebRequest request) {
+        if (tamano < 1 || tamano > Pagina.TAMANO_MAXIMO) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        String etag = etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        Pagina<HabitacionVista> habitaciones = habitacionService.buscarPagina(despues, tamano);
+        return condicional(etag, habitaciones);
     }
 
     /**
@@ -37,18 +87,168 @@ public class HabitacionController {
      * Ejemplo: /api/habitaciones/estado/LIBRE
      */
     @GetMapping("/estado/{estado}")
-    public ResponseEntity<Set<Habitacion>> obtenerPorEstado(@PathVariable String estado) {
+    public ResponseEntity<List<HabitacionVista>> obtenerPorEstado(@PathVariable String estado, WebRequest request) {
         try {
             EstadoHabitacion estadoHabitacion = EstadoHabitacion.valueOf(estado.toUpperCase());
-            Set<Habitacion> habitaciones = habitacionService.mostrarPorEstado(estadoHabitacion);
-            return new ResponseEntity<>(habitaciones, HttpStatus.OK);
+            String etag = etag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            List<HabitacionVista> habitaciones = habitacionService.mostrarPorEstado(estadoHabitacion);
+            return condicional(etag, habitaciones);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Cantidad de habitaciones por estado, en total y por tipo de habitación
+     * Ejemplo: /api/habitaciones/resumen
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<ResumenHabitaciones> obtenerResumen(WebRequest request) {
+        String etag = etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return condicional(etag, habitacionService.resumir());
+    }
+
+    /**
+     * Habitaciones que cambiaron desde la versión que tiene el cliente (la "version" de la respuesta
+     * anterior). Sin versión, o si quedó demasiado atrás, devuelve todas con completo=true
+     * Ejemplo: /api/habitaciones/cambios?desde=<version>
+     */
+    @GetMapping("/cambios")
+    public ResponseEntity<Cambios<HabitacionVista, Integer>> obtenerCambios(@RequestParam(required = false) String desde) {
+        return ResponseEntity.ok(habitacionService.cambiosDesde(desde));
+    }
+
+    /**
+     * Todas las habitaciones ordenadas por número, ya serializadas (en gzip si el cliente lo acepta)
+     * Ejemplo: /api/habitaciones/catalogo
+     */
+    @GetMapping("/catalogo")
+    public ResponseEntity<byte[]> obtenerCatalogo(WebRequest request) {
+        return serializado(catalogoJson.habitaciones(), request);
+    }
+
+    /**
+     * Tipos de habitación ordenados por nombre, ya serializados (en gzip si el cliente lo acepta)
+     * Ejemplo: /api/habitaciones/tipos
+     */
+    @GetMapping("/tipos")
+    public ResponseEntity<byte[]> obtenerTipos(WebRequest request) {
+        return serializado(catalogoJson.tipos(), request);
+    }
+
+    /**
+     * Cambios de estado de las habitaciones como Server-Sent Events: eventos "estados" con una
+     * lista de {numero, anterior, estado}, juntados cada pocos cientos de milisegundos
+     * Ejemplo: new EventSource("/api/habitaciones/eventos")
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirCambios() {
+        return difusorEstadosHabitacion.suscribir();
+    }
+
     @GetMapping("/disponibles")
-    public ResponseEntity<List<Habitacion>> obtenerDisponibles() {
-        return ResponseEntity.ok(habitacionService.buscarDisponibles());
+    public ResponseEntity<List<HabitacionVista>> obtenerDisponibles(WebRequest request) {
+        String etag = etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return condicional(etag, habitacionService.buscarDisponibles());
+    }
+
+    /**
+     * Disponibilidad por tipo de habitación para un rango de fechas: cantidad libre y números
+     * Ejemplo: /api/habitaciones/disponibles?desde=2025-03-01&hasta=2025-03-05&tipo=2&huespedes=2
+     */
+    @GetMapping(value = "/disponibles", params = {"desde", "hasta"})
+    public ResponseEntity<List<DisponibilidadTipo>> obtenerDisponiblesPorTipo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Long tipo,
+            @RequestParam(required = false) Integer huespedes) {
+        if (!desde.isBefore(hasta) || (huespedes != null && huespedes < 1)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(habitacionService.buscarDisponibilidadPorTipo(desde, hasta, tipo, huespedes));
+    }
+
+    /**
+     * Habitaciones libres para un rango de fechas, según el calendario de ocupación
+     * Ejemplo: /api/habitaciones/disponibilidad?desde=2025-03-01&hasta=2025-03-05
+     */
+    @GetMapping("/disponibilidad")
+    public ResponseEntity<List<HabitacionVista>> obtenerDisponiblesEntre(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        if (!desde.isBefore(hasta)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(habitacionService.buscarDisponiblesEntre(desde, hasta));
+    }
+
+    // Los listados que salen solo de la tabla de habitaciones comparten la versión del servicio:
+    // con If-None-Match igual se responde 304 sin consultar ni serializar nada
+    private String etag() {
+        return "\"" + habitacionService.version() + "\"";
+    }
+
+    // Escribe los bytes guardados tal cual; cada codificación es una representación con su propio ETag
+    private static ResponseEntity<byte[]> serializado(CatalogoJson.Json json, WebRequest request) {
+        boolean gzip = aceptaGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = "\"" + json.version() + (gzip ? "-gz" : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(json.gzip());
+        }
+        return respuesta.body(json.utf8());
+    }
+
+    // Lee Accept-Encoding con sus pesos: "gzip;q=0" es un rechazo explícito, y sin gzip en la
+    // lista decide el comodín "*". Un peso que no se entiende cuenta como 0
+    private static boolean aceptaGzip(String aceptadas) {
+        if (aceptadas == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double comodin = null;
+        for (String codificacion : aceptadas.split(",")) {
+            String[] partes = codificacion.split(";");
+            String nombre = partes[0].trim().toLowerCase();
+            double peso = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.length() > 2 && parametro.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        peso = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        peso = 0;
+                    }
+                }
+            }
+            if (nombre.equals("gzip") || nombre.equals("x-gzip")) {
+                gzip = peso;
+            } else if (nombre.equals("*")) {
+                comodin = peso;
+            }
+        }
+        Double elegido = gzip != null ? gzip : comodin;
+        return elegido != null && elegido > 0;
+    }
+
+    // no-cache: el cliente puede guardar la respuesta, pero revalida con el ETag antes de usarla
+    private static <T> ResponseEntity<T> condicional(String etag, T cuerpo) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(cuerpo);
     }
 }
@@ -0,0 +1,47 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.SolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.service.ListaEsperaService;
+
+@RestController
+@RequestMapping("/api/lista-espera")
+public class ListaEsperaController {
+
+    @Autowired
+    private ListaEsperaService listaEsperaService;
+
+    // Body: { "tipoHabitacion": { "id": 2 }, "fechaIngreso": "...", "fechaEgreso": "...", "responsable": { "nroDocumento": "..." } }
+    @PostMapping
+    public ResponseEntity<?> registrar(@RequestBody SolicitudEspera solicitud) {
+        try {
+            return new ResponseEntity<>(listaEsperaService.registrar(solicitud), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SolicitudEspera>> obtenerPendientes() {
+        return ResponseEntity.ok(listaEsperaService.buscarPendientes());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelar(@PathVariable Long id) {
+        return listaEsperaService.cancelar(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+
+/**
+ * Respuestas de error comunes a todos los controladores.
+ */
+@RestControllerAdvice
+public class ManejadorExcepciones {
+
+    // 409 CONFLICT con los ids de las reservas que chocan, para no tener que volver a consultarlas
+    @ExceptionHandler(ConflictoReservaException.class)
+    public ResponseEntity<Map<String, Object>> manejarConflicto(ConflictoReservaException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "mensaje", e.getMessage(),
+            "reservasEnConflicto", e.getReservasEnConflicto()
+        ));
+    }
+}
@@ -0,0 +1,40 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reservas.hotel.api_gestion_hotelera.cache.CacheHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.cache.EstadisticasSegundoNivel;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.ReintentosOptimistas;
+
+@RestController
+@RequestMapping("/api/metricas")
+public class MetricasController {
+
+    @Autowired
+    private ReintentosOptimistas reintentosOptimistas;
+
+    @Autowired
+    private CacheHabitaciones cacheHabitaciones;
+
+    @Autowired
+    private EstadisticasSegundoNivel estadisticasSegundoNivel;
+
+    /**
+     * Contadores de operación del servicio (reintentos por conflicto de versión, aciertos de las caches, etc.)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> obtenerMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("reintentosOptimistas", reintentosOptimistas.metricas());
+        metricas.put("cacheHabitaciones", cacheHabitaciones.metricas());
+        metricas.put("cacheSegundoNivel", estadisticasSegundoNivel.metricas());
+        return ResponseEntity.ok(metricas);
+    }
+}
@@ -6,13 +6,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SugerenciaPasajero;
 import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
 import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
 
@@ -20,6 +25,9 @@ import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
 @RequestMapping("/api/pasajeros")
 public class PasajeroController {
 
+    // Tope de sugerencias por consulta, sin importar el k pedido
+    private static final int MAXIMO_SUGERENCIAS = 50;
+
     @Autowired
     private PasajeroService pasajeroService;
 
@@ -61,7 +69,7 @@ public class PasajeroController {
      * @return Lista de pasajeros encontrados
      */
     @PostMapping("/buscar")
-    public ResponseEntity<List<Pasajero>> buscarHuesped(@RequestBody BusquedaRequest request) {
+    public ResponseEntity<List<PasajeroVista>> buscarHuesped(@RequestBody BusquedaRequest request) {
         try {
             // Validar que los datos estén presentes
             if (request.getCriterio() == null || request.getValor() == null) {
@@ -75,7 +83,7 @@ public class PasajeroController {
             }
 
             // Realizar la búsqueda
-            List<Pasajero> pasajeros = pasajeroService.buscarHuesped(request.getCriterio(), request.getValor());
+            List<PasajeroVista> pasajeros = pasajeroService.buscarHuesped(request.getCriterio(), request.getValor());
             
             return new ResponseEntity<>(pasajeros, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
@@ -86,6 +94,36 @@ public class PasajeroController {
     }
 
  
+    /**
+     * Endpoint GET para listar huéspedes de a una página, ordenados por id
+     * @param despues Valor "siguiente" de la página anterior; vacío para la primera
+     * @param tamano Cantidad de huéspedes por página (entre 1 y 200)
+     * @return Página de pasajeros y el cursor de la siguiente
+     */
+    @GetMapping
+    public ResponseEntity<Pagina<PasajeroVista>> listarPasajeros(@RequestParam(required = false) Long despues,
+                                                           @RequestParam(defaultValue = "50") int tamano) {
+        if (tamano < 1 || tamano > Pagina.TAMANO_MAXIMO) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(pasajeroService.buscarPagina(despues, tamano), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint GET para autocompletar huéspedes mientras se escribe
+     * @param q Comienzo del apellido, del nombre o del DNI
+     * @param k Cantidad máxima de sugerencias (entre 1 y 50)
+     * @return Id, nombre, apellido y DNI de los huéspedes sugeridos
+     */
+    @GetMapping("/sugerencias")
+    public ResponseEntity<List<SugerenciaPasajero>> sugerir(@RequestParam String q,
+                                                            @RequestParam(defaultValue = "10") int k) {
+        if (k < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(pasajeroService.sugerir(q, Math.min(k, MAXIMO_SUGERENCIAS)), HttpStatus.OK);
+    }
+
     /**
      * Endpoint POST para dar de alta un huésped (crear pasajero con su dirección)
      * @param pasajero Objeto Pasajero con todos sus atributos incluyendo la dirección
@@ -97,6 +135,9 @@ public class PasajeroController {
             // El servicio se encarga de guardar tanto la dirección como el pasajero
             Pasajero pasajeroGuardado = pasajeroService.registrarPasajero(pasajero);
             return new ResponseEntity<>(pasajeroGuardado, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            // Ya hay otro pasajero con el mismo DNI
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -107,6 +148,8 @@ public class PasajeroController {
         try {
             Pasajero pasajeroActualizado = pasajeroService.actualizarPasajero(id, pasajero);
             return new ResponseEntity<>(pasajeroActualizado, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (Exception e) {
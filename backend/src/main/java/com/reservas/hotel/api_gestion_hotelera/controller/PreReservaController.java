@@ -0,0 +1,65 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.PreReserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.service.PreReservaService;
+
+/**
+ * Retenciones temporales de habitaciones mientras el huésped completa la reserva en el frontend.
+ */
+@RestController
+@RequestMapping("/api/prereservas")
+public class PreReservaController {
+
+    @Autowired
+    private PreReservaService preReservaService;
+
+    // Body: { "numeroHabitacion": 101, "fechaIngreso": "2025-03-01", "fechaEgreso": "2025-03-04" }
+    @PostMapping
+    public ResponseEntity<?> crear(@RequestBody PreReserva solicitud) {
+        try {
+            PreReserva preReserva = preReservaService.crear(
+                solicitud.numeroHabitacion(), solicitud.fechaIngreso(), solicitud.fechaEgreso());
+            return new ResponseEntity<>(preReserva, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PreReserva> obtener(@PathVariable String id) {
+        return preReservaService.buscarPorId(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Body: el responsable, por ejemplo { "nroDocumento": "12345678" }
+    @PostMapping("/{id}/confirmar")
+    public ResponseEntity<?> confirmar(@PathVariable String id, @RequestBody Pasajero responsable) {
+        try {
+            Reserva reserva = preReservaService.confirmar(id, responsable);
+            return new ResponseEntity<>(reserva, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> liberar(@PathVariable String id) {
+        return preReservaService.liberar(id)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+}
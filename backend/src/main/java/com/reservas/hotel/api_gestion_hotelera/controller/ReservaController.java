@@ -1,11 +1,15 @@
 package com.reservas.hotel.api_gestion_hotelera.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,9 +20,23 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;                        
 import org.springframework.web.bind.annotation.RequestParam;                     
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaGrupoItem;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResultadoOptimizacion;
+import com.reservas.hotel.api_gestion_hotelera.dto.SolicitudReservaGrupo;
 import com.reservas.hotel.api_gestion_hotelera.entities.Factura;
 import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.service.OptimizacionAsignacionService;
 import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
 
 // @RestController es una versión especializada de @Controller que incluye @ResponseBody [2, 3]
@@ -28,6 +46,19 @@ public class ReservaController {
     
     @Autowired 
     private ReservaService reservaService;
+
+    @Autowired
+    private OptimizacionAsignacionService optimizacionAsignacionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Timeout de la exportación, que puede durar más que el de las demás respuestas asíncronas
+    @Value("${reservas.exportacion.timeout-min:30}")
+    private long minutosExportacion;
+
+    // Cada cuántas líneas de la exportación se vacía el buffer hacia el cliente
+    private static final int LINEAS_POR_ENVIO = 500;
     
     //Endpoint POST para crear una reserva usando el DNI del pasajero
     @PostMapping("/crear")
@@ -36,6 +67,9 @@ public class ReservaController {
             Reserva reservaCreada = reservaService.crearReserva(reserva);
             return new ResponseEntity<>(reservaCreada, HttpStatus.CREATED);
             
+        } catch (ConflictoReservaException e) {
+            // El 409 lo arma ManejadorExcepciones
+            throw e;
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
@@ -44,6 +78,36 @@ public class ReservaController {
         }
     }
     
+    // Endpoint POST para reservar por tipo de habitación: el sistema elige la habitación
+    @PostMapping("/por-tipo/{tipoId}")
+    public ResponseEntity<?> crearReservaPorTipo(@PathVariable Long tipoId, @RequestBody Reserva reserva) {
+        try {
+            Reserva reservaCreada = reservaService.crearReservaPorTipo(tipoId, reserva);
+            return new ResponseEntity<>(reservaCreada, HttpStatus.CREATED);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Endpoint POST para correr a mano la optimización nocturna de asignación de habitaciones
+    @PostMapping("/asignacion/optimizar")
+    public ResponseEntity<ResultadoOptimizacion> optimizarAsignacion() {
+        return ResponseEntity.ok(optimizacionAsignacionService.optimizar());
+    }
+
+    // Endpoint POST para reservar un bloque de habitaciones: todas o ninguna
+    @PostMapping("/grupo")
+    public ResponseEntity<?> crearReservaGrupo(@RequestBody SolicitudReservaGrupo solicitud) {
+        try {
+            List<ReservaGrupoItem> reservas = reservaService.crearReservaGrupo(solicitud);
+            return new ResponseEntity<>(reservas, HttpStatus.CREATED);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/checkin")
     public ResponseEntity<Reserva> realizarCheckIn(@RequestBody Reserva reserva) {
         // Endpoint secundario de POST
@@ -54,32 +118,83 @@ public class ReservaController {
     
     // 2. GET: CONSULTAR RECURSOS (CU05: Mostrar disponibilidad)
 
-    // Endpoint 1 de GET: Obtener todas las reservas (Colección)
+    // Endpoint 1 de GET: Listar todas las reservas, ordenadas por id (arreglo JSON, como siempre).
+    // Se escribe de a una página: la memoria no crece con la cantidad de reservas
     @GetMapping 
-    public ResponseEntity<Set<Reserva>> obtenerTodasReservas() {
-        Set<Reserva> reservas = reservaService.buscarTodas(); // Llama al servicio
+    public ResponseEntity<StreamingResponseBody> obtenerTodasReservas() {
+        StreamingResponseBody reservas = ArregloPorPaginas.escribir(objectMapper, ReservaVista.class,
+            despues -> reservaService.buscarPagina(despues, Pagina.TAMANO_MAXIMO)); // Llama al servicio
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(reservas);
+    }
+
+    // Endpoint 1 paginado: se elige mandando "tamano"; responde {elementos, siguiente}
+    // Ejemplo: /api/reservas?tamano=50 y después /api/reservas?despues=<siguiente>&tamano=50
+    @GetMapping(params = "tamano")
+    public ResponseEntity<Pagina<ReservaVista>> obtenerPaginaReservas(
+            @RequestParam(required = false) Long despues,
+            @RequestParam int tamano) {
+        if (tamano < 1 || tamano > Pagina.TAMANO_MAXIMO) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Pagina<ReservaVista> reservas = reservaService.buscarPagina(despues, tamano); // Llama al servicio
         return new ResponseEntity<>(reservas, HttpStatus.OK); 
     }
 
+    // Endpoint GET de sincronización: solo las reservas que cambiaron o se borraron desde la versión
+    // que tiene el cliente. Sin versión, o si quedó demasiado atrás, manda las reservas vigentes completas
+    // Ejemplo: /api/reservas/cambios y después /api/reservas/cambios?desde=<version>
+    @GetMapping("/cambios")
+    public ResponseEntity<Cambios<ReservaVista, Long>> obtenerCambios(@RequestParam(required = false) String desde) {
+        return new ResponseEntity<>(reservaService.cambiosDesde(desde), HttpStatus.OK);
+    }
+
+    // Endpoint GET para exportar todas las reservas en NDJSON (una reserva JSON por línea).
+    // Se escribe a medida que llegan las filas del cursor: la primera línea sale enseguida
+    // y la memoria usada no depende de la cantidad de reservas.
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarReservas(WebRequest request) {
+        // Solo esta respuesta: el StreamingResponseBody toma el timeout del pedido asíncrono en curso
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+            .setTimeout(TimeUnit.MINUTES.toMillis(minutosExportacion));
+        ObjectWriter escritor = objectMapper.writerFor(ReservaExportada.class);
+        StreamingResponseBody cuerpo = salida -> {
+            int[] escritas = {0};
+            reservaService.exportar(reserva -> {
+                try {
+                    salida.write(escritor.writeValueAsBytes(reserva));
+                    salida.write('\n');
+                    if (++escritas[0] % LINEAS_POR_ENVIO == 1) {
+                        salida.flush();
+                    }
+                } catch (IOException e) {
+                    // El cliente cortó la descarga: se corta también la lectura
+                    throw new UncheckedIOException(e);
+                }
+            });
+            salida.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
+
     // Endpoint 2 de GET: Buscar reservas por nombre de huésped/responsable
     @GetMapping("/buscar")
-    public ResponseEntity<List<Reserva>> buscarReservasPorNombre(@RequestParam("nombre") String nombre) {
-        List<Reserva> reservas = reservaService.buscarPorNombreHuesped(nombre);
+    public ResponseEntity<List<ReservaVista>> buscarReservasPorNombre(@RequestParam("nombre") String nombre) {
+        List<ReservaVista> reservas = reservaService.buscarPorNombreHuesped(nombre);
         return new ResponseEntity<>(reservas, HttpStatus.OK);
     }
 
     // Endpoint 3 de GET: Buscar reservas por DNI del huésped/responsable
     @GetMapping("/buscar-por-dni")
-    public ResponseEntity<List<Reserva>> buscarReservasPorDni(@RequestParam("dni") String dni) {
-        List<Reserva> reservas = reservaService.buscarPorDniHuesped(dni);
+    public ResponseEntity<List<ReservaVista>> buscarReservasPorDni(@RequestParam("dni") String dni) {
+        List<ReservaVista> reservas = reservaService.buscarPorDniHuesped(dni);
         return new ResponseEntity<>(reservas, HttpStatus.OK);
     }
 
     // Endpoint 4 de GET: Buscar una reserva por ID (Recurso único)
     // @PathVariable mapea el ID de la URL (ej. /api/reservas/123) al parámetro del método [7]
     @GetMapping("/{id}")
-    public ResponseEntity<Reserva> obtenerReservaPorId(@PathVariable Long id) {
-        Optional<Reserva> reserva = reservaService.buscarPorId(id);
+    public ResponseEntity<ReservaVista> obtenerReservaPorId(@PathVariable Long id) {
+        Optional<ReservaVista> reserva = reservaService.buscarPorId(id);
         
         // Manejo de la respuesta: 200 OK si existe, 404 NOT FOUND si no [7]
         return reserva.map(r -> new ResponseEntity<>(r, HttpStatus.OK))
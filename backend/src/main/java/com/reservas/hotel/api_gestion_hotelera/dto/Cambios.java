@@ -0,0 +1,19 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta de sincronización incremental. El cliente guarda "version" y la manda como "desde"
+ * en el próximo pedido.
+ *
+ * Si completo es false, cambiados trae solo lo que se creó o modificó desde la versión pedida y
+ * eliminados las claves de lo que se borró. Si es true, el cliente estaba demasiado atrás (o no
+ * mandó versión) y cambiados es el listado entero: reemplaza lo que tenía.
+ */
+public record Cambios<T, K>(
+    String version,
+    boolean completo,
+    List<T> cambiados,
+    List<K> eliminados
+) {
+}
@@ -0,0 +1,17 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+/**
+ * Dirección de un pasajero en las respuestas de lectura.
+ */
+public record DireccionVista(
+    Long id,
+    String calle,
+    String numero,
+    String departamento,
+    String piso,
+    String codigoPostal,
+    String localidad,
+    String provincia,
+    String pais
+) {
+}
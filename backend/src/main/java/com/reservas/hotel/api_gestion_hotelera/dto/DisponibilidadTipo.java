@@ -0,0 +1,17 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Disponibilidad de un tipo de habitación para un rango de fechas.
+ */
+public record DisponibilidadTipo(
+    Long tipoId,
+    String nombre,
+    BigDecimal costoPorNoche,
+    Integer capacidad,
+    int cantidadDisponible,
+    List<Integer> habitaciones
+) {
+}
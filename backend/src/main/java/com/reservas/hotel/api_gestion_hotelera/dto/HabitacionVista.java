@@ -0,0 +1,22 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.math.BigDecimal;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+
+/**
+ * Habitación para las respuestas de lectura, armada por consulta (ver HabitacionRepository.VISTA)
+ * sin cargar la entidad ni su tipo.
+ */
+public record HabitacionVista(
+    Integer numero,
+    EstadoHabitacion estado,
+    TipoHabitacionVista tipoHabitacion
+) {
+
+    // Constructor plano para las expresiones "SELECT new" de JPQL
+    public HabitacionVista(Integer numero, EstadoHabitacion estado, Long tipoId, String tipoNombre,
+                           BigDecimal costoPorNoche, Integer capacidad) {
+        this(numero, estado, new TipoHabitacionVista(tipoId, tipoNombre, costoPorNoche, capacidad));
+    }
+}
@@ -0,0 +1,46 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Una página de un listado ordenado por clave. Para pedir la siguiente se manda "siguiente"
+ * como parámetro "despues"; es null cuando no quedan más elementos.
+ *
+ * La posición es la última clave devuelta y no un número de página (keyset): cada página es un
+ * rango del índice de la clave primaria, así que cuesta lo mismo la primera que la milésima y
+ * las altas o bajas entre pedidos no hacen que se repitan ni se salteen elementos.
+ */
+public record Pagina<T>(
+    List<T> elementos,
+    Long siguiente
+) {
+
+    public static final int TAMANO_MAXIMO = 200;
+
+    /**
+     * Arma la página a partir de una consulta que pidió tamano + 1 filas: si llegó la fila de
+     * más, se descarta y hay página siguiente.
+     */
+    public static <T> Pagina<T> de(List<T> filas, int tamano, Function<T, ? extends Number> clave) {
+        if (filas.size() <= tamano) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> elementos = filas.subList(0, tamano);
+        return new Pagina<>(List.copyOf(elementos), clave.apply(elementos.get(tamano - 1)).longValue());
+    }
+
+    /**
+     * Pide las páginas una tras otra desde el principio y entrega cada una a porPagina antes de
+     * pedir la siguiente: nunca hay más de una página en memoria.
+     */
+    public static <T> void recorrer(Function<Long, Pagina<T>> pedirDespues, Consumer<List<T>> porPagina) {
+        Long despues = null;
+        do {
+            Pagina<T> pagina = pedirDespues.apply(despues);
+            porPagina.accept(pagina.elementos());
+            despues = pagina.siguiente();
+        } while (despues != null);
+    }
+}
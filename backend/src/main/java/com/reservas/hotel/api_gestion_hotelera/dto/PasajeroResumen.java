@@ -0,0 +1,12 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+/**
+ * Responsable o pasajero dentro de una reserva: solo lo que hace falta para identificarlo.
+ */
+public record PasajeroResumen(
+    Long id,
+    String nombre,
+    String apellido,
+    String nroDocumento
+) {
+}
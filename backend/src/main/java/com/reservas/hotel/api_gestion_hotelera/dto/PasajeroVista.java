@@ -0,0 +1,38 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+
+/**
+ * Pasajero con sus datos y su dirección, sin la lista de reservas, armado por consulta
+ * (ver PasajeroRepository.VISTA). Es lo que usan las pantallas de búsqueda y modificación.
+ */
+public record PasajeroVista(
+    Long id,
+    String nombre,
+    String apellido,
+    String nroDocumento,
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    Date fechaDeNacimiento,
+    String nacionalidad,
+    String telefono,
+    String ocupacion,
+    String cuit,
+    String email,
+    DireccionVista direccion,
+    EstadoPasajero estado
+) {
+
+    // Constructor plano para las expresiones "SELECT new" de JPQL; sin dirección si direccionId es null
+    public PasajeroVista(Long id, String nombre, String apellido, String nroDocumento, Date fechaDeNacimiento,
+                         String nacionalidad, String telefono, String ocupacion, String cuit, String email,
+                         EstadoPasajero estado, Long direccionId, String calle, String numero, String departamento,
+                         String piso, String codigoPostal, String localidad, String provincia, String pais) {
+        this(id, nombre, apellido, nroDocumento, fechaDeNacimiento, nacionalidad, telefono, ocupacion, cuit, email,
+            direccionId == null ? null
+                : new DireccionVista(direccionId, calle, numero, departamento, piso, codigoPostal, localidad, provincia, pais),
+            estado);
+    }
+}
@@ -0,0 +1,17 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Retención temporal de una habitación mientras el huésped completa la reserva.
+ * Bloquea las noches [fechaIngreso, fechaEgreso) hasta que se confirma, se libera o vence.
+ */
+public record PreReserva(
+    String id,
+    Integer numeroHabitacion,
+    LocalDate fechaIngreso,
+    LocalDate fechaEgreso,
+    Instant vence
+) {
+}
@@ -0,0 +1,20 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.util.Date;
+
+/**
+ * Una línea de la exportación NDJSON de reservas: la reserva con su habitación y su responsable
+ * aplanados, sin la lista de pasajeros (que costaría una consulta más por reserva).
+ */
+public record ReservaExportada(
+    Long id,
+    Date fechaIngreso,
+    Date fechaEgreso,
+    Integer numeroHabitacion,
+    Long responsableId,
+    String responsableNombre,
+    String responsableApellido,
+    String responsableDni,
+    Boolean asignacionAutomatica
+) {
+}
@@ -0,0 +1,11 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+/**
+ * Resultado de una habitación dentro de una reserva de grupo.
+ */
+public record ReservaGrupoItem(
+    Integer numeroHabitacion,
+    String tipoHabitacion,
+    Long reservaId
+) {
+}
@@ -0,0 +1,42 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+
+/**
+ * Reserva para las respuestas de lectura. La fila sale de una sola consulta con la habitación,
+ * su tipo y el responsable (ver ReservaRepository.VISTA); los pasajeros de todas las reservas de
+ * la respuesta se cargan juntos en una segunda consulta.
+ */
+public record ReservaVista(
+    Long id,
+    Date fechaIngreso,
+    Date fechaEgreso,
+    HabitacionVista habitacion,
+    PasajeroResumen responsable,
+    List<PasajeroResumen> pasajeros,
+    Boolean asignacionAutomatica
+) {
+
+    // Constructor plano para las expresiones "SELECT new" de JPQL; los pasajeros se agregan después.
+    // Sin habitación o sin responsable (LEFT JOIN) el campo queda en null, como con las entidades.
+    public ReservaVista(Long id, Date fechaIngreso, Date fechaEgreso,
+                        Integer numeroHabitacion, EstadoHabitacion estadoHabitacion, Long tipoId, String tipoNombre,
+                        BigDecimal costoPorNoche, Integer capacidad,
+                        Long responsableId, String responsableNombre, String responsableApellido, String responsableDni,
+                        Boolean asignacionAutomatica) {
+        this(id, fechaIngreso, fechaEgreso,
+            numeroHabitacion == null ? null
+                : new HabitacionVista(numeroHabitacion, estadoHabitacion, tipoId, tipoNombre, costoPorNoche, capacidad),
+            responsableId == null ? null
+                : new PasajeroResumen(responsableId, responsableNombre, responsableApellido, responsableDni),
+            List.of(), asignacionAutomatica);
+    }
+
+    public ReservaVista conPasajeros(List<PasajeroResumen> pasajeros) {
+        return new ReservaVista(id, fechaIngreso, fechaEgreso, habitacion, responsable, pasajeros, asignacionAutomatica);
+    }
+}
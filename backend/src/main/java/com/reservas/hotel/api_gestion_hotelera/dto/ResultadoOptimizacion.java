@@ -0,0 +1,25 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+/**
+ * Resultado de una pasada del optimizador de asignación de habitaciones.
+ * Los huecos cortos son tramos libres de menos de la estadía mínima entre dos ocupaciones.
+ */
+public record ResultadoOptimizacion(
+    int tiposRevisados,
+    int tiposMejorados,
+    int reservasMovidas,
+    int huecosCortosAntes,
+    int huecosCortosDespues
+) {
+
+    public static final ResultadoOptimizacion VACIO = new ResultadoOptimizacion(0, 0, 0, 0, 0);
+
+    public ResultadoOptimizacion sumar(ResultadoOptimizacion otro) {
+        return new ResultadoOptimizacion(
+            tiposRevisados + otro.tiposRevisados,
+            tiposMejorados + otro.tiposMejorados,
+            reservasMovidas + otro.reservasMovidas,
+            huecosCortosAntes + otro.huecosCortosAntes,
+            huecosCortosDespues + otro.huecosCortosDespues);
+    }
+}
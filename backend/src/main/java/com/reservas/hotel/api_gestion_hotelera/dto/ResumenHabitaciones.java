@@ -0,0 +1,28 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+
+/**
+ * Cantidad de habitaciones por estado, en total y por tipo de habitación.
+ */
+public record ResumenHabitaciones(
+    int total,
+    Map<EstadoHabitacion, Integer> porEstado,
+    List<PorTipo> porTipo
+) {
+
+    public record PorTipo(
+        Long tipoId,
+        String nombre,
+        int total,
+        Map<EstadoHabitacion, Integer> porEstado
+    ) {
+    }
+
+    public static int sumar(Map<EstadoHabitacion, Integer> porEstado) {
+        return porEstado.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,20 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+
+/**
+ * Pedido de reserva de un bloque de habitaciones para un mismo responsable y rango de fechas.
+ * Las habitaciones se indican por número, por cantidad por tipo (id de tipo -> cantidad) o ambas.
+ */
+public record SolicitudReservaGrupo(
+    Pasajero responsable,
+    LocalDate fechaIngreso,
+    LocalDate fechaEgreso,
+    List<Integer> habitaciones,
+    Map<Long, Integer> cantidadesPorTipo
+) {
+}
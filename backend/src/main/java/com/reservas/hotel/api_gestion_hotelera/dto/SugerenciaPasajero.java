@@ -0,0 +1,12 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+/**
+ * Huésped sugerido mientras se escribe: solo lo necesario para mostrarlo y elegirlo.
+ */
+public record SugerenciaPasajero(
+    Long id,
+    String nombre,
+    String apellido,
+    String nroDocumento
+) {
+}
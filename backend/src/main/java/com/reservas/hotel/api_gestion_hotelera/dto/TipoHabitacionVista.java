@@ -0,0 +1,14 @@
+package com.reservas.hotel.api_gestion_hotelera.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Tipo de habitación tal como se muestra dentro de una habitación o una reserva.
+ */
+public record TipoHabitacionVista(
+    Long id,
+    String nombre,
+    BigDecimal costoPorNoche,
+    Integer capacidad
+) {
+}
@@ -3,6 +3,10 @@ package com.reservas.hotel.api_gestion_hotelera.entities;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -11,6 +15,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -21,6 +26,10 @@ import lombok.NoArgsConstructor;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
+// Cache de segundo nivel: READ_WRITE bloquea la entrada mientras se actualiza, así ninguna otra
+// sesión lee de la cache un estado que todavía no se confirmó
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "habitaciones")
 public class Habitacion {
     
     @Id
@@ -35,6 +44,18 @@ public class Habitacion {
     @JsonIgnoreProperties({"cantidadDisponible"})
     private TipoHabitacion tipoHabitacion;
 
+    // Control de concurrencia optimista: evita que dos escrituras se pisen sin enterarse
+    // Nunca null en la base (migraciones/007): Spring Data toma una versión null como entidad nueva
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    public Habitacion(Integer numero, EstadoHabitacion estado, TipoHabitacion tipoHabitacion) {
+        this.numero = numero;
+        this.estado = estado;
+        this.tipoHabitacion = tipoHabitacion;
+    }
+
     public void setId(long l) {
         // TODO Auto-generated method stub
         throw new UnsupportedOperationException("Unimplemented method 'setId'");
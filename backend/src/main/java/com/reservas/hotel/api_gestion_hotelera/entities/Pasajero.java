@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
 
@@ -17,12 +18,16 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Data;
 import lombok.Getter;
 
 @Data
 @Getter
 @Entity
+// Mismo nombre que en migraciones/004: PasajeroServiceImpl reconoce la violación por el nombre
+@Table(uniqueConstraints = @UniqueConstraint(name = "pasajero_dni_normalizado_key", columnNames = "dni_normalizado"))
 public class Pasajero {
     
     @Id
@@ -31,7 +36,18 @@ public class Pasajero {
 
     private String nombre;
     private String apellido;
+
+    // Claves de búsqueda sin acentos y en minúsculas, calculadas al guardar (TextoUtils.normalizarBusqueda)
+    @JsonIgnore
+    private String nombreBusqueda;
+
+    @JsonIgnore
+    private String apellidoBusqueda;
     private String nroDocumento;
+
+    // Solo letras y dígitos, en mayúsculas: clave única para la búsqueda exacta por DNI
+    @JsonIgnore
+    private String dniNormalizado;
     
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private java.util.Date fechaDeNacimiento;
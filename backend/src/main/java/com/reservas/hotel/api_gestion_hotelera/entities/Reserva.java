@@ -5,6 +5,7 @@ import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -13,6 +14,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -26,8 +29,11 @@ import lombok.NoArgsConstructor;
 public class Reserva {
 
     // Clave primaria e identificador (requerido por JPA)
+    // Secuencia con bloques de 50 (migraciones/008): Hibernate asigna los ids sin ir a la base
+    // por cada fila y puede mandar los INSERT de una reserva de grupo en un solo lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reserva_seq")
+    @SequenceGenerator(name = "reserva_seq", sequenceName = "reserva_seq", allocationSize = 50)
     private Long id;
 
     // Atributos base de la reserva
@@ -52,5 +58,15 @@ public class Reserva {
     @JsonIgnoreProperties({"reservas", "direccion"})
     private Pasajero responsable;
 
+    // true si la habitación la eligió el sistema: el optimizador puede moverla a otra del mismo tipo
+    @Column(columnDefinition = "boolean default false")
+    private Boolean asignacionAutomatica;
+
+    // Control de concurrencia optimista
+    // Nunca null en la base (migraciones/007): Spring Data toma una versión null como entidad nueva
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
 
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.reservas.hotel.api_gestion_hotelera.entities;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoSolicitudEspera;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pedido en lista de espera: un huésped quiere un tipo de habitación para un rango de fechas
+ * que hoy está completo. Cuando se libera una habitación de ese tipo se reserva automáticamente.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolicitudEspera {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "tipo_habitacion_id", nullable = false)
+    @JsonIgnoreProperties({"cantidadDisponible"})
+    private TipoHabitacion tipoHabitacion;
+
+    @ManyToOne
+    @JoinColumn(name = "responsable_id", nullable = false)
+    @JsonIgnoreProperties({"reservas", "direccion"})
+    private Pasajero responsable;
+
+    private Date fechaIngreso;
+    private Date fechaEgreso;
+    private Date fechaSolicitud;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EstadoSolicitudEspera estado;
+
+    // Reserva creada al asignarle una habitación
+    private Long reservaId;
+}
@@ -2,6 +2,10 @@ package com.reservas.hotel.api_gestion_hotelera.entities;
 
 import java.math.BigDecimal;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -15,6 +19,9 @@ import lombok.NoArgsConstructor;
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
+// Casi no cambia, pero los datos iniciales lo escriben: READ_WRITE en vez de READ_ONLY
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tiposHabitacion")
 public class TipoHabitacion {
     
     @Id
@@ -29,10 +36,19 @@ public class TipoHabitacion {
     
     @Column(nullable = false)
     private Integer cantidadDisponible;
+
+    // Cantidad máxima de huéspedes (los tipos anteriores se completan con migraciones/006)
+    @Column(nullable = false)
+    private Integer capacidad;
     
     public TipoHabitacion(String nombre, BigDecimal costoPorNoche, Integer cantidadDisponible) {
         this.nombre = nombre;
         this.costoPorNoche = costoPorNoche;
         this.cantidadDisponible = cantidadDisponible;
     }
+
+    public TipoHabitacion(String nombre, BigDecimal costoPorNoche, Integer cantidadDisponible, Integer capacidad) {
+        this(nombre, costoPorNoche, cantidadDisponible);
+        this.capacidad = capacidad;
+    }
 }
\ No newline at end of file
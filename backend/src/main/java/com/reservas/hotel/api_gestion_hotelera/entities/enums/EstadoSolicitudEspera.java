@@ -0,0 +1,8 @@
+package com.reservas.hotel.api_gestion_hotelera.entities.enums;
+
+public enum EstadoSolicitudEspera {
+    PENDIENTE,
+    ASIGNADA,
+    CANCELADA,
+    VENCIDA
+}
@@ -0,0 +1,10 @@
+package com.reservas.hotel.api_gestion_hotelera.eventos;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+
+/**
+ * Una habitación pasó de anterior a estado (anterior es null si la habitación es nueva).
+ * Es lo que reciben los suscriptores de /api/habitaciones/eventos.
+ */
+public record CambioEstadoHabitacion(Integer numero, EstadoHabitacion anterior, EstadoHabitacion estado) {
+}
@@ -0,0 +1,220 @@
+package com.reservas.hotel.api_gestion_hotelera.eventos;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reparte los cambios de estado de las habitaciones a los suscriptores SSE.
+ *
+ * Publicar solo deja el cambio en un mapa por número de habitación, así que no bloquea a la
+ * transacción que escribe y una ráfaga sobre la misma habitación se junta en un solo cambio
+ * (del primer estado anterior al último estado). Cada intervaloMs un hilo vacía el mapa y
+ * encola el lote en cada suscriptor.
+ *
+ * Cada suscriptor tiene una cola acotada y a lo sumo un envío en curso en el pool de envíos,
+ * así un cliente lento no frena a los demás. Si su cola se llena se le cierra la conexión: el
+ * EventSource del navegador reconecta solo y vuelve a pedir el listado.
+ *
+ * Las conexiones no vencen (timeoutMs 0): cortarlas haría que cada cliente reconecte y vuelva a
+ * pedir el listado completo. Los clientes caídos se detectan al fallar el envío del latido.
+ *
+ * Los hilos arrancan en iniciar(), una vez construido el bean.
+ */
+@Slf4j
+@Component
+public class DifusorEstadosHabitacion {
+
+    // Marca de la cola para mandar un comentario que mantiene viva la conexión
+    private static final List<CambioEstadoHabitacion> LATIDO = List.of();
+
+    private final Map<Integer, CambioEstadoHabitacion> pendientes = new ConcurrentHashMap<>();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final long intervaloMs;
+    private final int capacidadPorSuscriptor;
+    private final int ticksPorLatido;
+    private final int hilosEnvio;
+    private final long timeoutMs;
+    private ScheduledExecutorService reloj;
+    private ExecutorService envios;
+    private int ticksSinLatido;
+
+    @Autowired
+    public DifusorEstadosHabitacion(@Value("${reservas.eventos.intervalo-ms:250}") long intervaloMs,
+                                    @Value("${reservas.eventos.capacidad-por-suscriptor:64}") int capacidadPorSuscriptor,
+                                    @Value("${reservas.eventos.latido-ms:15000}") long latidoMs,
+                                    @Value("${reservas.eventos.hilos-envio:4}") int hilosEnvio,
+                                    @Value("${reservas.eventos.timeout-ms:0}") long timeoutMs) {
+        this.intervaloMs = intervaloMs;
+        this.capacidadPorSuscriptor = capacidadPorSuscriptor;
+        this.ticksPorLatido = (int) Math.max(1, latidoMs / intervaloMs);
+        this.hilosEnvio = hilosEnvio;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        envios = Executors.newFixedThreadPool(hilosEnvio, r -> {
+            Thread hilo = new Thread(r, "difusor-envio-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        reloj = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "difusor-estados");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        reloj.scheduleAtFixedRate(this::repartir, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Anota el cambio para el próximo lote. Si la habitación vuelve al estado del que partió
+     * dentro del mismo intervalo, no se manda nada.
+     */
+    public void publicar(CambioEstadoHabitacion cambio) {
+        pendientes.merge(cambio.numero(), cambio, (previo, nuevo) -> previo.anterior() == nuevo.estado()
+            ? null
+            : new CambioEstadoHabitacion(nuevo.numero(), previo.anterior(), nuevo.estado()));
+    }
+
+    public SseEmitter suscribir() {
+        // Sin este valor el emisor toma el timeout asíncrono del contenedor (30 s en Tomcat)
+        return suscribir(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter suscribir(SseEmitter emisor) {
+        Suscriptor suscriptor = new Suscriptor(emisor);
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onTimeout(() -> suscriptores.remove(suscriptor));
+        emisor.onError(e -> suscriptores.remove(suscriptor));
+        suscriptores.add(suscriptor);
+        return emisor;
+    }
+
+    public int cantidadSuscriptores() {
+        return suscriptores.size();
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (reloj != null) {
+            reloj.shutdownNow();
+        }
+        if (envios != null) {
+            envios.shutdownNow();
+        }
+        suscriptores.forEach(s -> s.emisor.complete());
+    }
+
+    // Corre en el hilo del reloj
+    void repartir() {
+        // Una excepción que escape cancela para siempre la ejecución periódica: se registra y sigue
+        try {
+            List<CambioEstadoHabitacion> lote = new ArrayList<>();
+            for (Integer numero : pendientes.keySet()) {
+                CambioEstadoHabitacion cambio = pendientes.remove(numero);
+                if (cambio != null) {
+                    lote.add(cambio);
+                }
+            }
+            if (!lote.isEmpty()) {
+                lote.sort(Comparator.comparing(CambioEstadoHabitacion::numero));
+                ticksSinLatido = 0;
+                encolar(List.copyOf(lote));
+            } else if (++ticksSinLatido >= ticksPorLatido) {
+                ticksSinLatido = 0;
+                encolar(LATIDO);
+            }
+        } catch (RuntimeException e) {
+            log.error("Falló el reparto de cambios de estado de habitación", e);
+        }
+    }
+
+    private void encolar(List<CambioEstadoHabitacion> lote) {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(lote);
+        }
+    }
+
+    private final class Suscriptor {
+        private final SseEmitter emisor;
+        private final ArrayBlockingQueue<List<CambioEstadoHabitacion>> cola =
+            new ArrayBlockingQueue<>(capacidadPorSuscriptor);
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        Suscriptor(SseEmitter emisor) {
+            this.emisor = emisor;
+        }
+
+        void encolar(List<CambioEstadoHabitacion> lote) {
+            if (!cola.offer(lote)) {
+                log.warn("Suscriptor de estados de habitación atrasado: se cierra la conexión");
+                cerrar();
+                return;
+            }
+            programarEnvio();
+        }
+
+        private void programarEnvio() {
+            if (!enviando.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                envios.execute(this::vaciar);
+            } catch (RejectedExecutionException e) {
+                enviando.set(false);
+            }
+        }
+
+        private void vaciar() {
+            try {
+                List<CambioEstadoHabitacion> lote;
+                while ((lote = cola.poll()) != null) {
+                    if (lote == LATIDO) {
+                        emisor.send(SseEmitter.event().comment("latido"));
+                    } else {
+                        emisor.send(SseEmitter.event().name("estados").data(lote));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se fue o la conexión ya estaba cerrada
+                cerrar();
+                return;
+            } finally {
+                enviando.set(false);
+            }
+            // Un lote pudo llegar entre el último poll y liberar la marca
+            if (!cola.isEmpty()) {
+                programarEnvio();
+            }
+        }
+
+        private void cerrar() {
+            suscriptores.remove(this);
+            cola.clear();
+            emisor.complete();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.reservas.hotel.api_gestion_hotelera.eventos;
+
+import java.time.LocalDate;
+
+/**
+ * Se publica cuando las noches [desde, hasta) de una habitación vuelven a quedar libres
+ * (cancelación, cambio de fechas o pre-reserva liberada/vencida).
+ */
+public record HabitacionLiberada(Integer numeroHabitacion, LocalDate desde, LocalDate hasta) {
+}
@@ -1,12 +1,26 @@
 package com.reservas.hotel.api_gestion_hotelera.exception;
 
+import java.util.List;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.CONFLICT)
 public class ConflictoReservaException extends RuntimeException {
 
+    // Ids de las reservas que chocan con la operación pedida (puede estar vacía)
+    private final List<Long> reservasEnConflicto;
+
     public ConflictoReservaException(String mensaje) {
+        this(mensaje, List.of());
+    }
+
+    public ConflictoReservaException(String mensaje, List<Long> reservasEnConflicto) {
         super(mensaje);
+        this.reservasEnConflicto = List.copyOf(reservasEnConflicto);
+    }
+
+    public List<Long> getReservasEnConflicto() {
+        return reservasEnConflicto;
     }
 }
@@ -0,0 +1,78 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad.Hueco;
+
+/**
+ * Elige la habitación de un tipo para una estadía con criterio best-fit sobre el calendario.
+ *
+ * Entre las habitaciones libres para [desde, hasta) se prefiere, en este orden:
+ * 1. la que tiene el tramo libre más chico alrededor de la estadía, para conservar enteros
+ *    los tramos largos (una estadía que encaja justo en un hueco tiene tramo 0);
+ * 2. la que deja menos huecos cortos (menos de estadiaMinima noches) pegados a la estadía,
+ *    que después son difíciles de vender;
+ * 3. el número de habitación más bajo.
+ */
+@Component
+public class AsignadorHabitaciones {
+
+    // Un tramo libre de más de un año cuenta igual que uno infinito
+    private static final int TOPE_HUECO = 366;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Value("${reservas.asignacion.estadia-minima:2}")
+    private int estadiaMinima;
+
+    /**
+     * Habitación habilitada del tipo que mejor encaja con la estadía, o null si no hay ninguna libre.
+     */
+    public Integer elegir(Long tipoId, LocalDate desde, LocalDate hasta) {
+        int[] habilitadas = Arrays.stream(catalogoHabitaciones.numerosDeTipo(tipoId))
+            .filter(catalogoHabitaciones::estaHabilitada)
+            .toArray();
+        return elegir(calendarioDisponibilidad, habilitadas, desde, hasta);
+    }
+
+    /**
+     * Igual que el anterior pero sobre cualquier calendario (por ejemplo, uno de trabajo del optimizador).
+     * @param numeros candidatas ordenadas de menor a mayor
+     */
+    public Integer elegir(CalendarioDisponibilidad calendario, int[] numeros, LocalDate desde, LocalDate hasta) {
+        Integer elegida = null;
+        int menosCortos = Integer.MAX_VALUE;
+        int menorTramo = Integer.MAX_VALUE;
+        for (int numero : numeros) {
+            if (!calendario.estaDisponible(numero, desde, hasta)) {
+                continue;
+            }
+            Hueco hueco = calendario.huecoAlrededor(numero, desde, hasta, TOPE_HUECO);
+            int cortos = (esCorto(hueco.antes()) ? 1 : 0) + (esCorto(hueco.despues()) ? 1 : 0);
+            int tramo = hueco.antes() + hueco.despues();
+            if (tramo < menorTramo || (tramo == menorTramo && cortos < menosCortos)) {
+                elegida = numero;
+                menosCortos = cortos;
+                menorTramo = tramo;
+            }
+        }
+        return elegida;
+    }
+
+    public int getEstadiaMinima() {
+        return estadiaMinima;
+    }
+
+    private boolean esCorto(int hueco) {
+        return hueco > 0 && hueco < estadiaMinima;
+    }
+}
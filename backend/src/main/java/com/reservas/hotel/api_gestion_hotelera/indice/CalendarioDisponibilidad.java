@@ -0,0 +1,186 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Calendario de ocupación en memoria: por cada habitación (número) guarda un BitSet
+ * donde el bit i indica que la noche ORIGEN + i está ocupada.
+ *
+ * Los rangos son semiabiertos [desde, hasta): la noche de egreso queda libre.
+ * Consultar un rango cuesta unas pocas operaciones sobre palabras de 64 bits.
+ */
+@Component
+public class CalendarioDisponibilidad {
+
+    // Día 0 del calendario; las noches anteriores se ignoran
+    private static final long ORIGEN = LocalDate.of(2000, 1, 1).toEpochDay();
+
+    private final Map<Integer, BitSet> noches = new ConcurrentHashMap<>();
+
+    public boolean estaDisponible(Integer numero, LocalDate desde, LocalDate hasta) {
+        BitSet ocupacion = noches.get(numero);
+        if (ocupacion == null) {
+            return true;
+        }
+        synchronized (ocupacion) {
+            return libre(ocupacion, indice(desde), indice(hasta));
+        }
+    }
+
+    /**
+     * Marca el rango como ocupado solo si estaba completamente libre (operación atómica).
+     * @return false si alguna noche del rango ya estaba ocupada
+     */
+    public boolean ocuparSiDisponible(Integer numero, LocalDate desde, LocalDate hasta) {
+        BitSet ocupacion = noches.computeIfAbsent(numero, n -> new BitSet());
+        int inicio = indice(desde);
+        int fin = indice(hasta);
+        synchronized (ocupacion) {
+            if (!libre(ocupacion, inicio, fin)) {
+                return false;
+            }
+            ocupacion.set(inicio, fin);
+            return true;
+        }
+    }
+
+    /**
+     * Marca el rango como ocupado sin validar (carga inicial y compensaciones).
+     */
+    public void ocupar(Integer numero, LocalDate desde, LocalDate hasta) {
+        BitSet ocupacion = noches.computeIfAbsent(numero, n -> new BitSet());
+        synchronized (ocupacion) {
+            ocupacion.set(indice(desde), indice(hasta));
+        }
+    }
+
+    public void liberar(Integer numero, LocalDate desde, LocalDate hasta) {
+        BitSet ocupacion = noches.get(numero);
+        if (ocupacion == null) {
+            return;
+        }
+        synchronized (ocupacion) {
+            ocupacion.clear(indice(desde), indice(hasta));
+        }
+    }
+
+    /**
+     * Mueve una ocupación a otro rango de la misma habitación de forma atómica.
+     * Si el rango nuevo choca con otra ocupación se restaura el rango anterior.
+     * @return false si el rango nuevo no está disponible
+     */
+    public boolean moverSiDisponible(Integer numero, LocalDate desdeAnterior, LocalDate hastaAnterior,
+                                     LocalDate desdeNuevo, LocalDate hastaNuevo) {
+        BitSet ocupacion = noches.computeIfAbsent(numero, n -> new BitSet());
+        int inicioNuevo = indice(desdeNuevo);
+        int finNuevo = indice(hastaNuevo);
+        synchronized (ocupacion) {
+            ocupacion.clear(indice(desdeAnterior), indice(hastaAnterior));
+            if (!libre(ocupacion, inicioNuevo, finNuevo)) {
+                ocupacion.set(indice(desdeAnterior), indice(hastaAnterior));
+                return false;
+            }
+            ocupacion.set(inicioNuevo, finNuevo);
+            return true;
+        }
+    }
+
+    /**
+     * Indica si la habitación tiene alguna noche ocupada a partir de la fecha dada.
+     */
+    public boolean tieneOcupacionDesde(Integer numero, LocalDate fecha) {
+        BitSet ocupacion = noches.get(numero);
+        if (ocupacion == null) {
+            return false;
+        }
+        synchronized (ocupacion) {
+            return ocupacion.nextSetBit(indice(fecha)) >= 0;
+        }
+    }
+
+    /**
+     * Noches libres pegadas a un rango libre: cuántas hay antes de desde y cuántas después de
+     * hasta, contando como máximo tope de cada lado.
+     */
+    public Hueco huecoAlrededor(Integer numero, LocalDate desde, LocalDate hasta, int tope) {
+        BitSet ocupacion = noches.get(numero);
+        int inicio = indice(desde);
+        int fin = indice(hasta);
+        if (ocupacion == null) {
+            return new Hueco(Math.min(tope, inicio), tope);
+        }
+        synchronized (ocupacion) {
+            int anterior = inicio == 0 ? -1 : ocupacion.previousSetBit(inicio - 1);
+            int siguiente = ocupacion.nextSetBit(fin);
+            return new Hueco(
+                Math.min(tope, inicio - anterior - 1),
+                siguiente < 0 ? tope : Math.min(tope, siguiente - fin));
+        }
+    }
+
+    /**
+     * Cuenta los tramos libres de menos de largoMinimo noches que quedan encerrados entre dos
+     * ocupaciones dentro de [desde, hasta): noches que en la práctica no se pueden vender.
+     */
+    public int contarHuecosCortos(Integer numero, LocalDate desde, LocalDate hasta, int largoMinimo) {
+        BitSet ocupacion = noches.get(numero);
+        if (ocupacion == null) {
+            return 0;
+        }
+        int fin = indice(hasta);
+        int cortos = 0;
+        synchronized (ocupacion) {
+            int ocupada = ocupacion.nextSetBit(indice(desde));
+            while (ocupada >= 0 && ocupada < fin) {
+                int libre = ocupacion.nextClearBit(ocupada);
+                int siguiente = ocupacion.nextSetBit(libre);
+                if (siguiente < 0 || siguiente >= fin) {
+                    break;
+                }
+                if (siguiente - libre < largoMinimo) {
+                    cortos++;
+                }
+                ocupada = siguiente;
+            }
+        }
+        return cortos;
+    }
+
+    public record Hueco(int antes, int despues) {
+    }
+
+    /**
+     * Copia independiente del calendario de las habitaciones dadas, para simular cambios sin
+     * tocar el calendario real.
+     */
+    public CalendarioDisponibilidad copiar(int[] numeros) {
+        CalendarioDisponibilidad copia = new CalendarioDisponibilidad();
+        for (int numero : numeros) {
+            BitSet ocupacion = noches.get(numero);
+            if (ocupacion != null) {
+                synchronized (ocupacion) {
+                    copia.noches.put(numero, (BitSet) ocupacion.clone());
+                }
+            }
+        }
+        return copia;
+    }
+
+    public void limpiar() {
+        noches.clear();
+    }
+
+    private static boolean libre(BitSet ocupacion, int inicio, int fin) {
+        int siguiente = ocupacion.nextSetBit(inicio);
+        return siguiente < 0 || siguiente >= fin;
+    }
+
+    private static int indice(LocalDate fecha) {
+        return (int) Math.max(0, fecha.toEpochDay() - ORIGEN);
+    }
+}
@@ -0,0 +1,17 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de cambios de habitaciones, por número. Su versión es también el ETag de los listados.
+ */
+@Component
+public class CambiosHabitaciones extends RegistroCambios<Integer> {
+
+    @Autowired
+    public CambiosHabitaciones(@Value("${reservas.cambios.capacidad:4096}") int capacidad) {
+        super(capacidad);
+    }
+}
@@ -0,0 +1,17 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro de cambios de reservas, por id.
+ */
+@Component
+public class CambiosReservas extends RegistroCambios<Long> {
+
+    @Autowired
+    public CambiosReservas(@Value("${reservas.cambios.capacidad:4096}") int capacidad) {
+        super(capacidad);
+    }
+}
@@ -0,0 +1,112 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+
+/**
+ * Habitaciones agrupadas por tipo, precalculadas en memoria para las búsquedas de
+ * disponibilidad. La agrupación solo se recalcula cuando aparece una habitación o
+ * cambia su tipo; los cambios de estado no la tocan.
+ */
+@Component
+public class CatalogoHabitaciones {
+
+    public record TipoCatalogo(Long id, String nombre, BigDecimal costoPorNoche, Integer capacidad) {
+    }
+
+    private record Entrada(Long tipoId, boolean habilitada) {
+    }
+
+    private final Map<Integer, Entrada> habitaciones = new ConcurrentHashMap<>();
+    private final Map<Long, TipoCatalogo> tipos = new ConcurrentHashMap<>();
+
+    // Números de habitación ordenados por tipo; se reemplaza completo al reagrupar
+    private volatile Map<Long, int[]> numerosPorTipo = Map.of();
+
+    public void registrar(Habitacion habitacion) {
+        TipoHabitacion tipo = habitacion.getTipoHabitacion();
+        if (habitacion.getNumero() == null || tipo == null || tipo.getId() == null) {
+            return;
+        }
+        tipos.put(tipo.getId(), new TipoCatalogo(
+            tipo.getId(), tipo.getNombre(), tipo.getCostoPorNoche(), tipo.getCapacidad()));
+
+        Entrada nueva = new Entrada(tipo.getId(), habitacion.getEstado() != EstadoHabitacion.EN_MANTENIMIENTO);
+        Entrada anterior = habitaciones.put(habitacion.getNumero(), nueva);
+        if (anterior == null || !anterior.tipoId().equals(nueva.tipoId())) {
+            reagrupar();
+        }
+    }
+
+    public void registrarTodas(Collection<Habitacion> lista) {
+        habitaciones.clear();
+        tipos.clear();
+        for (Habitacion habitacion : lista) {
+            registrar(habitacion);
+        }
+        reagrupar();
+    }
+
+    /**
+     * Tipos ordenados por nombre.
+     */
+    public List<TipoCatalogo> tipos() {
+        List<TipoCatalogo> lista = new ArrayList<>(tipos.values());
+        lista.sort(Comparator.comparing(TipoCatalogo::nombre));
+        return lista;
+    }
+
+    /**
+     * Datos del tipo, o null si ninguna habitación registrada lo usa.
+     */
+    public TipoCatalogo tipo(Long tipoId) {
+        return tipoId == null ? null : tipos.get(tipoId);
+    }
+
+    public int[] numerosDeTipo(Long tipoId) {
+        return numerosPorTipo.getOrDefault(tipoId, new int[0]);
+    }
+
+    /**
+     * Una habitación está habilitada si está registrada y no se encuentra en mantenimiento.
+     */
+    public boolean estaHabilitada(int numero) {
+        Entrada entrada = habitaciones.get(numero);
+        return entrada != null && entrada.habilitada();
+    }
+
+    /**
+     * Id del tipo de la habitación, o null si no está registrada.
+     */
+    public Long tipoDe(int numero) {
+        Entrada entrada = habitaciones.get(numero);
+        return entrada == null ? null : entrada.tipoId();
+    }
+
+    private synchronized void reagrupar() {
+        Map<Long, List<Integer>> agrupadas = new HashMap<>();
+        habitaciones.forEach((numero, entrada) ->
+            agrupadas.computeIfAbsent(entrada.tipoId(), t -> new ArrayList<>()).add(numero));
+
+        Map<Long, int[]> resultado = new HashMap<>();
+        agrupadas.forEach((tipoId, numeros) -> {
+            int[] ordenados = numeros.stream().mapToInt(Integer::intValue).toArray();
+            Arrays.sort(ordenados);
+            resultado.put(tipoId, ordenados);
+        });
+        numerosPorTipo = resultado;
+    }
+}
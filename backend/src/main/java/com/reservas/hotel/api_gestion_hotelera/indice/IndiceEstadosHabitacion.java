@@ -0,0 +1,156 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+
+/**
+ * Estado actual de cada habitación en memoria: un bitset de números por estado y los
+ * contadores por estado y por tipo. Los contadores se ajustan en cada cambio, así que el
+ * resumen no recorre habitaciones; listar un estado recorre solo los bits de ese estado.
+ */
+@Component
+public class IndiceEstadosHabitacion {
+
+    private static final EstadoHabitacion[] ESTADOS = EstadoHabitacion.values();
+
+    private record Entrada(EstadoHabitacion estado, Long tipoId) {
+    }
+
+    private final Map<EstadoHabitacion, BitSet> numerosPorEstado = new EnumMap<>(EstadoHabitacion.class);
+    private final int[] cantidadPorEstado = new int[ESTADOS.length];
+    // Por tipo, cantidad por estado indexada por ordinal
+    private final Map<Long, int[]> cantidadPorTipo = new HashMap<>();
+    private final Map<Integer, Entrada> habitaciones = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndiceEstadosHabitacion() {
+        for (EstadoHabitacion estado : ESTADOS) {
+            numerosPorEstado.put(estado, new BitSet());
+        }
+    }
+
+    /**
+     * Registra la habitación o mueve sus contadores si cambió de estado o de tipo.
+     * @return el estado que tenía registrado, o null si es nueva (o no se puede registrar)
+     */
+    public EstadoHabitacion registrar(Habitacion habitacion) {
+        Integer numero = habitacion.getNumero();
+        if (numero == null || numero < 0 || habitacion.getEstado() == null) {
+            return null;
+        }
+        Long tipoId = habitacion.getTipoHabitacion() == null ? null : habitacion.getTipoHabitacion().getId();
+        Entrada nueva = new Entrada(habitacion.getEstado(), tipoId);
+        lock.writeLock().lock();
+        try {
+            Entrada anterior = habitaciones.put(numero, nueva);
+            if (nueva.equals(anterior)) {
+                return anterior.estado();
+            }
+            if (anterior != null) {
+                contar(numero, anterior, -1);
+            }
+            contar(numero, nueva, 1);
+            return anterior == null ? null : anterior.estado();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void registrarTodas(Collection<Habitacion> lista) {
+        lock.writeLock().lock();
+        try {
+            limpiar();
+            lista.forEach(this::registrar);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Números de las habitaciones en el estado, de menor a mayor.
+     */
+    public int[] numerosEn(EstadoHabitacion estado) {
+        lock.readLock().lock();
+        try {
+            return numerosPorEstado.get(estado).stream().toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estado registrado de la habitación, o null si no está en el índice.
+     */
+    public EstadoHabitacion estadoDe(int numero) {
+        lock.readLock().lock();
+        try {
+            Entrada entrada = habitaciones.get(numero);
+            return entrada == null ? null : entrada.estado();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<EstadoHabitacion, Integer> cantidadPorEstado() {
+        lock.readLock().lock();
+        try {
+            return aMapa(cantidadPorEstado);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad por estado de cada tipo; las habitaciones sin tipo no figuran.
+     */
+    public Map<Long, Map<EstadoHabitacion, Integer>> cantidadPorTipo() {
+        lock.readLock().lock();
+        try {
+            Map<Long, Map<EstadoHabitacion, Integer>> resultado = new HashMap<>();
+            cantidadPorTipo.forEach((tipoId, cantidades) -> resultado.put(tipoId, aMapa(cantidades)));
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            numerosPorEstado.values().forEach(BitSet::clear);
+            Arrays.fill(cantidadPorEstado, 0);
+            cantidadPorTipo.clear();
+            habitaciones.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void contar(int numero, Entrada entrada, int delta) {
+        numerosPorEstado.get(entrada.estado()).set(numero, delta > 0);
+        cantidadPorEstado[entrada.estado().ordinal()] += delta;
+        if (entrada.tipoId() != null) {
+            int[] cantidades = cantidadPorTipo.computeIfAbsent(entrada.tipoId(), t -> new int[ESTADOS.length]);
+            cantidades[entrada.estado().ordinal()] += delta;
+        }
+    }
+
+    private static Map<EstadoHabitacion, Integer> aMapa(int[] cantidades) {
+        Map<EstadoHabitacion, Integer> mapa = new EnumMap<>(EstadoHabitacion.class);
+        for (EstadoHabitacion estado : ESTADOS) {
+            mapa.put(estado, cantidades[estado.ordinal()]);
+        }
+        return mapa;
+    }
+}
@@ -0,0 +1,106 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice de la lista de espera por tipo de habitación, con la misma idea que IndiceReservas.
+ *
+ * Cuando se liberan las noches [desde, hasta) solo interesan los pedidos del tipo que se
+ * solapan con ese rango; al estar ordenados por día de ingreso y conocer la estadía más
+ * larga pedida, la búsqueda recorre un subrango acotado del árbol en lugar de toda la lista.
+ */
+@Component
+public class IndiceListaEspera {
+
+    private record Pedido(long inicio, long fin, Long solicitudId) {
+    }
+
+    private static class PedidosTipo {
+        private final NavigableMap<Long, List<Pedido>> porInicio = new TreeMap<>();
+        private long estadiaMaxima;
+        private int cantidad;
+    }
+
+    private final Map<Long, PedidosTipo> tipos = new ConcurrentHashMap<>();
+
+    /**
+     * Ids de los pedidos del tipo que se solapan con [desde, hasta), del más antiguo al más nuevo.
+     */
+    public List<Long> buscarCandidatas(Long tipoId, LocalDate desde, LocalDate hasta) {
+        List<Long> candidatas = new ArrayList<>();
+        PedidosTipo pedidos = tipos.get(tipoId);
+        if (pedidos == null) {
+            return candidatas;
+        }
+        long inicio = desde.toEpochDay();
+        long fin = hasta.toEpochDay();
+        synchronized (pedidos) {
+            for (List<Pedido> grupo : pedidos.porInicio
+                    .subMap(inicio - pedidos.estadiaMaxima, false, fin, false).values()) {
+                for (Pedido pedido : grupo) {
+                    if (pedido.fin() > inicio) {
+                        candidatas.add(pedido.solicitudId());
+                    }
+                }
+            }
+        }
+        // Los ids crecen con el orden de llegada
+        candidatas.sort(null);
+        return candidatas;
+    }
+
+    public void registrar(Long tipoId, Long solicitudId, LocalDate desde, LocalDate hasta) {
+        PedidosTipo pedidos = tipos.computeIfAbsent(tipoId, t -> new PedidosTipo());
+        Pedido pedido = new Pedido(desde.toEpochDay(), hasta.toEpochDay(), solicitudId);
+        synchronized (pedidos) {
+            pedidos.porInicio.computeIfAbsent(pedido.inicio(), i -> new ArrayList<>(1)).add(pedido);
+            pedidos.estadiaMaxima = Math.max(pedidos.estadiaMaxima, pedido.fin() - pedido.inicio());
+            pedidos.cantidad++;
+        }
+    }
+
+    /**
+     * Quita el pedido del índice. Devuelve false si ya no estaba, lo que permite usarlo para
+     * que un solo hilo se quede con cada pedido.
+     */
+    public boolean eliminar(Long tipoId, Long solicitudId, LocalDate desde) {
+        PedidosTipo pedidos = tipos.get(tipoId);
+        if (pedidos == null) {
+            return false;
+        }
+        long inicio = desde.toEpochDay();
+        synchronized (pedidos) {
+            List<Pedido> grupo = pedidos.porInicio.get(inicio);
+            if (grupo == null || !grupo.removeIf(pedido -> pedido.solicitudId().equals(solicitudId))) {
+                return false;
+            }
+            if (grupo.isEmpty()) {
+                pedidos.porInicio.remove(inicio);
+            }
+            pedidos.cantidad--;
+            return true;
+        }
+    }
+
+    public int cantidad() {
+        int total = 0;
+        for (PedidosTipo pedidos : tipos.values()) {
+            synchronized (pedidos) {
+                total += pedidos.cantidad;
+            }
+        }
+        return total;
+    }
+
+    public void limpiar() {
+        tipos.clear();
+    }
+}
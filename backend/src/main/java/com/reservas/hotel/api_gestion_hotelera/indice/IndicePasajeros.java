@@ -0,0 +1,50 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.util.TextoUtils;
+
+/**
+ * Búsqueda de huéspedes por nombre y apellido en memoria, con un índice de trigramas por campo.
+ * Se carga al iniciar y se mantiene desde PasajeroServiceImpl cuando se confirma cada escritura.
+ *
+ * Se indexan las claves ya normalizadas del pasajero (nombreBusqueda, apellidoBusqueda); las
+ * consultas se normalizan con el mismo criterio, así "perez" encuentra a "Pérez".
+ */
+@Component
+public class IndicePasajeros {
+
+    private final IndiceTrigramas nombres = new IndiceTrigramas();
+    private final IndiceTrigramas apellidos = new IndiceTrigramas();
+
+    public void registrar(Long id, String nombreBusqueda, String apellidoBusqueda) {
+        nombres.registrar(id, nombreBusqueda);
+        apellidos.registrar(id, apellidoBusqueda);
+    }
+
+    public void eliminar(Long id) {
+        nombres.eliminar(id);
+        apellidos.eliminar(id);
+    }
+
+    /**
+     * Ids de los pasajeros cuyo nombre contiene el texto, sin distinguir mayúsculas ni acentos.
+     */
+    public List<Long> buscarPorNombre(String texto) {
+        return nombres.buscar(TextoUtils.normalizarBusqueda(texto));
+    }
+
+    /**
+     * Ids de los pasajeros cuyo apellido contiene el texto, sin distinguir mayúsculas ni acentos.
+     */
+    public List<Long> buscarPorApellido(String texto) {
+        return apellidos.buscar(TextoUtils.normalizarBusqueda(texto));
+    }
+
+    public void limpiar() {
+        nombres.limpiar();
+        apellidos.limpiar();
+    }
+}
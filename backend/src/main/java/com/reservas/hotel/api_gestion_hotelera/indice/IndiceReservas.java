@@ -0,0 +1,136 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice de intervalos por habitación para detectar reservas solapadas sin ir a la base.
+ *
+ * Las reservas de una habitación no se solapan, así que cada habitación las guarda en un árbol
+ * por día de ingreso y a lo sumo una de las que empiezan antes de [desde, hasta) puede seguir
+ * ocupada en desde: la inmediatamente anterior. La consulta mira esa y el subrango que empieza
+ * dentro del rango pedido: O(log n + k), sin importar lo larga que sea alguna estadía.
+ *
+ * Un intervalo que choca con otro ya registrado (datos viejos sin la restricción de la base, o
+ * un momento de un rollback del optimizador) no entra al árbol: va a una lista aparte que se
+ * recorre entera y que normalmente está vacía.
+ */
+@Component
+public class IndiceReservas {
+
+    private record Intervalo(long inicio, long fin, Long reservaId) {
+
+        boolean seSolapaCon(long desde, long hasta) {
+            return inicio < hasta && fin > desde;
+        }
+    }
+
+    private static class IntervalosHabitacion {
+        private final NavigableMap<Long, Intervalo> porInicio = new TreeMap<>();
+        private final List<Intervalo> solapados = new ArrayList<>(0);
+
+        private boolean entraEnElArbol(Intervalo intervalo) {
+            // Ni la anterior (o una con el mismo ingreso) sigue ocupada ni la siguiente empieza antes del egreso
+            Map.Entry<Long, Intervalo> anterior = porInicio.floorEntry(intervalo.inicio());
+            if (anterior != null && (anterior.getKey() == intervalo.inicio() || anterior.getValue().fin() > intervalo.inicio())) {
+                return false;
+            }
+            Long siguiente = porInicio.higherKey(intervalo.inicio());
+            return siguiente == null || siguiente >= intervalo.fin();
+        }
+    }
+
+    private final Map<Integer, IntervalosHabitacion> habitaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Devuelve los ids de las reservas de la habitación que se solapan con [desde, hasta).
+     * @param excluirId id de reserva a ignorar (por ejemplo, la que se está modificando); puede ser null
+     */
+    public List<Long> buscarConflictos(Integer numero, LocalDate desde, LocalDate hasta, Long excluirId) {
+        List<Long> conflictos = new ArrayList<>();
+        IntervalosHabitacion intervalos = habitaciones.get(numero);
+        if (intervalos == null) {
+            return conflictos;
+        }
+        long inicio = desde.toEpochDay();
+        long fin = hasta.toEpochDay();
+        synchronized (intervalos) {
+            Map.Entry<Long, Intervalo> anterior = intervalos.porInicio.lowerEntry(inicio);
+            if (anterior != null) {
+                agregarSiChoca(conflictos, anterior.getValue(), inicio, fin, excluirId);
+            }
+            for (Intervalo intervalo : intervalos.porInicio.subMap(inicio, true, fin, false).values()) {
+                agregarSiChoca(conflictos, intervalo, inicio, fin, excluirId);
+            }
+            for (Intervalo intervalo : intervalos.solapados) {
+                agregarSiChoca(conflictos, intervalo, inicio, fin, excluirId);
+            }
+        }
+        return conflictos;
+    }
+
+    private static void agregarSiChoca(List<Long> conflictos, Intervalo intervalo, long inicio, long fin, Long excluirId) {
+        if (intervalo.seSolapaCon(inicio, fin) && !intervalo.reservaId().equals(excluirId)) {
+            conflictos.add(intervalo.reservaId());
+        }
+    }
+
+    /**
+     * Ids de las reservas de la habitación que siguen en curso o por delante en la fecha dada
+     * (egreso posterior a desde).
+     */
+    public List<Long> buscarDesde(Integer numero, LocalDate desde) {
+        return buscarConflictos(numero, desde, LocalDate.MAX, null);
+    }
+
+    public boolean hayConflicto(Integer numero, LocalDate desde, LocalDate hasta, Long excluirId) {
+        return !buscarConflictos(numero, desde, hasta, excluirId).isEmpty();
+    }
+
+    public void registrar(Integer numero, Long reservaId, LocalDate desde, LocalDate hasta) {
+        IntervalosHabitacion intervalos = habitaciones.computeIfAbsent(numero, n -> new IntervalosHabitacion());
+        Intervalo intervalo = new Intervalo(desde.toEpochDay(), hasta.toEpochDay(), reservaId);
+        synchronized (intervalos) {
+            if (intervalos.entraEnElArbol(intervalo)) {
+                intervalos.porInicio.put(intervalo.inicio(), intervalo);
+            } else {
+                intervalos.solapados.add(intervalo);
+            }
+        }
+    }
+
+    public void eliminar(Integer numero, Long reservaId, LocalDate desde) {
+        IntervalosHabitacion intervalos = habitaciones.get(numero);
+        if (intervalos == null) {
+            return;
+        }
+        long inicio = desde.toEpochDay();
+        synchronized (intervalos) {
+            Intervalo enArbol = intervalos.porInicio.get(inicio);
+            if (enArbol != null && enArbol.reservaId().equals(reservaId)) {
+                intervalos.porInicio.remove(inicio);
+                // El lugar que quedó puede alcanzar para alguno de los que estaban aparte
+                intervalos.solapados.removeIf(intervalo -> {
+                    if (intervalos.entraEnElArbol(intervalo)) {
+                        intervalos.porInicio.put(intervalo.inicio(), intervalo);
+                        return true;
+                    }
+                    return false;
+                });
+            } else {
+                intervalos.solapados.removeIf(intervalo -> intervalo.inicio() == inicio && intervalo.reservaId().equals(reservaId));
+            }
+        }
+    }
+
+    public void limpiar() {
+        habitaciones.clear();
+    }
+}
@@ -0,0 +1,132 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.SugerenciaPasajero;
+import com.reservas.hotel.api_gestion_hotelera.util.TextoUtils;
+
+/**
+ * Autocompletado de huéspedes por prefijo de "apellido nombre", "nombre apellido" o DNI.
+ *
+ * Las claves están ordenadas en un ConcurrentSkipListMap, así que una consulta ubica el primer
+ * prefijo en O(log n) y recorre en orden solo hasta juntar k huéspedes distintos: el costo no
+ * depende de cuántos pasajeros empiezan con la letra escrita. Las lecturas no toman locks; las
+ * escrituras se serializan para mantener juntas las tres claves de cada pasajero.
+ */
+@Component
+public class IndiceSugerencias {
+
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final ConcurrentSkipListMap<Clave, SugerenciaPasajero> nombres = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Clave, SugerenciaPasajero> dnis = new ConcurrentSkipListMap<>();
+    private final Map<Long, Claves> clavesPorId = new ConcurrentHashMap<>();
+
+    /**
+     * Registra o reemplaza al pasajero. Las claves de búsqueda llegan ya normalizadas.
+     */
+    public synchronized void registrar(SugerenciaPasajero sugerencia, String nombreBusqueda,
+                                       String apellidoBusqueda, String dniNormalizado) {
+        quitar(sugerencia.id());
+        long id = sugerencia.id();
+        String nombre = nombreBusqueda == null ? "" : nombreBusqueda;
+        String apellido = apellidoBusqueda == null ? "" : apellidoBusqueda;
+        Claves claves = new Claves(
+            new Clave(unir(apellido, nombre), id),
+            new Clave(unir(nombre, apellido), id),
+            dniNormalizado == null ? null : new Clave(dniNormalizado, id));
+        nombres.put(claves.apellidoNombre(), sugerencia);
+        nombres.put(claves.nombreApellido(), sugerencia);
+        if (claves.dni() != null) {
+            dnis.put(claves.dni(), sugerencia);
+        }
+        clavesPorId.put(id, claves);
+    }
+
+    public synchronized void eliminar(Long id) {
+        quitar(id);
+    }
+
+    /**
+     * Hasta k huéspedes cuyo apellido, nombre o DNI empieza con el texto. Primero los que
+     * coinciden por DNI y después por orden alfabético de la clave que coincidió.
+     */
+    public List<SugerenciaPasajero> sugerir(String texto, int k) {
+        List<SugerenciaPasajero> resultado = new ArrayList<>(Math.min(k, 16));
+        if (texto == null || k <= 0) {
+            return resultado;
+        }
+        Set<Long> vistos = new HashSet<>();
+        String dni = TextoUtils.normalizarDni(texto);
+        if (dni != null && Character.isDigit(dni.charAt(0))) {
+            recorrer(dnis, dni, k, vistos, resultado);
+        }
+        String normalizado = ESPACIOS.matcher(TextoUtils.normalizarBusqueda(texto).trim()).replaceAll(" ");
+        if (!normalizado.isEmpty()) {
+            recorrer(nombres, normalizado, k, vistos, resultado);
+        }
+        return resultado;
+    }
+
+    public int cantidad() {
+        return clavesPorId.size();
+    }
+
+    public synchronized void limpiar() {
+        nombres.clear();
+        dnis.clear();
+        clavesPorId.clear();
+    }
+
+    private static void recorrer(ConcurrentSkipListMap<Clave, SugerenciaPasajero> mapa, String prefijo, int k,
+                                 Set<Long> vistos, List<SugerenciaPasajero> resultado) {
+        for (Map.Entry<Clave, SugerenciaPasajero> entrada : mapa.tailMap(new Clave(prefijo, Long.MIN_VALUE)).entrySet()) {
+            if (resultado.size() >= k || !entrada.getKey().texto().startsWith(prefijo)) {
+                return;
+            }
+            if (vistos.add(entrada.getKey().id())) {
+                resultado.add(entrada.getValue());
+            }
+        }
+    }
+
+    private void quitar(Long id) {
+        Claves claves = clavesPorId.remove(id);
+        if (claves == null) {
+            return;
+        }
+        nombres.remove(claves.apellidoNombre());
+        nombres.remove(claves.nombreApellido());
+        if (claves.dni() != null) {
+            dnis.remove(claves.dni());
+        }
+    }
+
+    private static String unir(String primero, String segundo) {
+        if (primero.isEmpty() || segundo.isEmpty()) {
+            return primero + segundo;
+        }
+        return primero + " " + segundo;
+    }
+
+    // Texto normalizado y después id, para que dos pasajeros homónimos no se pisen
+    private record Clave(String texto, long id) implements Comparable<Clave> {
+        @Override
+        public int compareTo(Clave otra) {
+            int porTexto = texto.compareTo(otra.texto);
+            return porTexto != 0 ? porTexto : Long.compare(id, otra.id);
+        }
+    }
+
+    private record Claves(Clave apellidoNombre, Clave nombreApellido, Clave dni) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas para búsquedas por subcadena sin distinguir mayúsculas,
+ * con el mismo resultado que LOWER(campo) LIKE LOWER('%q%').
+ *
+ * Cada texto ocupa una ranura (un int denso) y cada trigrama guarda la lista ordenada de
+ * ranuras que lo contienen. Una consulta de 3 o más caracteres intersecta las listas de sus
+ * trigramas empezando por la más corta y confirma los candidatos con contains(), así que el
+ * costo depende de cuántos textos comparten el trigrama más raro y no del total. Las consultas
+ * de 1 o 2 caracteres no tienen trigramas y recorren los textos en memoria.
+ */
+public class IndiceTrigramas {
+
+    private final Map<Long, ListaOrdenada> listas = new HashMap<>();
+    private final Map<Long, Integer> ranuraPorId = new HashMap<>();
+    private long[] ids = new long[1024];
+    private String[] textos = new String[1024];
+    private int[] libres = new int[64];
+    private int cantidadLibres;
+    private int siguienteRanura;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Registra o reemplaza el texto asociado al id. Un texto null solo quita el anterior.
+     */
+    public void registrar(Long id, String texto) {
+        lock.writeLock().lock();
+        try {
+            quitar(id);
+            if (texto == null) {
+                return;
+            }
+            String normalizado = texto.toLowerCase(Locale.ROOT);
+            int ranura = nuevaRanura();
+            ids[ranura] = id;
+            textos[ranura] = normalizado;
+            ranuraPorId.put(id, ranura);
+            for (long trigrama : trigramas(normalizado)) {
+                listas.computeIfAbsent(trigrama, t -> new ListaOrdenada()).agregar(ranura);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void eliminar(Long id) {
+        lock.writeLock().lock();
+        try {
+            quitar(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids cuyo texto contiene la consulta, de menor a mayor.
+     */
+    public List<Long> buscar(String consulta) {
+        if (consulta == null) {
+            return List.of();
+        }
+        String patron = consulta.toLowerCase(Locale.ROOT);
+        List<Long> encontrados = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (patron.length() < 3) {
+                for (int ranura = 0; ranura < siguienteRanura; ranura++) {
+                    if (textos[ranura] != null && textos[ranura].contains(patron)) {
+                        encontrados.add(ids[ranura]);
+                    }
+                }
+            } else {
+                intersectar(patron, encontrados);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        encontrados.sort(null);
+        return encontrados;
+    }
+
+    public int cantidad() {
+        lock.readLock().lock();
+        try {
+            return ranuraPorId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            listas.clear();
+            ranuraPorId.clear();
+            Arrays.fill(textos, null);
+            cantidadLibres = 0;
+            siguienteRanura = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void intersectar(String patron, List<Long> encontrados) {
+        long[] claves = trigramas(patron);
+        ListaOrdenada[] requeridas = new ListaOrdenada[claves.length];
+        for (int i = 0; i < claves.length; i++) {
+            requeridas[i] = listas.get(claves[i]);
+            if (requeridas[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(requeridas, Comparator.comparingInt(lista -> lista.tamano));
+
+        ListaOrdenada menor = requeridas[0];
+        candidatos:
+        for (int i = 0; i < menor.tamano; i++) {
+            int ranura = menor.valores[i];
+            for (int j = 1; j < requeridas.length; j++) {
+                if (!requeridas[j].contiene(ranura)) {
+                    continue candidatos;
+                }
+            }
+            // Tener todos los trigramas no garantiza que estén contiguos y en orden
+            if (textos[ranura].contains(patron)) {
+                encontrados.add(ids[ranura]);
+            }
+        }
+    }
+
+    private void quitar(Long id) {
+        Integer ranura = ranuraPorId.remove(id);
+        if (ranura == null) {
+            return;
+        }
+        for (long trigrama : trigramas(textos[ranura])) {
+            ListaOrdenada lista = listas.get(trigrama);
+            lista.quitar(ranura);
+            if (lista.tamano == 0) {
+                listas.remove(trigrama);
+            }
+        }
+        textos[ranura] = null;
+        if (cantidadLibres == libres.length) {
+            libres = Arrays.copyOf(libres, libres.length * 2);
+        }
+        libres[cantidadLibres++] = ranura;
+    }
+
+    private int nuevaRanura() {
+        if (cantidadLibres > 0) {
+            return libres[--cantidadLibres];
+        }
+        if (siguienteRanura == textos.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            textos = Arrays.copyOf(textos, textos.length * 2);
+        }
+        return siguienteRanura++;
+    }
+
+    // Cada trigrama se empaqueta en un long (3 chars de 16 bits); sin repetidos
+    private static long[] trigramas(String texto) {
+        if (texto.length() < 3) {
+            return new long[0];
+        }
+        long[] claves = new long[texto.length() - 2];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+        }
+        Arrays.sort(claves);
+        int distintas = 0;
+        for (int i = 0; i < claves.length; i++) {
+            if (i == 0 || claves[i] != claves[i - 1]) {
+                claves[distintas++] = claves[i];
+            }
+        }
+        return Arrays.copyOf(claves, distintas);
+    }
+
+    /**
+     * Lista de ranuras ordenada sobre un int[] (sin boxing).
+     */
+    private static final class ListaOrdenada {
+        private int[] valores = new int[4];
+        private int tamano;
+
+        void agregar(int valor) {
+            int posicion = Arrays.binarySearch(valores, 0, tamano, valor);
+            if (posicion >= 0) {
+                return;
+            }
+            posicion = -posicion - 1;
+            if (tamano == valores.length) {
+                valores = Arrays.copyOf(valores, tamano * 2);
+            }
+            System.arraycopy(valores, posicion, valores, posicion + 1, tamano - posicion);
+            valores[posicion] = valor;
+            tamano++;
+        }
+
+        void quitar(int valor) {
+            int posicion = Arrays.binarySearch(valores, 0, tamano, valor);
+            if (posicion < 0) {
+                return;
+            }
+            System.arraycopy(valores, posicion + 1, valores, posicion, tamano - posicion - 1);
+            tamano--;
+        }
+
+        boolean contiene(int valor) {
+            return Arrays.binarySearch(valores, 0, tamano, valor) >= 0;
+        }
+    }
+}
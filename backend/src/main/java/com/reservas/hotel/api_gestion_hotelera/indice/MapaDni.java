@@ -0,0 +1,141 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapa DNI normalizado -> id de pasajero con direccionamiento abierto (sondeo lineal) sobre
+ * dos arreglos paralelos: sin nodos ni boxing, una búsqueda es un hash y casi siempre una
+ * sola comparación. La tabla se mantiene a lo sumo medio llena y al borrar se corren hacia
+ * atrás las entradas siguientes, así no hacen falta lápidas.
+ */
+@Component
+public class MapaDni {
+
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private String[] claves = new String[CAPACIDAD_INICIAL];
+    private long[] valores = new long[CAPACIDAD_INICIAL];
+    private int cantidad;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Id del pasajero con ese DNI (ya normalizado), o null si no está.
+     */
+    public Long buscar(String dni) {
+        if (dni == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int posicion = posicion(claves, dni);
+            return claves[posicion] == null ? null : valores[posicion];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void registrar(String dni, long id) {
+        if (dni == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if ((cantidad + 1) * 2 > claves.length) {
+                redimensionar(claves.length * 2);
+            }
+            int posicion = posicion(claves, dni);
+            if (claves[posicion] == null) {
+                claves[posicion] = dni;
+                cantidad++;
+            }
+            valores[posicion] = id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita el DNI solo si sigue apuntando a ese pasajero (otro pudo haberlo tomado después).
+     */
+    public void eliminar(String dni, long id) {
+        if (dni == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int libre = posicion(claves, dni);
+            if (claves[libre] == null || valores[libre] != id) {
+                return;
+            }
+            claves[libre] = null;
+            cantidad--;
+            // Corrimiento hacia atrás: cada entrada del grupo que quedaría inalcanzable ocupa el hueco
+            int mascara = claves.length - 1;
+            for (int i = (libre + 1) & mascara; claves[i] != null; i = (i + 1) & mascara) {
+                int ideal = hash(claves[i]) & mascara;
+                boolean alcanzable = libre <= i ? (ideal > libre && ideal <= i) : (ideal > libre || ideal <= i);
+                if (!alcanzable) {
+                    claves[libre] = claves[i];
+                    valores[libre] = valores[i];
+                    claves[i] = null;
+                    libre = i;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int cantidad() {
+        lock.readLock().lock();
+        try {
+            return cantidad;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void limpiar() {
+        lock.writeLock().lock();
+        try {
+            claves = new String[CAPACIDAD_INICIAL];
+            valores = new long[CAPACIDAD_INICIAL];
+            cantidad = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void redimensionar(int capacidad) {
+        String[] clavesAnteriores = claves;
+        long[] valoresAnteriores = valores;
+        claves = new String[capacidad];
+        valores = new long[capacidad];
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] != null) {
+                int posicion = posicion(claves, clavesAnteriores[i]);
+                claves[posicion] = clavesAnteriores[i];
+                valores[posicion] = valoresAnteriores[i];
+            }
+        }
+    }
+
+    // Posición de la clave, o del primer lugar libre de su grupo si no está
+    private static int posicion(String[] tabla, String dni) {
+        int mascara = tabla.length - 1;
+        int i = hash(dni) & mascara;
+        while (tabla[i] != null && !tabla[i].equals(dni)) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    // Los DNI son dígitos consecutivos: se mezclan los bits para no agruparlos en la tabla
+    private static int hash(String dni) {
+        int h = dni.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
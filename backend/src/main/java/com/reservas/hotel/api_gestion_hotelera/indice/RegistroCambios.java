@@ -0,0 +1,95 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Últimos cambios confirmados de una entidad, en un buffer circular de claves.
+ *
+ * Cada cambio sube la versión en uno. Un cliente que guarda la versión de su última lectura
+ * pide solo lo que cambió desde ahí; si se quedó más atrás que la capacidad del buffer, o la
+ * versión es de otra ejecución (el prefijo es el instante de arranque), tiene que volver a
+ * pedir todo.
+ */
+public class RegistroCambios<K> {
+
+    /**
+     * Claves que cambiaron desde la versión pedida, cada una una sola vez y según su último
+     * cambio: si terminó borrada figura solo en eliminadas.
+     */
+    public record Delta<K>(String version, List<K> cambiadas, List<K> eliminadas) {
+    }
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final Object[] claves;
+    private final boolean[] eliminadas;
+    private long version;
+
+    public RegistroCambios(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.claves = new Object[capacidad];
+        this.eliminadas = new boolean[capacidad];
+    }
+
+    /**
+     * Anota el cambio; se llama al confirmar la transacción que lo hizo.
+     */
+    public synchronized void registrar(K clave, boolean eliminada) {
+        int posicion = (int) (version % claves.length);
+        claves[posicion] = clave;
+        eliminadas[posicion] = eliminada;
+        version++;
+    }
+
+    public synchronized String version() {
+        return arranque + "-" + version;
+    }
+
+    /**
+     * Cambios posteriores a la versión dada.
+     * @return null si hay que mandar todo: sin versión, versión de otra ejecución o inválida,
+     *         o más vieja que lo que guarda el buffer
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Delta<K> desde(String desde) {
+        Long pedida = leer(desde);
+        if (pedida == null || pedida > version || version - pedida > claves.length) {
+            return null;
+        }
+        // Del más nuevo al más viejo: el primer cambio que aparece de cada clave es el último
+        Set<K> vistas = new HashSet<>();
+        List<K> cambiadas = new ArrayList<>();
+        List<K> borradas = new ArrayList<>();
+        for (long v = version - 1; v >= pedida; v--) {
+            int posicion = (int) (v % claves.length);
+            K clave = (K) claves[posicion];
+            if (vistas.add(clave)) {
+                (eliminadas[posicion] ? borradas : cambiadas).add(clave);
+            }
+        }
+        Collections.reverse(cambiadas);
+        Collections.reverse(borradas);
+        return new Delta<>(version(), cambiadas, borradas);
+    }
+
+    private Long leer(String desde) {
+        if (desde == null) {
+            return null;
+        }
+        int guion = desde.lastIndexOf('-');
+        if (guion < 0 || !desde.substring(0, guion).equals(arranque)) {
+            return null;
+        }
+        try {
+            long pedida = Long.parseLong(desde.substring(guion + 1));
+            return pedida < 0 ? null : pedida;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
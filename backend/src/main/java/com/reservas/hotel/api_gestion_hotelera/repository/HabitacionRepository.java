@@ -1,11 +1,16 @@
 package com.reservas.hotel.api_gestion_hotelera.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista;
 import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
 
@@ -13,6 +18,24 @@ import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
 public interface HabitacionRepository extends CrudRepository<Habitacion, Long> {
 
     List<Habitacion> findByEstado(EstadoHabitacion estado);
-    
+
+    // Solo la usa CacheHabitaciones cuando no tiene la habitación: no hace falta otra cache delante
     Optional<Habitacion> findByNumero(Integer numero);
+
+    List<Habitacion> findByNumeroIn(Collection<Integer> numeros);
+
+    // Lecturas para los endpoints: filas planas con el tipo por join, sin entidades ni carga EAGER
+    String VISTA = """
+    SELECT new com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista(
+        h.numero, h.estado, t.id, t.nombre, t.costoPorNoche, t.capacidad)
+    FROM Habitacion h
+    JOIN h.tipoHabitacion t
+    """;
+
+    // Página del listado por número (keyset), ver Pagina
+    @Query(VISTA + "WHERE h.numero > :despues ORDER BY h.numero")
+    List<HabitacionVista> buscarVistasPagina(@Param("despues") Integer despues, Limit limite);
+
+    @Query(VISTA + "WHERE h.estado <> :estado ORDER BY h.numero")
+    List<HabitacionVista> buscarVistasSinEstado(@Param("estado") EstadoHabitacion estado);
 }
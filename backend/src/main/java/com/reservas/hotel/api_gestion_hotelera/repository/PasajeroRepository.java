@@ -1,24 +1,88 @@
 package com.reservas.hotel.api_gestion_hotelera.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroVista;
 import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero; 
 
 @Repository
 // Pasajero es la Entidad, Long es el tipo de su ID
-public interface PasajeroRepository extends CrudRepository<Pasajero, Long> {
+public interface PasajeroRepository extends JpaRepository<Pasajero, Long> {
     
-  @Query("SELECT p FROM Pasajero p WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :q, '%'))")
-  List<Pasajero> buscarPorNombre(@Param("q") String q);
+  // Consultas nativas escritas sobre las mismas columnas que los índices GIN de trigramas
+  // (migraciones/003 y 005). BusquedaTrigramasExplainTest verifica que el plan use los índices.
+  // El texto de nombre y apellido tiene que llegar ya normalizado (TextoUtils.normalizarBusqueda).
+  // Devuelven solo ids: las filas para la respuesta salen de buscarVistasPorIds.
+  String SQL_BUSCAR_POR_NOMBRE =
+      "SELECT p.id FROM pasajero p WHERE p.nombre_busqueda LIKE ('%' || :q || '%')";
+
+  String SQL_BUSCAR_POR_APELLIDO =
+      "SELECT p.id FROM pasajero p WHERE p.apellido_busqueda LIKE ('%' || :q || '%')";
+
+  String SQL_BUSCAR_POR_DNI =
+      "SELECT p.id FROM pasajero p WHERE p.nro_documento LIKE ('%' || :q || '%')";
+
+  @Query(value = SQL_BUSCAR_POR_NOMBRE, nativeQuery = true)
+  List<Long> buscarIdsPorNombre(@Param("q") String q);
   
-  @Query("SELECT p FROM Pasajero p WHERE LOWER(p.apellido) LIKE LOWER(CONCAT('%', :q, '%'))")
-  List<Pasajero> buscarPorApellido(@Param("q") String q);
+  @Query(value = SQL_BUSCAR_POR_APELLIDO, nativeQuery = true)
+  List<Long> buscarIdsPorApellido(@Param("q") String q);
   
-  @Query("SELECT p FROM Pasajero p WHERE p.nroDocumento LIKE CONCAT('%', :q, '%')")
-  List<Pasajero> buscarPorDni(@Param("q") String q);
+  @Query(value = SQL_BUSCAR_POR_DNI, nativeQuery = true)
+  List<Long> buscarIdsPorDni(@Param("q") String q);
+
+  // Búsqueda exacta sobre la columna única dni_normalizado
+  Optional<Pasajero> findByDniNormalizado(String dniNormalizado);
+
+  /**
+   * Proyección liviana para cargar los índices de pasajeros en memoria.
+   */
+  interface ClavesPasajero {
+    Long getId();
+    String getNombre();
+    String getApellido();
+    String getNroDocumento();
+    String getNombreBusqueda();
+    String getApellidoBusqueda();
+    String getDniNormalizado();
+  }
+
+  @Query("""
+  SELECT p.id AS id, p.nombre AS nombre, p.apellido AS apellido, p.nroDocumento AS nroDocumento,
+         p.nombreBusqueda AS nombreBusqueda, p.apellidoBusqueda AS apellidoBusqueda,
+         p.dniNormalizado AS dniNormalizado
+  FROM Pasajero p
+  """)
+  List<ClavesPasajero> buscarClaves();
+
+  // Corrige las claves de búsqueda de un pasajero (ver ClavesBusquedaInitializer)
+  @Modifying
+  @Query("UPDATE Pasajero p SET p.nombreBusqueda = :nombre, p.apellidoBusqueda = :apellido WHERE p.id = :id")
+  int actualizarClavesBusqueda(@Param("id") Long id, @Param("nombre") String nombre, @Param("apellido") String apellido);
+
+  // Lecturas para los endpoints: el pasajero con su dirección en una fila, sin la lista de reservas
+  String VISTA = """
+  SELECT new com.reservas.hotel.api_gestion_hotelera.dto.PasajeroVista(
+      p.id, p.nombre, p.apellido, p.nroDocumento, p.fechaDeNacimiento, p.nacionalidad, p.telefono,
+      p.ocupacion, p.cuit, p.email, p.estado,
+      d.id, d.calle, d.numero, d.departamento, d.piso, d.codigoPostal, d.localidad, d.provincia, d.pais)
+  FROM Pasajero p
+  LEFT JOIN p.direccion d
+  """;
+
+  @Query(VISTA + "WHERE p.id IN :ids ORDER BY p.id")
+  List<PasajeroVista> buscarVistasPorIds(@Param("ids") Collection<Long> ids);
+
+  // Página del listado por clave (keyset), ver Pagina
+  @Query(VISTA + "WHERE p.id > :despues ORDER BY p.id")
+  List<PasajeroVista> buscarVistasPagina(@Param("despues") Long despues, Limit limite);
 }
@@ -1,54 +1,175 @@
 package com.reservas.hotel.api_gestion_hotelera.repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista;
 import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
 
 // La entidad que maneja es Reserva, y su clave primaria (ID) es Long
 @Repository
-public interface ReservaRepository extends CrudRepository<Reserva, Long> {
+public interface ReservaRepository extends JpaRepository<Reserva, Long> {
 
-    @Query("""
-    SELECT r FROM Reserva r
-    WHERE r.habitacion.numero = :numeroHabitacion
-    AND r.fechaIngreso < :fechaEgreso
-    AND r.fechaEgreso > :fechaIngreso
-    """)
+    // Usa el operador de rangos && sobre la columna periodo para aprovechar el índice GiST
+    // de la restricción reserva_sin_solapamiento (ver schema.sql). La columna no está mapeada en
+    // Reserva: la crea migraciones/001 y VerificacionEsquema la exige al arrancar sobre PostgreSQL.
+    @Query(value = """
+    SELECT r.* FROM reserva r
+    WHERE r.habitacion_id = :numeroHabitacion
+    AND r.periodo && daterange(CAST(:fechaIngreso AS date), CAST(:fechaEgreso AS date), '[)')
+    """, nativeQuery = true)
     List<Reserva> buscarReservasSolapadas(
         @Param("numeroHabitacion") Integer numeroHabitacion,
         @Param("fechaIngreso") Date fechaIngreso,
         @Param("fechaEgreso") Date fechaEgreso
     );
 
+    // Los pasajeros se filtran con los índices de trigramas (BitmapOr entre nombre y apellido)
+    // y se llega a sus reservas por reserva_responsable_idx; ver BusquedaTrigramasExplainTest.
+    // El nombre tiene que llegar normalizado (TextoUtils.normalizarBusqueda).
+    String SQL_IDS_POR_NOMBRE_HUESPED = """
+    SELECT r.id FROM reserva r
+    WHERE r.responsable_id IN (
+        SELECT p.id FROM pasajero p
+        WHERE p.nombre_busqueda LIKE ('%' || :nombre || '%')
+           OR p.apellido_busqueda LIKE ('%' || :nombre || '%')
+    )
+    """;
+
+    @Query(value = SQL_IDS_POR_NOMBRE_HUESPED, nativeQuery = true)
+    List<Long> buscarIdsPorNombreHuesped(@Param("nombre") String nombre);
+
+    // Lecturas para los endpoints: una fila plana por reserva con habitación, tipo y responsable.
+    // No se cargan entidades, así que tampoco hay cargas EAGER ni LAZY al serializar. LEFT JOIN,
+    // como los JOIN FETCH a los que reemplaza: una reserva sin responsable o sin habitación sale igual.
+    String VISTA = """
+    SELECT new com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista(
+        r.id, r.fechaIngreso, r.fechaEgreso,
+        h.numero, h.estado, t.id, t.nombre, t.costoPorNoche, t.capacidad,
+        p.id, p.nombre, p.apellido, p.nroDocumento, r.asignacionAutomatica)
+    FROM Reserva r
+    LEFT JOIN r.habitacion h
+    LEFT JOIN h.tipoHabitacion t
+    LEFT JOIN r.responsable p
+    """;
+
+    @Query(VISTA + "WHERE r.id IN :ids ORDER BY r.id")
+    List<ReservaVista> buscarVistasPorIds(@Param("ids") Collection<Long> ids);
+
+    default List<ReservaVista> buscarVistasPorNombreHuesped(String nombre) {
+        List<Long> ids = buscarIdsPorNombreHuesped(nombre);
+        return ids.isEmpty() ? List.of() : buscarVistasPorIds(ids);
+    }
+
+    @Query(VISTA + "WHERE p.nroDocumento = :dni ORDER BY r.id")
+    List<ReservaVista> buscarVistasPorDniHuesped(@Param("dni") String dni);
+
+    @Query(VISTA + "WHERE r.id = :id")
+    Optional<ReservaVista> buscarVistaPorId(@Param("id") Long id);
+
+    // Reservas que todavía no terminaron, para la sincronización completa de las pantallas
+    @Query(VISTA + "WHERE r.fechaEgreso > :desde ORDER BY r.id")
+    List<ReservaVista> buscarVistasVigentes(@Param("desde") Date desde);
+
+    // Reservas con egreso en (desde, hasta]: las que salieron de las vigentes en ese lapso
+    @Query("SELECT r.id FROM Reserva r WHERE r.fechaEgreso > :desde AND r.fechaEgreso <= :hasta ORDER BY r.id")
+    List<Long> buscarIdsConEgresoEntre(@Param("desde") Date desde, @Param("hasta") Date hasta);
+
+    // Página del listado por clave (keyset): recorre la clave primaria desde "despues" y corta en el límite
+    @Query(VISTA + "WHERE r.id > :despues ORDER BY r.id")
+    List<ReservaVista> buscarVistasPagina(@Param("despues") Long despues, Limit limite);
+
+    /**
+     * Pasajero de una reserva, para completar varias ReservaVista con una sola consulta.
+     */
+    interface PasajeroDeReserva {
+        Long getReservaId();
+        Long getId();
+        String getNombre();
+        String getApellido();
+        String getNroDocumento();
+    }
+
     @Query("""
-    SELECT DISTINCT r FROM Reserva r
-    LEFT JOIN FETCH r.responsable
-    LEFT JOIN FETCH r.habitacion
-    WHERE LOWER(r.responsable.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))
-       OR LOWER(r.responsable.apellido) LIKE LOWER(CONCAT('%', :nombre, '%'))
+    SELECT r.id AS reservaId, p.id AS id, p.nombre AS nombre, p.apellido AS apellido,
+           p.nroDocumento AS nroDocumento
+    FROM Reserva r
+    JOIN r.pasajeros p
+    WHERE r.id IN :ids
+    ORDER BY r.id, p.id
     """)
-    List<Reserva> buscarPorNombreHuesped(@Param("nombre") String nombre);
+    List<PasajeroDeReserva> buscarPasajerosDeReservas(@Param("ids") Collection<Long> ids);
 
+    // Todas las reservas como filas planas, leídas de a 500 con un cursor del servidor. Al ser
+    // una proyección no quedan entidades en el contexto de persistencia: la memoria no crece con
+    // la cantidad de filas. En PostgreSQL el fetch size solo se respeta dentro de una transacción.
+    // LEFT JOIN: una reserva sin habitación o sin responsable sale igual, con esos campos en null.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
     @Query("""
-    SELECT DISTINCT r FROM Reserva r
-    LEFT JOIN FETCH r.responsable
-    LEFT JOIN FETCH r.habitacion
-    LEFT JOIN FETCH r.habitacion.tipoHabitacion
-    WHERE r.responsable.nroDocumento = :dni
+    SELECT new com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada(
+        r.id, r.fechaIngreso, r.fechaEgreso, h.numero,
+        p.id, p.nombre, p.apellido, p.nroDocumento, r.asignacionAutomatica)
+    FROM Reserva r
+    LEFT JOIN r.habitacion h
+    LEFT JOIN r.responsable p
+    ORDER BY r.id
     """)
-    List<Reserva> buscarPorDniHuesped(@Param("dni") String dni);
+    Stream<ReservaExportada> exportarTodas();
+
+    // Reservas que todavía no terminaron en las habitaciones dadas, con la habitación cargada
+    @Query("""
+    SELECT r FROM Reserva r
+    JOIN FETCH r.habitacion
+    WHERE r.habitacion.numero IN :numeros
+    AND r.fechaEgreso > :desde
+    """)
+    List<Reserva> buscarVigentesEnHabitaciones(
+        @Param("numeros") Collection<Integer> numeros,
+        @Param("desde") Date desde
+    );
+
+    // Posterga la restricción de solapamiento hasta el commit (solo PostgreSQL). Declara la tabla
+    // reserva como afectada: sin eso Hibernate vacía toda la cache de segundo nivel al ejecutarla
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reserva"))
+    @Query(value = "SET CONSTRAINTS reserva_sin_solapamiento DEFERRED", nativeQuery = true)
+    void postergarControlDeSolapamiento();
+
+    // Consulta escalar: no carga la reserva en el contexto de persistencia
+    @Query("SELECT r.habitacion.numero FROM Reserva r WHERE r.id = :id")
+    Optional<Integer> buscarNumeroHabitacion(@Param("id") Long id);
+
+    /**
+     * Proyección liviana con lo necesario para reconstruir los índices de ocupación en memoria.
+     */
+    interface OcupacionReserva {
+        Long getId();
+        Integer getNumeroHabitacion();
+        Date getFechaIngreso();
+        Date getFechaEgreso();
+    }
 
     @Query("""
-    SELECT DISTINCT r FROM Reserva r
-    LEFT JOIN FETCH r.responsable
-    LEFT JOIN FETCH r.habitacion
+    SELECT r.id AS id, r.habitacion.numero AS numeroHabitacion,
+           r.fechaIngreso AS fechaIngreso, r.fechaEgreso AS fechaEgreso
+    FROM Reserva r
+    WHERE r.fechaIngreso IS NOT NULL AND r.fechaEgreso IS NOT NULL
     """)
-    List<Reserva> findAllWithRelations();
+    List<OcupacionReserva> buscarOcupaciones();
 
 }
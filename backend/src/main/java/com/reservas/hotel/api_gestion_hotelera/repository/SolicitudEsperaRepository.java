@@ -0,0 +1,15 @@
+package com.reservas.hotel.api_gestion_hotelera.repository;
+
+import java.util.List;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.SolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoSolicitudEspera;
+
+@Repository
+public interface SolicitudEsperaRepository extends CrudRepository<SolicitudEspera, Long> {
+
+    List<SolicitudEspera> findByEstadoOrderByIdAsc(EstadoSolicitudEspera estado);
+}
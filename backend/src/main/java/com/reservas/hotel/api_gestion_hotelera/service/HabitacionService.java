@@ -1,9 +1,15 @@
 package com.reservas.hotel.api_gestion_hotelera.service;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.DisponibilidadTipo;
+import com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResumenHabitaciones;
 import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
 
@@ -13,13 +19,56 @@ public interface HabitacionService {
     
     Optional<Habitacion> buscarPorNumero(Integer numero);
 
-    Set<Habitacion> buscarTodas();
+    /**
+     * Carga varias habitaciones en una sola consulta; las que no existen no aparecen en el resultado.
+     */
+    List<Habitacion> buscarPorNumeros(Collection<Integer> numeros);
+
+    /**
+     * Hasta tamano habitaciones con número mayor que despues (null para empezar), ordenadas por número.
+     */
+    Pagina<HabitacionVista> buscarPagina(Integer despues, int tamano);
 
     Habitacion guardarHabitacion(Habitacion habitacion);
 
-    Set<Habitacion> mostrarPorEstado(EstadoHabitacion estado);
+    List<Habitacion> guardarHabitaciones(Collection<Habitacion> habitaciones);
+
+    /**
+     * Habitaciones en el estado, ordenadas por número, según el índice de estados en memoria.
+     */
+    List<HabitacionVista> mostrarPorEstado(EstadoHabitacion estado);
+
+    /**
+     * Versión de los datos de habitaciones: cambia con cada escritura confirmada y no depende de la
+     * base, así que sirve de ETag para no volver a consultar ni serializar si nada cambió.
+     * Se lee antes de armar la respuesta, para que la versión nunca sea más nueva que los datos.
+     */
+    String version();
+
+    /**
+     * Habitaciones que cambiaron desde la versión dada, o todas (completo) si la versión es nula,
+     * de otra ejecución o más vieja que el registro de cambios.
+     */
+    Cambios<HabitacionVista, Integer> cambiosDesde(String desde);
+
+    /**
+     * Cantidad de habitaciones por estado, en total y por tipo, sin recorrer las habitaciones.
+     */
+    ResumenHabitaciones resumir();
 
     Habitacion actualizarEstado(Long id, EstadoHabitacion nuevoEstado);
 
-    List<Habitacion> buscarDisponibles();
+    List<HabitacionVista> buscarDisponibles();
+
+    /**
+     * Habitaciones sin reservas entre desde (inclusive) y hasta (exclusive).
+     */
+    List<HabitacionVista> buscarDisponiblesEntre(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Disponibilidad agrupada por tipo de habitación para el rango [desde, hasta).
+     * @param tipoId filtra por tipo; null para todos
+     * @param huespedes cantidad mínima de huéspedes que debe admitir el tipo; null para no filtrar
+     */
+    List<DisponibilidadTipo> buscarDisponibilidadPorTipo(LocalDate desde, LocalDate hasta, Long tipoId, Integer huespedes);
 }
@@ -0,0 +1,28 @@
+package com.reservas.hotel.api_gestion_hotelera.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.SolicitudEspera;
+
+public interface ListaEsperaService {
+
+    /**
+     * Anota el pedido en la lista de espera. Requiere el id del tipo de habitación, las fechas
+     * y el DNI del responsable.
+     */
+    SolicitudEspera registrar(SolicitudEspera solicitud);
+
+    List<SolicitudEspera> buscarPendientes();
+
+    /**
+     * Da de baja un pedido pendiente. Devuelve false si no existe o ya no está pendiente.
+     */
+    boolean cancelar(Long id);
+
+    /**
+     * Intenta reservar la habitación liberada para los pedidos en espera que la aprovechan,
+     * del más antiguo al más nuevo. Devuelve la cantidad de pedidos asignados.
+     */
+    int asignarLiberacion(Integer numeroHabitacion, LocalDate desde, LocalDate hasta);
+}
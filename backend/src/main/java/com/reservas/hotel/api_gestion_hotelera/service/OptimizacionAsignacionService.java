@@ -0,0 +1,17 @@
+package com.reservas.hotel.api_gestion_hotelera.service;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.ResultadoOptimizacion;
+
+public interface OptimizacionAsignacionService {
+
+    /**
+     * Reubica las reservas futuras con habitación asignada por el sistema para reducir los
+     * huecos cortos del calendario. Cada tipo se procesa en su propia transacción.
+     */
+    ResultadoOptimizacion optimizar();
+
+    /**
+     * Optimiza un solo tipo de habitación. Requiere una transacción activa.
+     */
+    ResultadoOptimizacion optimizarTipo(Long tipoId);
+}
@@ -2,14 +2,20 @@ package com.reservas.hotel.api_gestion_hotelera.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SugerenciaPasajero;
 import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero; 
 
 public interface PasajeroService {
     
     Optional<Pasajero> buscarPorId(Long id);
-    Set<Pasajero> buscarTodos();
+
+    /**
+     * Hasta tamano pasajeros con id mayor que despues (null para empezar), ordenados por id.
+     */
+    Pagina<PasajeroVista> buscarPagina(Long despues, int tamano);
     
     void darDeBajaPasajero(Long id); 
     
@@ -18,5 +24,17 @@ public interface PasajeroService {
     Pasajero actualizarPasajero(Long id, Pasajero pasajero);
     
     // Buscar huéspedes por criterio (dni, nombre o apellido)
-    List<Pasajero> buscarHuesped(String criterio, String valor);
+    List<PasajeroVista> buscarHuesped(String criterio, String valor);
+
+    /**
+     * Pasajero con exactamente ese DNI (ignorando puntos, espacios y guiones). Es la búsqueda que
+     * usan las reservas; buscarHuesped("dni", ...) busca por subcadena y queda para la pantalla.
+     */
+    Optional<Pasajero> buscarPorDniExacto(String dni);
+
+    /**
+     * Hasta k huéspedes cuyo apellido, nombre o DNI empieza con el texto, para autocompletar.
+     * Se resuelve en memoria y no toca la base.
+     */
+    List<SugerenciaPasajero> sugerir(String texto, int k);
 }
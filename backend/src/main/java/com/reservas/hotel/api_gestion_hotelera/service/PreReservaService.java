@@ -0,0 +1,28 @@
+package com.reservas.hotel.api_gestion_hotelera.service;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.PreReserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+
+public interface PreReservaService {
+
+    /**
+     * Retiene la habitación para el rango [desde, hasta) durante el tiempo configurado.
+     */
+    PreReserva crear(Integer numeroHabitacion, LocalDate desde, LocalDate hasta);
+
+    Optional<PreReserva> buscarPorId(String id);
+
+    /**
+     * Convierte la retención en una reserva a nombre del responsable indicado (por DNI).
+     */
+    Reserva confirmar(String id, Pasajero responsable);
+
+    /**
+     * Libera la retención antes de su vencimiento. Devuelve false si no existe o ya venció.
+     */
+    boolean liberar(String id);
+}
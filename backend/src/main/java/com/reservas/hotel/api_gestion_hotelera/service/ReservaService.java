@@ -2,14 +2,32 @@ package com.reservas.hotel.api_gestion_hotelera.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaGrupoItem;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SolicitudReservaGrupo;
 import com.reservas.hotel.api_gestion_hotelera.entities.Factura;
 import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
 
 public interface ReservaService {
 
     Reserva crearReserva(Reserva reserva);
+
+    /**
+     * Crea la reserva eligiendo la habitación del tipo que menos fragmenta el calendario.
+     * La reserva queda marcada para que el optimizador nocturno pueda reubicarla.
+     */
+    Reserva crearReservaPorTipo(Long tipoId, Reserva reserva);
+
+    /**
+     * Reserva un bloque de habitaciones para un mismo responsable en una sola transacción:
+     * se crean todas las reservas o ninguna.
+     */
+    List<ReservaGrupoItem> crearReservaGrupo(SolicitudReservaGrupo solicitud);
     
     // Check-in
     Reserva realizarCheckIn(Reserva reserva); 
@@ -18,19 +36,36 @@ public interface ReservaService {
     Reserva modificarReserva(Long id, Reserva datosActualizados);
 
     // Consultas
-    Set<Reserva> buscarTodas();
+
+    /**
+     * Hasta tamano reservas con id mayor que despues (null para empezar), ordenadas por id.
+     */
+    Pagina<ReservaVista> buscarPagina(Long despues, int tamano);
+
+    /**
+     * Pasa todas las reservas, ordenadas por id, al destino a medida que se leen de la base,
+     * sin juntarlas en memoria. Se usa para la exportación NDJSON.
+     */
+    void exportar(Consumer<ReservaExportada> destino);
+
+    /**
+     * Reservas creadas o modificadas y ids de las borradas desde la versión dada. Si la versión
+     * es nula, de otra ejecución o más vieja que el registro de cambios, manda completas las
+     * reservas que todavía no terminaron.
+     */
+    Cambios<ReservaVista, Long> cambiosDesde(String desde);
     
-    Optional<Reserva> buscarPorId(Long id);
+    Optional<ReservaVista> buscarPorId(Long id);
 
     /**
      * Buscar reservas por nombre/apellido de huésped o responsable.
      */
-    List<Reserva> buscarPorNombreHuesped(String nombre);
+    List<ReservaVista> buscarPorNombreHuesped(String nombre);
 
     /**
      * Buscar reservas por DNI del huésped responsable.
      */
-    List<Reserva> buscarPorDniHuesped(String dni);
+    List<ReservaVista> buscarPorDniHuesped(String dni);
 
     Factura facturar(Long id);
 
@@ -1,18 +1,44 @@
 package com.reservas.hotel.api_gestion_hotelera.service.impl;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.reservas.hotel.api_gestion_hotelera.cache.CacheHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.ReintentosOptimistas;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.DisponibilidadTipo;
+import com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResumenHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.dto.TipoHabitacionVista;
 import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.eventos.CambioEstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.eventos.DifusorEstadosHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones.TipoCatalogo;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceEstadosHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.RegistroCambios;
 import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
 import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import com.reservas.hotel.api_gestion_hotelera.util.TransaccionUtils;
 
 @Service
 public class HabitacionServiceImpl implements HabitacionService {
@@ -20,6 +46,39 @@ public class HabitacionServiceImpl implements HabitacionService {
     @Autowired
     private HabitacionRepository habitacionRepository;
 
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    @Autowired
+    private IndiceEstadosHabitacion indiceEstadosHabitacion;
+
+    @Autowired
+    private DifusorEstadosHabitacion difusorEstadosHabitacion;
+
+    @Autowired
+    private CambiosHabitaciones cambiosHabitaciones;
+
+    @Autowired
+    private CambiosReservas cambiosReservas;
+
+    @Autowired
+    private IndiceReservas indiceReservas;
+
+    @Autowired
+    private CacheHabitaciones cacheHabitaciones;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private ReintentosOptimistas reintentosOptimistas;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     // @Override
     // public Optional<Habitacion> buscarPorId(Long id) {
     //     return habitacionRepository.findById(id);
@@ -27,39 +86,178 @@ public class HabitacionServiceImpl implements HabitacionService {
 
     @Override
     public Optional<Habitacion> buscarPorNumero(Integer numero) {
-        return habitacionRepository.findByNumero(numero);
+        return cacheHabitaciones.buscar(numero);
+    }
+
+    @Override
+    public List<Habitacion> buscarPorNumeros(Collection<Integer> numeros) {
+        if (numeros.isEmpty()) {
+            return List.of();
+        }
+        return cacheHabitaciones.buscarTodas(numeros);
     }
 
     @Override
-    public List<Habitacion> buscarDisponibles() {
-        return habitacionRepository.findByEstado(EstadoHabitacion.LIBRE);
+    public List<HabitacionVista> buscarDisponibles() {
+        return mostrarPorEstado(EstadoHabitacion.LIBRE);
     }
 
 
     @Override
-    public Set<Habitacion> buscarTodas() {
-        return StreamSupport.stream(habitacionRepository.findAll().spliterator(), false)
-                .collect(Collectors.toSet());
+    public List<HabitacionVista> buscarDisponiblesEntre(LocalDate desde, LocalDate hasta) {
+        return habitacionRepository.buscarVistasSinEstado(EstadoHabitacion.EN_MANTENIMIENTO).stream()
+                .filter(h -> calendarioDisponibilidad.estaDisponible(h.numero(), desde, hasta))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DisponibilidadTipo> buscarDisponibilidadPorTipo(LocalDate desde, LocalDate hasta, Long tipoId, Integer huespedes) {
+        List<DisponibilidadTipo> resultado = new ArrayList<>();
+        for (TipoCatalogo tipo : catalogoHabitaciones.tipos()) {
+            if (tipoId != null && !tipoId.equals(tipo.id())) {
+                continue;
+            }
+            if (huespedes != null && tipo.capacidad() != null && tipo.capacidad() < huespedes) {
+                continue;
+            }
+            List<Integer> libres = new ArrayList<>();
+            for (int numero : catalogoHabitaciones.numerosDeTipo(tipo.id())) {
+                if (catalogoHabitaciones.estaHabilitada(numero)
+                        && calendarioDisponibilidad.estaDisponible(numero, desde, hasta)) {
+                    libres.add(numero);
+                }
+            }
+            resultado.add(new DisponibilidadTipo(
+                tipo.id(), tipo.nombre(), tipo.costoPorNoche(), tipo.capacidad(), libres.size(), libres));
+        }
+        return resultado;
+    }
+
+    @Override
+    public Pagina<HabitacionVista> buscarPagina(Integer despues, int tamano) {
+        List<HabitacionVista> filas = habitacionRepository.buscarVistasPagina(
+            despues == null ? Integer.MIN_VALUE : despues, Limit.of(tamano + 1));
+        return Pagina.de(filas, tamano, HabitacionVista::numero);
     }
 
     @Override
     public Habitacion guardarHabitacion(Habitacion habitacion) {
-        return habitacionRepository.save(habitacion);
+        // Si la escritura no se confirma (por ejemplo, la copia de la cache tenía una versión vieja)
+        // se descarta de la cache para que el reintento lea de la base
+        TransaccionUtils.alRevertir(() -> cacheHabitaciones.invalidar(habitacion.getNumero()));
+        Habitacion guardada = habitacionRepository.save(habitacion);
+        TransaccionUtils.alConfirmar(() -> indexar(guardada));
+        return guardada;
+    }
+
+    @Override
+    public List<Habitacion> guardarHabitaciones(Collection<Habitacion> habitaciones) {
+        TransaccionUtils.alRevertir(() -> habitaciones.forEach(h -> cacheHabitaciones.invalidar(h.getNumero())));
+        List<Habitacion> guardadas = new ArrayList<>();
+        habitacionRepository.saveAll(habitaciones).forEach(guardadas::add);
+        TransaccionUtils.alConfirmar(() -> guardadas.forEach(this::indexar));
+        return guardadas;
+    }
+
+    @Override
+    public List<HabitacionVista> mostrarPorEstado(EstadoHabitacion estado) {
+        // Sale del índice de estados y del catálogo, sin consultar la base
+        List<HabitacionVista> resultado = new ArrayList<>();
+        for (int numero : indiceEstadosHabitacion.numerosEn(estado)) {
+            resultado.add(vista(numero, estado));
+        }
+        return resultado;
     }
 
     @Override
-    public Set<Habitacion> mostrarPorEstado(EstadoHabitacion estado) {
-        return StreamSupport.stream(habitacionRepository.findAll().spliterator(), false)
-                .filter(h -> h.getEstado() == estado)
-                .collect(Collectors.toSet());
+    public ResumenHabitaciones resumir() {
+        Map<EstadoHabitacion, Integer> porEstado = indiceEstadosHabitacion.cantidadPorEstado();
+        List<ResumenHabitaciones.PorTipo> porTipo = new ArrayList<>();
+        Map<Long, Map<EstadoHabitacion, Integer>> cantidades = indiceEstadosHabitacion.cantidadPorTipo();
+        for (TipoCatalogo tipo : catalogoHabitaciones.tipos()) {
+            Map<EstadoHabitacion, Integer> delTipo = cantidades.get(tipo.id());
+            if (delTipo != null) {
+                porTipo.add(new ResumenHabitaciones.PorTipo(
+                    tipo.id(), tipo.nombre(), ResumenHabitaciones.sumar(delTipo), delTipo));
+            }
+        }
+        return new ResumenHabitaciones(ResumenHabitaciones.sumar(porEstado), porEstado, porTipo);
     }
 
     @Override
     public Habitacion actualizarEstado(Long id, EstadoHabitacion nuevoEstado) {
+        // Cada intento en su propia transacción: el reintento por conflicto de versión queda afuera
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        return reintentosOptimistas.ejecutar("actualizarEstado",
+            () -> transaccion.execute(estado -> guardarEstado(id, nuevoEstado)));
+    }
+
+    // Con el lock de la habitación, como las escrituras de reservas: nadie la lee a mitad del cambio
+    private Habitacion guardarEstado(Long id, EstadoHabitacion nuevoEstado) {
+        coordinadorReservas.bloquearHastaFinDeTransaccion(List.of(id.intValue()));
         Habitacion habitacion = habitacionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Habitación no encontrada"));
 
         habitacion.setEstado(nuevoEstado);
-        return habitacionRepository.save(habitacion);
+        TransaccionUtils.alRevertir(() -> cacheHabitaciones.invalidar(habitacion.getNumero()));
+        Habitacion guardada = habitacionRepository.save(habitacion);
+        TransaccionUtils.alConfirmar(() -> indexar(guardada));
+        return guardada;
+    }
+
+    @Override
+    public String version() {
+        return cambiosHabitaciones.version();
+    }
+
+    @Override
+    public Cambios<HabitacionVista, Integer> cambiosDesde(String desde) {
+        // Todo sale de memoria: el registro de cambios, el índice de estados y el catálogo
+        RegistroCambios.Delta<Integer> delta = cambiosHabitaciones.desde(desde);
+        if (delta == null) {
+            String version = cambiosHabitaciones.version();
+            List<HabitacionVista> todas = new ArrayList<>();
+            for (EstadoHabitacion estado : EstadoHabitacion.values()) {
+                todas.addAll(mostrarPorEstado(estado));
+            }
+            todas.sort(Comparator.comparing(HabitacionVista::numero));
+            return new Cambios<>(version, true, todas, List.of());
+        }
+        List<HabitacionVista> cambiadas = new ArrayList<>();
+        List<Integer> eliminadas = new ArrayList<>(delta.eliminadas());
+        for (Integer numero : delta.cambiadas()) {
+            EstadoHabitacion estado = indiceEstadosHabitacion.estadoDe(numero);
+            if (estado != null) {
+                cambiadas.add(vista(numero, estado));
+            } else {
+                eliminadas.add(numero);
+            }
+        }
+        cambiadas.sort(Comparator.comparing(HabitacionVista::numero));
+        return new Cambios<>(delta.version(), false, cambiadas, eliminadas);
+    }
+
+    private HabitacionVista vista(int numero, EstadoHabitacion estado) {
+        TipoCatalogo tipo = catalogoHabitaciones.tipo(catalogoHabitaciones.tipoDe(numero));
+        return new HabitacionVista(numero, estado, tipo == null ? null
+            : new TipoHabitacionVista(tipo.id(), tipo.nombre(), tipo.costoPorNoche(), tipo.capacidad()));
+    }
+
+    // Corre al confirmar; publicar solo anota el cambio, el envío a los suscriptores es aparte
+    private void indexar(Habitacion habitacion) {
+        cacheHabitaciones.guardar(habitacion);
+        catalogoHabitaciones.registrar(habitacion);
+        EstadoHabitacion anterior = indiceEstadosHabitacion.registrar(habitacion);
+        if (habitacion.getNumero() != null && anterior != habitacion.getEstado()) {
+            difusorEstadosHabitacion.publicar(
+                new CambioEstadoHabitacion(habitacion.getNumero(), anterior, habitacion.getEstado()));
+            // El estado de la habitación viaja en la vista de cada reserva: cambian todas las vigentes
+            indiceReservas.buscarDesde(habitacion.getNumero(), LocalDate.now())
+                .forEach(reservaId -> cambiosReservas.registrar(reservaId, false));
+        }
+        // Al final: quien lea la versión nueva ya encuentra los índices actualizados
+        if (habitacion.getNumero() != null) {
+            cambiosHabitaciones.registrar(habitacion.getNumero(), false);
+        }
     }
 }
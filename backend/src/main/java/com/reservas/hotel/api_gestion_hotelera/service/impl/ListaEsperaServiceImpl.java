@@ -0,0 +1,215 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.hotel.api_gestion_hotelera.cache.CacheHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.SolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoSolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.eventos.HabitacionLiberada;
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceListaEspera;
+import com.reservas.hotel.api_gestion_hotelera.repository.SolicitudEsperaRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.ListaEsperaService;
+import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import com.reservas.hotel.api_gestion_hotelera.util.TransaccionUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+public class ListaEsperaServiceImpl implements ListaEsperaService {
+
+    @Autowired
+    private SolicitudEsperaRepository solicitudEsperaRepository;
+
+    @Autowired
+    private CacheHabitaciones cacheHabitaciones;
+
+    @Autowired
+    private PasajeroService pasajeroService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private IndiceListaEspera indiceListaEspera;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    @Transactional
+    public SolicitudEspera registrar(SolicitudEspera solicitud) {
+        if (solicitud.getFechaIngreso() == null || solicitud.getFechaEgreso() == null) {
+            throw new IllegalArgumentException("Las fechas son requeridas");
+        }
+        LocalDate ingreso = FechaUtils.aLocalDate(solicitud.getFechaIngreso());
+        LocalDate egreso = FechaUtils.aLocalDate(solicitud.getFechaEgreso());
+        if (!ingreso.isBefore(egreso)) {
+            throw new IllegalArgumentException("La fecha de egreso debe ser posterior a la fecha de ingreso");
+        }
+        if (ingreso.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("La fecha de ingreso no puede ser anterior a hoy");
+        }
+        if (solicitud.getTipoHabitacion() == null || solicitud.getTipoHabitacion().getId() == null) {
+            throw new IllegalArgumentException("El tipo de habitación es requerido");
+        }
+        TipoHabitacion tipo = cacheHabitaciones.buscarTipo(solicitud.getTipoHabitacion().getId())
+            .orElseThrow(() -> new IllegalArgumentException(
+                "No se encontró el tipo de habitación: " + solicitud.getTipoHabitacion().getId()));
+
+        if (solicitud.getResponsable() == null || solicitud.getResponsable().getNroDocumento() == null) {
+            throw new IllegalArgumentException("El DNI del pasajero es requerido");
+        }
+        Pasajero responsable = pasajeroService.buscarPorDniExacto(solicitud.getResponsable().getNroDocumento())
+            .orElseThrow(() -> new IllegalArgumentException(
+                "No se encontró un pasajero con DNI: " + solicitud.getResponsable().getNroDocumento()));
+
+        solicitud.setId(null);
+        solicitud.setTipoHabitacion(tipo);
+        solicitud.setResponsable(responsable);
+        solicitud.setFechaSolicitud(new Date());
+        solicitud.setEstado(EstadoSolicitudEspera.PENDIENTE);
+        solicitud.setReservaId(null);
+
+        SolicitudEspera guardada = solicitudEsperaRepository.save(solicitud);
+        TransaccionUtils.alConfirmar(() ->
+            indiceListaEspera.registrar(tipo.getId(), guardada.getId(), ingreso, egreso));
+        return guardada;
+    }
+
+    @Override
+    public List<SolicitudEspera> buscarPendientes() {
+        return solicitudEsperaRepository.findByEstadoOrderByIdAsc(EstadoSolicitudEspera.PENDIENTE);
+    }
+
+    @Override
+    @Transactional
+    public boolean cancelar(Long id) {
+        SolicitudEspera solicitud = solicitudEsperaRepository.findById(id).orElse(null);
+        if (solicitud == null || solicitud.getEstado() != EstadoSolicitudEspera.PENDIENTE) {
+            return false;
+        }
+        solicitud.setEstado(EstadoSolicitudEspera.CANCELADA);
+        solicitudEsperaRepository.save(solicitud);
+        TransaccionUtils.alConfirmar(() -> indiceListaEspera.eliminar(
+            solicitud.getTipoHabitacion().getId(), id, FechaUtils.aLocalDate(solicitud.getFechaIngreso())));
+        return true;
+    }
+
+    /**
+     * Corre en el ejecutor de la lista de espera, después de que se confirmó la liberación.
+     */
+    @Async("ejecutorListaEspera")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alLiberarHabitacion(HabitacionLiberada evento) {
+        try {
+            int asignadas = asignarLiberacion(evento.numeroHabitacion(), evento.desde(), evento.hasta());
+            if (asignadas > 0) {
+                log.info("Lista de espera: " + asignadas + " pedidos asignados a la habitación " + evento.numeroHabitacion());
+            }
+        } catch (RuntimeException e) {
+            log.error("Falló la asignación de la lista de espera para la habitación " + evento.numeroHabitacion(), e);
+        }
+    }
+
+    @Override
+    public int asignarLiberacion(Integer numero, LocalDate desde, LocalDate hasta) {
+        Long tipoId = catalogoHabitaciones.tipoDe(numero);
+        if (tipoId == null || !catalogoHabitaciones.estaHabilitada(numero)) {
+            return 0;
+        }
+
+        // Cada asignación en su propia transacción: la reserva y el pedido ASIGNADO se confirman juntos
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        int asignadas = 0;
+        LocalDate hoy = LocalDate.now();
+        for (Long solicitudId : indiceListaEspera.buscarCandidatas(tipoId, desde, hasta)) {
+            SolicitudEspera solicitud = solicitudEsperaRepository.findById(solicitudId).orElse(null);
+            if (solicitud == null || solicitud.getEstado() != EstadoSolicitudEspera.PENDIENTE) {
+                continue;
+            }
+            LocalDate ingreso = FechaUtils.aLocalDate(solicitud.getFechaIngreso());
+            LocalDate egreso = FechaUtils.aLocalDate(solicitud.getFechaEgreso());
+
+            if (ingreso.isBefore(hoy)) {
+                if (indiceListaEspera.eliminar(tipoId, solicitudId, ingreso)) {
+                    solicitud.setEstado(EstadoSolicitudEspera.VENCIDA);
+                    solicitudEsperaRepository.save(solicitud);
+                }
+                continue;
+            }
+            if (!calendarioDisponibilidad.estaDisponible(numero, ingreso, egreso)) {
+                continue;
+            }
+
+            // Quitarlo del índice primero: si otro hilo ya lo tomó, se sigue con el siguiente
+            if (!indiceListaEspera.eliminar(tipoId, solicitudId, ingreso)) {
+                continue;
+            }
+            boolean asignada = false;
+            try {
+                transaccion.executeWithoutResult(estado -> {
+                    Reserva reserva = reservaService.crearReserva(nuevaReserva(numero, solicitud));
+                    solicitud.setEstado(EstadoSolicitudEspera.ASIGNADA);
+                    solicitud.setReservaId(reserva.getId());
+                    solicitudEsperaRepository.save(solicitud);
+                });
+                asignada = true;
+                asignadas++;
+            } catch (ConflictoReservaException | IllegalArgumentException e) {
+                // Otra operación ocupó las noches o cambió la habitación: el pedido sigue esperando
+            } catch (RuntimeException e) {
+                log.error("Falló la asignación del pedido " + solicitudId + " a la habitación " + numero, e);
+            } finally {
+                // Sin asignación confirmada el pedido sigue PENDIENTE y tiene que volver al índice
+                if (!asignada) {
+                    solicitud.setEstado(EstadoSolicitudEspera.PENDIENTE);
+                    solicitud.setReservaId(null);
+                    indiceListaEspera.registrar(tipoId, solicitudId, ingreso, egreso);
+                }
+            }
+        }
+        return asignadas;
+    }
+
+    private Reserva nuevaReserva(Integer numero, SolicitudEspera solicitud) {
+        Reserva reserva = new Reserva();
+        reserva.setFechaIngreso(solicitud.getFechaIngreso());
+        reserva.setFechaEgreso(solicitud.getFechaEgreso());
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(numero);
+        reserva.setHabitacion(habitacion);
+        Pasajero responsable = new Pasajero();
+        responsable.setNroDocumento(solicitud.getResponsable().getNroDocumento());
+        reserva.setResponsable(responsable);
+        return reserva;
+    }
+}
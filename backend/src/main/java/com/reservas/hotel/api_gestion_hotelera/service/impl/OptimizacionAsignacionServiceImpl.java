@@ -0,0 +1,229 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResultadoOptimizacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.AsignadorHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones.TipoCatalogo;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import com.reservas.hotel.api_gestion_hotelera.service.OptimizacionAsignacionService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import com.reservas.hotel.api_gestion_hotelera.util.TransaccionUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Re-optimización nocturna de la asignación de habitaciones.
+ *
+ * Por cada tipo simula, sobre una copia del calendario, volver a ubicar con best-fit todas las
+ * reservas futuras cuya habitación eligió el sistema, dejando fijas las demás (y las
+ * pre-reservas, que ya están en el calendario). Los cambios se aplican solo si la simulación
+ * deja menos huecos cortos que la asignación actual.
+ *
+ * Los tipos no comparten habitaciones, así que se procesan en paralelo, cada uno en su
+ * transacción y con los locks de todas sus habitaciones tomados.
+ */
+@Slf4j
+@Service
+public class OptimizacionAsignacionServiceImpl implements OptimizacionAsignacionService {
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private HabitacionService habitacionService;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Autowired
+    private IndiceReservas indiceReservas;
+
+    @Autowired
+    private CambiosReservas cambiosReservas;
+
+    @Autowired
+    private AsignadorHabitaciones asignadorHabitaciones;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Scheduled(cron = "${reservas.optimizacion.cron:0 30 3 * * *}")
+    public void optimizarNocturno() {
+        ResultadoOptimizacion resultado = optimizar();
+        log.info("Optimización de asignación: " + resultado.reservasMovidas() + " reservas movidas en "
+            + resultado.tiposMejorados() + " de " + resultado.tiposRevisados() + " tipos; huecos cortos "
+            + resultado.huecosCortosAntes() + " -> " + resultado.huecosCortosDespues());
+    }
+
+    @Override
+    public ResultadoOptimizacion optimizar() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        return catalogoHabitaciones.tipos().parallelStream()
+            .map(TipoCatalogo::id)
+            .map(tipoId -> {
+                try {
+                    return transaccion.execute(estado -> optimizarTipo(tipoId));
+                } catch (RuntimeException e) {
+                    // Un tipo que falla queda como estaba; los demás siguen
+                    log.error("Falló la optimización de asignación del tipo " + tipoId, e);
+                    return ResultadoOptimizacion.VACIO;
+                }
+            })
+            .reduce(ResultadoOptimizacion.VACIO, ResultadoOptimizacion::sumar);
+    }
+
+    @Override
+    public ResultadoOptimizacion optimizarTipo(Long tipoId) {
+        int[] todas = catalogoHabitaciones.numerosDeTipo(tipoId);
+        int[] habilitadas = Arrays.stream(todas).filter(catalogoHabitaciones::estaHabilitada).toArray();
+        if (habilitadas.length < 2) {
+            return ResultadoOptimizacion.VACIO;
+        }
+        coordinadorReservas.bloquearHastaFinDeTransaccion(Arrays.stream(todas).boxed().toList());
+
+        LocalDate hoy = LocalDate.now();
+        List<Reserva> vigentes = reservaRepository.buscarVigentesEnHabitaciones(
+            Arrays.stream(habilitadas).boxed().toList(), FechaUtils.aDate(hoy));
+
+        // Solo se mueven las que eligió el sistema y todavía no empezaron
+        List<Reserva> movibles = vigentes.stream()
+            .filter(r -> Boolean.TRUE.equals(r.getAsignacionAutomatica()))
+            .filter(r -> r.getFechaIngreso() != null && r.getFechaEgreso() != null)
+            .filter(r -> FechaUtils.aLocalDate(r.getFechaIngreso()).isAfter(hoy))
+            .sorted(Comparator.comparing(Reserva::getFechaIngreso)
+                .thenComparing(Reserva::getFechaEgreso, Comparator.reverseOrder())
+                .thenComparing(Reserva::getId))
+            .toList();
+        if (movibles.isEmpty()) {
+            return new ResultadoOptimizacion(1, 0, 0, 0, 0);
+        }
+        LocalDate horizonte = movibles.stream()
+            .map(r -> FechaUtils.aLocalDate(r.getFechaEgreso()))
+            .max(Comparator.naturalOrder())
+            .orElse(hoy);
+
+        CalendarioDisponibilidad trabajo = calendarioDisponibilidad.copiar(habilitadas);
+        int cortosAntes = contarHuecosCortos(trabajo, habilitadas, hoy, horizonte);
+        for (Reserva reserva : movibles) {
+            trabajo.liberar(reserva.getHabitacion().getNumero(),
+                FechaUtils.aLocalDate(reserva.getFechaIngreso()), FechaUtils.aLocalDate(reserva.getFechaEgreso()));
+        }
+
+        // Por identidad: la reserva cambia de habitación mientras se aplica
+        Map<Reserva, Integer> destinos = new IdentityHashMap<>();
+        for (Reserva reserva : movibles) {
+            LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+            LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+            Integer destino = asignadorHabitaciones.elegir(trabajo, habilitadas, ingreso, egreso);
+            if (destino == null) {
+                // El orden de best-fit no logró ubicarlas a todas: se deja la asignación actual
+                return new ResultadoOptimizacion(1, 0, 0, cortosAntes, cortosAntes);
+            }
+            trabajo.ocupar(destino, ingreso, egreso);
+            destinos.put(reserva, destino);
+        }
+
+        int cortosDespues = contarHuecosCortos(trabajo, habilitadas, hoy, horizonte);
+        List<Reserva> movidas = movibles.stream()
+            .filter(r -> !destinos.get(r).equals(r.getHabitacion().getNumero()))
+            .toList();
+        if (cortosDespues >= cortosAntes || movidas.isEmpty()) {
+            return new ResultadoOptimizacion(1, 0, 0, cortosAntes, cortosAntes);
+        }
+
+        aplicar(movidas, destinos, hoy);
+        return new ResultadoOptimizacion(1, 1, movidas.size(), cortosAntes, cortosDespues);
+    }
+
+    private void aplicar(List<Reserva> movidas, Map<Reserva, Integer> destinos, LocalDate hoy) {
+        // Dos reservas pueden intercambiar habitaciones; el control se hace al confirmar
+        reservaRepository.postergarControlDeSolapamiento();
+
+        TreeSet<Integer> afectadas = new TreeSet<>();
+        movidas.forEach(r -> {
+            afectadas.add(r.getHabitacion().getNumero());
+            afectadas.add(destinos.get(r));
+        });
+        Map<Integer, Habitacion> habitaciones = habitacionService.buscarPorNumeros(afectadas).stream()
+            .collect(Collectors.toMap(Habitacion::getNumero, Function.identity()));
+
+        // Primero se liberan todos los rangos de origen, después se ocupan los de destino
+        for (Reserva reserva : movidas) {
+            Integer origen = reserva.getHabitacion().getNumero();
+            LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+            LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+            calendarioDisponibilidad.liberar(origen, ingreso, egreso);
+            TransaccionUtils.alRevertir(() -> calendarioDisponibilidad.ocupar(origen, ingreso, egreso));
+            indiceReservas.eliminar(origen, reserva.getId(), ingreso);
+            TransaccionUtils.alRevertir(() -> indiceReservas.registrar(origen, reserva.getId(), ingreso, egreso));
+        }
+        for (Reserva reserva : movidas) {
+            Integer destino = destinos.get(reserva);
+            LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+            LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+            calendarioDisponibilidad.ocupar(destino, ingreso, egreso);
+            TransaccionUtils.alRevertir(() -> calendarioDisponibilidad.liberar(destino, ingreso, egreso));
+            indiceReservas.registrar(destino, reserva.getId(), ingreso, egreso);
+            TransaccionUtils.alRevertir(() -> indiceReservas.eliminar(destino, reserva.getId(), ingreso));
+            reserva.setHabitacion(habitaciones.get(destino));
+        }
+        reservaRepository.saveAll(movidas);
+        TransaccionUtils.alConfirmar(() -> movidas.forEach(r -> cambiosReservas.registrar(r.getId(), false)));
+
+        // Una habitación que quedó sin reservas por delante vuelve a LIBRE y viceversa
+        List<Habitacion> cambiadas = new ArrayList<>();
+        for (Habitacion habitacion : habitaciones.values()) {
+            boolean conReservas = calendarioDisponibilidad.tieneOcupacionDesde(habitacion.getNumero(), hoy);
+            if (conReservas && habitacion.getEstado() == EstadoHabitacion.LIBRE) {
+                habitacion.setEstado(EstadoHabitacion.RESERVADA);
+                cambiadas.add(habitacion);
+            } else if (!conReservas && habitacion.getEstado() == EstadoHabitacion.RESERVADA) {
+                habitacion.setEstado(EstadoHabitacion.LIBRE);
+                cambiadas.add(habitacion);
+            }
+        }
+        if (!cambiadas.isEmpty()) {
+            habitacionService.guardarHabitaciones(cambiadas);
+        }
+    }
+
+    private int contarHuecosCortos(CalendarioDisponibilidad calendario, int[] numeros,
+                                   LocalDate desde, LocalDate hasta) {
+        int cortos = 0;
+        for (int numero : numeros) {
+            cortos += calendario.contarHuecosCortos(numero, desde, hasta, asignadorHabitaciones.getEstadiaMinima());
+        }
+        return cortos;
+    }
+}
@@ -2,45 +2,77 @@ package com.reservas.hotel.api_gestion_hotelera.service.impl;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SugerenciaPasajero;
 import com.reservas.hotel.api_gestion_hotelera.entities.Direccion;
 import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndicePasajeros;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceSugerencias;
+import com.reservas.hotel.api_gestion_hotelera.indice.MapaDni;
 import com.reservas.hotel.api_gestion_hotelera.repository.DireccionRepository;
 import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
 import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
+import com.reservas.hotel.api_gestion_hotelera.util.TextoUtils;
+import com.reservas.hotel.api_gestion_hotelera.util.TransaccionUtils;
 
 @Service
 public class PasajeroServiceImpl implements PasajeroService {
 
+    // Restricción única sobre dni_normalizado (migraciones/004)
+    private static final String RESTRICCION_DNI = "pasajero_dni_normalizado_key";
+
     @Autowired
     private PasajeroRepository pasajeroRepository;
 
     @Autowired
     private DireccionRepository direccionRepository;
 
+    @Autowired
+    private IndicePasajeros indicePasajeros;
+
+    @Autowired
+    private MapaDni mapaDni;
+
+    @Autowired
+    private IndiceSugerencias indiceSugerencias;
+
+    // "memoria": índice de trigramas de esta instancia; "base": índices pg_trgm, para varias instancias
+    @Value("${reservas.busqueda.pasajeros:memoria}")
+    private String modoBusqueda;
+
     @Override
     public Optional<Pasajero> buscarPorId(Long id) {
         return pasajeroRepository.findById(id);
     }
 
     @Override
-    public Set<Pasajero> buscarTodos() {
-        return StreamSupport.stream(pasajeroRepository.findAll().spliterator(), false)
-                .collect(Collectors.toSet());
+    public Pagina<PasajeroVista> buscarPagina(Long despues, int tamano) {
+        List<PasajeroVista> filas = pasajeroRepository.buscarVistasPagina(
+            despues == null ? 0L : despues, Limit.of(tamano + 1));
+        return Pagina.de(filas, tamano, PasajeroVista::id);
     }
 
     @Override
     @Transactional
     public void darDeBajaPasajero(Long id) {
+        String dni = pasajeroRepository.findById(id).map(Pasajero::getDniNormalizado).orElse(null);
         pasajeroRepository.deleteById(id);
+        TransaccionUtils.alConfirmar(() -> {
+            indicePasajeros.eliminar(id);
+            mapaDni.eliminar(dni, id);
+            indiceSugerencias.eliminar(id);
+        });
     }
 
     @Override
@@ -50,13 +82,19 @@ public class PasajeroServiceImpl implements PasajeroService {
         if (pasajero.getEstado() == null) {
             pasajero.setEstado(EstadoPasajero.ACTIVO);
         }
+        pasajero.setDniNormalizado(TextoUtils.normalizarDni(pasajero.getNroDocumento()));
+        validarDniLibre(pasajero.getDniNormalizado(), null);
+        pasajero.setNombreBusqueda(TextoUtils.normalizarBusqueda(pasajero.getNombre()));
+        pasajero.setApellidoBusqueda(TextoUtils.normalizarBusqueda(pasajero.getApellido()));
         // Si el pasajero tiene una dirección, guardarla primero
         if (pasajero.getDireccion() != null) {
             Direccion direccionGuardada = direccionRepository.save(pasajero.getDireccion());
             pasajero.setDireccion(direccionGuardada);
         }
         // Guardar el pasajero con la dirección asociada
-        return pasajeroRepository.save(pasajero);
+        Pasajero guardado = guardarConDniUnico(pasajero);
+        indexarAlConfirmar(guardado, null);
+        return guardado;
     }
 
     @Override
@@ -64,10 +102,16 @@ public class PasajeroServiceImpl implements PasajeroService {
     public Pasajero actualizarPasajero(Long id, Pasajero pasajero) {
         Pasajero existente = pasajeroRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pasajero no encontrado"));
+        String dniAnterior = existente.getDniNormalizado();
+        String dniNuevo = TextoUtils.normalizarDni(pasajero.getNroDocumento());
+        validarDniLibre(dniNuevo, id);
 
         existente.setNombre(pasajero.getNombre());
         existente.setApellido(pasajero.getApellido());
+        existente.setNombreBusqueda(TextoUtils.normalizarBusqueda(pasajero.getNombre()));
+        existente.setApellidoBusqueda(TextoUtils.normalizarBusqueda(pasajero.getApellido()));
         existente.setNroDocumento(pasajero.getNroDocumento());
+        existente.setDniNormalizado(dniNuevo);
         existente.setTelefono(pasajero.getTelefono());
         existente.setEmail(pasajero.getEmail());
         existente.setCuit(pasajero.getCuit());
@@ -84,7 +128,31 @@ public class PasajeroServiceImpl implements PasajeroService {
             existente.setDireccion(direccionGuardada);
         }
 
-        return pasajeroRepository.save(existente);
+        Pasajero guardado = guardarConDniUnico(existente);
+        indexarAlConfirmar(guardado, dniAnterior);
+        return guardado;
+    }
+
+    @Override
+    public Optional<Pasajero> buscarPorDniExacto(String dni) {
+        String clave = TextoUtils.normalizarDni(dni);
+        if (clave == null) {
+            return Optional.empty();
+        }
+        Long id = mapaDni.buscar(clave);
+        if (id != null) {
+            Optional<Pasajero> pasajero = pasajeroRepository.findById(id);
+            if (pasajero.isPresent() && clave.equals(pasajero.get().getDniNormalizado())) {
+                return pasajero;
+            }
+        }
+        // No está en el mapa, o lo cambió otra instancia: la columna única tiene la última palabra
+        return pasajeroRepository.findByDniNormalizado(clave);
+    }
+
+    @Override
+    public List<SugerenciaPasajero> sugerir(String texto, int k) {
+        return indiceSugerencias.sugerir(texto, k);
     }
 
     /**
@@ -94,13 +162,82 @@ public class PasajeroServiceImpl implements PasajeroService {
      * @return Lista de pasajeros encontrados
      */
     @Override
-    public List<Pasajero> buscarHuesped(String criterio, String valor) {
-        return switch (criterio.toLowerCase()) {
-            case "dni" -> pasajeroRepository.buscarPorDni(valor);
-            case "nombre" -> pasajeroRepository.buscarPorNombre(valor);
-            case "apellido" -> pasajeroRepository.buscarPorApellido(valor);
+    public List<PasajeroVista> buscarHuesped(String criterio, String valor) {
+        List<Long> ids = switch (criterio.toLowerCase()) {
+            case "dni" -> pasajeroRepository.buscarIdsPorDni(valor);
+            case "nombre" -> buscarEnBase()
+                ? pasajeroRepository.buscarIdsPorNombre(TextoUtils.normalizarBusqueda(valor))
+                : indicePasajeros.buscarPorNombre(valor);
+            case "apellido" -> buscarEnBase()
+                ? pasajeroRepository.buscarIdsPorApellido(TextoUtils.normalizarBusqueda(valor))
+                : indicePasajeros.buscarPorApellido(valor);
             default -> throw new IllegalArgumentException("Criterio de búsqueda no válido. Debe ser 'dni', 'nombre' o 'apellido'");
         };
+        return buscarPorIds(ids);
+    }
+
+    private boolean buscarEnBase() {
+        return "base".equalsIgnoreCase(modoBusqueda);
+    }
+
+    // Los criterios resuelven ids (en el índice o en la base); las filas de la respuesta se leen
+    // todas juntas por clave primaria, con la dirección y sin las reservas de cada pasajero
+    private List<PasajeroVista> buscarPorIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return pasajeroRepository.buscarVistasPorIds(ids);
+    }
+
+    private void validarDniLibre(String dni, Long id) {
+        if (dni == null) {
+            return;
+        }
+        buscarPorDniExacto(dni)
+            .filter(otro -> !otro.getId().equals(id))
+            .ifPresent(otro -> {
+                throw new IllegalArgumentException("Ya existe un pasajero con DNI: " + dni);
+            });
+    }
+
+    // validarDniLibre no alcanza si dos altas con el mismo DNI corren a la vez: las dos pasan el
+    // control y la restricción única frena a la segunda. El flush la hace saltar acá para
+    // responder lo mismo que validarDniLibre.
+    private Pasajero guardarConDniUnico(Pasajero pasajero) {
+        try {
+            return pasajeroRepository.saveAndFlush(pasajero);
+        } catch (DataIntegrityViolationException e) {
+            if (!esDniDuplicado(e)) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Ya existe un pasajero con DNI: " + pasajero.getDniNormalizado());
+        }
+    }
+
+    private static boolean esDniDuplicado(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion) {
+                // H2 agrega esquema y sufijo de índice al nombre; PostgreSQL lo informa tal cual
+                String restriccion = violacion.getConstraintName();
+                return restriccion != null && restriccion.toLowerCase().contains(RESTRICCION_DNI);
+            }
+        }
+        return false;
+    }
+
+    private void indexarAlConfirmar(Pasajero pasajero, String dniAnterior) {
+        Long id = pasajero.getId();
+        String nombre = pasajero.getNombreBusqueda();
+        String apellido = pasajero.getApellidoBusqueda();
+        String dni = pasajero.getDniNormalizado();
+        SugerenciaPasajero sugerencia = new SugerenciaPasajero(id, pasajero.getNombre(), pasajero.getApellido(),
+            pasajero.getNroDocumento());
+        TransaccionUtils.alConfirmar(() -> {
+            indicePasajeros.registrar(id, nombre, apellido);
+            mapaDni.eliminar(dniAnterior, id);
+            mapaDni.registrar(dni, id);
+            indiceSugerencias.registrar(sugerencia, nombre, apellido, dni);
+        });
     }
 }
 
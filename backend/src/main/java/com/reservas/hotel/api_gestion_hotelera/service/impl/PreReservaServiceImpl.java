@@ -0,0 +1,175 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.RuedaTemporizadora;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.RuedaTemporizadora.Temporizador;
+import com.reservas.hotel.api_gestion_hotelera.dto.PreReserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.eventos.HabitacionLiberada;
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.service.PreReservaService;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+
+/**
+ * Las pre-reservas viven solo en memoria: ocupan las noches en el calendario de disponibilidad
+ * (así nadie más puede reservarlas) y un temporizador de la rueda las libera al vencer.
+ * Crear, confirmar y liberar toman el lock de la habitación, igual que las reservas.
+ */
+@Service
+public class PreReservaServiceImpl implements PreReservaService {
+
+    private record Entrada(PreReserva preReserva, Temporizador temporizador) {
+    }
+
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    @Autowired
+    private IndiceReservas indiceReservas;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private RuedaTemporizadora ruedaTemporizadora;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Value("${reservas.prereservas.minutos:10}")
+    private long minutos;
+
+    private final Map<String, Entrada> preReservas = new ConcurrentHashMap<>();
+
+    @Override
+    public PreReserva crear(Integer numero, LocalDate desde, LocalDate hasta) {
+        if (numero == null || desde == null || hasta == null) {
+            throw new IllegalArgumentException("La habitación y las fechas son requeridas");
+        }
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("La fecha de egreso debe ser posterior a la fecha de ingreso");
+        }
+        if (!catalogoHabitaciones.estaHabilitada(numero)) {
+            throw new IllegalArgumentException("La habitación " + numero + " no existe o no está disponible para reservar");
+        }
+
+        return coordinadorReservas.ejecutarConBloqueo(List.of(numero), () -> {
+            if (!calendarioDisponibilidad.ocuparSiDisponible(numero, desde, hasta)) {
+                throw new ConflictoReservaException(
+                    "La habitación " + numero + " no está disponible para reservar entre " + desde + " y " + hasta,
+                    indiceReservas.buscarConflictos(numero, desde, hasta, null));
+            }
+            PreReserva preReserva = new PreReserva(
+                UUID.randomUUID().toString(), numero, desde, hasta, Instant.now().plus(Duration.ofMinutes(minutos)));
+            registrar(preReserva);
+            return preReserva;
+        });
+    }
+
+    @Override
+    public Optional<PreReserva> buscarPorId(String id) {
+        return Optional.ofNullable(preReservas.get(id)).map(Entrada::preReserva);
+    }
+
+    @Override
+    public Reserva confirmar(String id, Pasajero responsable) {
+        PreReserva preReserva = buscarPorId(id)
+            .orElseThrow(() -> new IllegalArgumentException("La pre-reserva " + id + " no existe o ya venció"));
+        Integer numero = preReserva.numeroHabitacion();
+
+        return coordinadorReservas.ejecutarConBloqueo(List.of(numero), () -> {
+            Entrada entrada = preReservas.remove(id);
+            if (entrada == null) {
+                throw new IllegalArgumentException("La pre-reserva " + id + " no existe o ya venció");
+            }
+            entrada.temporizador().cancelar();
+
+            // Con el lock tomado nadie puede ocupar las noches entre que se sueltan y se reservan
+            calendarioDisponibilidad.liberar(numero, preReserva.fechaIngreso(), preReserva.fechaEgreso());
+
+            Reserva reserva = new Reserva();
+            reserva.setFechaIngreso(FechaUtils.aDate(preReserva.fechaIngreso()));
+            reserva.setFechaEgreso(FechaUtils.aDate(preReserva.fechaEgreso()));
+            Habitacion habitacion = new Habitacion();
+            habitacion.setNumero(numero);
+            reserva.setHabitacion(habitacion);
+            reserva.setResponsable(responsable);
+            try {
+                return reservaService.crearReserva(reserva);
+            } catch (RuntimeException e) {
+                // Si no venció, la retención sigue vigente para que el huésped pueda corregir los datos
+                if (preReserva.vence().isAfter(Instant.now())) {
+                    calendarioDisponibilidad.ocupar(numero, preReserva.fechaIngreso(), preReserva.fechaEgreso());
+                    registrar(preReserva);
+                }
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public boolean liberar(String id) {
+        PreReserva preReserva = buscarPorId(id).orElse(null);
+        if (preReserva == null) {
+            return false;
+        }
+        return coordinadorReservas.ejecutarConBloqueo(List.of(preReserva.numeroHabitacion()), () -> {
+            Entrada entrada = preReservas.remove(id);
+            if (entrada == null) {
+                return false;
+            }
+            entrada.temporizador().cancelar();
+            calendarioDisponibilidad.liberar(
+                preReserva.numeroHabitacion(), preReserva.fechaIngreso(), preReserva.fechaEgreso());
+            publicarLiberacion(preReserva);
+            return true;
+        });
+    }
+
+    private void registrar(PreReserva preReserva) {
+        long demoraMs = Duration.between(Instant.now(), preReserva.vence()).toMillis();
+        Temporizador temporizador = ruedaTemporizadora.programar(demoraMs, () -> vencer(preReserva));
+        preReservas.put(preReserva.id(), new Entrada(preReserva, temporizador));
+    }
+
+    // Corre en el hilo de la rueda; si la pre-reserva ya se confirmó o liberó no hace nada
+    private void vencer(PreReserva preReserva) {
+        Entrada actual = preReservas.get(preReserva.id());
+        if (actual != null && actual.preReserva() == preReserva && preReservas.remove(preReserva.id(), actual)) {
+            calendarioDisponibilidad.liberar(
+                preReserva.numeroHabitacion(), preReserva.fechaIngreso(), preReserva.fechaEgreso());
+            publicarLiberacion(preReserva);
+        }
+    }
+
+    private void publicarLiberacion(PreReserva preReserva) {
+        eventos.publishEvent(new HabitacionLiberada(
+            preReserva.numeroHabitacion(), preReserva.fechaIngreso(), preReserva.fechaEgreso()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.ReintentosOptimistas;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaGrupoItem;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SolicitudReservaGrupo;
+import com.reservas.hotel.api_gestion_hotelera.entities.Factura;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+
+/**
+ * Envuelve a ReservaServiceImpl para reintentar las escrituras que fallan por conflicto de
+ * versión. Cada intento corre en una transacción nueva, porque el reintento queda fuera del
+ * proxy transaccional de ReservaServiceImpl.
+ */
+@Primary
+@Service
+public class ReservaServiceConReintentos implements ReservaService {
+
+    @Autowired
+    private ReservaServiceImpl reservaServiceImpl;
+
+    @Autowired
+    private ReintentosOptimistas reintentosOptimistas;
+
+    @Override
+    public Reserva crearReserva(Reserva reserva) {
+        return reintentosOptimistas.ejecutar("crearReserva", () -> reservaServiceImpl.crearReserva(reserva));
+    }
+
+    @Override
+    public Reserva crearReservaPorTipo(Long tipoId, Reserva reserva) {
+        return reintentosOptimistas.ejecutar("crearReservaPorTipo", () -> reservaServiceImpl.crearReservaPorTipo(tipoId, reserva));
+    }
+
+    @Override
+    public List<ReservaGrupoItem> crearReservaGrupo(SolicitudReservaGrupo solicitud) {
+        return reintentosOptimistas.ejecutar("crearReservaGrupo", () -> reservaServiceImpl.crearReservaGrupo(solicitud));
+    }
+
+    @Override
+    public Reserva realizarCheckIn(Reserva reserva) {
+        return reintentosOptimistas.ejecutar("realizarCheckIn", () -> reservaServiceImpl.realizarCheckIn(reserva));
+    }
+
+    @Override
+    public Reserva modificarReserva(Long id, Reserva datosActualizados) {
+        return reintentosOptimistas.ejecutar("modificarReserva",
+            () -> reservaServiceImpl.modificarReserva(id, datosActualizados));
+    }
+
+    // Sin reintentos: genera una factura, y repetirla podría emitir dos para la misma reserva
+    @Override
+    public Factura facturar(Long id) {
+        return reservaServiceImpl.facturar(id);
+    }
+
+    @Override
+    public void cancelarReserva(Long id) {
+        reintentosOptimistas.ejecutar("cancelarReserva", () -> reservaServiceImpl.cancelarReserva(id));
+    }
+
+    // Consultas: no escriben, no necesitan reintentos
+
+    @Override
+    public Pagina<ReservaVista> buscarPagina(Long despues, int tamano) {
+        return reservaServiceImpl.buscarPagina(despues, tamano);
+    }
+
+    @Override
+    public void exportar(Consumer<ReservaExportada> destino) {
+        reservaServiceImpl.exportar(destino);
+    }
+
+    @Override
+    public Cambios<ReservaVista, Long> cambiosDesde(String desde) {
+        return reservaServiceImpl.cambiosDesde(desde);
+    }
+
+    @Override
+    public Optional<ReservaVista> buscarPorId(Long id) {
+        return reservaServiceImpl.buscarPorId(id);
+    }
+
+    @Override
+    public List<ReservaVista> buscarPorNombreHuesped(String nombre) {
+        return reservaServiceImpl.buscarPorNombreHuesped(nombre);
+    }
+
+    @Override
+    public List<ReservaVista> buscarPorDniHuesped(String dni) {
+        return reservaServiceImpl.buscarPorDniHuesped(dni);
+    }
+}
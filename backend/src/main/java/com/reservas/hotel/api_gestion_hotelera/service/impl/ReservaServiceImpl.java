@@ -1,29 +1,68 @@
 package com.reservas.hotel.api_gestion_hotelera.service.impl;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroResumen;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaGrupoItem;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SolicitudReservaGrupo;
 import com.reservas.hotel.api_gestion_hotelera.entities.Factura;
 import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
 import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.eventos.HabitacionLiberada;
 import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.indice.AsignadorHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.RegistroCambios;
 import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository.PasajeroDeReserva;
 import com.reservas.hotel.api_gestion_hotelera.service.ContabilidadService;
 import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
 import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
 import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import com.reservas.hotel.api_gestion_hotelera.util.TextoUtils;
+import com.reservas.hotel.api_gestion_hotelera.util.TransaccionUtils;
 
 @Service
 public class ReservaServiceImpl implements ReservaService {
 
+    // Exclusión GiST sobre (habitacion_id, periodo) definida en schema.sql
+    private static final String RESTRICCION_SIN_SOLAPAMIENTO = "reserva_sin_solapamiento";
+    // exclusion_violation: con el que PostgreSQL rechaza las filas que violan una restricción EXCLUDE
+    private static final String SQLSTATE_EXCLUSION = "23P01";
+
     @Autowired
     private ReservaRepository reservaRepository;
 
@@ -36,9 +75,72 @@ public class ReservaServiceImpl implements ReservaService {
     @Autowired
     private ContabilidadService contabilidadService;
 
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Autowired
+    private CoordinadorReservas coordinadorReservas;
+
+    @Autowired
+    private IndiceReservas indiceReservas;
+
+    @Autowired
+    private CatalogoHabitaciones catalogoHabitaciones;
+
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @Autowired
+    private AsignadorHabitaciones asignadorHabitaciones;
+
+    @Autowired
+    private CambiosReservas cambiosReservas;
+
     @Override
     @Transactional
-        public Reserva crearReserva(Reserva reserva) {
+    public Reserva crearReserva(Reserva reserva) {
+        return reservar(reserva, false);
+    }
+
+    @Override
+    @Transactional
+    public Reserva crearReservaPorTipo(Long tipoId, Reserva reserva) {
+        if (tipoId == null) {
+            throw new IllegalArgumentException("El tipo de habitación es requerido");
+        }
+        if (reserva.getFechaIngreso() == null || reserva.getFechaEgreso() == null) {
+            throw new IllegalArgumentException("Las fechas son requeridas");
+        }
+        LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+        LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+        if (!ingreso.isBefore(egreso)) {
+            throw new IllegalArgumentException("La fecha de egreso debe ser posterior a la fecha de ingreso");
+        }
+        int[] numeros = catalogoHabitaciones.numerosDeTipo(tipoId);
+        if (numeros.length == 0) {
+            throw new IllegalArgumentException("No hay habitaciones del tipo: " + tipoId);
+        }
+
+        // Con todas las habitaciones del tipo bloqueadas, la elegida no puede ocuparse en el medio
+        coordinadorReservas.bloquearHastaFinDeTransaccion(Arrays.stream(numeros).boxed().toList());
+        Integer numero = asignadorHabitaciones.elegir(tipoId, ingreso, egreso);
+        if (numero == null) {
+            throw new ConflictoReservaException(
+                "No hay habitaciones del tipo " + tipoId + " disponibles entre " + ingreso + " y " + egreso);
+        }
+
+        Habitacion habitacion = new Habitacion();
+        habitacion.setNumero(numero);
+        reserva.setHabitacion(habitacion);
+        return reservar(reserva, true);
+    }
+
+    /**
+     * Crea la reserva en la habitación indicada.
+     * @param asignacionAutomatica true si la habitación la eligió el sistema; el optimizador
+     *                             nocturno puede moverla a otra habitación del mismo tipo
+     */
+    private Reserva reservar(Reserva reserva, boolean asignacionAutomatica) {
         // Validar datos básicos
         if (reserva.getFechaIngreso() == null || reserva.getFechaEgreso() == null) {
             throw new IllegalArgumentException("Las fechas son requeridas");
@@ -48,13 +150,27 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalArgumentException("El número de habitación es requerido");
         }
 
+        LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+        LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+        if (!ingreso.isBefore(egreso)) {
+            throw new IllegalArgumentException("La fecha de egreso debe ser posterior a la fecha de ingreso");
+        }
+
+        // Siempre es una reserva nueva, aunque venga de un intento anterior que falló
+        reserva.setId(null);
+        reserva.setVersion(null);
+        reserva.setAsignacionAutomatica(asignacionAutomatica);
+
+        // Serializar las escrituras sobre la habitación hasta que termine la transacción
+        coordinadorReservas.bloquearHastaFinDeTransaccion(List.of(reserva.getHabitacion().getNumero()));
+
         // Buscar habitación por número
         Habitacion habitacion = habitacionService.buscarPorNumero(reserva.getHabitacion().getNumero())
             .orElseThrow(() -> new IllegalArgumentException(
                 "No se encontró una habitación con número: " + reserva.getHabitacion().getNumero()));
 
-        // Validar que la habitación esté disponible para reservar
-        if (habitacion.getEstado() != EstadoHabitacion.LIBRE) {
+        // Una habitación en mantenimiento no se puede reservar para ninguna fecha
+        if (habitacion.getEstado() == EstadoHabitacion.EN_MANTENIMIENTO) {
             throw new IllegalArgumentException(
                 "La habitación " + habitacion.getNumero() + " no está disponible para reservar. Estado actual: " + habitacion.getEstado());
         }
@@ -64,26 +180,175 @@ public class ReservaServiceImpl implements ReservaService {
             throw new IllegalArgumentException("El DNI del pasajero es requerido");
         }
 
-        List<Pasajero> pasajeros = pasajeroService.buscarHuesped("dni", reserva.getResponsable().getNroDocumento());
+        Pasajero pasajero = pasajeroService.buscarPorDniExacto(reserva.getResponsable().getNroDocumento())
+            .orElseThrow(() -> new IllegalArgumentException(
+                "No se encontró un pasajero con DNI: " + reserva.getResponsable().getNroDocumento()));
 
-        if (pasajeros.isEmpty()) {
-            throw new IllegalArgumentException(
-                "No se encontró un pasajero con DNI: " + reserva.getResponsable().getNroDocumento());
+        // Validar disponibilidad para las noches pedidas y reservarlas en el calendario
+        Integer numero = habitacion.getNumero();
+        if (!calendarioDisponibilidad.ocuparSiDisponible(numero, ingreso, egreso)) {
+            throw new ConflictoReservaException(
+                "La habitación " + numero + " no está disponible para reservar entre " + ingreso + " y " + egreso,
+                indiceReservas.buscarConflictos(numero, ingreso, egreso, null));
         }
-        Pasajero pasajero = pasajeros.get(0);
+        TransaccionUtils.alRevertir(() -> calendarioDisponibilidad.liberar(numero, ingreso, egreso));
 
-        // Cambiar el estado de la habitación de LIBRE a RESERVADA
-        habitacion.setEstado(EstadoHabitacion.RESERVADA);
-        habitacionService.guardarHabitacion(habitacion);
+        // La habitación pasa de LIBRE a RESERVADA; si está ocupada conserva su estado actual
+        if (habitacion.getEstado() == EstadoHabitacion.LIBRE) {
+            habitacion.setEstado(EstadoHabitacion.RESERVADA);
+            habitacionService.guardarHabitacion(habitacion);
+        }
 
         // Configurar la reserva
         reserva.setHabitacion(habitacion);
         reserva.setResponsable(pasajero);
 
-        return reservaRepository.save(reserva);
+        // La base rechaza por su cuenta las estadías solapadas (restricción reserva_sin_solapamiento).
+        // Con ids de secuencia el INSERT espera al flush: se fuerza acá para traducir la violación.
+        Reserva reservaGuardada;
+        try {
+            reservaGuardada = reservaRepository.saveAndFlush(reserva);
+        } catch (DataIntegrityViolationException e) {
+            if (!esSolapamiento(e)) {
+                throw e;
+            }
+            throw new ConflictoReservaException(
+                "La habitación " + numero + " no está disponible para reservar entre " + ingreso + " y " + egreso,
+                indiceReservas.buscarConflictos(numero, ingreso, egreso, null));
+        }
+        registrarEnIndice(numero, reservaGuardada.getId(), ingreso, egreso);
+        registrarCambio(reservaGuardada.getId(), false);
+        return reservaGuardada;
     }
 
 
+    @Override
+    @Transactional
+    public List<ReservaGrupoItem> crearReservaGrupo(SolicitudReservaGrupo solicitud) {
+        if (solicitud.fechaIngreso() == null || solicitud.fechaEgreso() == null) {
+            throw new IllegalArgumentException("Las fechas son requeridas");
+        }
+        LocalDate ingreso = solicitud.fechaIngreso();
+        LocalDate egreso = solicitud.fechaEgreso();
+        if (!ingreso.isBefore(egreso)) {
+            throw new IllegalArgumentException("La fecha de egreso debe ser posterior a la fecha de ingreso");
+        }
+        if (solicitud.responsable() == null || solicitud.responsable().getNroDocumento() == null) {
+            throw new IllegalArgumentException("El DNI del pasajero es requerido");
+        }
+
+        List<Integer> pedidas = solicitud.habitaciones() == null ? List.of() : solicitud.habitaciones();
+        Map<Long, Integer> cantidadesPorTipo = solicitud.cantidadesPorTipo() == null ? Map.of() : solicitud.cantidadesPorTipo();
+        if (pedidas.isEmpty() && cantidadesPorTipo.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar habitaciones o cantidades por tipo de habitación");
+        }
+        if (pedidas.stream().anyMatch(Objects::isNull) || new HashSet<>(pedidas).size() != pedidas.size()) {
+            throw new IllegalArgumentException("Los números de habitación deben ser distintos y no nulos");
+        }
+        cantidadesPorTipo.forEach((tipoId, cantidad) -> {
+            if (tipoId == null || cantidad == null || cantidad <= 0) {
+                throw new IllegalArgumentException("Las cantidades por tipo deben ser mayores a cero");
+            }
+        });
+
+        // Bloquear de una vez todas las habitaciones que pueden intervenir: las pedidas y las de
+        // los tipos pedidos. Las franjas se toman en orden, así dos grupos no se interbloquean.
+        Set<Integer> candidatas = new TreeSet<>(pedidas);
+        for (Long tipoId : cantidadesPorTipo.keySet()) {
+            for (int numero : catalogoHabitaciones.numerosDeTipo(tipoId)) {
+                candidatas.add(numero);
+            }
+        }
+        coordinadorReservas.bloquearHastaFinDeTransaccion(candidatas);
+
+        // Un solo responsable para todo el grupo
+        Pasajero pasajero = pasajeroService.buscarPorDniExacto(solicitud.responsable().getNroDocumento())
+            .orElseThrow(() -> new IllegalArgumentException(
+                "No se encontró un pasajero con DNI: " + solicitud.responsable().getNroDocumento()));
+
+        // Completar con habitaciones de cada tipo libres durante todo el rango
+        List<Integer> elegidas = new ArrayList<>(pedidas);
+        Set<Integer> usadas = new HashSet<>(pedidas);
+        for (Map.Entry<Long, Integer> pedido : cantidadesPorTipo.entrySet()) {
+            int encontradas = 0;
+            for (int numero : catalogoHabitaciones.numerosDeTipo(pedido.getKey())) {
+                if (encontradas == pedido.getValue()) {
+                    break;
+                }
+                if (!usadas.contains(numero) && catalogoHabitaciones.estaHabilitada(numero)
+                        && calendarioDisponibilidad.estaDisponible(numero, ingreso, egreso)) {
+                    elegidas.add(numero);
+                    usadas.add(numero);
+                    encontradas++;
+                }
+            }
+            if (encontradas < pedido.getValue()) {
+                throw new ConflictoReservaException("Hay " + encontradas + " habitaciones libres del tipo " + pedido.getKey()
+                    + " entre " + ingreso + " y " + egreso + " y se pidieron " + pedido.getValue());
+            }
+        }
+
+        // Una sola consulta para todas las habitaciones
+        Map<Integer, Habitacion> habitaciones = habitacionService.buscarPorNumeros(elegidas).stream()
+            .collect(Collectors.toMap(Habitacion::getNumero, h -> h));
+
+        // Ocupar las noches de cada habitación; si una falla se revierte todo el grupo
+        List<Habitacion> reservadas = new ArrayList<>();
+        for (Integer numero : elegidas) {
+            Habitacion habitacion = habitaciones.get(numero);
+            if (habitacion == null) {
+                throw new IllegalArgumentException("No se encontró una habitación con número: " + numero);
+            }
+            if (habitacion.getEstado() == EstadoHabitacion.EN_MANTENIMIENTO) {
+                throw new IllegalArgumentException(
+                    "La habitación " + numero + " no está disponible para reservar. Estado actual: " + habitacion.getEstado());
+            }
+            if (!calendarioDisponibilidad.ocuparSiDisponible(numero, ingreso, egreso)) {
+                throw new ConflictoReservaException(
+                    "La habitación " + numero + " no está disponible para reservar entre " + ingreso + " y " + egreso,
+                    indiceReservas.buscarConflictos(numero, ingreso, egreso, null));
+            }
+            TransaccionUtils.alRevertir(() -> calendarioDisponibilidad.liberar(numero, ingreso, egreso));
+
+            if (habitacion.getEstado() == EstadoHabitacion.LIBRE) {
+                habitacion.setEstado(EstadoHabitacion.RESERVADA);
+                reservadas.add(habitacion);
+            }
+        }
+        if (!reservadas.isEmpty()) {
+            habitacionService.guardarHabitaciones(reservadas);
+        }
+
+        List<Reserva> reservas = new ArrayList<>(elegidas.size());
+        for (Integer numero : elegidas) {
+            Reserva reserva = new Reserva();
+            reserva.setFechaIngreso(FechaUtils.aDate(ingreso));
+            reserva.setFechaEgreso(FechaUtils.aDate(egreso));
+            reserva.setHabitacion(habitaciones.get(numero));
+            reserva.setResponsable(pasajero);
+            reservas.add(reserva);
+        }
+
+        List<ReservaGrupoItem> resultado = new ArrayList<>(reservas.size());
+        try {
+            // Un solo lote de INSERT para todo el grupo (ids de secuencia y hibernate.jdbc.batch_size)
+            for (Reserva guardada : reservaRepository.saveAllAndFlush(reservas)) {
+                Habitacion habitacion = guardada.getHabitacion();
+                registrarEnIndice(habitacion.getNumero(), guardada.getId(), ingreso, egreso);
+                registrarCambio(guardada.getId(), false);
+                resultado.add(new ReservaGrupoItem(
+                    habitacion.getNumero(), habitacion.getTipoHabitacion().getNombre(), guardada.getId()));
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (!esSolapamiento(e)) {
+                throw e;
+            }
+            throw new ConflictoReservaException(
+                "Alguna de las habitaciones del grupo ya fue reservada entre " + ingreso + " y " + egreso);
+        }
+        return resultado;
+    }
+
     // ==========================================================
     // Otros métodos
     // ==========================================================
@@ -92,6 +357,7 @@ public class ReservaServiceImpl implements ReservaService {
     @Transactional
     public Reserva realizarCheckIn(Reserva reservaRequest) {
 
+        bloquearHabitacionDeReserva(reservaRequest.getId());
         Reserva reserva = reservaRepository.findById(reservaRequest.getId())
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
         Habitacion habitacion = habitacionService.buscarPorNumero(
@@ -108,6 +374,8 @@ public class ReservaServiceImpl implements ReservaService {
         habitacionService.guardarHabitacion(habitacion);
 
         reserva.setHabitacion(habitacion);
+        // El estado de la habitación viaja en la vista de la reserva
+        registrarCambio(reserva.getId(), false);
 
         return reserva;
     }
@@ -116,13 +384,55 @@ public class ReservaServiceImpl implements ReservaService {
     @Override
     @Transactional
     public Reserva modificarReserva(Long id, Reserva datosActualizados) {
+        bloquearHabitacionDeReserva(id);
         Reserva reserva = reservaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
 
+        if (datosActualizados.getFechaIngreso() == null || datosActualizados.getFechaEgreso() == null) {
+            throw new IllegalArgumentException("Las fechas son requeridas");
+        }
+
+        LocalDate ingresoAnterior = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+        LocalDate egresoAnterior = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+        LocalDate ingreso = FechaUtils.aLocalDate(datosActualizados.getFechaIngreso());
+        LocalDate egreso = FechaUtils.aLocalDate(datosActualizados.getFechaEgreso());
+        if (!ingreso.isBefore(egreso)) {
+            throw new IllegalArgumentException("La fecha de egreso debe ser posterior a la fecha de ingreso");
+        }
+
+        // Mover las noches de la reserva en el calendario sin pisar otras reservas
+        Integer numero = reserva.getHabitacion().getNumero();
+        if (!calendarioDisponibilidad.moverSiDisponible(numero, ingresoAnterior, egresoAnterior, ingreso, egreso)) {
+            throw new ConflictoReservaException(
+                "La habitación " + numero + " no está disponible para reservar entre " + ingreso + " y " + egreso,
+                indiceReservas.buscarConflictos(numero, ingreso, egreso, id));
+        }
+        TransaccionUtils.alRevertir(() -> {
+            calendarioDisponibilidad.liberar(numero, ingreso, egreso);
+            calendarioDisponibilidad.ocupar(numero, ingresoAnterior, egresoAnterior);
+        });
+        quitarDelIndice(numero, id, ingresoAnterior, egresoAnterior);
+        registrarEnIndice(numero, id, ingreso, egreso);
+        // Las noches que dejó la reserva pueden servirle a la lista de espera
+        eventos.publishEvent(new HabitacionLiberada(numero, ingresoAnterior, egresoAnterior));
+
         reserva.setFechaIngreso(datosActualizados.getFechaIngreso());
         reserva.setFechaEgreso(datosActualizados.getFechaEgreso());
 
-        return reservaRepository.save(reserva);
+        // El flush adelanta el UPDATE: una violación de la restricción aparece acá y no al confirmar
+        Reserva guardada;
+        try {
+            guardada = reservaRepository.saveAndFlush(reserva);
+        } catch (DataIntegrityViolationException e) {
+            if (!esSolapamiento(e)) {
+                throw e;
+            }
+            throw new ConflictoReservaException(
+                "La habitación " + numero + " no está disponible para reservar entre " + ingreso + " y " + egreso,
+                indiceReservas.buscarConflictos(numero, ingreso, egreso, id));
+        }
+        registrarCambio(id, false);
+        return guardada;
     }
 
     @Override
@@ -148,6 +458,7 @@ public class ReservaServiceImpl implements ReservaService {
     @Transactional
     public void cancelarReserva(Long id) {
 
+        bloquearHabitacionDeReserva(id);
         Reserva reserva = reservaRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
 
@@ -159,32 +470,156 @@ public class ReservaServiceImpl implements ReservaService {
                 "La habitación " + habitacion.getNumero() + " ya está libre. La reserva puede haber sido cancelada previamente.");
         }
 
-        // Cambiar el estado de la habitación a LIBRE
-        habitacion.setEstado(EstadoHabitacion.LIBRE);
-        habitacionService.guardarHabitacion(habitacion);
+        // Liberar las noches de la reserva en el calendario
+        Integer numero = habitacion.getNumero();
+        LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+        LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+        if (ingreso != null && egreso != null) {
+            calendarioDisponibilidad.liberar(numero, ingreso, egreso);
+            TransaccionUtils.alRevertir(() -> calendarioDisponibilidad.ocupar(numero, ingreso, egreso));
+            quitarDelIndice(numero, reserva.getId(), ingreso, egreso);
+            eventos.publishEvent(new HabitacionLiberada(numero, ingreso, egreso));
+        }
+
+        // La habitación queda LIBRE solo si no le quedan otras reservas por delante
+        if (!calendarioDisponibilidad.tieneOcupacionDesde(numero, LocalDate.now())) {
+            habitacion.setEstado(EstadoHabitacion.LIBRE);
+            habitacionService.guardarHabitacion(habitacion);
+        }
 
         // Eliminar la reserva
         reservaRepository.delete(reserva);
+        registrarCambio(id, true);
     }
 
     @Override
-    public Set<Reserva> buscarTodas() {
-        List<Reserva> reservas = reservaRepository.findAllWithRelations();
-        return reservas.stream().collect(Collectors.toSet());
+    public Pagina<ReservaVista> buscarPagina(Long despues, int tamano) {
+        List<ReservaVista> filas = reservaRepository.buscarVistasPagina(despues == null ? 0L : despues, Limit.of(tamano + 1));
+        Pagina<ReservaVista> pagina = Pagina.de(filas, tamano, ReservaVista::id);
+        return new Pagina<>(conPasajeros(pagina.elementos()), pagina.siguiente());
     }
 
     @Override
-    public List<Reserva> buscarPorNombreHuesped(String nombre) {
-        return reservaRepository.buscarPorNombreHuesped(nombre);
+    @Transactional(readOnly = true)
+    public void exportar(Consumer<ReservaExportada> destino) {
+        // La transacción mantiene abierto el cursor mientras se consume el stream
+        try (Stream<ReservaExportada> filas = reservaRepository.exportarTodas()) {
+            filas.forEach(destino);
+        }
     }
 
     @Override
-    public List<Reserva> buscarPorDniHuesped(String dni) {
-        return reservaRepository.buscarPorDniHuesped(dni);
+    public List<ReservaVista> buscarPorNombreHuesped(String nombre) {
+        return conPasajeros(reservaRepository.buscarVistasPorNombreHuesped(TextoUtils.normalizarBusqueda(nombre)));
     }
 
     @Override
-    public Optional<Reserva> buscarPorId(Long id) {
-        return reservaRepository.findById(id);
+    public List<ReservaVista> buscarPorDniHuesped(String dni) {
+        return conPasajeros(reservaRepository.buscarVistasPorDniHuesped(dni));
+    }
+
+    @Override
+    public Optional<ReservaVista> buscarPorId(Long id) {
+        return reservaRepository.buscarVistaPorId(id)
+            .map(reserva -> conPasajeros(List.of(reserva)).get(0));
+    }
+
+    @Override
+    public Cambios<ReservaVista, Long> cambiosDesde(String desde) {
+        // Primero la versión y las claves, después la base: lo que se confirme en el medio puede
+        // venir ya en esta respuesta y se repite en la próxima, pero no se pierde
+        RegistroCambios.Delta<Long> delta = cambiosReservas.desde(desde);
+        if (delta == null) {
+            String version = cambiosReservas.version();
+            List<ReservaVista> vigentes = reservaRepository.buscarVistasVigentes(FechaUtils.aDate(LocalDate.now()));
+            return new Cambios<>(version, true, conPasajeros(vigentes), List.of());
+        }
+        if (delta.cambiadas().isEmpty()) {
+            return new Cambios<>(delta.version(), false, List.of(), delta.eliminadas());
+        }
+        // Una reserva que cambió pero ya terminó tampoco está en el listado completo: se manda como eliminada
+        LocalDate hoy = LocalDate.now();
+        List<ReservaVista> cambiadas = new ArrayList<>();
+        List<Long> eliminadas = new ArrayList<>(delta.eliminadas());
+        for (ReservaVista reserva : reservaRepository.buscarVistasPorIds(delta.cambiadas())) {
+            LocalDate egreso = FechaUtils.aLocalDate(reserva.fechaEgreso());
+            if (egreso != null && !egreso.isAfter(hoy)) {
+                eliminadas.add(reserva.id());
+            } else {
+                cambiadas.add(reserva);
+            }
+        }
+        return new Cambios<>(delta.version(), false, conPasajeros(cambiadas), eliminadas);
+    }
+
+    /**
+     * A medianoche las reservas que egresan ese día dejan de estar vigentes. Se anotan como
+     * eliminadas para que los clientes que sincronizan por cambios las saquen, igual que las deja
+     * afuera el listado completo.
+     */
+    @Scheduled(cron = "${reservas.cambios.cron-terminadas:0 0 0 * * *}")
+    public void registrarTerminadas() {
+        LocalDate hoy = LocalDate.now();
+        reservaRepository.buscarIdsConEgresoEntre(FechaUtils.aDate(hoy.minusDays(1)), FechaUtils.aDate(hoy))
+            .forEach(reservaId -> cambiosReservas.registrar(reservaId, true));
+    }
+
+    // Completa los pasajeros de todas las reservas con una sola consulta, en vez de una por reserva
+    private List<ReservaVista> conPasajeros(List<ReservaVista> reservas) {
+        if (reservas.isEmpty()) {
+            return reservas;
+        }
+        Map<Long, List<PasajeroResumen>> pasajeros = reservaRepository
+            .buscarPasajerosDeReservas(reservas.stream().map(ReservaVista::id).toList()).stream()
+            .collect(Collectors.groupingBy(PasajeroDeReserva::getReservaId, Collectors.mapping(
+                p -> new PasajeroResumen(p.getId(), p.getNombre(), p.getApellido(), p.getNroDocumento()),
+                Collectors.toList())));
+        return reservas.stream()
+            .map(reserva -> reserva.conPasajeros(pasajeros.getOrDefault(reserva.id(), List.of())))
+            .toList();
+    }
+
+    // Toma el lock de la habitación antes de leer la reserva, para leer siempre datos confirmados
+    private void bloquearHabitacionDeReserva(Long reservaId) {
+        if (reservaId == null) {
+            return;
+        }
+        reservaRepository.buscarNumeroHabitacion(reservaId)
+                .ifPresent(numero -> coordinadorReservas.bloquearHastaFinDeTransaccion(List.of(numero)));
+    }
+
+    // Hibernate no siempre trae el nombre de la restricción: su dialecto de PostgreSQL lo busca
+    // suponiendo un SQLState numérico y con 23P01 lo deja en null. Se mira también el SQLState
+    // del SQLException y, por último, el mensaje del driver.
+    private static boolean esSolapamiento(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacion
+                    && RESTRICCION_SIN_SOLAPAMIENTO.equalsIgnoreCase(violacion.getConstraintName())) {
+                return true;
+            }
+            if (causa instanceof SQLException sql && SQLSTATE_EXCLUSION.equals(sql.getSQLState())) {
+                return true;
+            }
+            if (causa.getMessage() != null && causa.getMessage().contains(RESTRICCION_SIN_SOLAPAMIENTO)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void registrarCambio(Long reservaId, boolean eliminada) {
+        TransaccionUtils.alConfirmar(() -> cambiosReservas.registrar(reservaId, eliminada));
+    }
+
+    // Mantienen el índice de intervalos alineado con el resultado de la transacción
+
+    private void registrarEnIndice(Integer numero, Long reservaId, LocalDate ingreso, LocalDate egreso) {
+        indiceReservas.registrar(numero, reservaId, ingreso, egreso);
+        TransaccionUtils.alRevertir(() -> indiceReservas.eliminar(numero, reservaId, ingreso));
+    }
+
+    private void quitarDelIndice(Integer numero, Long reservaId, LocalDate ingreso, LocalDate egreso) {
+        indiceReservas.eliminar(numero, reservaId, ingreso);
+        TransaccionUtils.alRevertir(() -> indiceReservas.registrar(numero, reservaId, ingreso, egreso));
     }
 }
@@ -0,0 +1,35 @@
+package com.reservas.hotel.api_gestion_hotelera.util;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Conversiones entre las fechas de las entidades (java.util.Date) y LocalDate.
+ *
+ * Las fechas de las reservas son días sin hora y se guardan como la medianoche UTC de ese día:
+ * así las deja Jackson al leer "2025-03-10" y así las escribe y lee Hibernate
+ * (spring.jackson.time-zone y hibernate.jdbc.time_zone en application.properties). La zona del
+ * servidor no interviene: con la del sistema, en una zona al oeste de UTC cada estadía
+ * empezaba una noche antes.
+ */
+public final class FechaUtils {
+
+    private FechaUtils() {
+    }
+
+    public static LocalDate aLocalDate(Date fecha) {
+        if (fecha == null) {
+            return null;
+        }
+        // java.sql.Date no soporta toInstant()
+        if (fecha instanceof java.sql.Date fechaSql) {
+            return fechaSql.toLocalDate();
+        }
+        return fecha.toInstant().atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+
+    public static Date aDate(LocalDate fecha) {
+        return fecha == null ? null : Date.from(fecha.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
@@ -0,0 +1,49 @@
+package com.reservas.hotel.api_gestion_hotelera.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de textos usados como clave de búsqueda.
+ */
+public final class TextoUtils {
+
+    // Marcas combinantes (tildes, diéresis, virgulilla) que quedan separadas tras la forma NFD
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private TextoUtils() {
+    }
+
+    /**
+     * Clave de búsqueda de nombres: sin acentos y en minúsculas, "Pérez" y "PEREZ" -> "perez".
+     * Se calcula una vez al guardar el pasajero y las consultas se normalizan igual.
+     */
+    public static String normalizarBusqueda(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Deja solo letras y dígitos ASCII, en mayúsculas: "12.345.678" y "12345678" son el mismo DNI.
+     * Devuelve null si no queda nada.
+     */
+    public static String normalizarDni(String dni) {
+        if (dni == null) {
+            return null;
+        }
+        StringBuilder normalizado = new StringBuilder(dni.length());
+        for (int i = 0; i < dni.length(); i++) {
+            char c = dni.charAt(i);
+            if (c >= '0' && c <= '9' || c >= 'A' && c <= 'Z') {
+                normalizado.append(c);
+            } else if (c >= 'a' && c <= 'z') {
+                normalizado.append((char) (c - 'a' + 'A'));
+            }
+        }
+        return normalizado.isEmpty() ? null : normalizado.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package com.reservas.hotel.api_gestion_hotelera.cache;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.TipoHabitacionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheHabitacionesTest {
+
+    private static final int MAXIMO = 100;
+
+    @Mock
+    private HabitacionRepository habitacionRepository;
+
+    @Mock
+    private TipoHabitacionRepository tipoHabitacionRepository;
+
+    private final CacheHabitaciones cache = new CacheHabitaciones(MAXIMO, 10);
+    private TipoHabitacion tipo;
+
+    @BeforeEach
+    void setUp() {
+        tipo = new TipoHabitacion("Doble", new BigDecimal("2000.00"), 10, 2);
+        tipo.setId(2L);
+        ReflectionTestUtils.setField(cache, "habitacionRepository", habitacionRepository);
+        ReflectionTestUtils.setField(cache, "tipoHabitacionRepository", tipoHabitacionRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMetricas_AciertosYFallos() {
+
+        when(habitacionRepository.findByNumero(101)).thenReturn(Optional.of(new Habitacion(101, EstadoHabitacion.LIBRE, tipo)));
+        when(habitacionRepository.findByNumero(999)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cache.buscar(101).isPresent());
+        }
+        // Las que no existen no se guardan: cada búsqueda vuelve a la base
+        assertTrue(cache.buscar(999).isEmpty());
+        assertTrue(cache.buscar(999).isEmpty());
+
+        Map<String, Object> habitaciones = (Map<String, Object>) cache.metricas().get("habitaciones");
+        assertEquals(3L, habitaciones.get("aciertos"));
+        assertEquals(3L, habitaciones.get("fallos"));
+        assertEquals(0.5, (double) habitaciones.get("tasaAciertos"), 1e-9);
+        assertEquals(1L, habitaciones.get("tamano"));
+        verify(habitacionRepository, times(2)).findByNumero(999);
+    }
+
+    @Test
+    void testBuscarTipo_SoloLaPrimeraVaALaBase() {
+
+        when(tipoHabitacionRepository.findById(2L)).thenReturn(Optional.of(tipo));
+
+        TipoHabitacion primero = cache.buscarTipo(2L).orElseThrow();
+        TipoHabitacion segundo = cache.buscarTipo(2L).orElseThrow();
+
+        assertEquals(tipo, primero);
+        assertNotSame(primero, segundo);
+        assertNotSame(tipo, primero);
+        verify(tipoHabitacionRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void testInvalidar_LaProximaLecturaVaALaBase() {
+
+        when(habitacionRepository.findByNumero(101)).thenReturn(Optional.of(new Habitacion(101, EstadoHabitacion.LIBRE, tipo)));
+        cache.buscar(101);
+
+        cache.invalidar(101);
+        cache.buscar(101);
+
+        verify(habitacionRepository, times(2)).findByNumero(101);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTamanoAcotado_LasMasLeidasSobrevivenAUnRecorrido() {
+
+        when(habitacionRepository.findByNumero(anyInt()))
+            .thenAnswer(inv -> Optional.of(new Habitacion(inv.getArgument(0), EstadoHabitacion.LIBRE, tipo)));
+
+        // Cache llena; Caffeine empieza a contar frecuencias cuando se acerca al máximo
+        for (int numero = 1; numero <= MAXIMO; numero++) {
+            cache.buscar(numero);
+        }
+        // Diez habitaciones que se leen seguido (las de la recepción, por ejemplo)
+        for (int vuelta = 0; vuelta < 20; vuelta++) {
+            for (int numero = 1; numero <= 10; numero++) {
+                cache.buscar(numero);
+            }
+        }
+        // Un recorrido de mil habitaciones leídas una sola vez no las desaloja
+        for (int numero = 1000; numero < 2000; numero++) {
+            cache.buscar(numero);
+        }
+        for (int numero = 1; numero <= 10; numero++) {
+            cache.buscar(numero);
+        }
+
+        Map<String, Object> habitaciones = (Map<String, Object>) cache.metricas().get("habitaciones");
+        assertTrue((long) habitaciones.get("tamano") <= MAXIMO);
+        assertTrue((long) habitaciones.get("desalojos") >= 1000 - MAXIMO);
+        for (int numero = 1; numero <= 10; numero++) {
+            verify(habitacionRepository, times(1)).findByNumero(numero);
+        }
+    }
+}
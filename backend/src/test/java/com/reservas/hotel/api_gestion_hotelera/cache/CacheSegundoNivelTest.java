@@ -0,0 +1,196 @@
+package com.reservas.hotel.api_gestion_hotelera.cache;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de segundo nivel sobre una base H2, medida con las estadísticas de Hibernate (prendidas
+ * acá como en el perfil "metricas"). La tanda de reservas, consultas y cancelaciones por HTTP
+ * corre con -Pbenchmarks.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:segundonivel;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+    }
+)
+@Slf4j
+class CacheSegundoNivelTest {
+
+    private static final int PEDIDOS = 400;
+    private static final int HORIZONTE_DIAS = 120;
+    private static final String DNI = "30999888";
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private HabitacionService habitacionService;
+
+    private Statistics estadisticas;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (pasajeroRepository.count() > 0) {
+            return;
+        }
+        Pasajero pasajero = new Pasajero();
+        pasajero.setNombre("Luis");
+        pasajero.setApellido("Pérez");
+        pasajero.setNroDocumento(DNI);
+        pasajero.setDniNormalizado(DNI);
+        pasajero.setEstado(EstadoPasajero.ACTIVO);
+        pasajeroRepository.save(pasajero);
+    }
+
+    @Test
+    void testHabitacion_SaleDeLaRegionYLaEscrituraLaActualiza() throws Exception {
+
+        Habitacion habitacion = leer(102);
+        EstadoHabitacion original = habitacion.getEstado();
+        estadisticas.clear();
+        // Otra sesión: la habitación y su tipo salen de sus regiones, sin ir a la base
+        assertEquals(original, leer(102).getEstado());
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+        assertEquals(1, estadisticas.getDomainDataRegionStatistics("habitaciones").getHitCount());
+        assertEquals(1, estadisticas.getDomainDataRegionStatistics("tiposHabitacion").getHitCount());
+
+        Habitacion guardada = habitacionService.actualizarEstado(102L, EstadoHabitacion.EN_MANTENIMIENTO);
+        try {
+            estadisticas.clear();
+            // READ_WRITE: al confirmar el UPDATE la entrada queda con el estado nuevo
+            assertEquals(EstadoHabitacion.EN_MANTENIMIENTO, leer(102).getEstado());
+            assertEquals(0, estadisticas.getPrepareStatementCount());
+        } finally {
+            habitacionService.actualizarEstado(guardada.getNumero().longValue(), original);
+        }
+
+        JsonNode metricas = objectMapper.readTree(enviar(HttpRequest.newBuilder(uri("/api/metricas")).GET()).body());
+        assertTrue(metricas.get("cacheSegundoNivel").get("estadisticasActivas").asBoolean());
+        assertTrue(metricas.get("cacheSegundoNivel").get("habitaciones").get("aciertos").asLong() > 0);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkReservas_LasHabitacionesYTiposSalenDeLaCache() throws Exception {
+
+        List<Integer> numeros = new ArrayList<>();
+        habitacionRepository.findAll().forEach(h -> numeros.add(h.getNumero()));
+        LocalDate base = LocalDate.now().plusDays(1);
+        Random random = new Random(42);
+
+        estadisticas.clear();
+        int creadas = 0;
+        int rechazadas = 0;
+        for (int i = 0; i < PEDIDOS; i++) {
+            LocalDate ingreso = base.plusDays(random.nextInt(HORIZONTE_DIAS));
+            String pedido = objectMapper.writeValueAsString(Map.of(
+                "fechaIngreso", ingreso.toString(),
+                "fechaEgreso", ingreso.plusDays(1 + random.nextInt(4)).toString(),
+                "habitacion", Map.of("numero", numeros.get(random.nextInt(numeros.size()))),
+                "responsable", Map.of("nroDocumento", DNI)
+            ));
+            HttpResponse<byte[]> respuesta = enviar(HttpRequest.newBuilder(uri("/api/reservas/crear"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(pedido)));
+            if (respuesta.statusCode() != 201) {
+                assertEquals(409, respuesta.statusCode());
+                rechazadas++;
+                continue;
+            }
+            creadas++;
+            long id = objectMapper.readTree(respuesta.body()).get("id").asLong();
+            // Parte de las reservas se consultan y parte se cancelan, como en el día a día
+            if (random.nextInt(3) == 0) {
+                assertEquals(200, enviar(HttpRequest.newBuilder(uri("/api/reservas/" + id)).GET()).statusCode());
+            }
+            if (random.nextInt(4) == 0) {
+                assertEquals(204, enviar(HttpRequest.newBuilder(uri("/api/reservas/" + id)).DELETE()).statusCode());
+            }
+        }
+
+        CacheRegionStatistics habitaciones = estadisticas.getDomainDataRegionStatistics("habitaciones");
+        CacheRegionStatistics tipos = estadisticas.getDomainDataRegionStatistics("tiposHabitacion");
+        log.info("Segundo nivel tras {} pedidos ({} creadas, {} rechazadas): habitaciones {} aciertos / {} fallos, "
+                + "tipos {} aciertos / {} fallos, {} sentencias",
+            PEDIDOS, creadas, rechazadas, habitaciones.getHitCount(), habitaciones.getMissCount(),
+            tipos.getHitCount(), tipos.getMissCount(), estadisticas.getPrepareStatementCount());
+
+        assertTrue(creadas > PEDIDOS / 2);
+        assertTrue(tasa(habitaciones) > 0.9, "Tasa de aciertos de habitaciones: " + tasa(habitaciones));
+        assertTrue(tasa(tipos) > 0.9, "Tasa de aciertos de tipos: " + tasa(tipos));
+
+        JsonNode metricas = objectMapper.readTree(enviar(HttpRequest.newBuilder(uri("/api/metricas")).GET()).body());
+        assertTrue(metricas.get("cacheSegundoNivel").get("habitaciones").get("aciertos").asLong() >= habitaciones.getHitCount());
+    }
+
+    // Cada lectura en una sesión nueva, así no la resuelve la cache de primer nivel
+    private Habitacion leer(int numero) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Habitacion.class, numero);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static double tasa(CacheRegionStatistics region) {
+        return (double) region.getHitCount() / Math.max(1, region.getHitCount() + region.getMissCount());
+    }
+
+    private URI uri(String ruta) {
+        return URI.create("http://localhost:" + puerto + ruta);
+    }
+
+    private HttpResponse<byte[]> enviar(HttpRequest.Builder pedido) throws Exception {
+        return cliente.send(pedido.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
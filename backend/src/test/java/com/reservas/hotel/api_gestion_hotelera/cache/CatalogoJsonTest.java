@@ -0,0 +1,158 @@
+package com.reservas.hotel.api_gestion_hotelera.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceEstadosHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.service.impl.HabitacionServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class CatalogoJsonTest {
+
+    private static final int HABITACIONES = 300;
+    private static final int PEDIDOS = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CatalogoHabitaciones catalogoHabitaciones = new CatalogoHabitaciones();
+    private final IndiceEstadosHabitacion indiceEstadosHabitacion = new IndiceEstadosHabitacion();
+    private final CambiosHabitaciones cambiosHabitaciones = new CambiosHabitaciones(64);
+    private final HabitacionServiceImpl habitacionService = new HabitacionServiceImpl();
+    private final CatalogoJson catalogoJson = new CatalogoJson();
+
+    @BeforeEach
+    void setUp() {
+        List<TipoHabitacion> tipos = new ArrayList<>();
+        String[] nombres = {"Suite", "Doble", "Simple"};
+        for (int i = 0; i < nombres.length; i++) {
+            TipoHabitacion tipo = new TipoHabitacion(nombres[i], new BigDecimal(1000 * (i + 1) + ".00"), 10, i + 1);
+            tipo.setId(i + 1L);
+            tipos.add(tipo);
+        }
+        EstadoHabitacion[] estados = EstadoHabitacion.values();
+        List<Habitacion> habitaciones = new ArrayList<>();
+        for (int i = 0; i < HABITACIONES; i++) {
+            habitaciones.add(new Habitacion(100 + i, estados[i % estados.length], tipos.get(i % tipos.size())));
+        }
+        catalogoHabitaciones.registrarTodas(habitaciones);
+        indiceEstadosHabitacion.registrarTodas(habitaciones);
+
+        // Servicio real sobre los índices en memoria: el camino medido no pasa por proxies de Mockito
+        ReflectionTestUtils.setField(habitacionService, "catalogoHabitaciones", catalogoHabitaciones);
+        ReflectionTestUtils.setField(habitacionService, "indiceEstadosHabitacion", indiceEstadosHabitacion);
+        ReflectionTestUtils.setField(habitacionService, "cambiosHabitaciones", cambiosHabitaciones);
+        ReflectionTestUtils.setField(catalogoJson, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(catalogoJson, "habitacionService", habitacionService);
+        ReflectionTestUtils.setField(catalogoJson, "catalogoHabitaciones", catalogoHabitaciones);
+    }
+
+    @Test
+    void testHabitaciones_MismosBytesHastaQueCambiaLaVersion() throws Exception {
+
+        CatalogoJson.Json primero = catalogoJson.habitaciones();
+
+        assertSame(primero, catalogoJson.habitaciones());
+        JsonNode lista = objectMapper.readTree(primero.utf8());
+        assertEquals(HABITACIONES, lista.size());
+        assertEquals(100, lista.get(0).get("numero").asInt());
+        assertEquals("Suite", lista.get(0).get("tipoHabitacion").get("nombre").asText());
+
+        cambiosHabitaciones.registrar(100, false);
+        CatalogoJson.Json segundo = catalogoJson.habitaciones();
+
+        assertNotSame(primero, segundo);
+        assertNotEquals(primero.version(), segundo.version());
+        assertEquals(habitacionService.version(), segundo.version());
+    }
+
+    @Test
+    void testGzip_MismoContenidoQueUtf8() throws Exception {
+
+        CatalogoJson.Json json = catalogoJson.habitaciones();
+
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(json.gzip()))) {
+            assertArrayEquals(json.utf8(), entrada.readAllBytes());
+        }
+        assertTrue(json.gzip().length < json.utf8().length / 4);
+    }
+
+    @Test
+    void testTipos_OrdenadosPorNombre() throws Exception {
+
+        JsonNode tipos = objectMapper.readTree(catalogoJson.tipos().utf8());
+
+        assertEquals(3, tipos.size());
+        assertEquals("Doble", tipos.get(0).get("nombre").asText());
+        assertEquals("Suite", tipos.get(2).get("nombre").asText());
+        assertSame(catalogoJson.tipos(), catalogoJson.tipos());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkCatalogo_AsignacionesYRendimiento() throws Exception {
+
+        // Antes: cada pedido arma la lista y la pasa por Jackson (y por gzip si el cliente lo acepta)
+        Medicion jackson = medir(() -> objectMapper.writeValueAsBytes(habitacionService.cambiosDesde(null).cambiados()));
+        Medicion jacksonGzip = medir(() -> {
+            byte[] utf8 = objectMapper.writeValueAsBytes(habitacionService.cambiosDesde(null).cambiados());
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+                gzip.write(utf8);
+            }
+            return comprimido.toByteArray();
+        });
+        // Después: comparar la versión y devolver el arreglo guardado
+        Medicion cache = medir(() -> catalogoJson.habitaciones().gzip());
+
+        log.info("Catálogo de {} habitaciones: Jackson {} B/pedido {} pedidos/s, Jackson+gzip {} B/pedido {} pedidos/s, "
+                + "pre-serializado {} B/pedido {} pedidos/s",
+            HABITACIONES, jackson.bytesPorPedido(), Math.round(jackson.pedidosPorSegundo()),
+            jacksonGzip.bytesPorPedido(), Math.round(jacksonGzip.pedidosPorSegundo()),
+            cache.bytesPorPedido(), Math.round(cache.pedidosPorSegundo()));
+
+        assertTrue(cache.bytesPorPedido() * 100 < jackson.bytesPorPedido(),
+            "Pre-serializado asigna " + cache.bytesPorPedido() + " B por pedido");
+        assertTrue(cache.pedidosPorSegundo() > jacksonGzip.pedidosPorSegundo() * 10);
+    }
+
+    private Medicion medir(Callable<byte[]> pedido) throws Exception {
+        // Calentamiento para que el JIT compile el camino medido
+        for (int i = 0; i < PEDIDOS; i++) {
+            pedido.call();
+        }
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long largo = 0;
+        long asignadosAntes = hilos.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < PEDIDOS; i++) {
+            largo += pedido.call().length;
+        }
+        long ns = System.nanoTime() - inicio;
+        long asignados = hilos.getCurrentThreadAllocatedBytes() - asignadosAntes;
+        assertTrue(largo > 0);
+        return new Medicion(asignados / PEDIDOS, PEDIDOS / (ns / 1e9));
+    }
+
+    private record Medicion(long bytesPorPedido, double pedidosPorSegundo) {
+    }
+}
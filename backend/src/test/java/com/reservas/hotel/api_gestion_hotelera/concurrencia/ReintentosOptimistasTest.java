@@ -0,0 +1,69 @@
+package com.reservas.hotel.api_gestion_hotelera.concurrencia;
+
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReintentosOptimistasTest {
+
+    private ReintentosOptimistas reintentos;
+
+    @BeforeEach
+    void setUp() {
+        reintentos = new ReintentosOptimistas();
+        ReflectionTestUtils.setField(reintentos, "maximoIntentos", 3);
+        ReflectionTestUtils.setField(reintentos, "esperaBaseMs", 1L);
+    }
+
+    @Test
+    void testEjecutar_ReintentaHastaLograrlo() {
+
+        AtomicInteger intentos = new AtomicInteger();
+
+        String resultado = reintentos.ejecutar("prueba", () -> {
+            if (intentos.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Reserva", 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(3, intentos.get());
+        assertEquals(2L, reintentos.metricas().get("reintentos"));
+        assertEquals(0L, reintentos.metricas().get("agotadas"));
+    }
+
+    @Test
+    void testEjecutar_AgotaLosIntentos() {
+
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(ConflictoReservaException.class, () -> reintentos.ejecutar("prueba", () -> {
+            intentos.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Reserva", 1L);
+        }));
+
+        assertEquals(3, intentos.get());
+        assertEquals(1L, reintentos.metricas().get("agotadas"));
+    }
+
+    @Test
+    void testEjecutar_NoReintentaOtrosErrores() {
+
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> reintentos.ejecutar("prueba", () -> {
+            intentos.incrementAndGet();
+            throw new IllegalArgumentException("Las fechas son requeridas");
+        }));
+
+        assertEquals(1, intentos.get());
+        assertEquals(0L, reintentos.metricas().get("reintentos"));
+    }
+}
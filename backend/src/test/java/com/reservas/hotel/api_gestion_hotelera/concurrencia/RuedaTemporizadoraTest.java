@@ -0,0 +1,64 @@
+package com.reservas.hotel.api_gestion_hotelera.concurrencia;
+
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.RuedaTemporizadora.Temporizador;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuedaTemporizadoraTest {
+
+    private RuedaTemporizadora rueda;
+
+    @BeforeEach
+    void setUp() {
+        // Ticks de 10 ms y 8 ranuras: una vuelta completa dura 80 ms
+        rueda = new RuedaTemporizadora(10, 8);
+        rueda.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rueda.detener();
+    }
+
+    @Test
+    void testProgramar_VenceEnOrden() throws InterruptedException {
+
+        List<String> vencidos = new CopyOnWriteArrayList<>();
+        CountDownLatch fin = new CountDownLatch(3);
+
+        // 250 ms da más de tres vueltas: debe esperar a su vuelta y no correr antes
+        rueda.programar(250, () -> { vencidos.add("tercero"); fin.countDown(); });
+        rueda.programar(30, () -> { vencidos.add("primero"); fin.countDown(); });
+        rueda.programar(120, () -> { vencidos.add("segundo"); fin.countDown(); });
+
+        assertTrue(fin.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("primero", "segundo", "tercero"), vencidos);
+    }
+
+    @Test
+    void testCancelar_NoEjecuta() throws InterruptedException {
+
+        List<String> vencidos = new CopyOnWriteArrayList<>();
+        CountDownLatch control = new CountDownLatch(1);
+
+        Temporizador cancelado = rueda.programar(30, () -> vencidos.add("cancelado"));
+        rueda.programar(60, control::countDown);
+        cancelado.cancelar();
+
+        assertTrue(control.await(2, TimeUnit.SECONDS));
+        assertTrue(vencidos.isEmpty());
+    }
+
+    @Test
+    void testRanurasNoPotenciaDeDos() {
+        assertThrows(IllegalArgumentException.class, () -> new RuedaTemporizadora(10, 6));
+    }
+}
@@ -0,0 +1,53 @@
+package com.reservas.hotel.api_gestion_hotelera.config;
+
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository.ClavesPasajero;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClavesBusquedaInitializerTest {
+
+    @Mock
+    private PasajeroRepository pasajeroRepository;
+
+    @InjectMocks
+    private ClavesBusquedaInitializer initializer;
+
+    private static ClavesPasajero claves(long id, String nombre, String apellido,
+                                        String nombreBusqueda, String apellidoBusqueda) {
+        ClavesPasajero claves = mock(ClavesPasajero.class);
+        lenient().when(claves.getId()).thenReturn(id);
+        when(claves.getNombre()).thenReturn(nombre);
+        when(claves.getApellido()).thenReturn(apellido);
+        when(claves.getNombreBusqueda()).thenReturn(nombreBusqueda);
+        lenient().when(claves.getApellidoBusqueda()).thenReturn(apellidoBusqueda);
+        return claves;
+    }
+
+    @Test
+    void testRun_SoloCorrigeLasQueDifierenDelNormalizador() {
+
+        List<ClavesPasajero> pasajeros = List.of(
+            claves(1L, "José", "Pérez", "jose", "perez"),
+            // unaccent deja "o" donde el normalizador conserva la ø
+            claves(2L, "Søren", "Kierkegaard", "soren", "kierkegaard"),
+            // Anterior a la migración: sin claves
+            claves(3L, "Ana", "Gómez", null, null));
+        when(pasajeroRepository.buscarClaves()).thenReturn(pasajeros);
+
+        initializer.run();
+
+        verify(pasajeroRepository).actualizarClavesBusqueda(2L, "søren", "kierkegaard");
+        verify(pasajeroRepository).actualizarClavesBusqueda(3L, "ana", "gomez");
+        verify(pasajeroRepository, never()).actualizarClavesBusqueda(eq(1L), any(), any());
+    }
+}
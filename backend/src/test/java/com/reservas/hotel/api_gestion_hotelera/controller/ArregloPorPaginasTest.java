@@ -0,0 +1,58 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroResumen;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArregloPorPaginasTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testEscribir_UnArregloPedidoDeAUnaPagina() throws Exception {
+
+        List<PasajeroResumen> todos = LongStream.rangeClosed(1, 7)
+            .mapToObj(id -> new PasajeroResumen(id, "Nombre" + id, "Apellido" + id, String.valueOf(30_000_000 + id)))
+            .toList();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        // Bytes ya escritos cada vez que se pide una página
+        List<Integer> escritosAlPedir = new ArrayList<>();
+
+        ArregloPorPaginas.escribir(objectMapper, PasajeroResumen.class, despues -> {
+            escritosAlPedir.add(salida.size());
+            int desde = despues == null ? 0 : despues.intValue();
+            List<PasajeroResumen> filas = todos.subList(desde, Math.min(todos.size(), desde + 4));
+            return Pagina.de(filas, 3, PasajeroResumen::id);
+        }).writeTo(salida);
+
+        JsonNode arreglo = objectMapper.readTree(salida.toByteArray());
+        assertEquals(7, arreglo.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i + 1, arreglo.get(i).get("id").asLong());
+        }
+        // Tres páginas, y cada una ya estaba escrita al pedir la siguiente
+        assertEquals(3, escritosAlPedir.size());
+        assertTrue(escritosAlPedir.get(0) < escritosAlPedir.get(1));
+        assertTrue(escritosAlPedir.get(1) < escritosAlPedir.get(2));
+    }
+
+    @Test
+    void testEscribir_SinElementosEsUnArregloVacio() throws Exception {
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        ArregloPorPaginas.<PasajeroResumen>escribir(objectMapper, PasajeroResumen.class,
+            despues -> new Pagina<>(List.of(), null)).writeTo(salida);
+
+        assertEquals("[]", salida.toString());
+    }
+}
@@ -0,0 +1,222 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GET condicional de los listados de habitaciones: muchos clientes que consultan seguido sin
+ * que cambie nada no deberían generar consultas a la base.
+ * Usa las mismas propiedades que ProyeccionesLecturaTest para compartir el contexto.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:proyecciones;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+    }
+)
+@Slf4j
+class HabitacionControllerEtagTest {
+
+    private static final int CONSULTAS_POR_CLIENTE = 10;
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HabitacionService habitacionService;
+
+    private Statistics estadisticas;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testListar_304SinConsultasMientrasNoCambie() throws Exception {
+
+        HttpResponse<String> primera = pedir("/api/habitaciones/listar?tamano=100", null);
+        assertEquals(200, primera.statusCode());
+        String etag = primera.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("\""), "ETag fuerte: " + etag);
+
+        HttpResponse<String> repetida = pedir("/api/habitaciones/listar?tamano=100", etag);
+        assertEquals(304, repetida.statusCode());
+        assertTrue(repetida.body().isEmpty());
+
+        // Cualquier escritura confirmada cambia la versión
+        Habitacion habitacion = habitacionService.buscarPorNumero(101).orElseThrow();
+        EstadoHabitacion original = habitacion.getEstado();
+        habitacion.setEstado(EstadoHabitacion.EN_MANTENIMIENTO);
+        Habitacion guardada = habitacionService.guardarHabitacion(habitacion);
+        try {
+            HttpResponse<String> cambiada = pedir("/api/habitaciones/listar?tamano=100", etag);
+            assertEquals(200, cambiada.statusCode());
+            assertNotEquals(etag, cambiada.headers().firstValue("ETag").orElseThrow());
+        } finally {
+            guardada.setEstado(original);
+            habitacionService.guardarHabitacion(guardada);
+        }
+    }
+
+    @Test
+    void testMuchosClientesSinCambios_SinConsultasALaBase() throws Exception {
+
+        int clientes = 20;
+        String ruta = "/api/habitaciones/listar?tamano=100";
+        String etag = pedir(ruta, null).headers().firstValue("ETag").orElseThrow();
+
+        Resultado sinEtag = sondear(ruta, null, clientes);
+        Resultado conEtag = sondear(ruta, etag, clientes);
+
+        assertEquals(clientes * CONSULTAS_POR_CLIENTE, sinEtag.sentencias());
+        assertEquals(0, conEtag.sentencias());
+        assertEquals(clientes * CONSULTAS_POR_CLIENTE, conEtag.noModificadas());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSondeo_DoscientosClientes() throws Exception {
+
+        int clientes = 200;
+        String ruta = "/api/habitaciones/listar?tamano=100";
+        String etag = pedir(ruta, null).headers().firstValue("ETag").orElseThrow();
+
+        Resultado sinEtag = sondear(ruta, null, clientes);
+        Resultado conEtag = sondear(ruta, etag, clientes);
+
+        log.info("{} clientes x {} consultas a /listar: sin ETag {} sentencias ({}/s), con ETag {} sentencias ({}/s), {} respuestas 304",
+            clientes, CONSULTAS_POR_CLIENTE, sinEtag.sentencias(), Math.round(sinEtag.sentenciasPorSegundo()),
+            conEtag.sentencias(), Math.round(conEtag.sentenciasPorSegundo()), conEtag.noModificadas());
+        assertEquals(0, conEtag.sentencias());
+    }
+
+    @Test
+    void testListadosEnMemoria_TambienResponden304() throws Exception {
+
+        for (String ruta : List.of("/api/habitaciones/disponibles", "/api/habitaciones/estado/LIBRE", "/api/habitaciones/resumen")) {
+            String etag = pedir(ruta, null).headers().firstValue("ETag").orElseThrow();
+            assertEquals(304, pedir(ruta, etag).statusCode(), ruta);
+        }
+    }
+
+    @Test
+    void testCatalogoPreSerializado_GzipYEtag() throws Exception {
+
+        for (String ruta : List.of("/api/habitaciones/catalogo", "/api/habitaciones/tipos")) {
+            HttpResponse<byte[]> plano = cliente.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + puerto + ruta)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+            HttpResponse<byte[]> comprimido = cliente.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + puerto + ruta)).header("Accept-Encoding", "gzip").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+            assertEquals(200, plano.statusCode());
+            assertTrue(plano.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+            assertEquals("gzip", comprimido.headers().firstValue("Content-Encoding").orElseThrow(), ruta);
+            try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(comprimido.body()))) {
+                assertArrayEquals(plano.body(), entrada.readAllBytes(), ruta);
+            }
+            // Cada codificación tiene su ETag
+            String etag = comprimido.headers().firstValue("ETag").orElseThrow();
+            assertNotEquals(plano.headers().firstValue("ETag").orElseThrow(), etag);
+            estadisticas.clear();
+            HttpResponse<byte[]> repetido = cliente.send(HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                    .header("Accept-Encoding", "gzip").header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(304, repetido.statusCode(), ruta);
+            assertEquals(0, estadisticas.getPrepareStatementCount());
+        }
+    }
+
+    @Test
+    void testCatalogo_RespetaLosPesosDeAcceptEncoding() throws Exception {
+
+        Map<String, Boolean> casos = new LinkedHashMap<>();
+        casos.put("gzip;q=0", false);
+        casos.put("gzip; q=0.0, identity", false);
+        casos.put("deflate, *;q=0", false);
+        casos.put("br, gzip;q=0.5", true);
+        casos.put("GZIP", true);
+        casos.put("*", true);
+        casos.put("identity", false);
+        for (Map.Entry<String, Boolean> caso : casos.entrySet()) {
+            HttpResponse<byte[]> respuesta = cliente.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + puerto + "/api/habitaciones/catalogo"))
+                    .header("Accept-Encoding", caso.getKey()).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(200, respuesta.statusCode(), caso.getKey());
+            assertEquals(caso.getValue(), respuesta.headers().firstValue("Content-Encoding").isPresent(), caso.getKey());
+        }
+    }
+
+    private Resultado sondear(String ruta, String etag, int clientes) throws Exception {
+        AtomicInteger noModificadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<?>> tareas = new ArrayList<>();
+        estadisticas.clear();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < clientes; i++) {
+            tareas.add(executor.submit(() -> {
+                for (int j = 0; j < CONSULTAS_POR_CLIENTE; j++) {
+                    int estado = pedir(ruta, etag).statusCode();
+                    if (estado == 304) {
+                        noModificadas.incrementAndGet();
+                    } else {
+                        assertEquals(200, estado);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get(2, TimeUnit.MINUTES);
+        }
+        double segundos = Math.max(1, System.nanoTime() - inicio) / 1e9;
+        executor.shutdown();
+        long sentencias = estadisticas.getPrepareStatementCount();
+        return new Resultado(sentencias, sentencias / segundos, noModificadas.get());
+    }
+
+    private HttpResponse<String> pedir(String ruta, String etag) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta)).GET();
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        return cliente.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private record Resultado(long sentencias, double sentenciasPorSegundo, int noModificadas) {
+    }
+}
@@ -0,0 +1,285 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Direccion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.repository.DireccionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara, para una página de cada listado, las sentencias SQL y los bytes de la respuesta entre
+ * serializar entidades (como se hacía antes) y las proyecciones a DTO de los endpoints actuales.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:proyecciones;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+    }
+)
+class ProyeccionesLecturaTest {
+
+    private static final int CANTIDAD = 50;
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DireccionRepository direccionRepository;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private HabitacionService habitacionService;
+
+    @Autowired
+    private CambiosReservas cambiosReservas;
+
+    private Statistics estadisticas;
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (pasajeroRepository.count() > 0) {
+            return;
+        }
+        List<Pasajero> pasajeros = new ArrayList<>();
+        for (int i = 0; i < CANTIDAD; i++) {
+            Direccion direccion = new Direccion();
+            direccion.setCalle("Calle " + i);
+            direccion.setNumero(String.valueOf(100 + i));
+            direccion.setLocalidad("Rosario");
+            direccion.setProvincia("Santa Fe");
+            direccion.setPais("Argentina");
+            Pasajero pasajero = new Pasajero();
+            pasajero.setNombre("Nombre" + i);
+            pasajero.setApellido("Apellido" + i);
+            pasajero.setNroDocumento(String.valueOf(20000000 + i));
+            pasajero.setDniNormalizado(String.valueOf(20000000 + i));
+            pasajero.setEstado(EstadoPasajero.ACTIVO);
+            pasajero.setDireccion(direccionRepository.save(direccion));
+            pasajeros.add(pasajeroRepository.save(pasajero));
+        }
+
+        List<Habitacion> habitaciones = new ArrayList<>();
+        habitacionRepository.findAll().forEach(habitaciones::add);
+        LocalDate base = LocalDate.now().plusDays(1);
+        for (int i = 0; i < CANTIDAD; i++) {
+            Reserva reserva = new Reserva();
+            reserva.setHabitacion(habitaciones.get(i % habitaciones.size()));
+            reserva.setFechaIngreso(FechaUtils.aDate(base.plusDays(i * 3L)));
+            reserva.setFechaEgreso(FechaUtils.aDate(base.plusDays(i * 3L + 2)));
+            reserva.setResponsable(pasajeros.get(i));
+            reserva.setPasajeros(new HashSet<>(List.of(pasajeros.get(i), pasajeros.get((i + 1) % CANTIDAD))));
+            reserva.setAsignacionAutomatica(false);
+            reservaRepository.save(reserva);
+        }
+    }
+
+    @Test
+    void testListadoDeReservas_MenosSentenciasYBytes() throws Exception {
+        // La consulta de la página anterior: entidades con responsable y habitación, pasajeros lazy
+        Medicion antes = serializarEntidades("""
+            SELECT r FROM Reserva r
+            LEFT JOIN FETCH r.responsable
+            LEFT JOIN FETCH r.habitacion
+            WHERE r.id > 0
+            ORDER BY r.id
+            """, Reserva.class);
+        Medicion despues = pedir("/api/reservas?tamano=" + CANTIDAD);
+
+        String medido = comparacion("reservas", antes, despues);
+        assertTrue(despues.sentencias() <= 2, medido);
+        assertTrue(despues.sentencias() < antes.sentencias(), medido);
+        assertTrue(despues.bytes() < antes.bytes(), medido);
+    }
+
+    @Test
+    void testListadoDePasajeros_MenosSentenciasYBytes() throws Exception {
+        Medicion antes = serializarEntidades("SELECT p FROM Pasajero p WHERE p.id > 0 ORDER BY p.id", Pasajero.class);
+        Medicion despues = pedir("/api/pasajeros?tamano=" + CANTIDAD);
+
+        String medido = comparacion("pasajeros", antes, despues);
+        assertEquals(1, despues.sentencias(), medido);
+        assertTrue(despues.sentencias() < antes.sentencias(), medido);
+        assertTrue(despues.bytes() < antes.bytes(), medido);
+    }
+
+    @Test
+    void testListadoDeHabitaciones_UnaSentencia() throws Exception {
+        // Sin la cache de segundo nivel, que con los tipos ya cargados le ahorraría a las entidades
+        // el SELECT por tipo: se compara contra lo que cuesta serializarlas de por sí
+        entityManagerFactory.getCache().evictAll();
+        Medicion antes = serializarEntidades("SELECT h FROM Habitacion h WHERE h.numero > 0 ORDER BY h.numero", Habitacion.class);
+        Medicion despues = pedir("/api/habitaciones/listar?tamano=100");
+
+        String medido = comparacion("habitaciones", antes, despues);
+        assertEquals(1, despues.sentencias(), medido);
+        assertTrue(despues.sentencias() < antes.sentencias(), medido);
+        assertTrue(despues.bytes() <= antes.bytes(), medido);
+    }
+
+    @Test
+    void testListadosCompletos_ArregloConTodos() throws Exception {
+        HttpResponse<byte[]> reservas = cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/reservas")).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, reservas.statusCode());
+        var arreglo = objectMapper.readTree(reservas.body());
+        assertTrue(arreglo.isArray());
+        assertEquals(reservaRepository.count(), arreglo.size());
+        assertTrue(arreglo.get(0).get("id").asLong() < arreglo.get(arreglo.size() - 1).get("id").asLong());
+
+        HttpResponse<byte[]> habitaciones = cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/habitaciones/listar")).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, habitaciones.statusCode());
+        assertEquals(habitacionRepository.count(), objectMapper.readTree(habitaciones.body()).size());
+        String etag = habitaciones.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/habitaciones/listar"))
+                .header("If-None-Match", etag).GET().build(),
+            HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Test
+    void testEstadosYResumen_SinConsultarLaBase() throws Exception {
+        // Salen del índice de estados y del catálogo en memoria
+        assertEquals(0, pedir("/api/habitaciones/estado/LIBRE").sentencias());
+        assertEquals(0, pedir("/api/habitaciones/resumen").sentencias());
+
+        HttpResponse<byte[]> respuesta = cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/habitaciones/resumen")).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(habitacionRepository.count(), objectMapper.readTree(respuesta.body()).get("total").asLong());
+    }
+
+    @Test
+    void testCambios_SoloLoQueCambioDesdeLaVersion() throws Exception {
+        HttpResponse<byte[]> todas = cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/habitaciones/cambios")).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        String versionHabitaciones = objectMapper.readTree(todas.body()).get("version").asText();
+        HttpResponse<byte[]> vigentes = cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/reservas/cambios")).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertTrue(objectMapper.readTree(vigentes.body()).get("completo").asBoolean());
+        String versionReservas = objectMapper.readTree(vigentes.body()).get("version").asText();
+
+        Habitacion habitacion = habitacionService.buscarPorNumero(101).orElseThrow();
+        EstadoHabitacion original = habitacion.getEstado();
+        habitacion.setEstado(EstadoHabitacion.EN_MANTENIMIENTO);
+        Habitacion guardada = habitacionService.guardarHabitacion(habitacion);
+        // Las reservas sembradas no pasan por el servicio: se anota el cambio como lo haría al confirmar
+        Long reservaId = reservaRepository.buscarVistasPagina(0L, Limit.of(1)).get(0).id();
+        cambiosReservas.registrar(reservaId, false);
+        try {
+            Medicion deltaHabitaciones = pedir("/api/habitaciones/cambios?desde=" + versionHabitaciones);
+            Medicion deltaReservas = pedir("/api/reservas/cambios?desde=" + versionReservas);
+            String medido = String.format("habitaciones %d -> %d bytes (%d sentencias), reservas %d -> %d bytes (%d sentencias)",
+                todas.body().length, deltaHabitaciones.bytes(), deltaHabitaciones.sentencias(),
+                vigentes.body().length, deltaReservas.bytes(), deltaReservas.sentencias());
+
+            assertEquals(0, deltaHabitaciones.sentencias(), medido);
+            assertTrue(deltaHabitaciones.bytes() * 5 < todas.body().length, medido);
+            assertTrue(deltaReservas.sentencias() <= 2, medido);
+            assertTrue(deltaReservas.bytes() * 10 < vigentes.body().length, medido);
+
+            HttpResponse<byte[]> respuesta = cliente.send(HttpRequest.newBuilder(URI.create(
+                    "http://localhost:" + puerto + "/api/reservas/cambios?desde=" + versionReservas)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            var cuerpo = objectMapper.readTree(respuesta.body());
+            assertFalse(cuerpo.get("completo").asBoolean());
+            assertEquals(1, cuerpo.get("cambiados").size());
+            assertEquals(reservaId, cuerpo.get("cambiados").get(0).get("id").asLong());
+        } finally {
+            guardada.setEstado(original);
+            habitacionService.guardarHabitacion(guardada);
+        }
+    }
+
+    private Medicion serializarEntidades(String jpql, Class<?> tipo) {
+        estadisticas.clear();
+        byte[] cuerpo = new TransactionTemplate(transactionManager).execute(estado -> {
+            try {
+                List<?> filas = entityManager.createQuery(jpql, tipo).setMaxResults(CANTIDAD + 1).getResultList();
+                return objectMapper.writeValueAsBytes(filas.subList(0, Math.min(CANTIDAD, filas.size())));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return new Medicion(estadisticas.getPrepareStatementCount(), cuerpo.length);
+    }
+
+    private Medicion pedir(String ruta) throws Exception {
+        estadisticas.clear();
+        HttpResponse<byte[]> respuesta = cliente.send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta)).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, respuesta.statusCode());
+        return new Medicion(estadisticas.getPrepareStatementCount(), respuesta.body().length);
+    }
+
+    private static String comparacion(String listado, Medicion antes, Medicion despues) {
+        return String.format("Listado de %s: %d -> %d sentencias, %d -> %d bytes",
+            listado, antes.sentencias(), despues.sentencias(), antes.bytes(), despues.bytes());
+    }
+
+    private record Medicion(long sentencias, int bytes) {
+    }
+}
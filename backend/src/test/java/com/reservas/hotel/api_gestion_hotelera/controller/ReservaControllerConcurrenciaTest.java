@@ -0,0 +1,169 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository.OcupacionReserva;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * POST /api/reservas/crear concurrentes sobre pocas habitaciones: ninguna reserva queda solapada.
+ * La prueba de estrés con miles de pedidos corre con -Pbenchmarks.
+ * Corre contra una base H2 en memoria para no depender de la base de producción.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrencia;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+    }
+)
+@Slf4j
+class ReservaControllerConcurrenciaTest {
+
+    private static final int HILOS = 32;
+    private static final int[] HABITACIONES = {101, 102, 103, 104};
+    private static final int HORIZONTE_DIAS = 90;
+    private static final String DNI = "30111222";
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (pasajeroRepository.count() > 0) {
+            return;
+        }
+        Pasajero pasajero = new Pasajero();
+        pasajero.setNombre("Ana");
+        pasajero.setApellido("Gómez");
+        pasajero.setNroDocumento(DNI);
+        pasajero.setDniNormalizado(DNI);
+        pasajero.setEstado(EstadoPasajero.ACTIVO);
+        pasajeroRepository.save(pasajero);
+    }
+
+    @Test
+    void testCrearReservasConcurrentes_SinSolapamientos() throws Exception {
+        crearConcurrentes(200, new Random(42));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkCrearReservasConcurrentes_DosMilPedidos() throws Exception {
+        crearConcurrentes(2000, new Random(7));
+    }
+
+    private void crearConcurrentes(int cantidad, Random random) throws Exception {
+
+        LocalDate base = LocalDate.now().plusDays(1);
+        List<String> pedidos = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            LocalDate ingreso = base.plusDays(random.nextInt(HORIZONTE_DIAS));
+            LocalDate egreso = ingreso.plusDays(1 + random.nextInt(4));
+            pedidos.add(objectMapper.writeValueAsString(Map.of(
+                "fechaIngreso", ingreso.toString(),
+                "fechaEgreso", egreso.toString(),
+                "habitacion", Map.of("numero", HABITACIONES[random.nextInt(HABITACIONES.length)]),
+                "responsable", Map.of("nroDocumento", DNI)
+            )));
+        }
+
+        // Las reservas de una corrida anterior en el mismo contexto también se controlan
+        long previas = reservaRepository.count();
+        AtomicInteger creadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        HttpClient cliente = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + puerto + "/api/reservas/crear");
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        long duracionMs;
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (String pedido : pedidos) {
+                tareas.add(executor.submit(() -> {
+                    largada.await();
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(pedido))
+                        .build();
+                    int estado = cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (estado == 201) {
+                        creadas.incrementAndGet();
+                    } else if (estado == 409) {
+                        rechazadas.incrementAndGet();
+                    } else {
+                        errores.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(2, TimeUnit.MINUTES);
+            }
+            duracionMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        } finally {
+            executor.shutdownNow();
+            cliente.close();
+        }
+
+        log.info("Pedidos: {}, creadas: {}, rechazadas: {}, errores: {}, {} ms ({} pedidos/s)",
+            cantidad, creadas.get(), rechazadas.get(), errores.get(), duracionMs, cantidad * 1000L / duracionMs);
+
+        assertEquals(0, errores.get());
+        assertEquals(cantidad, creadas.get() + rechazadas.get());
+
+        // Ninguna habitación puede tener dos reservas que compartan una noche
+        List<OcupacionReserva> ocupaciones = reservaRepository.buscarOcupaciones();
+        assertEquals(previas + creadas.get(), ocupaciones.size());
+        Map<Integer, List<OcupacionReserva>> porHabitacion = ocupaciones.stream()
+            .collect(Collectors.groupingBy(OcupacionReserva::getNumeroHabitacion));
+        porHabitacion.forEach((numero, lista) -> {
+            lista.sort(Comparator.comparing(o -> FechaUtils.aLocalDate(o.getFechaIngreso())));
+            for (int i = 1; i < lista.size(); i++) {
+                LocalDate egresoAnterior = FechaUtils.aLocalDate(lista.get(i - 1).getFechaEgreso());
+                LocalDate ingreso = FechaUtils.aLocalDate(lista.get(i).getFechaIngreso());
+                assertFalse(ingreso.isBefore(egresoAnterior),
+                    "Reservas solapadas en la habitación " + numero + ": "
+                        + lista.get(i - 1).getId() + " y " + lista.get(i).getId());
+            }
+        });
+    }
+}
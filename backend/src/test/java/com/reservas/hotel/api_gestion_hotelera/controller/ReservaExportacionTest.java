@@ -0,0 +1,113 @@
+package com.reservas.hotel.api_gestion_hotelera.controller;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GET /api/reservas/export: una reserva JSON por línea, en orden de id, con más líneas que las
+ * que se escriben entre dos vaciados del buffer.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportacion;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+    }
+)
+class ReservaExportacionTest {
+
+    private static final int RESERVAS = 1_200;
+    private static final String DNI = "30111222";
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Test
+    void testExportar_UnaLineaPorReservaEnOrdenDeId() throws Exception {
+
+        Pasajero responsable = new Pasajero();
+        responsable.setNombre("Ana");
+        responsable.setApellido("Gómez");
+        responsable.setNroDocumento(DNI);
+        responsable.setDniNormalizado(DNI);
+        responsable.setEstado(EstadoPasajero.ACTIVO);
+        pasajeroRepository.save(responsable);
+
+        List<Habitacion> habitaciones = new ArrayList<>();
+        habitacionRepository.findAll().forEach(habitaciones::add);
+        LocalDate base = LocalDate.now().plusDays(1);
+        List<Reserva> reservas = new ArrayList<>();
+        for (int i = 0; i < RESERVAS; i++) {
+            LocalDate ingreso = base.plusDays(3L * (i / habitaciones.size()));
+            Reserva reserva = new Reserva();
+            reserva.setHabitacion(habitaciones.get(i % habitaciones.size()));
+            reserva.setResponsable(responsable);
+            reserva.setFechaIngreso(FechaUtils.aDate(ingreso));
+            reserva.setFechaEgreso(FechaUtils.aDate(ingreso.plusDays(2)));
+            reserva.setAsignacionAutomatica(false);
+            reservas.add(reserva);
+        }
+        reservaRepository.saveAll(reservas);
+
+        HttpResponse<Stream<String>> exportacion = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/reservas/export")).GET().build(),
+            HttpResponse.BodyHandlers.ofLines());
+
+        assertEquals(200, exportacion.statusCode());
+        assertTrue(exportacion.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+        List<JsonNode> lineas = exportacion.body()
+            .map(linea -> {
+                try {
+                    return objectMapper.readTree(linea);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            })
+            .toList();
+        assertEquals(RESERVAS, lineas.size());
+        List<Long> ids = lineas.stream().map(linea -> linea.get("id").asLong()).toList();
+        assertEquals(ids.stream().sorted().toList(), ids);
+        JsonNode primera = lineas.get(0);
+        assertEquals(habitaciones.get(0).getNumero(), primera.get("numeroHabitacion").asInt());
+        assertEquals(DNI, primera.get("responsableDni").asText());
+        assertEquals("Gómez", primera.get("responsableApellido").asText());
+    }
+}
@@ -0,0 +1,237 @@
+package com.reservas.hotel.api_gestion_hotelera.eventos;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class DifusorEstadosHabitacionTest {
+
+    // Intervalo largo: los lotes se reparten a mano con repartir()
+    private final DifusorEstadosHabitacion difusor = new DifusorEstadosHabitacion(3_600_000, 4, 3_600_000, 4, 0);
+
+    @BeforeEach
+    void setUp() {
+        difusor.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        difusor.detener();
+    }
+
+    @Test
+    void testPublicar_JuntaLaRafagaPorHabitacion() throws Exception {
+
+        EmisorGrabador emisor = new EmisorGrabador(1);
+        difusor.suscribir(emisor);
+
+        difusor.publicar(new CambioEstadoHabitacion(102, EstadoHabitacion.LIBRE, EstadoHabitacion.RESERVADA));
+        difusor.publicar(new CambioEstadoHabitacion(101, EstadoHabitacion.LIBRE, EstadoHabitacion.RESERVADA));
+        difusor.publicar(new CambioEstadoHabitacion(101, EstadoHabitacion.RESERVADA, EstadoHabitacion.OCUPADA));
+        // La 103 vuelve al estado del que partió: no se manda
+        difusor.publicar(new CambioEstadoHabitacion(103, EstadoHabitacion.LIBRE, EstadoHabitacion.RESERVADA));
+        difusor.publicar(new CambioEstadoHabitacion(103, EstadoHabitacion.RESERVADA, EstadoHabitacion.LIBRE));
+        difusor.repartir();
+
+        assertTrue(emisor.recibidos.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(
+            new CambioEstadoHabitacion(101, EstadoHabitacion.LIBRE, EstadoHabitacion.OCUPADA),
+            new CambioEstadoHabitacion(102, EstadoHabitacion.LIBRE, EstadoHabitacion.RESERVADA))), emisor.lotes);
+    }
+
+    @Test
+    void testRepartir_SinCambiosNoMandaNada() {
+
+        EmisorGrabador emisor = new EmisorGrabador(1);
+        difusor.suscribir(emisor);
+
+        difusor.repartir();
+
+        assertTrue(emisor.lotes.isEmpty());
+    }
+
+    @Test
+    void testSuscriptorLento_SeDesconectaSinFrenarALosDemas() throws Exception {
+
+        CountDownLatch destrabar = new CountDownLatch(1);
+        EmisorGrabador lento = new EmisorGrabador(1) {
+            @Override
+            public void send(SseEventBuilder evento) throws IOException {
+                try {
+                    destrabar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(evento);
+            }
+        };
+        EmisorGrabador rapido = new EmisorGrabador(10);
+        difusor.suscribir(lento);
+        difusor.suscribir(rapido);
+
+        // Capacidad 4: el primer lote queda trabado en el envío y los siguientes llenan la cola.
+        // Entre un reparto y otro el suscriptor rápido alcanza a vaciar la suya.
+        for (int i = 0; i < 10; i++) {
+            difusor.publicar(new CambioEstadoHabitacion(101, EstadoHabitacion.LIBRE,
+                i % 2 == 0 ? EstadoHabitacion.RESERVADA : EstadoHabitacion.OCUPADA));
+            difusor.repartir();
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (rapido.lotes.size() <= i && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+        }
+
+        assertTrue(rapido.recibidos.await(5, TimeUnit.SECONDS));
+        assertTrue(lento.lotes.isEmpty());
+        assertEquals(1, difusor.cantidadSuscriptores());
+        assertTrue(lento.completado);
+        destrabar.countDown();
+    }
+
+    @Test
+    void testRepartir_UnaFallaNoSaleDelReparto() throws Exception {
+
+        // Si una excepción escapara de repartir(), el reloj no volvería a llamarlo nunca
+        CountDownLatch destrabar = new CountDownLatch(1);
+        EmisorGrabador roto = new EmisorGrabador(1) {
+            @Override
+            public void send(SseEventBuilder evento) throws IOException {
+                try {
+                    destrabar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void complete() {
+                throw new IllegalStateException("Emisor ya cerrado");
+            }
+        };
+        difusor.suscribir(roto);
+
+        // Capacidad 4: a lo sumo un lote en el envío y cuatro en la cola; el sexto la desborda
+        // y al cerrar al suscriptor falla complete()
+        for (int i = 0; i < 6; i++) {
+            difusor.publicar(new CambioEstadoHabitacion(101, EstadoHabitacion.LIBRE,
+                i % 2 == 0 ? EstadoHabitacion.RESERVADA : EstadoHabitacion.OCUPADA));
+            assertDoesNotThrow(difusor::repartir);
+        }
+        assertEquals(0, difusor.cantidadSuscriptores());
+        destrabar.countDown();
+
+        EmisorGrabador siguiente = new EmisorGrabador(1);
+        difusor.suscribir(siguiente);
+        difusor.publicar(new CambioEstadoHabitacion(102, EstadoHabitacion.LIBRE, EstadoHabitacion.RESERVADA));
+        difusor.repartir();
+
+        assertTrue(siguiente.recibidos.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSuscribir_LaConexionNoTomaElTimeoutDelContenedor() {
+
+        // Sin timeout propio valdría el del contenedor y el EventSource reconectaría cada 30 s
+        assertEquals(0L, difusor.suscribir().getTimeout());
+
+        DifusorEstadosHabitacion conTimeout = new DifusorEstadosHabitacion(3_600_000, 4, 3_600_000, 4, 600_000);
+        assertEquals(600_000L, conTimeout.suscribir().getTimeout());
+    }
+
+    @Test
+    void testCientosDeSuscriptores() throws Exception {
+
+        List<EmisorGrabador> emisores = suscribirGrabadores(500);
+
+        // Una ráfaga de 100.000 cambios sobre 48 habitaciones se reparte como un solo lote
+        publicarRafaga(100_000);
+        difusor.repartir();
+
+        for (EmisorGrabador emisor : emisores) {
+            assertTrue(emisor.recibidos.await(10, TimeUnit.SECONDS));
+            assertEquals(1, emisor.lotes.size());
+            assertEquals(48, emisor.lotes.get(0).size());
+        }
+        assertEquals(500, difusor.cantidadSuscriptores());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkRafaga_QuinientosSuscriptores() throws Exception {
+
+        List<EmisorGrabador> emisores = suscribirGrabadores(500);
+
+        long inicio = System.nanoTime();
+        publicarRafaga(100_000);
+        long publicarNs = System.nanoTime() - inicio;
+        difusor.repartir();
+        for (EmisorGrabador emisor : emisores) {
+            assertTrue(emisor.recibidos.await(10, TimeUnit.SECONDS));
+        }
+        long totalMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        log.info("Difusor: 100000 cambios publicados en {} ms ({} ns c/u), 1 lote a {} suscriptores en {} ms",
+            TimeUnit.NANOSECONDS.toMillis(publicarNs), publicarNs / 100_000, emisores.size(), totalMs);
+    }
+
+    private List<EmisorGrabador> suscribirGrabadores(int cantidad) {
+        List<EmisorGrabador> emisores = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            EmisorGrabador emisor = new EmisorGrabador(1);
+            emisores.add(emisor);
+            difusor.suscribir(emisor);
+        }
+        return emisores;
+    }
+
+    // Cambios alternados entre RESERVADA y OCUPADA sobre las habitaciones 100 a 147
+    private void publicarRafaga(int cambios) {
+        EstadoHabitacion[] estados = {EstadoHabitacion.RESERVADA, EstadoHabitacion.OCUPADA};
+        for (int i = 0; i < cambios; i++) {
+            difusor.publicar(new CambioEstadoHabitacion(100 + i % 48, EstadoHabitacion.LIBRE, estados[(i / 48) % 2]));
+        }
+    }
+
+    /**
+     * Guarda los lotes que le mandan en vez de escribirlos en una respuesta.
+     */
+    private static class EmisorGrabador extends SseEmitter {
+        final List<List<CambioEstadoHabitacion>> lotes = new CopyOnWriteArrayList<>();
+        final CountDownLatch recibidos;
+        volatile boolean completado;
+
+        EmisorGrabador(int esperados) {
+            this.recibidos = new CountDownLatch(esperados);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder evento) throws IOException {
+            for (var dato : evento.build()) {
+                if (dato.getData() instanceof List<?> lote) {
+                    lotes.add((List<CambioEstadoHabitacion>) lote);
+                    recibidos.countDown();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completado = true;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsignadorHabitacionesTest {
+
+    private AsignadorHabitaciones asignador;
+    private CalendarioDisponibilidad calendario;
+
+    private final LocalDate base = LocalDate.of(2025, 3, 1);
+    private final int[] habitaciones = {101, 102, 103};
+
+    @BeforeEach
+    void setUp() {
+        asignador = new AsignadorHabitaciones();
+        ReflectionTestUtils.setField(asignador, "estadiaMinima", 2);
+        calendario = new CalendarioDisponibilidad();
+    }
+
+    @Test
+    void testElegir_EncajeExacto() {
+
+        // La 102 tiene libres justo las noches 3 y 4; la 101 está vacía
+        calendario.ocupar(102, base, base.plusDays(3));
+        calendario.ocupar(102, base.plusDays(5), base.plusDays(9));
+
+        assertEquals(102, asignador.elegir(calendario, habitaciones, base.plusDays(3), base.plusDays(5)));
+    }
+
+    @Test
+    void testElegir_EvitaDejarUnaNocheSuelta() {
+
+        // La 101 y la 102 tienen el mismo tramo libre (5 noches), pero en la 101 quedaría una
+        // noche suelta antes de la estadía y en la 102 la estadía queda pegada a otra reserva
+        calendario.ocupar(101, base, base.plusDays(2));
+        calendario.ocupar(101, base.plusDays(7), base.plusDays(9));
+        calendario.ocupar(102, base, base.plusDays(3));
+        calendario.ocupar(102, base.plusDays(8), base.plusDays(9));
+        calendario.ocupar(103, base, base.plusDays(30));
+
+        assertEquals(102, asignador.elegir(calendario, habitaciones, base.plusDays(3), base.plusDays(5)));
+    }
+
+    @Test
+    void testElegir_SinLugar() {
+
+        for (int numero : habitaciones) {
+            calendario.ocupar(numero, base, base.plusDays(10));
+        }
+
+        assertNull(asignador.elegir(calendario, habitaciones, base.plusDays(2), base.plusDays(4)));
+    }
+
+    @Test
+    void testAnioSintetico_BestFitContraFirstFit() {
+
+        // Un año de pedidos de 1 a 7 noches (demanda ~110% de la capacidad) que llegan en orden
+        // aleatorio para 10 habitaciones de un tipo
+        int[] numeros = {101, 102, 103, 104, 105, 106, 107, 108, 109, 110};
+        Random random = new Random(2025);
+        int pedidos = 1000;
+        LocalDate[][] estadias = new LocalDate[pedidos][];
+        for (int i = 0; i < pedidos; i++) {
+            LocalDate ingreso = base.plusDays(random.nextInt(365));
+            estadias[i] = new LocalDate[] {ingreso, ingreso.plusDays(1 + random.nextInt(7))};
+        }
+
+        CalendarioDisponibilidad firstFit = new CalendarioDisponibilidad();
+        CalendarioDisponibilidad bestFit = new CalendarioDisponibilidad();
+        long nochesFirstFit = 0;
+        long nochesBestFit = 0;
+        for (LocalDate[] estadia : estadias) {
+            long noches = estadia[1].toEpochDay() - estadia[0].toEpochDay();
+            for (int numero : numeros) {
+                if (firstFit.ocuparSiDisponible(numero, estadia[0], estadia[1])) {
+                    nochesFirstFit += noches;
+                    break;
+                }
+            }
+            Integer elegida = asignador.elegir(bestFit, numeros, estadia[0], estadia[1]);
+            if (elegida != null) {
+                bestFit.ocupar(elegida, estadia[0], estadia[1]);
+                nochesBestFit += noches;
+            }
+        }
+
+        int cortosFirstFit = 0;
+        int cortosBestFit = 0;
+        for (int numero : numeros) {
+            cortosFirstFit += firstFit.contarHuecosCortos(numero, base, base.plusDays(372), 2);
+            cortosBestFit += bestFit.contarHuecosCortos(numero, base, base.plusDays(372), 2);
+        }
+        // Con la semilla fija el resultado es siempre el mismo: no depende del tiempo ni de la máquina
+        assertTrue(nochesBestFit > nochesFirstFit,
+            "Noches vendidas: best-fit " + nochesBestFit + ", first-fit " + nochesFirstFit);
+        assertTrue(cortosBestFit <= cortosFirstFit,
+            "Huecos cortos: best-fit " + cortosBestFit + ", first-fit " + cortosFirstFit);
+    }
+}
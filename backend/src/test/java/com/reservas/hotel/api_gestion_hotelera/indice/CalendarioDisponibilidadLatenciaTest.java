@@ -0,0 +1,158 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import com.reservas.hotel.api_gestion_hotelera.config.IndicesInitializer;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latencia de la consulta de disponibilidad de una habitación: el calendario de bits en memoria
+ * contra la consulta de solapamiento en la base, con dos años de reservas en cada habitación.
+ *
+ * ReservaRepository.buscarReservasSolapadas usa el operador && sobre reserva.periodo, que solo
+ * existe en PostgreSQL; sobre H2 se mide el mismo filtro escrito sobre las columnas de fechas.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:latenciacalendario;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+    }
+)
+class CalendarioDisponibilidadLatenciaTest {
+
+    private static final int DIAS = 730;
+    private static final int CONSULTAS = 5_000;
+
+    private static final String SOLAPADAS = """
+        SELECT r FROM Reserva r
+        WHERE r.habitacion.numero = :numeroHabitacion
+        AND r.fechaIngreso < :fechaEgreso
+        AND r.fechaEgreso > :fechaIngreso
+        """;
+
+    @Autowired
+    private CalendarioDisponibilidad calendarioDisponibilidad;
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private IndicesInitializer indicesInitializer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void benchmarkEstaDisponible_CalendarioContraConsultaDeSolapamiento() {
+
+        Pasajero responsable = new Pasajero();
+        responsable.setNombre("Ana");
+        responsable.setApellido("Gómez");
+        responsable.setNroDocumento("30111222");
+        responsable.setDniNormalizado("30111222");
+        responsable.setEstado(EstadoPasajero.ACTIVO);
+        pasajeroRepository.save(responsable);
+
+        // Estadías de 1 a 7 noches separadas por 0 a 6 noches libres, dos años en cada habitación
+        List<Habitacion> habitaciones = new ArrayList<>();
+        habitacionRepository.findAll().forEach(habitaciones::add);
+        LocalDate base = LocalDate.now().plusDays(1);
+        Random random = new Random(11);
+        List<Reserva> reservas = new ArrayList<>();
+        for (Habitacion habitacion : habitaciones) {
+            LocalDate ingreso = base.plusDays(random.nextInt(7));
+            while (ingreso.isBefore(base.plusDays(DIAS))) {
+                LocalDate egreso = ingreso.plusDays(1 + random.nextInt(7));
+                reservas.add(reserva(habitacion, responsable, ingreso, egreso));
+                ingreso = egreso.plusDays(random.nextInt(7));
+            }
+        }
+        reservaRepository.saveAll(reservas);
+        // Como al iniciar la aplicación: el calendario se arma con las reservas de la base
+        indicesInitializer.run();
+
+        long[] calendario = new long[CONSULTAS];
+        long[] consulta = new long[CONSULTAS];
+        int disponibles = 0;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (int i = 0; i < CONSULTAS; i++) {
+                Integer numero = habitaciones.get(random.nextInt(habitaciones.size())).getNumero();
+                LocalDate desde = base.plusDays(random.nextInt(DIAS));
+                LocalDate hasta = desde.plusDays(1 + random.nextInt(7));
+
+                long inicio = System.nanoTime();
+                boolean libre = calendarioDisponibilidad.estaDisponible(numero, desde, hasta);
+                calendario[i] = System.nanoTime() - inicio;
+
+                inicio = System.nanoTime();
+                boolean sinSolapadas = entityManager.createQuery(SOLAPADAS, Reserva.class)
+                    .setParameter("numeroHabitacion", numero)
+                    .setParameter("fechaIngreso", FechaUtils.aDate(desde))
+                    .setParameter("fechaEgreso", FechaUtils.aDate(hasta))
+                    .getResultList()
+                    .isEmpty();
+                consulta[i] = System.nanoTime() - inicio;
+                entityManager.clear();
+
+                assertEquals(sinSolapadas, libre, "Habitación " + numero + " del " + desde + " al " + hasta);
+                if (libre) {
+                    disponibles++;
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+
+        log.info("Disponibilidad de {} habitaciones con {} reservas, {} consultas ({} disponibles): "
+                + "calendario p50 {} ns / p99 {} ns, consulta de solapamiento p50 {} ns / p99 {} ns",
+            habitaciones.size(), reservas.size(), CONSULTAS, disponibles,
+            percentil(calendario, 50), percentil(calendario, 99), percentil(consulta, 50), percentil(consulta, 99));
+        assertTrue(percentil(calendario, 99) < percentil(consulta, 50));
+    }
+
+    private static Reserva reserva(Habitacion habitacion, Pasajero responsable, LocalDate ingreso, LocalDate egreso) {
+        Reserva reserva = new Reserva();
+        reserva.setHabitacion(habitacion);
+        reserva.setResponsable(responsable);
+        reserva.setFechaIngreso(FechaUtils.aDate(ingreso));
+        reserva.setFechaEgreso(FechaUtils.aDate(egreso));
+        return reserva;
+    }
+
+    private static long percentil(long[] nanos, int percentil) {
+        long[] ordenados = nanos.clone();
+        Arrays.sort(ordenados);
+        return ordenados[Math.min(ordenados.length - 1, ordenados.length * percentil / 100)];
+    }
+}
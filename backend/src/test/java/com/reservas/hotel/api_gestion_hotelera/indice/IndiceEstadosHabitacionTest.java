@@ -0,0 +1,88 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceEstadosHabitacionTest {
+
+    private IndiceEstadosHabitacion indice;
+    private TipoHabitacion simple;
+    private TipoHabitacion doble;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceEstadosHabitacion();
+        simple = new TipoHabitacion("Simple", new BigDecimal("1000.00"), 2, 1);
+        simple.setId(1L);
+        doble = new TipoHabitacion("Doble", new BigDecimal("2000.00"), 2, 2);
+        doble.setId(2L);
+    }
+
+    @Test
+    void testRegistrarTodas_NumerosYCantidades() {
+
+        indice.registrarTodas(List.of(
+            new Habitacion(102, EstadoHabitacion.LIBRE, simple),
+            new Habitacion(101, EstadoHabitacion.LIBRE, simple),
+            new Habitacion(201, EstadoHabitacion.OCUPADA, doble)));
+
+        assertArrayEquals(new int[] {101, 102}, indice.numerosEn(EstadoHabitacion.LIBRE));
+        assertArrayEquals(new int[] {201}, indice.numerosEn(EstadoHabitacion.OCUPADA));
+        assertArrayEquals(new int[0], indice.numerosEn(EstadoHabitacion.RESERVADA));
+        assertEquals(2, indice.cantidadPorEstado().get(EstadoHabitacion.LIBRE));
+        assertEquals(2, indice.cantidadPorTipo().get(1L).get(EstadoHabitacion.LIBRE));
+        assertEquals(1, indice.cantidadPorTipo().get(2L).get(EstadoHabitacion.OCUPADA));
+    }
+
+    @Test
+    void testRegistrar_CambioDeEstadoMueveLaHabitacion() {
+
+        Habitacion habitacion = new Habitacion(101, EstadoHabitacion.LIBRE, simple);
+        indice.registrar(habitacion);
+        habitacion.setEstado(EstadoHabitacion.RESERVADA);
+        indice.registrar(habitacion);
+        // Volver a registrar sin cambios no cuenta dos veces
+        indice.registrar(habitacion);
+
+        assertArrayEquals(new int[0], indice.numerosEn(EstadoHabitacion.LIBRE));
+        assertArrayEquals(new int[] {101}, indice.numerosEn(EstadoHabitacion.RESERVADA));
+        Map<EstadoHabitacion, Integer> porEstado = indice.cantidadPorEstado();
+        assertEquals(0, porEstado.get(EstadoHabitacion.LIBRE));
+        assertEquals(1, porEstado.get(EstadoHabitacion.RESERVADA));
+        assertEquals(1, indice.cantidadPorTipo().get(1L).get(EstadoHabitacion.RESERVADA));
+        assertEquals(0, indice.cantidadPorTipo().get(1L).get(EstadoHabitacion.LIBRE));
+    }
+
+    @Test
+    void testRegistrar_CambioDeTipo() {
+
+        Habitacion habitacion = new Habitacion(101, EstadoHabitacion.LIBRE, simple);
+        indice.registrar(habitacion);
+        habitacion.setTipoHabitacion(doble);
+        indice.registrar(habitacion);
+
+        assertEquals(0, indice.cantidadPorTipo().get(1L).get(EstadoHabitacion.LIBRE));
+        assertEquals(1, indice.cantidadPorTipo().get(2L).get(EstadoHabitacion.LIBRE));
+        assertEquals(1, indice.cantidadPorEstado().get(EstadoHabitacion.LIBRE));
+    }
+
+    @Test
+    void testRegistrarTodas_ReemplazaLoAnterior() {
+
+        indice.registrar(new Habitacion(101, EstadoHabitacion.LIBRE, simple));
+        indice.registrarTodas(List.of(new Habitacion(201, EstadoHabitacion.OCUPADA, doble)));
+
+        assertArrayEquals(new int[0], indice.numerosEn(EstadoHabitacion.LIBRE));
+        assertEquals(0, indice.cantidadPorEstado().get(EstadoHabitacion.LIBRE));
+        assertNull(indice.cantidadPorTipo().get(1L));
+    }
+}
@@ -0,0 +1,110 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class IndiceListaEsperaTest {
+
+    private IndiceListaEspera indice;
+
+    private final LocalDate base = LocalDate.of(2025, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceListaEspera();
+    }
+
+    @Test
+    void testBuscarCandidatas_SoloSolapadasDelTipo() {
+
+        indice.registrar(1L, 3L, base, base.plusDays(3));
+        indice.registrar(1L, 1L, base.plusDays(2), base.plusDays(12));
+        indice.registrar(1L, 2L, base.plusDays(6), base.plusDays(8));
+        indice.registrar(2L, 4L, base, base.plusDays(30));
+
+        // Del más antiguo al más nuevo; el pedido 2 empieza justo cuando termina la liberación
+        assertEquals(List.of(1L, 3L), indice.buscarCandidatas(1L, base.plusDays(1), base.plusDays(6)));
+        assertTrue(indice.buscarCandidatas(3L, base, base.plusDays(30)).isEmpty());
+    }
+
+    @Test
+    void testEliminar_SoloUnaVez() {
+
+        indice.registrar(1L, 1L, base, base.plusDays(3));
+
+        assertTrue(indice.eliminar(1L, 1L, base));
+        assertFalse(indice.eliminar(1L, 1L, base));
+        assertEquals(0, indice.cantidad());
+        assertTrue(indice.buscarCandidatas(1L, base, base.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    void testBuscarCandidatas_IgualQueBusquedaLineal() {
+
+        Random random = new Random(7);
+        List<long[]> pedidos = registrarAlAzar(random, 2_000);
+
+        for (int i = 0; i < 200; i++) {
+            long tipo = 1 + i % 5;
+            LocalDate desde = base.plusDays(random.nextInt(365));
+            LocalDate hasta = desde.plusDays(1 + random.nextInt(5));
+            assertEquals(buscarLineal(pedidos, tipo, desde, hasta), indice.buscarCandidatas(tipo, desde, hasta));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkBuscarCandidatas_CienMilPedidos() {
+
+        // 100.000 pedidos repartidos en 5 tipos y un año
+        Random random = new Random(7);
+        List<long[]> pedidos = registrarAlAzar(random, 100_000);
+        assertEquals(100_000, indice.cantidad());
+
+        long inicio = System.nanoTime();
+        int consultas = 10_000;
+        int encontradas = 0;
+        for (int i = 0; i < consultas; i++) {
+            LocalDate desde = base.plusDays(random.nextInt(365));
+            encontradas += indice.buscarCandidatas(1L + i % 5, desde, desde.plusDays(3)).size();
+        }
+        long microsPorConsulta = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / consultas;
+        log.info("Lista de espera con 100000 pedidos: {} consultas, {} candidatas, {} us por consulta",
+            consultas, encontradas, microsPorConsulta);
+
+        LocalDate desde = base.plusDays(100);
+        LocalDate hasta = desde.plusDays(3);
+        assertEquals(buscarLineal(pedidos, 3L, desde, hasta), indice.buscarCandidatas(3L, desde, hasta));
+    }
+
+    // Registra pedidos de 1 a 7 noches en 5 tipos a lo largo de un año: {id, tipo, ingreso, egreso}
+    private List<long[]> registrarAlAzar(Random random, int cantidad) {
+        List<long[]> pedidos = new ArrayList<>();
+        for (long id = 1; id <= cantidad; id++) {
+            long tipo = 1 + random.nextInt(5);
+            LocalDate ingreso = base.plusDays(random.nextInt(365));
+            LocalDate egreso = ingreso.plusDays(1 + random.nextInt(7));
+            indice.registrar(tipo, id, ingreso, egreso);
+            pedidos.add(new long[] {id, tipo, ingreso.toEpochDay(), egreso.toEpochDay()});
+        }
+        return pedidos;
+    }
+
+    private static List<Long> buscarLineal(List<long[]> pedidos, long tipo, LocalDate desde, LocalDate hasta) {
+        return pedidos.stream()
+            .filter(p -> p[1] == tipo && p[2] < hasta.toEpochDay() && p[3] > desde.toEpochDay())
+            .map(p -> p[0])
+            .toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceReservasTest {
+
+    private IndiceReservas indice;
+
+    private final LocalDate base = LocalDate.of(2025, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceReservas();
+        indice.registrar(101, 1L, base, base.plusDays(3));
+        indice.registrar(101, 2L, base.plusDays(5), base.plusDays(20));
+        indice.registrar(101, 3L, base.plusDays(20), base.plusDays(22));
+        indice.registrar(102, 4L, base, base.plusDays(30));
+    }
+
+    @Test
+    void testBuscarConflictos_RangoLibre() {
+
+        // El egreso de una reserva coincide con el ingreso pedido y viceversa: no hay choque
+        assertTrue(indice.buscarConflictos(101, base.plusDays(3), base.plusDays(5), null).isEmpty());
+    }
+
+    @Test
+    void testBuscarConflictos_DentroDeEstadiaLarga() {
+
+        // El rango queda contenido en la reserva 2, que empezó mucho antes del ingreso pedido
+        assertEquals(List.of(2L), indice.buscarConflictos(101, base.plusDays(15), base.plusDays(16), null));
+    }
+
+    @Test
+    void testBuscarConflictos_VariasReservas() {
+
+        List<Long> conflictos = indice.buscarConflictos(101, base.plusDays(2), base.plusDays(21), null);
+
+        assertEquals(List.of(1L, 2L, 3L), conflictos);
+    }
+
+    @Test
+    void testBuscarConflictos_Excluyendo() {
+
+        assertEquals(List.of(3L), indice.buscarConflictos(101, base.plusDays(10), base.plusDays(21), 2L));
+    }
+
+    @Test
+    void testBuscarConflictos_OtraHabitacion() {
+
+        assertTrue(indice.buscarConflictos(103, base, base.plusDays(30), null).isEmpty());
+        assertEquals(List.of(4L), indice.buscarConflictos(102, base.plusDays(29), base.plusDays(31), null));
+    }
+
+    @Test
+    void testEliminar() {
+
+        indice.eliminar(101, 2L, base.plusDays(5));
+
+        assertFalse(indice.hayConflicto(101, base.plusDays(5), base.plusDays(20), null));
+        assertTrue(indice.hayConflicto(101, base, base.plusDays(1), null));
+    }
+
+    @Test
+    void testEstadiaLarga_DespuesDeEliminarlaNoQuedaRastro() {
+
+        // Una estadía de un año seguida de estadías cortas
+        indice.registrar(103, 10L, base, base.plusDays(365));
+        for (long i = 0; i < 50; i++) {
+            indice.registrar(103, 100L + i, base.plusDays(365 + 2 * i), base.plusDays(367 + 2 * i));
+        }
+
+        assertEquals(List.of(10L, 100L), indice.buscarConflictos(103, base.plusDays(364), base.plusDays(366), null));
+        assertEquals(List.of(10L), indice.buscarConflictos(103, base.plusDays(100), base.plusDays(101), null));
+
+        indice.eliminar(103, 10L, base);
+
+        assertTrue(indice.buscarConflictos(103, base.plusDays(100), base.plusDays(101), null).isEmpty());
+        assertEquals(List.of(102L, 103L), indice.buscarConflictos(103, base.plusDays(370), base.plusDays(372), null));
+    }
+
+    @Test
+    void testRegistrarSolapada_TambienSeEncuentra() {
+
+        // No debería pasar, pero si la base tiene reservas solapadas el índice no las pierde
+        indice.registrar(101, 9L, base.plusDays(1), base.plusDays(6));
+
+        assertEquals(List.of(2L, 9L), indice.buscarConflictos(101, base.plusDays(5), base.plusDays(6), null));
+        assertEquals(List.of(1L, 9L), indice.buscarConflictos(101, base, base.plusDays(2), null));
+
+        // Al eliminar la reserva 1 la 9 sigue chocando con la 2; al eliminar la 9 queda todo como antes
+        indice.eliminar(101, 1L, base);
+        assertEquals(List.of(9L), indice.buscarConflictos(101, base, base.plusDays(2), null));
+        indice.eliminar(101, 9L, base.plusDays(1));
+        assertTrue(indice.buscarConflictos(101, base, base.plusDays(5), null).isEmpty());
+        assertEquals(List.of(2L), indice.buscarConflictos(101, base.plusDays(5), base.plusDays(6), null));
+    }
+}
@@ -0,0 +1,167 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.SugerenciaPasajero;
+import com.reservas.hotel.api_gestion_hotelera.util.TextoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class IndiceSugerenciasTest {
+
+    private IndiceSugerencias indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceSugerencias();
+    }
+
+    private void registrar(long id, String nombre, String apellido, String dni) {
+        indice.registrar(new SugerenciaPasajero(id, nombre, apellido, dni),
+            TextoUtils.normalizarBusqueda(nombre), TextoUtils.normalizarBusqueda(apellido), TextoUtils.normalizarDni(dni));
+    }
+
+    private static List<Long> ids(List<SugerenciaPasajero> sugerencias) {
+        return sugerencias.stream().map(SugerenciaPasajero::id).toList();
+    }
+
+    @Test
+    void testSugerir_PorApellidoNombreODni() {
+
+        registrar(1L, "Juan", "Pérez", "12.345.678");
+        registrar(2L, "María", "Peralta", "23456789");
+        registrar(3L, "Pedro", "Gómez", "12999888");
+
+        // Orden alfabético de la clave que coincidió; sin acentos ni mayúsculas
+        assertEquals(List.of(3L, 2L, 1L), ids(indice.sugerir("PE", 10)));
+        assertEquals(List.of(1L), ids(indice.sugerir("perez j", 10)));
+        assertEquals(List.of(1L), ids(indice.sugerir("juan  pérez", 10)));
+        // Por DNI primero, con o sin puntos
+        assertEquals(List.of(1L, 3L), ids(indice.sugerir("12.", 10)));
+        assertEquals(List.of(1L), ids(indice.sugerir("12345", 10)));
+        assertEquals("12.345.678", indice.sugerir("12345", 10).get(0).nroDocumento());
+
+        assertTrue(indice.sugerir("perez x", 10).isEmpty());
+        assertTrue(indice.sugerir("  ", 10).isEmpty());
+        assertTrue(indice.sugerir(null, 10).isEmpty());
+    }
+
+    @Test
+    void testSugerir_SinRepetidosYHastaK() {
+
+        // "pedro pedraza" coincide con "pedr" por las dos claves de nombre; aparece una sola vez
+        registrar(1L, "Pedro", "Pedraza", "30000001");
+        registrar(2L, "Pedro", "Alvarez", "30000002");
+        registrar(3L, "Ana", "Pedrosa", "30000003");
+
+        assertEquals(List.of(1L, 2L, 3L), ids(indice.sugerir("pedr", 10)));
+        assertEquals(List.of(1L, 2L), ids(indice.sugerir("pedr", 2)));
+        assertTrue(indice.sugerir("pedr", 0).isEmpty());
+    }
+
+    @Test
+    void testRegistrar_ReemplazaYElimina() {
+
+        registrar(1L, "Juan", "Pérez", "12345678");
+        registrar(1L, "Juan", "Paz", "87654321");
+        assertTrue(indice.sugerir("perez", 10).isEmpty());
+        assertTrue(indice.sugerir("1234", 10).isEmpty());
+        assertEquals(List.of(1L), ids(indice.sugerir("paz", 10)));
+        assertEquals(1, indice.cantidad());
+
+        indice.eliminar(1L);
+        assertTrue(indice.sugerir("juan", 10).isEmpty());
+        assertTrue(indice.sugerir("8765", 10).isEmpty());
+        assertEquals(0, indice.cantidad());
+    }
+
+    @Test
+    void testSugerir_SoloCoincidenciasYHastaK() {
+
+        // Cada prefijo devuelve k sugerencias distintas, todas con una clave que empieza así
+        // (o todas las que hay si son menos de k)
+        List<String[]> pasajeros = registrarAlAzar(new Random(17), 3_000);
+        String[] prefijos = {"a", "r", "pe", "jua", "mar", "ferna", "san", "1", "12", "1456", "lu", "s", "zz"};
+
+        for (String prefijo : prefijos) {
+            Set<Long> coinciden = new HashSet<>();
+            for (int i = 0; i < pasajeros.size(); i++) {
+                String[] pasajero = pasajeros.get(i);
+                if (TextoUtils.normalizarBusqueda(pasajero[0]).startsWith(prefijo)
+                        || TextoUtils.normalizarBusqueda(pasajero[1]).startsWith(prefijo)
+                        || pasajero[2].startsWith(prefijo)) {
+                    coinciden.add(i + 1L);
+                }
+            }
+            List<Long> sugeridos = ids(indice.sugerir(prefijo, 10));
+            assertEquals(Math.min(10, coinciden.size()), sugeridos.size(), prefijo);
+            assertEquals(sugeridos.size(), new HashSet<>(sugeridos).size(), prefijo);
+            assertTrue(coinciden.containsAll(sugeridos), prefijo);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkSugerir_QuinientosMilHuespedes() {
+
+        // Con prefijos de una letra coinciden miles de pasajeros; la consulta tiene que
+        // seguir por debajo de los 5 ms porque solo recorre los k primeros
+        int cantidad = 500_000;
+        registrarAlAzar(new Random(17), cantidad);
+        assertEquals(cantidad, indice.cantidad());
+
+        String[] prefijos = {"a", "r", "pe", "jua", "mar", "ferna", "san", "1", "12", "1456", "lu", "s"};
+        int consultas = 10_000;
+        // Calentamiento para que el tiempo medido no incluya la compilación JIT
+        for (int i = 0; i < consultas; i++) {
+            indice.sugerir(prefijos[i % prefijos.length], 10);
+        }
+
+        long peorNanos = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < consultas; i++) {
+            long inicio = System.nanoTime();
+            List<SugerenciaPasajero> sugerencias = indice.sugerir(prefijos[i % prefijos.length], 10);
+            long nanos = System.nanoTime() - inicio;
+            totalNanos += nanos;
+            peorNanos = Math.max(peorNanos, nanos);
+            assertEquals(10, sugerencias.size());
+        }
+
+        long microsPromedio = TimeUnit.NANOSECONDS.toMicros(totalNanos / consultas);
+        log.info("Sugerencias con {} pasajeros: {} consultas de hasta 10 resultados, {} us promedio, {} us la peor",
+            cantidad, consultas, microsPromedio, TimeUnit.NANOSECONDS.toMicros(peorNanos));
+        assertTrue(microsPromedio < 5_000);
+    }
+
+    // Pasajeros sintéticos con ids desde 1: {nombre, apellido, dni}
+    private List<String[]> registrarAlAzar(Random random, int cantidad) {
+        String[] silabas = {"ro", "dri", "guez", "fer", "nan", "dez", "gar", "cia", "lo", "pez", "mar",
+            "tin", "go", "mez", "san", "chez", "pe", "rez", "al", "va", "ba", "re", "to", "sil"};
+        String[] nombres = {"Juan", "María", "José", "Ana", "Luis", "Lucía", "Pedro", "Sofía", "Jorge", "Elena"};
+        List<String[]> pasajeros = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            StringBuilder apellido = new StringBuilder();
+            int largo = 2 + random.nextInt(3);
+            for (int j = 0; j < largo; j++) {
+                apellido.append(silabas[random.nextInt(silabas.length)]);
+            }
+            apellido.setCharAt(0, Character.toUpperCase(apellido.charAt(0)));
+            String[] pasajero = {nombres[random.nextInt(nombres.length)], apellido.toString(),
+                String.valueOf(10_000_000 + i * 37L)};
+            registrar(i + 1, pasajero[0], pasajero[1], pasajero[2]);
+            pasajeros.add(pasajero);
+        }
+        return pasajeros;
+    }
+}
@@ -0,0 +1,154 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class IndiceTrigramasTest {
+
+    private IndiceTrigramas indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceTrigramas();
+    }
+
+    @Test
+    void testBuscar_SubcadenaSinDistinguirMayusculas() {
+
+        indice.registrar(1L, "Pérez");
+        indice.registrar(2L, "Perezoso");
+        indice.registrar(3L, "Gómez");
+        indice.registrar(4L, null);
+
+        assertEquals(List.of(1L), indice.buscar("PÉR"));
+        assertEquals(List.of(1L, 2L), indice.buscar("rez"));
+        assertEquals(List.of(2L), indice.buscar("ezo"));
+        assertEquals(List.of(3L), indice.buscar("mez"));
+        // Tiene los trigramas "ere" y "rez" pero no la secuencia completa
+        assertTrue(indice.buscar("erezr").isEmpty());
+        assertTrue(indice.buscar(null).isEmpty());
+    }
+
+    @Test
+    void testBuscar_ConsultasCortasYVacia() {
+
+        indice.registrar(1L, "Ana");
+        indice.registrar(2L, "Juan");
+        indice.registrar(3L, "Luis");
+
+        assertEquals(List.of(1L, 2L), indice.buscar("an"));
+        assertEquals(List.of(3L), indice.buscar("S"));
+        // Igual que LIKE '%%': todo lo que tiene texto
+        assertEquals(List.of(1L, 2L, 3L), indice.buscar(""));
+    }
+
+    @Test
+    void testRegistrar_ReemplazaYEliminaReutilizaRanuras() {
+
+        indice.registrar(1L, "Martínez");
+        indice.registrar(1L, "Fernández");
+        indice.registrar(2L, "Martín");
+
+        assertEquals(List.of(2L), indice.buscar("mart"));
+        assertEquals(List.of(1L), indice.buscar("nández"));
+
+        indice.eliminar(1L);
+        indice.registrar(3L, "Hernández");
+
+        assertEquals(List.of(3L), indice.buscar("nández"));
+        assertEquals(2, indice.cantidad());
+    }
+
+    @Test
+    void testBuscar_IgualQueBusquedaLineal() {
+
+        Random random = new Random(11);
+        String[] apellidos = registrarAlAzar(random, 5_000);
+
+        for (String texto : consultasAlAzar(random, apellidos, 200)) {
+            assertEquals(buscarLineal(apellidos, texto), indice.buscar(texto), "Consulta: " + texto);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkBuscar_UnMillonDeHuespedes() {
+
+        // La búsqueda lineal con toLowerCase().contains() es lo que hace LOWER(apellido) LIKE '%q%'
+        // en un seq scan, sin contar el costo de leer las filas.
+        Random random = new Random(11);
+        int cantidad = 1_000_000;
+        String[] apellidos = registrarAlAzar(random, cantidad);
+        assertEquals(cantidad, indice.cantidad());
+        List<String> textos = consultasAlAzar(random, apellidos, 200);
+
+        long inicio = System.nanoTime();
+        long encontradosIndice = 0;
+        for (String texto : textos) {
+            encontradosIndice += indice.buscar(texto).size();
+        }
+        long microsIndice = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / textos.size();
+
+        inicio = System.nanoTime();
+        long encontradosLineal = 0;
+        for (String texto : textos) {
+            encontradosLineal += buscarLineal(apellidos, texto).size();
+        }
+        long microsLineal = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / textos.size();
+
+        log.info("Trigramas con {} apellidos: {} consultas, {} resultados, {} us por consulta (búsqueda lineal: {} us)",
+            cantidad, textos.size(), encontradosIndice, microsIndice, microsLineal);
+        assertEquals(encontradosLineal, encontradosIndice);
+        assertTrue(microsIndice < microsLineal);
+    }
+
+    // Apellidos sintéticos de 2 a 4 sílabas, registrados con ids desde 1
+    private String[] registrarAlAzar(Random random, int cantidad) {
+        String[] silabas = {"ro", "dri", "guez", "fer", "nan", "dez", "gar", "cia", "lo", "pez", "mar",
+            "tin", "go", "mez", "san", "chez", "pe", "rez", "al", "va", "ba", "re", "to", "sil"};
+        String[] apellidos = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            StringBuilder apellido = new StringBuilder();
+            int largo = 2 + random.nextInt(3);
+            for (int j = 0; j < largo; j++) {
+                apellido.append(silabas[random.nextInt(silabas.length)]);
+            }
+            apellido.setCharAt(0, Character.toUpperCase(apellido.charAt(0)));
+            apellidos[i] = apellido.toString();
+            indice.registrar((long) i + 1, apellidos[i]);
+        }
+        return apellidos;
+    }
+
+    // Consultas de 6 letras tomadas de apellidos existentes, como las que tipea un recepcionista
+    private static List<String> consultasAlAzar(Random random, String[] apellidos, int consultas) {
+        List<String> textos = new ArrayList<>();
+        for (int i = 0; i < consultas; i++) {
+            String apellido = apellidos[random.nextInt(apellidos.length)].toLowerCase(Locale.ROOT);
+            int desde = random.nextInt(Math.max(1, apellido.length() - 5));
+            textos.add(apellido.substring(desde, Math.min(apellido.length(), desde + 6)));
+        }
+        return textos;
+    }
+
+    private static List<Long> buscarLineal(String[] apellidos, String texto) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < apellidos.length; i++) {
+            if (apellidos[i].toLowerCase(Locale.ROOT).contains(texto)) {
+                ids.add((long) i + 1);
+            }
+        }
+        return ids;
+    }
+}
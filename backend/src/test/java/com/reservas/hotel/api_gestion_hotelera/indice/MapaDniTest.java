@@ -0,0 +1,121 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class MapaDniTest {
+
+    private MapaDni mapa;
+
+    @BeforeEach
+    void setUp() {
+        mapa = new MapaDni();
+    }
+
+    @Test
+    void testRegistrarBuscarYReemplazar() {
+
+        mapa.registrar("12345678", 1L);
+        mapa.registrar("87654321", 2L);
+        mapa.registrar("12345678", 3L);
+
+        assertEquals(3L, mapa.buscar("12345678"));
+        assertEquals(2L, mapa.buscar("87654321"));
+        assertNull(mapa.buscar("11111111"));
+        assertNull(mapa.buscar(null));
+        assertEquals(2, mapa.cantidad());
+    }
+
+    @Test
+    void testEliminar_SoloSiSigueSiendoDelPasajero() {
+
+        mapa.registrar("12345678", 1L);
+
+        // Otro pasajero tomó el DNI después: la baja tardía del primero no lo borra
+        mapa.eliminar("12345678", 2L);
+        assertEquals(1L, mapa.buscar("12345678"));
+
+        mapa.eliminar("12345678", 1L);
+        assertNull(mapa.buscar("12345678"));
+        assertEquals(0, mapa.cantidad());
+    }
+
+    @Test
+    void testEliminarYCrecer_ContraHashMap() {
+
+        // Altas y bajas al azar con muchos choques; el resultado tiene que coincidir con un HashMap
+        Random random = new Random(3);
+        Map<String, Long> esperado = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            String dni = String.valueOf(20_000_000 + random.nextInt(50_000));
+            if (random.nextInt(3) == 0) {
+                Long id = esperado.remove(dni);
+                if (id != null) {
+                    mapa.eliminar(dni, id);
+                }
+            } else {
+                esperado.put(dni, (long) i);
+                mapa.registrar(dni, i);
+            }
+        }
+
+        assertEquals(esperado.size(), mapa.cantidad());
+        for (int n = 20_000_000; n < 20_050_000; n++) {
+            String dni = String.valueOf(n);
+            assertEquals(esperado.get(dni), mapa.buscar(dni), dni);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkBuscar_UnMillonDePasajeros() {
+
+        // La búsqueda que hacía crearReserva era nro_documento LIKE '%q%' sobre toda la tabla;
+        // acá se compara el mapa contra el equivalente en memoria de ese recorrido
+        int cantidad = 1_000_000;
+        String[] dnis = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            dnis[i] = String.valueOf(10_000_000 + i * 37L);
+            mapa.registrar(dnis[i], i + 1L);
+        }
+        assertEquals(cantidad, mapa.cantidad());
+
+        Random random = new Random(5);
+        int consultas = 100_000;
+        long inicio = System.nanoTime();
+        long encontrados = 0;
+        for (int i = 0; i < consultas; i++) {
+            if (mapa.buscar(dnis[random.nextInt(cantidad)]) != null) {
+                encontrados++;
+            }
+        }
+        long nanosMapa = (System.nanoTime() - inicio) / consultas;
+
+        int consultasLineales = 20;
+        inicio = System.nanoTime();
+        for (int i = 0; i < consultasLineales; i++) {
+            String buscado = dnis[random.nextInt(cantidad)];
+            for (String dni : dnis) {
+                if (dni.contains(buscado)) {
+                    break;
+                }
+            }
+        }
+        long nanosLineal = (System.nanoTime() - inicio) / consultasLineales;
+
+        log.info("DNI exacto con {} pasajeros: {} ns por búsqueda (recorrido tipo LIKE: {} us)",
+            cantidad, nanosMapa, TimeUnit.NANOSECONDS.toMicros(nanosLineal));
+        assertEquals(consultas, encontrados);
+        assertTrue(nanosMapa < nanosLineal);
+    }
+}
@@ -0,0 +1,70 @@
+package com.reservas.hotel.api_gestion_hotelera.indice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistroCambiosTest {
+
+    private final RegistroCambios<Long> registro = new RegistroCambios<>(4);
+
+    @Test
+    void testDesde_CadaClaveUnaVezConSuUltimoCambio() {
+
+        String inicial = registro.version();
+        registro.registrar(1L, false);
+        registro.registrar(2L, false);
+        registro.registrar(1L, true);
+        registro.registrar(3L, false);
+
+        RegistroCambios.Delta<Long> delta = registro.desde(inicial);
+
+        assertEquals(List.of(2L, 3L), delta.cambiadas());
+        assertEquals(List.of(1L), delta.eliminadas());
+        assertEquals(registro.version(), delta.version());
+    }
+
+    @Test
+    void testDesde_VersionActualNoTraeNada() {
+
+        registro.registrar(1L, false);
+
+        RegistroCambios.Delta<Long> delta = registro.desde(registro.version());
+
+        assertTrue(delta.cambiadas().isEmpty());
+        assertTrue(delta.eliminadas().isEmpty());
+    }
+
+    @Test
+    void testDesde_MasAtrasQueLaCapacidadPideTodo() {
+
+        String inicial = registro.version();
+        for (long i = 1; i <= 4; i++) {
+            registro.registrar(i, false);
+        }
+        String intermedia = registro.desde(inicial).version();
+        // El quinto cambio pisa al primero: desde la versión inicial ya no se puede armar el delta
+        registro.registrar(5L, false);
+
+        assertNull(registro.desde(inicial));
+        assertEquals(List.of(5L), registro.desde(intermedia).cambiadas());
+    }
+
+    @Test
+    void testDesde_VersionesInvalidasPidenTodo() {
+
+        registro.registrar(1L, false);
+        String version = registro.version();
+        String prefijo = version.substring(0, version.lastIndexOf('-'));
+
+        assertNull(registro.desde(null));
+        assertNull(registro.desde("basura"));
+        assertNull(registro.desde(prefijo + "-x"));
+        // De otra ejecución o del futuro
+        assertNull(registro.desde("otra-0"));
+        assertNull(registro.desde(prefijo + "-2"));
+        assertNotNull(registro.desde(prefijo + "-0"));
+    }
+}
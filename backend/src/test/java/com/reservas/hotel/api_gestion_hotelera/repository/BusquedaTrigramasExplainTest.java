@@ -0,0 +1,91 @@
+package com.reservas.hotel.api_gestion_hotelera.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica con EXPLAIN que las búsquedas nativas por subcadena usen los índices pg_trgm
+ * (migraciones/003 y 005). Si alguien cambia la expresión de una consulta (por ejemplo vuelve
+ * a LOWER(nombre) en lugar de la clave normalizada) el plan pasa a Seq Scan y el test falla.
+ *
+ * Necesita una base PostgreSQL con el esquema migrado:
+ * PG_EXPLAIN_URL=jdbc:postgresql://host/db PG_EXPLAIN_USER=... PG_EXPLAIN_PASSWORD=... mvn test
+ */
+@EnabledIfEnvironmentVariable(named = "PG_EXPLAIN_URL", matches = ".+")
+class BusquedaTrigramasExplainTest {
+
+    private Connection conexion;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conexion = DriverManager.getConnection(System.getenv("PG_EXPLAIN_URL"),
+            System.getenv("PG_EXPLAIN_USER"), System.getenv("PG_EXPLAIN_PASSWORD"));
+        // Con pocas filas el planificador prefiere recorrer la tabla aunque el índice sirva;
+        // así el test depende solo de que el índice sea utilizable, no del volumen de datos
+        try (Statement statement = conexion.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conexion.close();
+    }
+
+    @Test
+    void testBuscarPorNombre_UsaIndiceTrigramas() throws SQLException {
+        String plan = explicar(PasajeroRepository.SQL_BUSCAR_POR_NOMBRE, "perez");
+        assertTrue(plan.contains("pasajero_nombre_busqueda_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on pasajero"), plan);
+    }
+
+    @Test
+    void testBuscarPorApellido_UsaIndiceTrigramas() throws SQLException {
+        String plan = explicar(PasajeroRepository.SQL_BUSCAR_POR_APELLIDO, "perez");
+        assertTrue(plan.contains("pasajero_apellido_busqueda_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on pasajero"), plan);
+    }
+
+    @Test
+    void testBuscarPorDni_UsaIndiceTrigramas() throws SQLException {
+        String plan = explicar(PasajeroRepository.SQL_BUSCAR_POR_DNI, "12345");
+        assertTrue(plan.contains("pasajero_nro_documento_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan on pasajero"), plan);
+    }
+
+    @Test
+    void testBuscarReservasPorNombreHuesped_UsaIndicesTrigramas() throws SQLException {
+        String plan = explicar(ReservaRepository.SQL_IDS_POR_NOMBRE_HUESPED, "perez");
+        assertTrue(plan.contains("pasajero_nombre_busqueda_trgm"), plan);
+        assertTrue(plan.contains("pasajero_apellido_busqueda_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    // Reemplaza los parámetros con nombre de la consulta JPA por parámetros JDBC
+    private String explicar(String sql, String valor) throws SQLException {
+        String jdbc = sql.replaceAll(":[a-zA-Z]+", "?");
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = conexion.prepareStatement("EXPLAIN " + jdbc)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setString(i, valor);
+            }
+            try (ResultSet filas = statement.executeQuery()) {
+                while (filas.next()) {
+                    plan.append(filas.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,202 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import com.reservas.hotel.api_gestion_hotelera.config.IndicesInitializer;
+import com.reservas.hotel.api_gestion_hotelera.dto.DisponibilidadTipo;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.TipoHabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latencia de buscarDisponibilidadPorTipo en un hotel de 10.000 habitaciones con dos años de
+ * reservas, contra la búsqueda ingenua: una consulta de solapamiento por cada habitación del tipo.
+ *
+ * ReservaRepository.buscarReservasSolapadas usa el operador && sobre reserva.periodo, que solo
+ * existe en PostgreSQL; sobre H2 se mide el mismo filtro escrito sobre las columnas de fechas.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:latenciadisponibilidad;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+    }
+)
+class DisponibilidadPorTipoLatenciaTest {
+
+    private static final int HABITACIONES = 10_000;
+    private static final int DIAS = 730;
+    private static final int BUSQUEDAS = 1_000;
+    // Cada búsqueda ingenua hace unas 2.000 consultas: se toman menos muestras
+    private static final int BUSQUEDAS_INGENUAS = 30;
+    private static final int LOTE = 10_000;
+
+    private static final String SOLAPADAS = """
+        SELECT r FROM Reserva r
+        WHERE r.habitacion.numero = :numeroHabitacion
+        AND r.fechaIngreso < :fechaEgreso
+        AND r.fechaEgreso > :fechaIngreso
+        """;
+
+    @Autowired
+    private HabitacionService habitacionService;
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private TipoHabitacionRepository tipoHabitacionRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private IndicesInitializer indicesInitializer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void benchmarkBuscarDisponibilidadPorTipo_DiezMilHabitaciones() {
+
+        Pasajero responsable = new Pasajero();
+        responsable.setNombre("Ana");
+        responsable.setApellido("Gómez");
+        responsable.setNroDocumento("30111222");
+        responsable.setDniNormalizado("30111222");
+        responsable.setEstado(EstadoPasajero.ACTIVO);
+        pasajeroRepository.save(responsable);
+
+        // 10.000 habitaciones más, repartidas entre los tipos del catálogo inicial
+        List<TipoHabitacion> tipos = new ArrayList<>();
+        tipoHabitacionRepository.findAll().forEach(tipos::add);
+        List<Habitacion> nuevas = new ArrayList<>();
+        for (int i = 0; i < HABITACIONES; i++) {
+            nuevas.add(new Habitacion(10_000 + i, EstadoHabitacion.LIBRE, tipos.get(i % tipos.size())));
+        }
+        for (int desde = 0; desde < nuevas.size(); desde += LOTE) {
+            habitacionRepository.saveAll(nuevas.subList(desde, Math.min(nuevas.size(), desde + LOTE)));
+        }
+
+        // Estadías de 1 a 7 noches separadas por 0 a 29 noches libres, dos años en cada habitación
+        List<Habitacion> habitaciones = new ArrayList<>();
+        habitacionRepository.findAll().forEach(habitaciones::add);
+        LocalDate base = LocalDate.now().plusDays(1);
+        Random random = new Random(17);
+        List<Reserva> reservas = new ArrayList<>();
+        int cantidadReservas = 0;
+        for (Habitacion habitacion : habitaciones) {
+            LocalDate ingreso = base.plusDays(random.nextInt(30));
+            while (ingreso.isBefore(base.plusDays(DIAS))) {
+                LocalDate egreso = ingreso.plusDays(1 + random.nextInt(7));
+                reservas.add(reserva(habitacion, responsable, ingreso, egreso));
+                ingreso = egreso.plusDays(random.nextInt(30));
+            }
+            if (reservas.size() >= LOTE) {
+                reservaRepository.saveAll(reservas);
+                cantidadReservas += reservas.size();
+                reservas.clear();
+            }
+        }
+        reservaRepository.saveAll(reservas);
+        cantidadReservas += reservas.size();
+        // Como al iniciar la aplicación: catálogo y calendario se arman con lo que hay en la base
+        indicesInitializer.run();
+
+        long[] memoria = new long[BUSQUEDAS];
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            LocalDate desde = base.plusDays(random.nextInt(DIAS));
+            Long tipoId = tipos.get(random.nextInt(tipos.size())).getId();
+            long inicio = System.nanoTime();
+            habitacionService.buscarDisponibilidadPorTipo(desde, desde.plusDays(1 + random.nextInt(7)), tipoId, null);
+            memoria[i] = System.nanoTime() - inicio;
+        }
+
+        long[] ingenua = new long[BUSQUEDAS_INGENUAS];
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (int i = 0; i < BUSQUEDAS_INGENUAS; i++) {
+                LocalDate desde = base.plusDays(random.nextInt(DIAS));
+                LocalDate hasta = desde.plusDays(1 + random.nextInt(7));
+                TipoHabitacion tipo = tipos.get(random.nextInt(tipos.size()));
+
+                long inicio = System.nanoTime();
+                List<Integer> libres = new ArrayList<>();
+                for (Habitacion habitacion : habitaciones) {
+                    if (!habitacion.getTipoHabitacion().getId().equals(tipo.getId())
+                            || habitacion.getEstado() == EstadoHabitacion.EN_MANTENIMIENTO) {
+                        continue;
+                    }
+                    boolean sinSolapadas = entityManager.createQuery(SOLAPADAS, Reserva.class)
+                        .setParameter("numeroHabitacion", habitacion.getNumero())
+                        .setParameter("fechaIngreso", FechaUtils.aDate(desde))
+                        .setParameter("fechaEgreso", FechaUtils.aDate(hasta))
+                        .getResultList()
+                        .isEmpty();
+                    if (sinSolapadas) {
+                        libres.add(habitacion.getNumero());
+                    }
+                    entityManager.clear();
+                }
+                ingenua[i] = System.nanoTime() - inicio;
+
+                DisponibilidadTipo disponibilidad = habitacionService
+                    .buscarDisponibilidadPorTipo(desde, hasta, tipo.getId(), null).get(0);
+                assertEquals(libres.stream().sorted().toList(), disponibilidad.habitaciones().stream().sorted().toList(),
+                    "Tipo " + tipo.getNombre() + " del " + desde + " al " + hasta);
+            }
+        } finally {
+            entityManager.close();
+        }
+
+        log.info("Disponibilidad por tipo con {} habitaciones y {} reservas: en memoria p50 {} us / p99 {} us "
+                + "({} búsquedas), una consulta por habitación p50 {} us / p99 {} us ({} búsquedas)",
+            habitaciones.size(), cantidadReservas,
+            percentil(memoria, 50) / 1000, percentil(memoria, 99) / 1000, BUSQUEDAS,
+            percentil(ingenua, 50) / 1000, percentil(ingenua, 99) / 1000, BUSQUEDAS_INGENUAS);
+        assertTrue(percentil(memoria, 99) < percentil(ingenua, 50));
+    }
+
+    private static Reserva reserva(Habitacion habitacion, Pasajero responsable, LocalDate ingreso, LocalDate egreso) {
+        Reserva reserva = new Reserva();
+        reserva.setHabitacion(habitacion);
+        reserva.setResponsable(responsable);
+        reserva.setFechaIngreso(FechaUtils.aDate(ingreso));
+        reserva.setFechaEgreso(FechaUtils.aDate(egreso));
+        return reserva;
+    }
+
+    private static long percentil(long[] nanos, int percentil) {
+        long[] ordenados = nanos.clone();
+        Arrays.sort(ordenados);
+        return ordenados[Math.min(ordenados.length - 1, ordenados.length * percentil / 100)];
+    }
+}
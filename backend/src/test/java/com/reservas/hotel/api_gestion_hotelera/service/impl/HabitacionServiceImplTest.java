@@ -1,17 +1,40 @@
 package com.reservas.hotel.api_gestion_hotelera.service.impl;
 
+import com.reservas.hotel.api_gestion_hotelera.cache.CacheHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.ReintentosOptimistas;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.DisponibilidadTipo;
+import com.reservas.hotel.api_gestion_hotelera.dto.HabitacionVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResumenHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.dto.TipoHabitacionVista;
 import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.eventos.CambioEstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.eventos.DifusorEstadosHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceEstadosHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
 import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +47,38 @@ class HabitacionServiceImplTest {
     @Mock
     private HabitacionRepository habitacionRepository;
 
+    @Spy
+    private CalendarioDisponibilidad calendarioDisponibilidad = new CalendarioDisponibilidad();
+
+    @Spy
+    private CatalogoHabitaciones catalogoHabitaciones = new CatalogoHabitaciones();
+
+    @Spy
+    private IndiceEstadosHabitacion indiceEstadosHabitacion = new IndiceEstadosHabitacion();
+
+    @Mock
+    private DifusorEstadosHabitacion difusorEstadosHabitacion;
+
+    @Spy
+    private CambiosHabitaciones cambiosHabitaciones = new CambiosHabitaciones(64);
+
+    @Spy
+    private CambiosReservas cambiosReservas = new CambiosReservas(64);
+
+    @Spy
+    private IndiceReservas indiceReservas = new IndiceReservas();
+
+    @Mock
+    private CoordinadorReservas coordinadorReservas;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Instancia real: sus loaders quedan atados a ella, un @Spy los dejaría apuntando al original
+    private final CacheHabitaciones cacheHabitaciones = new CacheHabitaciones(100, 10);
+
+    private final ReintentosOptimistas reintentosOptimistas = new ReintentosOptimistas();
+
     @InjectMocks
     private HabitacionServiceImpl habitacionService;
 
@@ -43,6 +98,21 @@ class HabitacionServiceImplTest {
         habitacion.setNumero(101);
         habitacion.setEstado(EstadoHabitacion.LIBRE);
         habitacion.setTipoHabitacion(tipoHabitacion);
+
+        ReflectionTestUtils.setField(cacheHabitaciones, "habitacionRepository", habitacionRepository);
+        ReflectionTestUtils.setField(habitacionService, "cacheHabitaciones", cacheHabitaciones);
+        ReflectionTestUtils.setField(reintentosOptimistas, "maximoIntentos", 3);
+        ReflectionTestUtils.setField(reintentosOptimistas, "esperaBaseMs", 1L);
+        ReflectionTestUtils.setField(habitacionService, "reintentosOptimistas", reintentosOptimistas);
+    }
+
+    private static HabitacionVista vista(int numero, EstadoHabitacion estado) {
+        return new HabitacionVista(numero, estado, new TipoHabitacionVista(1L, "Simple", new BigDecimal("1000.00"), 1));
+    }
+
+    private void registrar(Habitacion... habitaciones) {
+        catalogoHabitaciones.registrarTodas(List.of(habitaciones));
+        indiceEstadosHabitacion.registrarTodas(List.of(habitaciones));
     }
 
     // Tests para buscarPorNumero
@@ -78,12 +148,55 @@ class HabitacionServiceImplTest {
     @Test
     void testBuscarPorNumero_NumeroNulo() {
         
-        when(habitacionRepository.findByNumero(null)).thenReturn(Optional.empty());
-
         Optional<Habitacion> resultado = habitacionService.buscarPorNumero(null);
 
         assertFalse(resultado.isPresent());
-        verify(habitacionRepository).findByNumero(null);
+        verifyNoInteractions(habitacionRepository);
+    }
+
+    @Test
+    void testBuscarPorNumero_SegundaLecturaSaleDeLaCache() {
+        
+        when(habitacionRepository.findByNumero(101)).thenReturn(Optional.of(habitacion));
+
+        Habitacion primera = habitacionService.buscarPorNumero(101).orElseThrow();
+        Habitacion segunda = habitacionService.buscarPorNumero(101).orElseThrow();
+
+        verify(habitacionRepository, times(1)).findByNumero(101);
+        // Cada lectura es una copia: modificar una no cambia lo que ven las demás
+        assertNotSame(primera, segunda);
+        primera.setEstado(EstadoHabitacion.OCUPADA);
+        assertEquals(EstadoHabitacion.LIBRE, habitacionService.buscarPorNumero(101).orElseThrow().getEstado());
+    }
+
+    @Test
+    void testGuardarHabitacion_ActualizaLaCache() {
+        
+        when(habitacionRepository.findByNumero(101)).thenReturn(Optional.of(habitacion));
+        habitacionService.buscarPorNumero(101);
+        Habitacion modificada = new Habitacion(101, EstadoHabitacion.RESERVADA, tipoHabitacion, 1L);
+        when(habitacionRepository.save(modificada)).thenReturn(modificada);
+
+        habitacionService.guardarHabitacion(modificada);
+        Habitacion leida = habitacionService.buscarPorNumero(101).orElseThrow();
+
+        assertEquals(EstadoHabitacion.RESERVADA, leida.getEstado());
+        assertEquals(1L, leida.getVersion());
+        verify(habitacionRepository, times(1)).findByNumero(101);
+    }
+
+    @Test
+    void testBuscarPorNumeros_CargaJuntasLasQueFaltan() {
+        
+        Habitacion otra = new Habitacion(102, EstadoHabitacion.OCUPADA, tipoHabitacion);
+        when(habitacionRepository.findByNumero(101)).thenReturn(Optional.of(habitacion));
+        when(habitacionRepository.findByNumeroIn(anyCollection())).thenReturn(List.of(otra));
+        habitacionService.buscarPorNumero(101);
+
+        List<Habitacion> resultado = habitacionService.buscarPorNumeros(List.of(101, 102, 999));
+
+        assertEquals(List.of(101, 102), resultado.stream().map(Habitacion::getNumero).toList());
+        verify(habitacionRepository).findByNumeroIn(argThat(numeros -> numeros.size() == 2 && !numeros.contains(101)));
     }
 
     // Tests para buscarDisponibles 
@@ -91,70 +204,122 @@ class HabitacionServiceImplTest {
     @Test
     void testBuscarDisponibles() {
 
-        Habitacion habitacion2 = new Habitacion();
-        habitacion2.setNumero(102);
-        habitacion2.setEstado(EstadoHabitacion.LIBRE);
+        tipoHabitacion.setId(1L);
+        registrar(habitacion, new Habitacion(102, EstadoHabitacion.LIBRE, tipoHabitacion),
+            new Habitacion(103, EstadoHabitacion.OCUPADA, tipoHabitacion));
 
-        Habitacion habitacion3 = new Habitacion();
-        habitacion3.setNumero(103);
-        habitacion3.setEstado(EstadoHabitacion.LIBRE);
+        List<HabitacionVista> resultado = habitacionService.buscarDisponibles();
 
-        List<Habitacion> habitacionesLibres = Arrays.asList(habitacion, habitacion2, habitacion3);
-        when(habitacionRepository.findByEstado(EstadoHabitacion.LIBRE)).thenReturn(habitacionesLibres);
+        assertEquals(List.of(101, 102), resultado.stream().map(HabitacionVista::numero).toList());
+        assertTrue(resultado.stream().allMatch(h -> h.estado() == EstadoHabitacion.LIBRE));
+        assertEquals("Simple", resultado.get(0).tipoHabitacion().nombre());
+        verifyNoInteractions(habitacionRepository);
+    }
 
-        List<Habitacion> resultado = habitacionService.buscarDisponibles();
+    @Test
+    void testBuscarDisponibles_ListaVacia() {
+
+        List<HabitacionVista> resultado = habitacionService.buscarDisponibles();
 
         assertNotNull(resultado);
-        assertEquals(3, resultado.size());
-        assertTrue(resultado.stream().allMatch(h -> h.getEstado() == EstadoHabitacion.LIBRE));
-        verify(habitacionRepository).findByEstado(EstadoHabitacion.LIBRE);
+        assertTrue(resultado.isEmpty());
     }
 
+    // Tests para buscarDisponiblesEntre
+
     @Test
-    void testBuscarDisponibles_ListaVacia() {
+    void testBuscarDisponiblesEntre() {
 
-        when(habitacionRepository.findByEstado(EstadoHabitacion.LIBRE)).thenReturn(Collections.emptyList());
+        LocalDate desde = LocalDate.of(2025, 3, 1);
+        LocalDate hasta = LocalDate.of(2025, 3, 5);
+        // La 101 tiene una reserva que termina justo el día de ingreso pedido
+        calendarioDisponibilidad.ocupar(101, LocalDate.of(2025, 2, 25), desde);
+        // La 102 choca en la última noche del rango
+        calendarioDisponibilidad.ocupar(102, LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 6));
 
-        List<Habitacion> resultado = habitacionService.buscarDisponibles();
+        // Las que están en mantenimiento ya no llegan de la consulta
+        when(habitacionRepository.buscarVistasSinEstado(EstadoHabitacion.EN_MANTENIMIENTO))
+            .thenReturn(Arrays.asList(vista(101, EstadoHabitacion.LIBRE), vista(102, EstadoHabitacion.OCUPADA)));
+
+        List<HabitacionVista> resultado = habitacionService.buscarDisponiblesEntre(desde, hasta);
+
+        assertEquals(1, resultado.size());
+        assertEquals(101, resultado.get(0).numero());
+        verify(habitacionRepository, never()).findAll();
+    }
+
+    // Tests para buscarDisponibilidadPorTipo
+
+    @Test
+    void testBuscarDisponibilidadPorTipo() {
+
+        tipoHabitacion.setId(1L);
+        tipoHabitacion.setCapacidad(1);
+        TipoHabitacion tipoDoble = new TipoHabitacion("Doble", new BigDecimal("2000.00"), 2, 2);
+        tipoDoble.setId(2L);
+
+        Habitacion habitacion2 = new Habitacion(102, EstadoHabitacion.LIBRE, tipoHabitacion);
+        Habitacion habitacion3 = new Habitacion(201, EstadoHabitacion.OCUPADA, tipoDoble);
+        Habitacion habitacion4 = new Habitacion(202, EstadoHabitacion.EN_MANTENIMIENTO, tipoDoble);
+        catalogoHabitaciones.registrarTodas(List.of(habitacion, habitacion2, habitacion3, habitacion4));
+
+        LocalDate desde = LocalDate.of(2025, 3, 1);
+        LocalDate hasta = LocalDate.of(2025, 3, 5);
+        calendarioDisponibilidad.ocupar(102, LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 4));
+
+        List<DisponibilidadTipo> resultado = habitacionService.buscarDisponibilidadPorTipo(desde, hasta, null, null);
+
+        assertEquals(2, resultado.size());
+        DisponibilidadTipo doble = resultado.get(0);
+        assertEquals("Doble", doble.nombre());
+        assertEquals(List.of(201), doble.habitaciones());
+        DisponibilidadTipo simple = resultado.get(1);
+        assertEquals(1, simple.cantidadDisponible());
+        assertEquals(List.of(101), simple.habitaciones());
+        verifyNoInteractions(habitacionRepository);
+    }
+
+    @Test
+    void testBuscarDisponibilidadPorTipo_FiltraPorHuespedes() {
+
+        tipoHabitacion.setId(1L);
+        tipoHabitacion.setCapacidad(1);
+        catalogoHabitaciones.registrarTodas(List.of(habitacion));
+
+        List<DisponibilidadTipo> resultado = habitacionService.buscarDisponibilidadPorTipo(
+            LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 5), null, 2);
 
-        assertNotNull(resultado);
         assertTrue(resultado.isEmpty());
-        verify(habitacionRepository).findByEstado(EstadoHabitacion.LIBRE);
     }
 
-    // Tests para buscarTodas
+    // Tests para buscarPagina
 
     @Test
-    void testBuscarTodas() {
+    void testBuscarPagina_ConSiguiente() {
         
-        Habitacion habitacion2 = new Habitacion();
-        habitacion2.setNumero(102);
-        habitacion2.setEstado(EstadoHabitacion.OCUPADA);
+        HabitacionVista habitacion1 = vista(101, EstadoHabitacion.LIBRE);
+        HabitacionVista habitacion2 = vista(102, EstadoHabitacion.OCUPADA);
+        HabitacionVista habitacion3 = vista(103, EstadoHabitacion.EN_MANTENIMIENTO);
 
-        Habitacion habitacion3 = new Habitacion();
-        habitacion3.setNumero(103);
-        habitacion3.setEstado(EstadoHabitacion.EN_MANTENIMIENTO);
+        when(habitacionRepository.buscarVistasPagina(Integer.MIN_VALUE, Limit.of(3)))
+            .thenReturn(Arrays.asList(habitacion1, habitacion2, habitacion3));
 
-        List<Habitacion> todasHabitaciones = Arrays.asList(habitacion, habitacion2, habitacion3);
-        when(habitacionRepository.findAll()).thenReturn(todasHabitaciones);
+        Pagina<HabitacionVista> resultado = habitacionService.buscarPagina(null, 2);
 
-        Set<Habitacion> resultado = habitacionService.buscarTodas();
-
-        assertNotNull(resultado);
-        assertEquals(3, resultado.size());
-        verify(habitacionRepository).findAll();
+        assertEquals(List.of(habitacion1, habitacion2), resultado.elementos());
+        assertEquals(102L, resultado.siguiente());
     }
 
     @Test
-    void testBuscarTodas_ListaVacia() {
+    void testBuscarPagina_Ultima() {
         
-        when(habitacionRepository.findAll()).thenReturn(Collections.emptyList());
+        when(habitacionRepository.buscarVistasPagina(102, Limit.of(3))).thenReturn(Collections.emptyList());
 
-        Set<Habitacion> resultado = habitacionService.buscarTodas();
+        Pagina<HabitacionVista> resultado = habitacionService.buscarPagina(102, 2);
 
-        assertNotNull(resultado);
-        assertTrue(resultado.isEmpty());
-        verify(habitacionRepository).findAll();
+        assertTrue(resultado.elementos().isEmpty());
+        assertNull(resultado.siguiente());
+        verify(habitacionRepository, never()).findAll();
     }
 
     // Tests para guardarHabitacion 
@@ -194,120 +359,177 @@ class HabitacionServiceImplTest {
     // Tests para mostrarPorEstado
 
     @Test
-    void testMostrarPorEstado_Libre() {
+    void testMostrarPorEstado_DesdeElIndice() {
         
-        Habitacion habitacion2 = new Habitacion();
-        habitacion2.setNumero(102);
-        habitacion2.setEstado(EstadoHabitacion.LIBRE);
-
-        Habitacion habitacion3 = new Habitacion();
-        habitacion3.setNumero(103);
-        habitacion3.setEstado(EstadoHabitacion.OCUPADA);
-
-        List<Habitacion> todasHabitaciones = Arrays.asList(habitacion, habitacion2, habitacion3);
-        when(habitacionRepository.findAll()).thenReturn(todasHabitaciones);
+        tipoHabitacion.setId(1L);
+        registrar(habitacion, new Habitacion(103, EstadoHabitacion.OCUPADA, tipoHabitacion),
+            new Habitacion(102, EstadoHabitacion.OCUPADA, tipoHabitacion));
 
         
-        Set<Habitacion> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.LIBRE);
+        List<HabitacionVista> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.OCUPADA);
 
         
-        assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        assertTrue(resultado.stream().allMatch(h -> h.getEstado() == EstadoHabitacion.LIBRE));
-        verify(habitacionRepository).findAll();
+        assertEquals(List.of(102, 103), resultado.stream().map(HabitacionVista::numero).toList());
+        verifyNoInteractions(habitacionRepository);
     }
 
     @Test
-    void testMostrarPorEstado_Ocupada() {
+    void testMostrarPorEstado_ListaVacia() {
         
-        Habitacion habitacion2 = new Habitacion();
-        habitacion2.setNumero(102);
-        habitacion2.setEstado(EstadoHabitacion.OCUPADA);
-
-        Habitacion habitacion3 = new Habitacion();
-        habitacion3.setNumero(103);
-        habitacion3.setEstado(EstadoHabitacion.OCUPADA);
-
-        List<Habitacion> todasHabitaciones = Arrays.asList(habitacion, habitacion2, habitacion3);
-        when(habitacionRepository.findAll()).thenReturn(todasHabitaciones);
+        registrar(habitacion);
 
         
-        Set<Habitacion> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.OCUPADA);
+        List<HabitacionVista> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.EN_MANTENIMIENTO);
 
         
         assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        assertTrue(resultado.stream().allMatch(h -> h.getEstado() == EstadoHabitacion.OCUPADA));
-        verify(habitacionRepository).findAll();
+        assertTrue(resultado.isEmpty());
     }
 
     @Test
-    void testMostrarPorEstado_Reservada() {
+    void testMostrarPorEstado_SigueLosCambiosDeEstado() {
         
-        Habitacion habitacion2 = new Habitacion();
-        habitacion2.setNumero(102);
-        habitacion2.setEstado(EstadoHabitacion.RESERVADA);
-
-        List<Habitacion> todasHabitaciones = Arrays.asList(habitacion, habitacion2);
-        when(habitacionRepository.findAll()).thenReturn(todasHabitaciones);
+        tipoHabitacion.setId(1L);
+        registrar(habitacion);
+        when(habitacionRepository.findById(101L)).thenReturn(Optional.of(habitacion));
+        when(habitacionRepository.save(habitacion)).thenReturn(habitacion);
 
         
-        Set<Habitacion> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.RESERVADA);
+        habitacionService.actualizarEstado(101L, EstadoHabitacion.EN_MANTENIMIENTO);
 
         
-        assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        assertTrue(resultado.stream().allMatch(h -> h.getEstado() == EstadoHabitacion.RESERVADA));
-        verify(habitacionRepository).findAll();
+        assertTrue(habitacionService.mostrarPorEstado(EstadoHabitacion.LIBRE).isEmpty());
+        assertEquals(1, habitacionService.mostrarPorEstado(EstadoHabitacion.EN_MANTENIMIENTO).size());
     }
 
     @Test
-    void testMostrarPorEstado_EnMantenimiento() {
-        
-        Habitacion habitacion2 = new Habitacion();
-        habitacion2.setNumero(102);
-        habitacion2.setEstado(EstadoHabitacion.EN_MANTENIMIENTO);
+    void testActualizarEstado_PublicaElCambioSoloSiCambia() {
 
-        List<Habitacion> todasHabitaciones = Arrays.asList(habitacion, habitacion2);
-        when(habitacionRepository.findAll()).thenReturn(todasHabitaciones);
+        registrar(habitacion);
+        when(habitacionRepository.findById(101L)).thenReturn(Optional.of(habitacion));
+        when(habitacionRepository.save(habitacion)).thenReturn(habitacion);
 
-        
-        Set<Habitacion> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.EN_MANTENIMIENTO);
+        habitacionService.actualizarEstado(101L, EstadoHabitacion.OCUPADA);
+        habitacionService.actualizarEstado(101L, EstadoHabitacion.OCUPADA);
 
-        
-        assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        assertTrue(resultado.stream().allMatch(h -> h.getEstado() == EstadoHabitacion.EN_MANTENIMIENTO));
-        verify(habitacionRepository).findAll();
+        verify(difusorEstadosHabitacion, times(1)).publicar(any());
+        verify(difusorEstadosHabitacion).publicar(
+            new CambioEstadoHabitacion(101, EstadoHabitacion.LIBRE, EstadoHabitacion.OCUPADA));
     }
 
+    // Tests para version
+
     @Test
-    void testMostrarPorEstado_NingunResultado() {
-        
-        List<Habitacion> todasHabitaciones = Arrays.asList(habitacion);
-        when(habitacionRepository.findAll()).thenReturn(todasHabitaciones);
+    void testVersion_CambiaConCadaEscritura() {
 
-        
-        Set<Habitacion> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.OCUPADA);
+        when(habitacionRepository.save(habitacion)).thenReturn(habitacion);
+        String inicial = habitacionService.version();
 
-        
-        assertNotNull(resultado);
-        assertTrue(resultado.isEmpty());
-        verify(habitacionRepository).findAll();
+        assertEquals(inicial, habitacionService.version());
+        habitacionService.guardarHabitacion(habitacion);
+        String despues = habitacionService.version();
+
+        assertNotEquals(inicial, despues);
+        habitacionService.guardarHabitacion(habitacion);
+        assertNotEquals(despues, habitacionService.version());
     }
 
+    // Tests para cambiosDesde
+
     @Test
-    void testMostrarPorEstado_ListaVacia() {
-        
-        when(habitacionRepository.findAll()).thenReturn(Collections.emptyList());
+    void testCambiosDesde_SinVersionMandaTodasOrdenadas() {
 
-        
-        Set<Habitacion> resultado = habitacionService.mostrarPorEstado(EstadoHabitacion.LIBRE);
+        registrar(new Habitacion(103, EstadoHabitacion.OCUPADA, tipoHabitacion), habitacion,
+            new Habitacion(102, EstadoHabitacion.RESERVADA, tipoHabitacion));
 
-        
-        assertNotNull(resultado);
-        assertTrue(resultado.isEmpty());
-        verify(habitacionRepository).findAll();
+        Cambios<HabitacionVista, Integer> resultado = habitacionService.cambiosDesde(null);
+
+        assertTrue(resultado.completo());
+        assertEquals(List.of(101, 102, 103), resultado.cambiados().stream().map(HabitacionVista::numero).toList());
+        assertEquals(habitacionService.version(), resultado.version());
+        verifyNoInteractions(habitacionRepository);
+    }
+
+    @Test
+    void testCambiosDesde_SoloLasHabitacionesQueCambiaron() {
+
+        registrar(habitacion, new Habitacion(102, EstadoHabitacion.LIBRE, tipoHabitacion));
+        String version = habitacionService.cambiosDesde(null).version();
+        habitacion.setEstado(EstadoHabitacion.RESERVADA);
+        when(habitacionRepository.save(habitacion)).thenReturn(habitacion);
+        habitacionService.guardarHabitacion(habitacion);
+        habitacion.setEstado(EstadoHabitacion.OCUPADA);
+        habitacionService.guardarHabitacion(habitacion);
+
+        Cambios<HabitacionVista, Integer> resultado = habitacionService.cambiosDesde(version);
+
+        // Dos escrituras sobre la 101: viaja una sola vez, con su último estado
+        assertFalse(resultado.completo());
+        assertEquals(List.of(new HabitacionVista(101, EstadoHabitacion.OCUPADA, null)), resultado.cambiados());
+        assertTrue(resultado.eliminados().isEmpty());
+        assertEquals(habitacionService.version(), resultado.version());
+        assertTrue(habitacionService.cambiosDesde(resultado.version()).cambiados().isEmpty());
+    }
+
+    @Test
+    void testGuardarHabitacion_CambioDeEstadoCambiaLasReservasVigentes() {
+
+        // La vista de cada reserva lleva el estado de su habitación
+        registrar(habitacion);
+        LocalDate hoy = LocalDate.now();
+        indiceReservas.registrar(101, 1L, hoy.minusDays(5), hoy.minusDays(2));
+        indiceReservas.registrar(101, 2L, hoy.minusDays(1), hoy.plusDays(1));
+        indiceReservas.registrar(101, 3L, hoy.plusDays(3), hoy.plusDays(5));
+        indiceReservas.registrar(102, 4L, hoy, hoy.plusDays(2));
+        String version = cambiosReservas.version();
+        habitacion.setEstado(EstadoHabitacion.OCUPADA);
+        when(habitacionRepository.save(habitacion)).thenReturn(habitacion);
+
+        habitacionService.guardarHabitacion(habitacion);
+
+        assertEquals(List.of(2L, 3L), cambiosReservas.desde(version).cambiadas());
+
+        // Guardarla sin cambiar el estado no toca las reservas
+        String siguiente = cambiosReservas.version();
+        habitacionService.guardarHabitacion(habitacion);
+        assertTrue(cambiosReservas.desde(siguiente).cambiadas().isEmpty());
+    }
+
+    @Test
+    void testCambiosDesde_VersionDeOtraEjecucionMandaTodas() {
+
+        registrar(habitacion);
+
+        Cambios<HabitacionVista, Integer> resultado = habitacionService.cambiosDesde("abc-3");
+
+        assertTrue(resultado.completo());
+        assertEquals(1, resultado.cambiados().size());
+    }
+
+    // Tests para resumir
+
+    @Test
+    void testResumir_PorEstadoYPorTipo() {
+
+        tipoHabitacion.setId(1L);
+        TipoHabitacion tipoDoble = new TipoHabitacion("Doble", new BigDecimal("2000.00"), 2, 2);
+        tipoDoble.setId(2L);
+        registrar(habitacion, new Habitacion(102, EstadoHabitacion.OCUPADA, tipoHabitacion),
+            new Habitacion(201, EstadoHabitacion.OCUPADA, tipoDoble),
+            new Habitacion(202, EstadoHabitacion.EN_MANTENIMIENTO, tipoDoble));
+
+        ResumenHabitaciones resumen = habitacionService.resumir();
+
+        assertEquals(4, resumen.total());
+        assertEquals(2, resumen.porEstado().get(EstadoHabitacion.OCUPADA));
+        assertEquals(0, resumen.porEstado().get(EstadoHabitacion.RESERVADA));
+        // Tipos ordenados por nombre, como en el catálogo
+        assertEquals(List.of("Doble", "Simple"), resumen.porTipo().stream().map(ResumenHabitaciones.PorTipo::nombre).toList());
+        ResumenHabitaciones.PorTipo simple = resumen.porTipo().get(1);
+        assertEquals(2, simple.total());
+        assertEquals(1, simple.porEstado().get(EstadoHabitacion.LIBRE));
+        assertEquals(1, simple.porEstado().get(EstadoHabitacion.OCUPADA));
+        verifyNoInteractions(habitacionRepository);
     }
 
     // Tests para actualizarEstado
@@ -391,6 +613,25 @@ class HabitacionServiceImplTest {
         verify(habitacionRepository).save(habitacion);
     }
 
+    @Test
+    void testActualizarEstado_ConflictoDeVersionSeReintentaEnOtraTransaccion() {
+
+        when(habitacionRepository.findById(101L)).thenReturn(Optional.of(habitacion));
+        when(habitacionRepository.save(any(Habitacion.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Habitacion.class, 101))
+            .thenReturn(habitacion);
+
+        Habitacion resultado = habitacionService.actualizarEstado(101L, EstadoHabitacion.OCUPADA);
+
+        assertEquals(EstadoHabitacion.OCUPADA, resultado.getEstado());
+        verify(habitacionRepository, times(2)).findById(101L);
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(coordinadorReservas, times(2)).bloquearHastaFinDeTransaccion(List.of(101));
+        assertEquals(1L, reintentosOptimistas.metricas().get("reintentos"));
+    }
+
     @Test
     void testActualizarEstado_HabitacionNoEncontrada() {
         
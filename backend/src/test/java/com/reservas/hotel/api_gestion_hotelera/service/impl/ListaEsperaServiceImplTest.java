@@ -0,0 +1,220 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import com.reservas.hotel.api_gestion_hotelera.cache.CacheHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.SolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoSolicitudEspera;
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceListaEspera;
+import com.reservas.hotel.api_gestion_hotelera.repository.SolicitudEsperaRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.TipoHabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ListaEsperaServiceImplTest {
+
+    @Mock
+    private SolicitudEsperaRepository solicitudEsperaRepository;
+
+    @Mock
+    private TipoHabitacionRepository tipoHabitacionRepository;
+
+    @Mock
+    private PasajeroService pasajeroService;
+
+    @Mock
+    private ReservaService reservaService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private IndiceListaEspera indiceListaEspera = new IndiceListaEspera();
+
+    @Spy
+    private CatalogoHabitaciones catalogoHabitaciones = new CatalogoHabitaciones();
+
+    @Spy
+    private CalendarioDisponibilidad calendarioDisponibilidad = new CalendarioDisponibilidad();
+
+    // Instancia real: sus loaders quedan atados a ella, un @Spy los dejaría apuntando al original
+    private final CacheHabitaciones cacheHabitaciones = new CacheHabitaciones(100, 10);
+
+    @InjectMocks
+    private ListaEsperaServiceImpl listaEsperaService;
+
+    private TipoHabitacion tipo;
+    private Pasajero pasajero;
+    private final LocalDate ingreso = LocalDate.now().plusDays(10);
+
+    @BeforeEach
+    void setUp() {
+        tipo = new TipoHabitacion("Doble Estándar", new BigDecimal("50000"), 10, 2);
+        tipo.setId(2L);
+        catalogoHabitaciones.registrar(new Habitacion(201, EstadoHabitacion.RESERVADA, tipo));
+        ReflectionTestUtils.setField(cacheHabitaciones, "tipoHabitacionRepository", tipoHabitacionRepository);
+        ReflectionTestUtils.setField(listaEsperaService, "cacheHabitaciones", cacheHabitaciones);
+
+        pasajero = new Pasajero();
+        pasajero.setId(1L);
+        pasajero.setNroDocumento("12345678");
+    }
+
+    private SolicitudEspera pendiente(Long id, LocalDate desde, LocalDate hasta) {
+        SolicitudEspera solicitud = new SolicitudEspera(id, tipo, pasajero,
+            FechaUtils.aDate(desde), FechaUtils.aDate(hasta), null, EstadoSolicitudEspera.PENDIENTE, null);
+        indiceListaEspera.registrar(tipo.getId(), id, desde, hasta);
+        lenient().when(solicitudEsperaRepository.findById(id)).thenReturn(Optional.of(solicitud));
+        return solicitud;
+    }
+
+    @Test
+    void testRegistrar_Exitoso() {
+
+        SolicitudEspera solicitud = new SolicitudEspera();
+        solicitud.setTipoHabitacion(new TipoHabitacion());
+        solicitud.getTipoHabitacion().setId(2L);
+        solicitud.setResponsable(new Pasajero());
+        solicitud.getResponsable().setNroDocumento("12345678");
+        solicitud.setFechaIngreso(FechaUtils.aDate(ingreso));
+        solicitud.setFechaEgreso(FechaUtils.aDate(ingreso.plusDays(2)));
+        when(tipoHabitacionRepository.findById(2L)).thenReturn(Optional.of(tipo));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(solicitudEsperaRepository.save(any(SolicitudEspera.class))).thenAnswer(inv -> {
+            SolicitudEspera guardada = inv.getArgument(0);
+            guardada.setId(5L);
+            return guardada;
+        });
+
+        SolicitudEspera resultado = listaEsperaService.registrar(solicitud);
+
+        assertEquals(EstadoSolicitudEspera.PENDIENTE, resultado.getEstado());
+        assertEquals(pasajero, resultado.getResponsable());
+        assertEquals(List.of(5L), indiceListaEspera.buscarCandidatas(2L, ingreso, ingreso.plusDays(1)));
+    }
+
+    @Test
+    void testRegistrar_FechaPasada() {
+
+        SolicitudEspera solicitud = new SolicitudEspera();
+        solicitud.setFechaIngreso(FechaUtils.aDate(LocalDate.now().minusDays(1)));
+        solicitud.setFechaEgreso(FechaUtils.aDate(LocalDate.now().plusDays(1)));
+
+        assertThrows(IllegalArgumentException.class, () -> listaEsperaService.registrar(solicitud));
+        verify(solicitudEsperaRepository, never()).save(any());
+    }
+
+    @Test
+    void testAsignarLiberacion_ReservaAlMasAntiguoQueEntra() {
+
+        // La 201 queda libre del día 10 al 15, pero ocupada del 15 al 20
+        calendarioDisponibilidad.ocupar(201, ingreso.plusDays(5), ingreso.plusDays(10));
+        SolicitudEspera noEntra = pendiente(1L, ingreso.plusDays(3), ingreso.plusDays(7));
+        SolicitudEspera primera = pendiente(2L, ingreso, ingreso.plusDays(2));
+        SolicitudEspera segunda = pendiente(3L, ingreso.plusDays(1), ingreso.plusDays(3));
+        SolicitudEspera tercera = pendiente(4L, ingreso.plusDays(2), ingreso.plusDays(4));
+        Reserva creada = new Reserva();
+        creada.setId(99L);
+        when(reservaService.crearReserva(any(Reserva.class))).thenAnswer(inv -> {
+            Reserva reserva = inv.getArgument(0);
+            calendarioDisponibilidad.ocupar(201, FechaUtils.aLocalDate(reserva.getFechaIngreso()),
+                FechaUtils.aLocalDate(reserva.getFechaEgreso()));
+            return creada;
+        });
+
+        int asignadas = listaEsperaService.asignarLiberacion(201, ingreso, ingreso.plusDays(5));
+
+        // Entran la 2 y la 4; la 3 choca con la 2 y la 1 con la ocupación del día 15
+        assertEquals(2, asignadas);
+        assertEquals(EstadoSolicitudEspera.ASIGNADA, primera.getEstado());
+        assertEquals(99L, primera.getReservaId());
+        assertEquals(EstadoSolicitudEspera.PENDIENTE, segunda.getEstado());
+        assertEquals(EstadoSolicitudEspera.ASIGNADA, tercera.getEstado());
+        assertEquals(EstadoSolicitudEspera.PENDIENTE, noEntra.getEstado());
+        assertEquals(List.of(1L, 3L), indiceListaEspera.buscarCandidatas(2L, ingreso, ingreso.plusDays(10)));
+    }
+
+    @Test
+    void testAsignarLiberacion_ConflictoDevuelveElPedido() {
+
+        pendiente(1L, ingreso, ingreso.plusDays(2));
+        when(reservaService.crearReserva(any(Reserva.class)))
+            .thenThrow(new ConflictoReservaException("La habitación 201 no está disponible"));
+
+        assertEquals(0, listaEsperaService.asignarLiberacion(201, ingreso, ingreso.plusDays(2)));
+        assertEquals(List.of(1L), indiceListaEspera.buscarCandidatas(2L, ingreso, ingreso.plusDays(2)));
+    }
+
+    @Test
+    void testAsignarLiberacion_ErrorInesperadoDevuelveElPedidoYSigue() {
+
+        SolicitudEspera fallida = pendiente(1L, ingreso, ingreso.plusDays(2));
+        SolicitudEspera siguiente = pendiente(2L, ingreso.plusDays(3), ingreso.plusDays(5));
+        Reserva creada = new Reserva();
+        creada.setId(99L);
+        when(reservaService.crearReserva(any(Reserva.class)))
+            .thenThrow(new RuntimeException("Reserva no encontrada"))
+            .thenReturn(creada);
+
+        assertEquals(1, listaEsperaService.asignarLiberacion(201, ingreso, ingreso.plusDays(5)));
+        assertEquals(EstadoSolicitudEspera.PENDIENTE, fallida.getEstado());
+        assertEquals(EstadoSolicitudEspera.ASIGNADA, siguiente.getEstado());
+        assertEquals(List.of(1L), indiceListaEspera.buscarCandidatas(2L, ingreso, ingreso.plusDays(5)));
+    }
+
+    @Test
+    void testAsignarLiberacion_SiNoSeGuardaElPedidoSeRevierteLaReserva() {
+
+        SolicitudEspera solicitud = pendiente(1L, ingreso, ingreso.plusDays(2));
+        Reserva creada = new Reserva();
+        creada.setId(99L);
+        when(reservaService.crearReserva(any(Reserva.class))).thenReturn(creada);
+        when(solicitudEsperaRepository.save(any(SolicitudEspera.class)))
+            .thenThrow(new DataIntegrityViolationException("solicitud_espera"));
+
+        assertEquals(0, listaEsperaService.asignarLiberacion(201, ingreso, ingreso.plusDays(2)));
+        // La reserva y el pedido van en la misma transacción: se revierten juntos
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertEquals(EstadoSolicitudEspera.PENDIENTE, solicitud.getEstado());
+        assertNull(solicitud.getReservaId());
+        assertEquals(List.of(1L), indiceListaEspera.buscarCandidatas(2L, ingreso, ingreso.plusDays(2)));
+    }
+
+    @Test
+    void testAsignarLiberacion_HabitacionEnMantenimiento() {
+
+        catalogoHabitaciones.registrar(new Habitacion(201, EstadoHabitacion.EN_MANTENIMIENTO, tipo));
+        pendiente(1L, ingreso, ingreso.plusDays(2));
+
+        assertEquals(0, listaEsperaService.asignarLiberacion(201, ingreso, ingreso.plusDays(2)));
+        verifyNoInteractions(reservaService);
+    }
+}
@@ -0,0 +1,169 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.dto.ResultadoOptimizacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.indice.AsignadorHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimizacionAsignacionServiceImplTest {
+
+    @Mock
+    private ReservaRepository reservaRepository;
+
+    @Mock
+    private HabitacionService habitacionService;
+
+    @Mock
+    private CoordinadorReservas coordinadorReservas;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private CatalogoHabitaciones catalogoHabitaciones = new CatalogoHabitaciones();
+
+    @Spy
+    private CalendarioDisponibilidad calendarioDisponibilidad = new CalendarioDisponibilidad();
+
+    @Spy
+    private IndiceReservas indiceReservas = new IndiceReservas();
+
+    @Spy
+    private CambiosReservas cambiosReservas = new CambiosReservas(64);
+
+    @Spy
+    private AsignadorHabitaciones asignadorHabitaciones = new AsignadorHabitaciones();
+
+    @InjectMocks
+    private OptimizacionAsignacionServiceImpl optimizacionService;
+
+    private final LocalDate base = LocalDate.now().plusDays(10);
+    private final List<Reserva> reservas = new ArrayList<>();
+    private Habitacion h201;
+    private Habitacion h202;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(asignadorHabitaciones, "catalogoHabitaciones", catalogoHabitaciones);
+        ReflectionTestUtils.setField(asignadorHabitaciones, "calendarioDisponibilidad", calendarioDisponibilidad);
+        ReflectionTestUtils.setField(asignadorHabitaciones, "estadiaMinima", 2);
+
+        TipoHabitacion tipo = new TipoHabitacion("Doble Estándar", new BigDecimal("50000"), 10, 2);
+        tipo.setId(2L);
+        h201 = new Habitacion(201, EstadoHabitacion.RESERVADA, tipo);
+        h202 = new Habitacion(202, EstadoHabitacion.RESERVADA, tipo);
+        catalogoHabitaciones.registrar(h201);
+        catalogoHabitaciones.registrar(h202);
+    }
+
+    // Registra la reserva en la base simulada, el calendario y el índice
+    private Reserva reserva(Long id, Habitacion habitacion, int desde, int hasta, boolean automatica) {
+        Reserva reserva = new Reserva();
+        reserva.setId(id);
+        reserva.setHabitacion(habitacion);
+        reserva.setFechaIngreso(FechaUtils.aDate(base.plusDays(desde)));
+        reserva.setFechaEgreso(FechaUtils.aDate(base.plusDays(hasta)));
+        reserva.setAsignacionAutomatica(automatica);
+        calendarioDisponibilidad.ocupar(habitacion.getNumero(), base.plusDays(desde), base.plusDays(hasta));
+        indiceReservas.registrar(habitacion.getNumero(), id, base.plusDays(desde), base.plusDays(hasta));
+        reservas.add(reserva);
+        return reserva;
+    }
+
+    @Test
+    void testOptimizarTipo_MueveLaReservaQueDejaUnHuecoCorto() {
+
+        reserva(1L, h201, 0, 3, false);
+        Reserva movible = reserva(2L, h201, 4, 7, true);
+        reserva(3L, h202, 7, 10, false);
+        when(reservaRepository.buscarVigentesEnHabitaciones(anyCollection(), any())).thenReturn(reservas);
+        when(habitacionService.buscarPorNumeros(anyCollection())).thenReturn(List.of(h201, h202));
+
+        ResultadoOptimizacion resultado = optimizacionService.optimizarTipo(2L);
+
+        // En la 201 quedaba una noche suelta entre las reservas 1 y 2; en la 202 encaja pegada a la 3
+        assertEquals(new ResultadoOptimizacion(1, 1, 1, 1, 0), resultado);
+        assertEquals(h202, movible.getHabitacion());
+        assertTrue(calendarioDisponibilidad.estaDisponible(201, base.plusDays(3), base.plusDays(20)));
+        assertFalse(calendarioDisponibilidad.estaDisponible(202, base.plusDays(4), base.plusDays(7)));
+        assertEquals(List.of(2L), indiceReservas.buscarConflictos(202, base.plusDays(4), base.plusDays(5), null));
+        verify(reservaRepository).postergarControlDeSolapamiento();
+        verify(reservaRepository).saveAll(List.of(movible));
+        verify(cambiosReservas).registrar(2L, false);
+        verify(coordinadorReservas).bloquearHastaFinDeTransaccion(List.of(201, 202));
+    }
+
+    @Test
+    void testOptimizarTipo_NoMueveReservasConHabitacionElegidaPorElHuesped() {
+
+        reserva(1L, h201, 0, 3, false);
+        reserva(2L, h201, 4, 7, false);
+        reserva(3L, h202, 7, 10, false);
+        when(reservaRepository.buscarVigentesEnHabitaciones(anyCollection(), any())).thenReturn(reservas);
+
+        ResultadoOptimizacion resultado = optimizacionService.optimizarTipo(2L);
+
+        assertEquals(0, resultado.reservasMovidas());
+        verify(reservaRepository, never()).saveAll(anyList());
+        assertFalse(calendarioDisponibilidad.estaDisponible(201, base.plusDays(4), base.plusDays(7)));
+    }
+
+    @Test
+    void testOptimizarTipo_SinMejoraNoAplicaCambios() {
+
+        reserva(1L, h201, 0, 3, false);
+        reserva(2L, h201, 3, 6, true);
+        when(reservaRepository.buscarVigentesEnHabitaciones(anyCollection(), any())).thenReturn(reservas);
+
+        ResultadoOptimizacion resultado = optimizacionService.optimizarTipo(2L);
+
+        assertEquals(new ResultadoOptimizacion(1, 0, 0, 0, 0), resultado);
+        verify(reservaRepository, never()).postergarControlDeSolapamiento();
+        verify(reservaRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testOptimizar_RecorreTodosLosTiposEnSuTransaccion() {
+
+        TipoHabitacion suite = new TipoHabitacion("Suite", new BigDecimal("90000"), 4, 2);
+        suite.setId(3L);
+        catalogoHabitaciones.registrar(new Habitacion(301, EstadoHabitacion.LIBRE, suite));
+        catalogoHabitaciones.registrar(new Habitacion(302, EstadoHabitacion.LIBRE, suite));
+        when(reservaRepository.buscarVigentesEnHabitaciones(anyCollection(), any())).thenReturn(List.of());
+
+        ResultadoOptimizacion resultado = optimizacionService.optimizar();
+
+        assertEquals(2, resultado.tiposRevisados());
+        assertEquals(0, resultado.reservasMovidas());
+        verify(transactionManager, times(2)).commit(any());
+    }
+}
@@ -1,17 +1,28 @@
 package com.reservas.hotel.api_gestion_hotelera.service.impl;
 
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroVista;
 import com.reservas.hotel.api_gestion_hotelera.entities.Direccion;
 import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndicePasajeros;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceSugerencias;
+import com.reservas.hotel.api_gestion_hotelera.indice.MapaDni;
 import com.reservas.hotel.api_gestion_hotelera.repository.DireccionRepository;
 import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -28,6 +39,15 @@ class PasajeroServiceImplTest {
     @Mock
     private DireccionRepository direccionRepository;
 
+    @Spy
+    private IndicePasajeros indicePasajeros = new IndicePasajeros();
+
+    @Spy
+    private MapaDni mapaDni = new MapaDni();
+
+    @Spy
+    private IndiceSugerencias indiceSugerencias = new IndiceSugerencias();
+
     @InjectMocks
     private PasajeroServiceImpl pasajeroService;
 
@@ -61,6 +81,10 @@ class PasajeroServiceImplTest {
         pasajero.setDireccion(direccion);
     }
 
+    private static PasajeroVista vista(Long id, String nombre, String apellido) {
+        return new PasajeroVista(id, nombre, apellido, null, null, null, null, null, null, null, null, EstadoPasajero.ACTIVO);
+    }
+
     // Tests para buscarPorId
 
     @Test
@@ -91,39 +115,39 @@ class PasajeroServiceImplTest {
         verify(pasajeroRepository).findById(999L);
     }
 
-    // Tests para buscarTodos
+    // Tests para buscarPagina
 
     @Test
-    void testBuscarTodos() {
+    void testBuscarPagina_ConSiguiente() {
         
-        Pasajero pasajero2 = new Pasajero();
-        pasajero2.setId(2L);
-        pasajero2.setNombre("María");
+        PasajeroVista vista1 = vista(1L, "Juan", "Pérez");
+        PasajeroVista vista2 = vista(2L, "María", "Gómez");
+        PasajeroVista vista3 = vista(3L, "Pedro", "López");
         
-        List<Pasajero> listaPasajeros = Arrays.asList(pasajero, pasajero2);
-        when(pasajeroRepository.findAll()).thenReturn(listaPasajeros);
+        // Se pide una fila de más para saber si hay otra página, sin contar el total
+        when(pasajeroRepository.buscarVistasPagina(0L, Limit.of(3)))
+            .thenReturn(Arrays.asList(vista1, vista2, vista3));
 
         
-        Set<Pasajero> resultado = pasajeroService.buscarTodos();
+        Pagina<PasajeroVista> resultado = pasajeroService.buscarPagina(null, 2);
 
         
-        assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        verify(pasajeroRepository).findAll();
+        assertEquals(List.of(vista1, vista2), resultado.elementos());
+        assertEquals(2L, resultado.siguiente());
     }
 
     @Test
-    void testBuscarTodos_ListaVacia() {
+    void testBuscarPagina_Ultima() {
         
-        when(pasajeroRepository.findAll()).thenReturn(Collections.emptyList());
+        when(pasajeroRepository.buscarVistasPagina(2L, Limit.of(3))).thenReturn(Collections.emptyList());
 
         
-        Set<Pasajero> resultado = pasajeroService.buscarTodos();
+        Pagina<PasajeroVista> resultado = pasajeroService.buscarPagina(2L, 2);
 
         
-        assertNotNull(resultado);
-        assertTrue(resultado.isEmpty());
-        verify(pasajeroRepository).findAll();
+        assertTrue(resultado.elementos().isEmpty());
+        assertNull(resultado.siguiente());
+        verify(pasajeroRepository, never()).findAll();
     }
 
     // Tests para darDeBajaPasajero
@@ -146,7 +170,7 @@ class PasajeroServiceImplTest {
     void testRegistrarPasajero_ConDireccion() {
         
         when(direccionRepository.save(any(Direccion.class))).thenReturn(direccion);
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.registrarPasajero(pasajero);
@@ -157,14 +181,14 @@ class PasajeroServiceImplTest {
         assertEquals(EstadoPasajero.ACTIVO, resultado.getEstado());
         assertNotNull(resultado.getDireccion());
         verify(direccionRepository).save(any(Direccion.class));
-        verify(pasajeroRepository).save(any(Pasajero.class));
+        verify(pasajeroRepository).saveAndFlush(any(Pasajero.class));
     }
 
     @Test
     void testRegistrarPasajero_SinDireccion() {
         
         pasajero.setDireccion(null);
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.registrarPasajero(pasajero);
@@ -175,7 +199,7 @@ class PasajeroServiceImplTest {
         assertEquals(EstadoPasajero.ACTIVO, resultado.getEstado());
         assertNull(resultado.getDireccion());
         verify(direccionRepository, never()).save(any(Direccion.class));
-        verify(pasajeroRepository).save(any(Pasajero.class));
+        verify(pasajeroRepository).saveAndFlush(any(Pasajero.class));
     }
 
     @Test
@@ -183,7 +207,7 @@ class PasajeroServiceImplTest {
         
         pasajero.setEstado(null);
         when(direccionRepository.save(any(Direccion.class))).thenReturn(direccion);
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.registrarPasajero(pasajero);
@@ -191,7 +215,7 @@ class PasajeroServiceImplTest {
         
         assertNotNull(resultado);
         assertEquals(EstadoPasajero.ACTIVO, pasajero.getEstado()); // Verificar que se estableció ACTIVO
-        verify(pasajeroRepository).save(any(Pasajero.class));
+        verify(pasajeroRepository).saveAndFlush(any(Pasajero.class));
     }
 
     @Test
@@ -199,7 +223,7 @@ class PasajeroServiceImplTest {
         
         pasajero.setEstado(EstadoPasajero.INACTIVO);
         when(direccionRepository.save(any(Direccion.class))).thenReturn(direccion);
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.registrarPasajero(pasajero);
@@ -207,7 +231,7 @@ class PasajeroServiceImplTest {
         
         assertNotNull(resultado);
         assertEquals(EstadoPasajero.INACTIVO, resultado.getEstado()); // Mantiene el estado establecido
-        verify(pasajeroRepository).save(any(Pasajero.class));
+        verify(pasajeroRepository).saveAndFlush(any(Pasajero.class));
     }
 
     // Tests para actualizarPasajero
@@ -235,7 +259,7 @@ class PasajeroServiceImplTest {
 
         when(pasajeroRepository.findById(1L)).thenReturn(Optional.of(pasajero));
         when(direccionRepository.save(any(Direccion.class))).thenReturn(nuevaDireccion);
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.actualizarPasajero(1L, pasajeroActualizado);
@@ -253,7 +277,7 @@ class PasajeroServiceImplTest {
         assertEquals("Médico", pasajero.getOcupacion());
         assertEquals(EstadoPasajero.ACTIVO, pasajero.getEstado());
         verify(direccionRepository).save(any(Direccion.class));
-        verify(pasajeroRepository).save(pasajero);
+        verify(pasajeroRepository).saveAndFlush(pasajero);
     }
 
     @Test
@@ -272,7 +296,7 @@ class PasajeroServiceImplTest {
         pasajeroActualizado.setDireccion(null);
 
         when(pasajeroRepository.findById(1L)).thenReturn(Optional.of(pasajero));
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.actualizarPasajero(1L, pasajeroActualizado);
@@ -281,7 +305,7 @@ class PasajeroServiceImplTest {
         assertNotNull(resultado);
         assertEquals("Carlos", pasajero.getNombre());
         verify(direccionRepository, never()).save(any(Direccion.class));
-        verify(pasajeroRepository).save(pasajero);
+        verify(pasajeroRepository).saveAndFlush(pasajero);
     }
 
     @Test
@@ -292,7 +316,7 @@ class PasajeroServiceImplTest {
         RuntimeException exception = assertThrows(RuntimeException.class, 
             () -> pasajeroService.actualizarPasajero(999L, pasajero));
         assertEquals("Pasajero no encontrado", exception.getMessage());
-        verify(pasajeroRepository, never()).save(any(Pasajero.class));
+        verify(pasajeroRepository, never()).saveAndFlush(any(Pasajero.class));
     }
 
     @Test
@@ -312,7 +336,7 @@ class PasajeroServiceImplTest {
         pasajeroActualizado.setDireccion(null);
 
         when(pasajeroRepository.findById(1L)).thenReturn(Optional.of(pasajero));
-        when(pasajeroRepository.save(any(Pasajero.class))).thenReturn(pasajero);
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenReturn(pasajero);
 
         
         Pasajero resultado = pasajeroService.actualizarPasajero(1L, pasajeroActualizado);
@@ -320,7 +344,7 @@ class PasajeroServiceImplTest {
         
         assertNotNull(resultado);
         assertEquals(EstadoPasajero.ACTIVO, pasajero.getEstado()); // No debe cambiar
-        verify(pasajeroRepository).save(pasajero);
+        verify(pasajeroRepository).saveAndFlush(pasajero);
     }
 
     // Tests para buscarHuesped
@@ -328,49 +352,174 @@ class PasajeroServiceImplTest {
     @Test
     void testBuscarHuesped_PorDni() {
         
-        List<Pasajero> listaPasajeros = Arrays.asList(pasajero);
-        when(pasajeroRepository.buscarPorDni("12345678")).thenReturn(listaPasajeros);
+        PasajeroVista juan = vista(1L, "Juan", "Pérez");
+        when(pasajeroRepository.buscarIdsPorDni("12345678")).thenReturn(List.of(1L));
+        when(pasajeroRepository.buscarVistasPorIds(List.of(1L))).thenReturn(List.of(juan));
 
         
-        List<Pasajero> resultado = pasajeroService.buscarHuesped("dni", "12345678");
+        List<PasajeroVista> resultado = pasajeroService.buscarHuesped("dni", "12345678");
 
         
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
-        assertEquals(pasajero, resultado.get(0));
-        verify(pasajeroRepository).buscarPorDni("12345678");
+        assertEquals(juan, resultado.get(0));
+        verify(pasajeroRepository).buscarIdsPorDni("12345678");
     }
 
     @Test
     void testBuscarHuesped_PorNombre() {
-        
-        List<Pasajero> listaPasajeros = Arrays.asList(pasajero);
-        when(pasajeroRepository.buscarPorNombre("Juan")).thenReturn(listaPasajeros);
 
-        
-        List<Pasajero> resultado = pasajeroService.buscarHuesped("nombre", "Juan");
+        indicePasajeros.registrar(1L, "juan", "perez");
+        indicePasajeros.registrar(2L, "maria", "gomez");
+        PasajeroVista juan = vista(1L, "Juan", "Pérez");
+        when(pasajeroRepository.buscarVistasPorIds(List.of(1L))).thenReturn(List.of(juan));
+
+
+        List<PasajeroVista> resultado = pasajeroService.buscarHuesped("nombre", "jua");
+
 
-        
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
-        assertEquals(pasajero, resultado.get(0));
-        verify(pasajeroRepository).buscarPorNombre("Juan");
+        assertEquals(juan, resultado.get(0));
+        verify(pasajeroRepository, never()).buscarIdsPorNombre(any());
     }
 
     @Test
     void testBuscarHuesped_PorApellido() {
-        
-        List<Pasajero> listaPasajeros = Arrays.asList(pasajero);
-        when(pasajeroRepository.buscarPorApellido("Pérez")).thenReturn(listaPasajeros);
 
-        
-        List<Pasajero> resultado = pasajeroService.buscarHuesped("apellido", "Pérez");
+        indicePasajeros.registrar(1L, "juan", "perez");
+        indicePasajeros.registrar(2L, "maria", "gomez");
+        PasajeroVista juan = vista(1L, "Juan", "Pérez");
+        when(pasajeroRepository.buscarVistasPorIds(List.of(1L))).thenReturn(List.of(juan));
+
+
+        List<PasajeroVista> resultado = pasajeroService.buscarHuesped("apellido", "PÉR");
+
 
-        
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
-        assertEquals(pasajero, resultado.get(0));
-        verify(pasajeroRepository).buscarPorApellido("Pérez");
+        assertEquals(juan, resultado.get(0));
+        verify(pasajeroRepository, never()).buscarIdsPorApellido(any());
+    }
+
+    @Test
+    void testBuscarHuesped_PorNombreSinCoincidenciasNoConsultaLaBase() {
+
+        indicePasajeros.registrar(1L, "juan", "perez");
+
+        assertTrue(pasajeroService.buscarHuesped("nombre", "Pedro").isEmpty());
+        verifyNoInteractions(pasajeroRepository);
+    }
+
+    @Test
+    void testBuscarHuesped_PorApellidoEnBase() {
+
+        ReflectionTestUtils.setField(pasajeroService, "modoBusqueda", "base");
+        PasajeroVista juan = vista(1L, "Juan", "Pérez");
+        when(pasajeroRepository.buscarIdsPorApellido("perez")).thenReturn(List.of(1L));
+        when(pasajeroRepository.buscarVistasPorIds(List.of(1L))).thenReturn(List.of(juan));
+
+        // La consulta llega a la base ya normalizada, igual que la columna apellido_busqueda
+        List<PasajeroVista> resultado = pasajeroService.buscarHuesped("apellido", "Pérez");
+
+        assertEquals(List.of(juan), resultado);
+        verify(indicePasajeros, never()).buscarPorApellido(any());
+    }
+
+    // Tests para buscarPorDniExacto
+
+    @Test
+    void testBuscarPorDniExacto_DesdeElMapa() {
+
+        pasajero.setDniNormalizado("12345678");
+        mapaDni.registrar("12345678", 1L);
+        when(pasajeroRepository.findById(1L)).thenReturn(Optional.of(pasajero));
+
+        assertEquals(Optional.of(pasajero), pasajeroService.buscarPorDniExacto("12.345.678"));
+        verify(pasajeroRepository, never()).buscarIdsPorDni(any());
+        verify(pasajeroRepository, never()).findByDniNormalizado(any());
+    }
+
+    @Test
+    void testBuscarPorDniExacto_NoEstaEnElMapa() {
+
+        pasajero.setDniNormalizado("12345678");
+        when(pasajeroRepository.findByDniNormalizado("12345678")).thenReturn(Optional.of(pasajero));
+
+        assertEquals(Optional.of(pasajero), pasajeroService.buscarPorDniExacto("12345678"));
+    }
+
+    @Test
+    void testBuscarPorDniExacto_NoDevuelveCoincidenciasParciales() {
+
+        // Con LIKE '%q%' el DNI 1234 encontraba al pasajero 12345678
+        mapaDni.registrar("12345678", 1L);
+        when(pasajeroRepository.findByDniNormalizado("1234")).thenReturn(Optional.empty());
+
+        assertTrue(pasajeroService.buscarPorDniExacto("1234").isEmpty());
+        assertTrue(pasajeroService.buscarPorDniExacto(" - ").isEmpty());
+    }
+
+    @Test
+    void testRegistrarPasajero_DniDuplicado() {
+
+        Pasajero otro = new Pasajero();
+        otro.setId(2L);
+        otro.setDniNormalizado("12345678");
+        when(pasajeroRepository.findByDniNormalizado("12345678")).thenReturn(Optional.of(otro));
+        pasajero.setId(null);
+        pasajero.setNroDocumento("12.345.678");
+
+        assertThrows(IllegalArgumentException.class, () -> pasajeroService.registrarPasajero(pasajero));
+        verify(pasajeroRepository, never()).saveAndFlush(any(Pasajero.class));
+    }
+
+    @Test
+    void testRegistrarPasajero_DniDuplicadoEnLaBase() {
+
+        // Otra alta con el mismo DNI ganó la carrera entre el control y el INSERT
+        pasajero.setId(null);
+        when(pasajeroRepository.findByDniNormalizado("12345678")).thenReturn(Optional.empty());
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenThrow(new DataIntegrityViolationException("duplicado",
+            new ConstraintViolationException("duplicate key value", new SQLException(), "pasajero_dni_normalizado_key")));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> pasajeroService.registrarPasajero(pasajero));
+        assertTrue(exception.getMessage().contains("Ya existe un pasajero con DNI"));
+    }
+
+    @Test
+    void testIndiceSeMantieneAlRegistrarActualizarYDarDeBaja() {
+
+        when(pasajeroRepository.saveAndFlush(any(Pasajero.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(pasajeroRepository.findById(1L)).thenReturn(Optional.of(pasajero));
+        pasajero.setDireccion(null);
+
+        pasajeroService.registrarPasajero(pasajero);
+        assertEquals("perez", pasajero.getApellidoBusqueda());
+        assertEquals(List.of(1L), indicePasajeros.buscarPorNombre("juan"));
+        // Sin distinguir acentos en ninguna de las dos direcciones
+        assertEquals(List.of(1L), indicePasajeros.buscarPorApellido("PEREZ"));
+        assertEquals(List.of(1L), indicePasajeros.buscarPorApellido("pérez"));
+        assertEquals(1L, mapaDni.buscar("12345678"));
+        assertEquals("Pérez", pasajeroService.sugerir("pe", 10).get(0).apellido());
+
+        Pasajero cambios = new Pasajero();
+        cambios.setNombre("Juana");
+        cambios.setApellido("Paz");
+        cambios.setNroDocumento("87654321");
+        pasajeroService.actualizarPasajero(1L, cambios);
+        assertEquals(List.of(1L), indicePasajeros.buscarPorApellido("paz"));
+        assertTrue(indicePasajeros.buscarPorApellido("pérez").isEmpty());
+        assertNull(mapaDni.buscar("12345678"));
+        assertEquals(1L, mapaDni.buscar("87654321"));
+        assertTrue(pasajeroService.sugerir("perez", 10).isEmpty());
+        assertEquals("Paz", pasajeroService.sugerir("876", 10).get(0).apellido());
+
+        pasajeroService.darDeBajaPasajero(1L);
+        assertTrue(indicePasajeros.buscarPorNombre("juana").isEmpty());
+        assertNull(mapaDni.buscar("87654321"));
+        assertTrue(pasajeroService.sugerir("juana", 10).isEmpty());
     }
 
     @Test
@@ -384,29 +533,30 @@ class PasajeroServiceImplTest {
     @Test
     void testBuscarHuesped_CriterioMayusculas() {
         
-        List<Pasajero> listaPasajeros = Arrays.asList(pasajero);
-        when(pasajeroRepository.buscarPorDni("12345678")).thenReturn(listaPasajeros);
+        when(pasajeroRepository.buscarIdsPorDni("12345678")).thenReturn(List.of(1L));
+        when(pasajeroRepository.buscarVistasPorIds(List.of(1L))).thenReturn(List.of(vista(1L, "Juan", "Pérez")));
 
         
-        List<Pasajero> resultado = pasajeroService.buscarHuesped("DNI", "12345678");
+        List<PasajeroVista> resultado = pasajeroService.buscarHuesped("DNI", "12345678");
 
         
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
-        verify(pasajeroRepository).buscarPorDni("12345678");
+        verify(pasajeroRepository).buscarIdsPorDni("12345678");
     }
 
     @Test
     void testBuscarHuesped_ListaVacia() {
         
-        when(pasajeroRepository.buscarPorDni("99999999")).thenReturn(Collections.emptyList());
+        when(pasajeroRepository.buscarIdsPorDni("99999999")).thenReturn(Collections.emptyList());
 
         
-        List<Pasajero> resultado = pasajeroService.buscarHuesped("dni", "99999999");
+        List<PasajeroVista> resultado = pasajeroService.buscarHuesped("dni", "99999999");
 
         
         assertNotNull(resultado);
         assertTrue(resultado.isEmpty());
-        verify(pasajeroRepository).buscarPorDni("99999999");
+        verify(pasajeroRepository).buscarIdsPorDni("99999999");
+        verify(pasajeroRepository, never()).buscarVistasPorIds(any());
     }
 }
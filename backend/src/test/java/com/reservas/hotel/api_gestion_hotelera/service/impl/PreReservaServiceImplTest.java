@@ -0,0 +1,148 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.RuedaTemporizadora;
+import com.reservas.hotel.api_gestion_hotelera.dto.PreReserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.TipoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
+import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PreReservaServiceImplTest {
+
+    @Mock
+    private ReservaService reservaService;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    @Spy
+    private CalendarioDisponibilidad calendarioDisponibilidad = new CalendarioDisponibilidad();
+
+    @Spy
+    private CatalogoHabitaciones catalogoHabitaciones = new CatalogoHabitaciones();
+
+    @Spy
+    private IndiceReservas indiceReservas = new IndiceReservas();
+
+    @Spy
+    private CoordinadorReservas coordinadorReservas = new CoordinadorReservas();
+
+    @Spy
+    private RuedaTemporizadora ruedaTemporizadora = new RuedaTemporizadora(10, 64);
+
+    @InjectMocks
+    private PreReservaServiceImpl preReservaService;
+
+    private final LocalDate ingreso = LocalDate.now().plusDays(5);
+    private final LocalDate egreso = ingreso.plusDays(2);
+
+    @BeforeEach
+    void setUp() {
+        ruedaTemporizadora.iniciar();
+        ReflectionTestUtils.setField(preReservaService, "minutos", 10L);
+        TipoHabitacion tipo = new TipoHabitacion("Doble Estándar", new BigDecimal("50000"), 10, 2);
+        tipo.setId(1L);
+        catalogoHabitaciones.registrar(new Habitacion(101, EstadoHabitacion.LIBRE, tipo));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ruedaTemporizadora.detener();
+    }
+
+    @Test
+    void testCrear_OcupaLasNoches() {
+
+        PreReserva preReserva = preReservaService.crear(101, ingreso, egreso);
+
+        assertFalse(calendarioDisponibilidad.estaDisponible(101, ingreso, egreso));
+        assertEquals(preReserva, preReservaService.buscarPorId(preReserva.id()).orElseThrow());
+        assertThrows(ConflictoReservaException.class, () -> preReservaService.crear(101, ingreso.plusDays(1), egreso));
+    }
+
+    @Test
+    void testCrear_HabitacionNoRegistrada() {
+        assertThrows(IllegalArgumentException.class, () -> preReservaService.crear(999, ingreso, egreso));
+    }
+
+    @Test
+    void testLiberar() {
+
+        PreReserva preReserva = preReservaService.crear(101, ingreso, egreso);
+
+        assertTrue(preReservaService.liberar(preReserva.id()));
+        assertTrue(calendarioDisponibilidad.estaDisponible(101, ingreso, egreso));
+        assertFalse(preReservaService.liberar(preReserva.id()));
+    }
+
+    @Test
+    void testVencimiento_LiberaSola() throws InterruptedException {
+
+        ReflectionTestUtils.setField(preReservaService, "minutos", 0L);
+        PreReserva preReserva = preReservaService.crear(101, ingreso, egreso);
+
+        for (int i = 0; i < 200 && preReservaService.buscarPorId(preReserva.id()).isPresent(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(preReservaService.buscarPorId(preReserva.id()).isEmpty());
+        assertTrue(calendarioDisponibilidad.estaDisponible(101, ingreso, egreso));
+    }
+
+    @Test
+    void testConfirmar_CreaLaReserva() {
+
+        PreReserva preReserva = preReservaService.crear(101, ingreso, egreso);
+        Pasajero responsable = new Pasajero();
+        responsable.setNroDocumento("12345678");
+        Reserva creada = new Reserva();
+        creada.setId(7L);
+        when(reservaService.crearReserva(any(Reserva.class))).thenAnswer(inv -> {
+            // El servicio de reservas encuentra las noches libres para ocuparlas
+            assertTrue(calendarioDisponibilidad.ocuparSiDisponible(101, ingreso, egreso));
+            return creada;
+        });
+
+        assertEquals(creada, preReservaService.confirmar(preReserva.id(), responsable));
+        assertTrue(preReservaService.buscarPorId(preReserva.id()).isEmpty());
+        verify(reservaService).crearReserva(argThat(r ->
+            r.getHabitacion().getNumero() == 101 && r.getResponsable() == responsable));
+    }
+
+    @Test
+    void testConfirmar_FallaYConservaLaRetencion() {
+
+        PreReserva preReserva = preReservaService.crear(101, ingreso, egreso);
+        when(reservaService.crearReserva(any(Reserva.class)))
+            .thenThrow(new IllegalArgumentException("No se encontró un pasajero con DNI: 1"));
+
+        assertThrows(IllegalArgumentException.class, () -> preReservaService.confirmar(preReserva.id(), new Pasajero()));
+        assertTrue(preReservaService.buscarPorId(preReserva.id()).isPresent());
+        assertFalse(calendarioDisponibilidad.estaDisponible(101, ingreso, egreso));
+    }
+}
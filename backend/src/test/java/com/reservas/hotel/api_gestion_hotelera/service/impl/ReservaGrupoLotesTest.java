@@ -0,0 +1,76 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaGrupoItem;
+import com.reservas.hotel.api_gestion_hotelera.dto.SolicitudReservaGrupo;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Con ids de secuencia los INSERT de una reserva de grupo van en lotes: menos sentencias
+ * preparadas que reservas creadas.
+ */
+@SpringBootTest(
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:lotes;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+    }
+)
+class ReservaGrupoLotesTest {
+
+    private static final String DNI = "30111222";
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testCrearReservaGrupo_LosInsertVanEnLote() {
+
+        Pasajero pasajero = new Pasajero();
+        pasajero.setNombre("Ana");
+        pasajero.setApellido("Gómez");
+        pasajero.setNroDocumento(DNI);
+        pasajero.setDniNormalizado(DNI);
+        pasajero.setEstado(EstadoPasajero.ACTIVO);
+        pasajeroRepository.save(pasajero);
+
+        Pasajero responsable = new Pasajero();
+        responsable.setNroDocumento(DNI);
+        // Las 18 dobles estándar del catálogo inicial
+        List<Integer> habitaciones = IntStream.rangeClosed(201, 218).boxed().toList();
+        LocalDate ingreso = LocalDate.now().plusDays(30);
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        estadisticas.clear();
+        List<ReservaGrupoItem> creadas = reservaService.crearReservaGrupo(
+            new SolicitudReservaGrupo(responsable, ingreso, ingreso.plusDays(2), habitaciones, null));
+
+        assertEquals(habitaciones.size(), creadas.size());
+        assertEquals(habitaciones.size(), estadisticas.getEntityInsertCount());
+        assertEquals(habitaciones.size(), creadas.stream().map(ReservaGrupoItem::reservaId).distinct().count());
+        assertTrue(estadisticas.getPrepareStatementCount() < habitaciones.size(),
+            "Sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+    }
+}
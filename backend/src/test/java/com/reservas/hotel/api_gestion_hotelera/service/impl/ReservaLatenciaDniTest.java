@@ -0,0 +1,123 @@
+package com.reservas.hotel.api_gestion_hotelera.service.impl;
+
+import com.reservas.hotel.api_gestion_hotelera.entities.Habitacion;
+import com.reservas.hotel.api_gestion_hotelera.entities.Pasajero;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.indice.MapaDni;
+import com.reservas.hotel.api_gestion_hotelera.repository.HabitacionRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.PasajeroRepository;
+import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
+import com.reservas.hotel.api_gestion_hotelera.service.ReservaService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latencia de crearReserva con 20.000 pasajeros en la base, y cuánto de esa latencia era la
+ * búsqueda del responsable: nro_documento LIKE '%q%' más la carga del primero, como se hacía
+ * antes, contra la búsqueda exacta por DNI que usa ahora.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(
+    properties = {
+        "spring.datasource.url=jdbc:h2:mem:latenciadni;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+    }
+)
+class ReservaLatenciaDniTest {
+
+    private static final int PASAJEROS = 20_000;
+    private static final int RESERVAS = 300;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private PasajeroService pasajeroService;
+
+    @Autowired
+    private PasajeroRepository pasajeroRepository;
+
+    @Autowired
+    private HabitacionRepository habitacionRepository;
+
+    @Autowired
+    private MapaDni mapaDni;
+
+    @Test
+    void benchmarkCrearReserva_BusquedaDelResponsable() {
+
+        List<Pasajero> pasajeros = new ArrayList<>(PASAJEROS);
+        for (int i = 0; i < PASAJEROS; i++) {
+            Pasajero pasajero = new Pasajero();
+            pasajero.setNombre("Nombre" + i);
+            pasajero.setApellido("Apellido" + i);
+            pasajero.setNroDocumento(String.valueOf(20_000_000 + i * 7L));
+            pasajero.setDniNormalizado(pasajero.getNroDocumento());
+            pasajero.setEstado(EstadoPasajero.ACTIVO);
+            pasajeros.add(pasajero);
+        }
+        // Como al iniciar la aplicación: todos los pasajeros quedan en el mapa de DNI
+        pasajeroRepository.saveAll(pasajeros).forEach(p -> mapaDni.registrar(p.getDniNormalizado(), p.getId()));
+
+        Random random = new Random(13);
+        List<String> dnis = new ArrayList<>(RESERVAS);
+        for (int i = 0; i < RESERVAS; i++) {
+            dnis.add(pasajeros.get(random.nextInt(PASAJEROS)).getNroDocumento());
+        }
+
+        // Búsqueda del responsable, antes y ahora
+        long inicio = System.nanoTime();
+        for (String dni : dnis) {
+            List<Long> ids = pasajeroRepository.buscarIdsPorDni(dni);
+            assertTrue(pasajeroRepository.findById(ids.get(0)).isPresent());
+        }
+        long microsLike = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / RESERVAS;
+
+        inicio = System.nanoTime();
+        for (String dni : dnis) {
+            assertTrue(pasajeroService.buscarPorDniExacto(dni).isPresent());
+        }
+        long microsExacta = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / RESERVAS;
+
+        // Reservas completas de punta a punta, una habitación y fechas distintas por vez
+        List<Integer> numeros = new ArrayList<>();
+        habitacionRepository.findAll().forEach(h -> numeros.add(h.getNumero()));
+        LocalDate base = LocalDate.now().plusDays(1);
+        inicio = System.nanoTime();
+        for (int i = 0; i < RESERVAS; i++) {
+            LocalDate ingreso = base.plusDays(3L * (i / numeros.size()));
+            Reserva reserva = new Reserva();
+            reserva.setFechaIngreso(FechaUtils.aDate(ingreso));
+            reserva.setFechaEgreso(FechaUtils.aDate(ingreso.plusDays(2)));
+            Habitacion habitacion = new Habitacion();
+            habitacion.setNumero(numeros.get(i % numeros.size()));
+            reserva.setHabitacion(habitacion);
+            Pasajero responsable = new Pasajero();
+            responsable.setNroDocumento(dnis.get(i));
+            reserva.setResponsable(responsable);
+            assertNotNull(reservaService.crearReserva(reserva).getId());
+        }
+        long microsReserva = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicio) / RESERVAS;
+
+        log.info("crearReserva con {} pasajeros: {} us por reserva; búsqueda del responsable {} us "
+                + "(con LIKE eran {} us, unos {} us por reserva)",
+            PASAJEROS, microsReserva, microsExacta, microsLike, microsReserva - microsExacta + microsLike);
+        assertTrue(microsExacta < microsLike);
+    }
+}
@@ -1,22 +1,46 @@
 package com.reservas.hotel.api_gestion_hotelera.service.impl;
 
+import com.reservas.hotel.api_gestion_hotelera.concurrencia.CoordinadorReservas;
 import com.reservas.hotel.api_gestion_hotelera.entities.*;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoHabitacion;
 import com.reservas.hotel.api_gestion_hotelera.entities.enums.EstadoPasajero;
+import com.reservas.hotel.api_gestion_hotelera.eventos.HabitacionLiberada;
 import com.reservas.hotel.api_gestion_hotelera.exception.ConflictoReservaException;
+import com.reservas.hotel.api_gestion_hotelera.dto.Cambios;
+import com.reservas.hotel.api_gestion_hotelera.dto.Pagina;
+import com.reservas.hotel.api_gestion_hotelera.dto.PasajeroResumen;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaExportada;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaGrupoItem;
+import com.reservas.hotel.api_gestion_hotelera.dto.ReservaVista;
+import com.reservas.hotel.api_gestion_hotelera.dto.SolicitudReservaGrupo;
+import com.reservas.hotel.api_gestion_hotelera.indice.AsignadorHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import com.reservas.hotel.api_gestion_hotelera.indice.CambiosReservas;
+import com.reservas.hotel.api_gestion_hotelera.indice.CatalogoHabitaciones;
+import com.reservas.hotel.api_gestion_hotelera.indice.IndiceReservas;
 import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository;
+import com.reservas.hotel.api_gestion_hotelera.repository.ReservaRepository.PasajeroDeReserva;
 import com.reservas.hotel.api_gestion_hotelera.service.ContabilidadService;
 import com.reservas.hotel.api_gestion_hotelera.service.HabitacionService;
 import com.reservas.hotel.api_gestion_hotelera.service.PasajeroService;
+import com.reservas.hotel.api_gestion_hotelera.util.FechaUtils;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +61,27 @@ class ReservaServiceImplTest {
     @Mock
     private ContabilidadService contabilidadService;
 
+    @Mock
+    private CoordinadorReservas coordinadorReservas;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    @Spy
+    private CalendarioDisponibilidad calendarioDisponibilidad = new CalendarioDisponibilidad();
+
+    @Spy
+    private IndiceReservas indiceReservas = new IndiceReservas();
+
+    @Spy
+    private CatalogoHabitaciones catalogoHabitaciones = new CatalogoHabitaciones();
+
+    @Spy
+    private AsignadorHabitaciones asignadorHabitaciones = new AsignadorHabitaciones();
+
+    @Spy
+    private CambiosReservas cambiosReservas = new CambiosReservas(64);
+
     @InjectMocks
     private ReservaServiceImpl reservaService;
 
@@ -78,6 +123,10 @@ class ReservaServiceImplTest {
         factura = new Factura();
         factura.setId(1L);
         factura.setImporteTotal(3000.0);
+
+        ReflectionTestUtils.setField(asignadorHabitaciones, "catalogoHabitaciones", catalogoHabitaciones);
+        ReflectionTestUtils.setField(asignadorHabitaciones, "calendarioDisponibilidad", calendarioDisponibilidad);
+        ReflectionTestUtils.setField(asignadorHabitaciones, "estadiaMinima", 2);
     }
 
     //  Tests para crearReserva 
@@ -86,8 +135,12 @@ class ReservaServiceImplTest {
     void testCrearReserva_Exitoso() {
         
         when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
-        when(pasajeroService.buscarHuesped("dni", "12345678")).thenReturn(List.of(pasajero));
-        when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenAnswer(inv -> {
+            Reserva guardada = inv.getArgument(0);
+            guardada.setId(1L);
+            return guardada;
+        });
 
         
         Reserva resultado = reservaService.crearReserva(reserva);
@@ -97,8 +150,10 @@ class ReservaServiceImplTest {
         assertEquals(habitacion, resultado.getHabitacion());
         assertEquals(pasajero, resultado.getResponsable());
         verify(habitacionService).guardarHabitacion(habitacion);
-        verify(reservaRepository).save(any(Reserva.class));
+        verify(reservaRepository).saveAndFlush(any(Reserva.class));
         assertEquals(EstadoHabitacion.RESERVADA, habitacion.getEstado());
+        assertEquals(List.of(1L), indiceReservas.buscarConflictos(101, LocalDate.now(), LocalDate.now().plusDays(1), null));
+        verify(coordinadorReservas).bloquearHastaFinDeTransaccion(List.of(101));
     }
 
     @Test
@@ -148,7 +203,23 @@ class ReservaServiceImplTest {
     @Test
     void testCrearReserva_HabitacionNoDisponible() {
         
-        habitacion.setEstado(EstadoHabitacion.OCUPADA);
+        calendarioDisponibilidad.ocupar(101, LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+        indiceReservas.registrar(101, 7L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+        when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+
+         
+        ConflictoReservaException exception = assertThrows(ConflictoReservaException.class, 
+            () -> reservaService.crearReserva(reserva));
+        assertTrue(exception.getMessage().contains("no está disponible para reservar"));
+        assertEquals(List.of(7L), exception.getReservasEnConflicto());
+        verify(reservaRepository, never()).saveAndFlush(any(Reserva.class));
+    }
+
+    @Test
+    void testCrearReserva_HabitacionEnMantenimiento() {
+        
+        habitacion.setEstado(EstadoHabitacion.EN_MANTENIMIENTO);
         when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
 
          
@@ -157,6 +228,41 @@ class ReservaServiceImplTest {
         assertTrue(exception.getMessage().contains("no está disponible para reservar"));
     }
 
+    @Test
+    void testCrearReserva_HabitacionOcupadaConFechasLibres() {
+        
+        // La habitación está ocupada hoy pero las noches pedidas no chocan con ninguna reserva
+        habitacion.setEstado(EstadoHabitacion.OCUPADA);
+        calendarioDisponibilidad.ocupar(101, LocalDate.now().minusDays(2), LocalDate.now());
+        when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenAnswer(inv -> {
+            Reserva guardada = inv.getArgument(0);
+            guardada.setId(1L);
+            return guardada;
+        });
+
+        
+        Reserva resultado = reservaService.crearReserva(reserva);
+
+        
+        assertNotNull(resultado);
+        assertEquals(EstadoHabitacion.OCUPADA, habitacion.getEstado());
+        verify(habitacionService, never()).guardarHabitacion(any(Habitacion.class));
+        assertFalse(calendarioDisponibilidad.estaDisponible(101, LocalDate.now(), LocalDate.now().plusDays(3)));
+    }
+
+    @Test
+    void testCrearReserva_FechasInvertidas() {
+        
+        reserva.setFechaEgreso(java.sql.Date.valueOf(LocalDate.now().minusDays(1)));
+
+         
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, 
+            () -> reservaService.crearReserva(reserva));
+        assertTrue(exception.getMessage().contains("posterior"));
+    }
+
     @Test
     void testCrearReserva_FaltaDniPasajero() {
         
@@ -173,7 +279,7 @@ class ReservaServiceImplTest {
     void testCrearReserva_PasajeroNoEncontrado() {
         
         when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
-        when(pasajeroService.buscarHuesped("dni", "12345678")).thenReturn(Collections.emptyList());
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.empty());
 
          
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, 
@@ -181,6 +287,183 @@ class ReservaServiceImplTest {
         assertTrue(exception.getMessage().contains("No se encontró un pasajero con DNI"));
     }
 
+    @Test
+    void testCrearReserva_RechazadaPorLaBase() {
+
+        // Otra instancia de la aplicación ya reservó esas noches: la restricción de exclusión lo rechaza
+        when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenThrow(new DataIntegrityViolationException("solapamiento",
+            new ConstraintViolationException("conflicting key value", new SQLException(), "reserva_sin_solapamiento")));
+
+        assertThrows(ConflictoReservaException.class, () -> reservaService.crearReserva(reserva));
+        assertTrue(indiceReservas.buscarConflictos(101, LocalDate.now(), LocalDate.now().plusDays(1), null).isEmpty());
+    }
+
+    @Test
+    void testCrearReserva_RechazadaPorLaBaseSinNombreDeRestriccion() {
+
+        // Así llega desde PostgreSQL: Hibernate no recupera el nombre y queda solo el SQLState
+        when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenThrow(new DataIntegrityViolationException("solapamiento",
+            new ConstraintViolationException("could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"), null)));
+
+        assertThrows(ConflictoReservaException.class, () -> reservaService.crearReserva(reserva));
+    }
+
+    @Test
+    void testCrearReserva_OtraViolacionNoEsConflicto() {
+
+        when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenThrow(new DataIntegrityViolationException("nulo",
+            new ConstraintViolationException("could not execute statement",
+                new SQLException("null value in column \"responsable_id\"", "23502"), null)));
+
+        assertThrows(DataIntegrityViolationException.class, () -> reservaService.crearReserva(reserva));
+    }
+
+    //  Tests para crearReservaGrupo 
+
+    private Habitacion habitacionDeTipo(int numero, long tipoId, String nombreTipo) {
+        TipoHabitacion tipo = new TipoHabitacion(nombreTipo, new java.math.BigDecimal("50000"), 10, 2);
+        tipo.setId(tipoId);
+        Habitacion nueva = new Habitacion(numero, EstadoHabitacion.LIBRE, tipo);
+        catalogoHabitaciones.registrar(nueva);
+        return nueva;
+    }
+
+    @Test
+    void testCrearReservaPorTipo_EligeLaQueEncajaJusto() {
+
+        LocalDate ingreso = LocalDate.now().plusDays(10);
+        LocalDate egreso = ingreso.plusDays(2);
+        habitacionDeTipo(201, 2L, "Doble Estándar");
+        Habitacion h202 = habitacionDeTipo(202, 2L, "Doble Estándar");
+        // La 202 tiene un hueco de exactamente dos noches; la 201 está vacía
+        calendarioDisponibilidad.ocupar(202, ingreso.minusDays(3), ingreso);
+        calendarioDisponibilidad.ocupar(202, egreso, egreso.plusDays(3));
+        reserva.setHabitacion(null);
+        reserva.setFechaIngreso(FechaUtils.aDate(ingreso));
+        reserva.setFechaEgreso(FechaUtils.aDate(egreso));
+        when(habitacionService.buscarPorNumero(202)).thenReturn(Optional.of(h202));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenAnswer(inv -> {
+            Reserva guardada = inv.getArgument(0);
+            guardada.setId(5L);
+            return guardada;
+        });
+
+        Reserva resultado = reservaService.crearReservaPorTipo(2L, reserva);
+
+        assertEquals(h202, resultado.getHabitacion());
+        assertTrue(resultado.getAsignacionAutomatica());
+        assertFalse(calendarioDisponibilidad.estaDisponible(202, ingreso, egreso));
+        assertTrue(calendarioDisponibilidad.estaDisponible(201, ingreso, egreso));
+        verify(coordinadorReservas).bloquearHastaFinDeTransaccion(List.of(201, 202));
+    }
+
+    @Test
+    void testCrearReservaPorTipo_SinHabitacionesLibres() {
+
+        LocalDate ingreso = LocalDate.now().plusDays(10);
+        habitacionDeTipo(201, 2L, "Doble Estándar");
+        calendarioDisponibilidad.ocupar(201, ingreso, ingreso.plusDays(5));
+        reserva.setFechaIngreso(FechaUtils.aDate(ingreso.plusDays(1)));
+        reserva.setFechaEgreso(FechaUtils.aDate(ingreso.plusDays(2)));
+
+        assertThrows(ConflictoReservaException.class, () -> reservaService.crearReservaPorTipo(2L, reserva));
+        verify(reservaRepository, never()).saveAndFlush(any(Reserva.class));
+    }
+
+    @Test
+    void testCrearReserva_NoQuedaMarcadaComoAutomatica() {
+
+        when(habitacionService.buscarPorNumero(101)).thenReturn(Optional.of(habitacion));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenAnswer(inv -> inv.getArgument(0));
+        reserva.setAsignacionAutomatica(true);
+
+        assertFalse(reservaService.crearReserva(reserva).getAsignacionAutomatica());
+    }
+
+    @Test
+    void testCrearReservaGrupo_PorNumeroYPorTipo() {
+
+        LocalDate ingreso = LocalDate.now().plusDays(10);
+        LocalDate egreso = ingreso.plusDays(2);
+        Habitacion h101 = habitacionDeTipo(101, 1L, "Individual");
+        habitacionDeTipo(201, 2L, "Doble Estándar");
+        Habitacion h202 = habitacionDeTipo(202, 2L, "Doble Estándar");
+        Habitacion h203 = habitacionDeTipo(203, 2L, "Doble Estándar");
+        calendarioDisponibilidad.ocupar(201, ingreso, egreso);
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(habitacionService.buscarPorNumeros(List.of(101, 202, 203))).thenReturn(List.of(h101, h202, h203));
+        when(reservaRepository.saveAllAndFlush(anyList())).thenAnswer(inv -> {
+            List<Reserva> guardadas = inv.getArgument(0);
+            long id = 10;
+            for (Reserva guardada : guardadas) {
+                guardada.setId(id++);
+            }
+            return guardadas;
+        });
+
+        List<ReservaGrupoItem> resultado = reservaService.crearReservaGrupo(new SolicitudReservaGrupo(
+            reserva.getResponsable(), ingreso, egreso, List.of(101), Map.of(2L, 2)));
+
+        // La 201 ya estaba ocupada: se eligen las siguientes libres del tipo
+        assertEquals(List.of(
+            new ReservaGrupoItem(101, "Individual", 10L),
+            new ReservaGrupoItem(202, "Doble Estándar", 11L),
+            new ReservaGrupoItem(203, "Doble Estándar", 12L)), resultado);
+        assertFalse(calendarioDisponibilidad.estaDisponible(203, ingreso, egreso));
+        assertEquals(EstadoHabitacion.RESERVADA, h202.getEstado());
+        verify(habitacionService).guardarHabitaciones(List.of(h101, h202, h203));
+        verify(pasajeroService, times(1)).buscarPorDniExacto("12345678");
+        verify(coordinadorReservas).bloquearHastaFinDeTransaccion(new TreeSet<>(List.of(101, 201, 202, 203)));
+    }
+
+    @Test
+    void testCrearReservaGrupo_FaltanHabitacionesDelTipo() {
+
+        LocalDate ingreso = LocalDate.now().plusDays(10);
+        habitacionDeTipo(201, 2L, "Doble Estándar");
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+
+        assertThrows(ConflictoReservaException.class, () -> reservaService.crearReservaGrupo(new SolicitudReservaGrupo(
+            reserva.getResponsable(), ingreso, ingreso.plusDays(1), null, Map.of(2L, 2))));
+        verify(reservaRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void testCrearReservaGrupo_UnaHabitacionOcupadaRechazaTodo() {
+
+        LocalDate ingreso = LocalDate.now().plusDays(10);
+        LocalDate egreso = ingreso.plusDays(3);
+        Habitacion h101 = habitacionDeTipo(101, 1L, "Individual");
+        Habitacion h102 = habitacionDeTipo(102, 1L, "Individual");
+        calendarioDisponibilidad.ocupar(102, ingreso.plusDays(1), ingreso.plusDays(2));
+        when(pasajeroService.buscarPorDniExacto("12345678")).thenReturn(Optional.of(pasajero));
+        when(habitacionService.buscarPorNumeros(List.of(101, 102))).thenReturn(List.of(h101, h102));
+
+        assertThrows(ConflictoReservaException.class, () -> reservaService.crearReservaGrupo(new SolicitudReservaGrupo(
+            reserva.getResponsable(), ingreso, egreso, List.of(101, 102), null)));
+        verify(reservaRepository, never()).saveAllAndFlush(anyList());
+        verify(habitacionService, never()).guardarHabitaciones(anyList());
+    }
+
+    @Test
+    void testCrearReservaGrupo_HabitacionesRepetidas() {
+
+        LocalDate ingreso = LocalDate.now().plusDays(10);
+
+        assertThrows(IllegalArgumentException.class, () -> reservaService.crearReservaGrupo(new SolicitudReservaGrupo(
+            reserva.getResponsable(), ingreso, ingreso.plusDays(1), List.of(101, 101), null)));
+        verifyNoInteractions(coordinadorReservas);
+    }
+
     //  Tests para realizarCheckIn 
 
     @Test
@@ -254,7 +537,7 @@ class ReservaServiceImplTest {
         datosActualizados.setFechaEgreso(java.sql.Date.valueOf(nuevaFechaEgreso));
 
         when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
-        when(reservaRepository.save(any(Reserva.class))).thenReturn(reserva);
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenReturn(reserva);
 
         
         Reserva resultado = reservaService.modificarReserva(1L, datosActualizados);
@@ -263,7 +546,46 @@ class ReservaServiceImplTest {
         assertNotNull(resultado);
         assertEquals(java.sql.Date.valueOf(nuevaFechaIngreso), resultado.getFechaIngreso());
         assertEquals(java.sql.Date.valueOf(nuevaFechaEgreso), resultado.getFechaEgreso());
-        verify(reservaRepository).save(reserva);
+        verify(reservaRepository).saveAndFlush(reserva);
+    }
+
+    @Test
+    void testModificarReserva_RechazadaPorLaBase() {
+
+        // Otra instancia ocupó las noches nuevas: el flush choca con la restricción de exclusión
+        Reserva datosActualizados = new Reserva();
+        datosActualizados.setFechaIngreso(java.sql.Date.valueOf(LocalDate.now().plusDays(1)));
+        datosActualizados.setFechaEgreso(java.sql.Date.valueOf(LocalDate.now().plusDays(5)));
+
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+        when(reservaRepository.saveAndFlush(any(Reserva.class))).thenThrow(new DataIntegrityViolationException("solapamiento",
+            new ConstraintViolationException("conflicting key value", new SQLException(), "reserva_sin_solapamiento")));
+
+        assertThrows(ConflictoReservaException.class, () -> reservaService.modificarReserva(1L, datosActualizados));
+    }
+
+    @Test
+    void testModificarReserva_FechasOcupadas() {
+        
+        calendarioDisponibilidad.ocupar(101, LocalDate.now(), LocalDate.now().plusDays(3));
+        indiceReservas.registrar(101, 1L, LocalDate.now(), LocalDate.now().plusDays(3));
+        calendarioDisponibilidad.ocupar(101, LocalDate.now().plusDays(4), LocalDate.now().plusDays(6));
+        indiceReservas.registrar(101, 2L, LocalDate.now().plusDays(4), LocalDate.now().plusDays(6));
+
+        Reserva datosActualizados = new Reserva();
+        datosActualizados.setFechaIngreso(java.sql.Date.valueOf(LocalDate.now().plusDays(1)));
+        datosActualizados.setFechaEgreso(java.sql.Date.valueOf(LocalDate.now().plusDays(5)));
+
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+
+         
+        ConflictoReservaException exception = assertThrows(ConflictoReservaException.class, 
+            () -> reservaService.modificarReserva(1L, datosActualizados));
+        // La propia reserva no figura como conflicto
+        assertEquals(List.of(2L), exception.getReservasEnConflicto());
+        // Las noches originales siguen reservadas
+        assertFalse(calendarioDisponibilidad.estaDisponible(101, LocalDate.now(), LocalDate.now().plusDays(1)));
+        verify(reservaRepository, never()).saveAndFlush(any(Reserva.class));
     }
 
     @Test
@@ -354,6 +676,28 @@ class ReservaServiceImplTest {
         assertEquals(EstadoHabitacion.LIBRE, habitacion.getEstado());
         verify(habitacionService).guardarHabitacion(habitacion);
         verify(reservaRepository).delete(reserva);
+        verify(eventos).publishEvent(new HabitacionLiberada(101, LocalDate.now(), LocalDate.now().plusDays(3)));
+        verify(cambiosReservas).registrar(1L, true);
+    }
+
+    @Test
+    void testCancelarReserva_ConOtrasReservasPendientes() {
+        
+        reserva.setHabitacion(habitacion);
+        habitacion.setEstado(EstadoHabitacion.RESERVADA);
+        calendarioDisponibilidad.ocupar(101, LocalDate.now(), LocalDate.now().plusDays(3));
+        calendarioDisponibilidad.ocupar(101, LocalDate.now().plusDays(10), LocalDate.now().plusDays(12));
+        
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+
+        
+        reservaService.cancelarReserva(1L);
+
+        
+        assertEquals(EstadoHabitacion.RESERVADA, habitacion.getEstado());
+        assertTrue(calendarioDisponibilidad.estaDisponible(101, LocalDate.now(), LocalDate.now().plusDays(3)));
+        verify(habitacionService, never()).guardarHabitacion(any(Habitacion.class));
+        verify(reservaRepository).delete(reserva);
     }
 
     @Test
@@ -381,22 +725,69 @@ class ReservaServiceImplTest {
         assertTrue(exception.getMessage().contains("ya está libre"));
     }
 
-    //  Tests para buscarTodas 
+    //  Tests para buscarPagina 
 
     @Test
-    void testBuscarTodas() {
+    void testBuscarPagina() {
         
-        Reserva reserva2 = new Reserva();
-        List<Reserva> listaReservas = Arrays.asList(reserva, reserva2);
-        when(reservaRepository.findAllWithRelations()).thenReturn(listaReservas);
+        List<ReservaVista> filas = Arrays.asList(vista(1L), vista(2L));
+        when(reservaRepository.buscarVistasPagina(0L, Limit.of(3))).thenReturn(filas);
 
         
-        Set<Reserva> resultado = reservaService.buscarTodas();
+        Pagina<ReservaVista> resultado = reservaService.buscarPagina(null, 2);
 
         
-        assertNotNull(resultado);
-        assertEquals(2, resultado.size());
-        verify(reservaRepository).findAllWithRelations();
+        assertEquals(2, resultado.elementos().size());
+        assertNull(resultado.siguiente());
+        verify(reservaRepository).buscarVistasPagina(0L, Limit.of(3));
+    }
+
+    @Test
+    void testBuscarPagina_SiguienteEsElUltimoId() {
+        
+        when(reservaRepository.buscarVistasPagina(0L, Limit.of(3))).thenReturn(Arrays.asList(vista(1L), vista(7L), vista(9L)));
+
+        
+        Pagina<ReservaVista> resultado = reservaService.buscarPagina(0L, 2);
+
+        
+        assertEquals(List.of(1L, 7L), resultado.elementos().stream().map(ReservaVista::id).toList());
+        assertEquals(7L, resultado.siguiente());
+        // Los pasajeros se piden una sola vez y solo para las reservas de la página
+        verify(reservaRepository).buscarPasajerosDeReservas(List.of(1L, 7L));
+    }
+
+    @Test
+    void testBuscarPagina_AgrupaLosPasajerosPorReserva() {
+        
+        when(reservaRepository.buscarVistasPagina(0L, Limit.of(3))).thenReturn(Arrays.asList(vista(1L), vista(2L)));
+        when(reservaRepository.buscarPasajerosDeReservas(List.of(1L, 2L))).thenReturn(List.of(
+            pasajeroDeReserva(1L, 10L, "Ana"), pasajeroDeReserva(1L, 11L, "Luis")));
+
+        
+        Pagina<ReservaVista> resultado = reservaService.buscarPagina(null, 2);
+
+        
+        assertEquals(List.of("Ana", "Luis"),
+            resultado.elementos().get(0).pasajeros().stream().map(PasajeroResumen::nombre).toList());
+        assertTrue(resultado.elementos().get(1).pasajeros().isEmpty());
+    }
+
+    @Test
+    void testExportar_RecorreElStreamYLoCierra() {
+        
+        boolean[] cerrado = {false};
+        ReservaExportada fila1 = new ReservaExportada(1L, null, null, 101, 1L, "Juan", "Pérez", "12345678", false);
+        ReservaExportada fila2 = new ReservaExportada(2L, null, null, 102, 1L, "Juan", "Pérez", "12345678", true);
+        when(reservaRepository.exportarTodas()).thenReturn(Stream.of(fila1, fila2).onClose(() -> cerrado[0] = true));
+
+        
+        List<ReservaExportada> recibidas = new ArrayList<>();
+        reservaService.exportar(recibidas::add);
+
+        
+        assertEquals(List.of(fila1, fila2), recibidas);
+        assertTrue(cerrado[0]);
     }
 
     //  Tests para buscarPorNombreHuesped 
@@ -404,16 +795,15 @@ class ReservaServiceImplTest {
     @Test
     void testBuscarPorNombreHuesped() {
         
-        List<Reserva> listaReservas = Arrays.asList(reserva);
-        when(reservaRepository.buscarPorNombreHuesped("Juan")).thenReturn(listaReservas);
+        when(reservaRepository.buscarVistasPorNombreHuesped("jose")).thenReturn(List.of(vista(1L)));
 
         
-        List<Reserva> resultado = reservaService.buscarPorNombreHuesped("Juan");
+        List<ReservaVista> resultado = reservaService.buscarPorNombreHuesped("José");
 
         
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
-        verify(reservaRepository).buscarPorNombreHuesped("Juan");
+        verify(reservaRepository).buscarVistasPorNombreHuesped("jose");
     }
 
     //  Tests para buscarPorDniHuesped 
@@ -421,16 +811,15 @@ class ReservaServiceImplTest {
     @Test
     void testBuscarPorDniHuesped() {
         
-        List<Reserva> listaReservas = Arrays.asList(reserva);
-        when(reservaRepository.buscarPorDniHuesped("12345678")).thenReturn(listaReservas);
+        when(reservaRepository.buscarVistasPorDniHuesped("12345678")).thenReturn(List.of(vista(1L)));
 
         
-        List<Reserva> resultado = reservaService.buscarPorDniHuesped("12345678");
+        List<ReservaVista> resultado = reservaService.buscarPorDniHuesped("12345678");
 
         
         assertNotNull(resultado);
         assertEquals(1, resultado.size());
-        verify(reservaRepository).buscarPorDniHuesped("12345678");
+        verify(reservaRepository).buscarVistasPorDniHuesped("12345678");
     }
 
     //  Tests para buscarPorId 
@@ -438,27 +827,133 @@ class ReservaServiceImplTest {
     @Test
     void testBuscarPorId_Encontrado() {
         
-        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+        when(reservaRepository.buscarVistaPorId(1L)).thenReturn(Optional.of(vista(1L)));
+        when(reservaRepository.buscarPasajerosDeReservas(List.of(1L))).thenReturn(List.of(pasajeroDeReserva(1L, 10L, "Ana")));
 
         
-        Optional<Reserva> resultado = reservaService.buscarPorId(1L);
+        Optional<ReservaVista> resultado = reservaService.buscarPorId(1L);
 
         
         assertTrue(resultado.isPresent());
-        assertEquals(reserva, resultado.get());
-        verify(reservaRepository).findById(1L);
+        assertEquals(1L, resultado.get().id());
+        assertEquals(1, resultado.get().pasajeros().size());
+        verify(reservaRepository, never()).findById(any());
     }
 
     @Test
     void testBuscarPorId_NoEncontrado() {
         
-        when(reservaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(reservaRepository.buscarVistaPorId(999L)).thenReturn(Optional.empty());
 
         
-        Optional<Reserva> resultado = reservaService.buscarPorId(999L);
+        Optional<ReservaVista> resultado = reservaService.buscarPorId(999L);
 
         
         assertFalse(resultado.isPresent());
-        verify(reservaRepository).findById(999L);
+        verify(reservaRepository, never()).buscarPasajerosDeReservas(any());
+    }
+
+    //  Tests para cambiosDesde 
+
+    @Test
+    void testCambiosDesde_SinVersionMandaLasVigentes() {
+        
+        when(reservaRepository.buscarVistasVigentes(any())).thenReturn(List.of(vista(1L), vista(2L)));
+
+        
+        Cambios<ReservaVista, Long> resultado = reservaService.cambiosDesde(null);
+
+        
+        assertTrue(resultado.completo());
+        assertEquals(List.of(1L, 2L), resultado.cambiados().stream().map(ReservaVista::id).toList());
+        assertEquals(cambiosReservas.version(), resultado.version());
+        verify(reservaRepository, never()).buscarVistasPorIds(any());
+    }
+
+    @Test
+    void testCambiosDesde_SoloLasReservasQueCambiaron() {
+        
+        String version = cambiosReservas.version();
+        reserva.setHabitacion(habitacion);
+        habitacion.setEstado(EstadoHabitacion.RESERVADA);
+        when(reservaRepository.findById(1L)).thenReturn(Optional.of(reserva));
+        reservaService.cancelarReserva(1L);
+        cambiosReservas.registrar(2L, false);
+        cambiosReservas.registrar(2L, false);
+        when(reservaRepository.buscarVistasPorIds(List.of(2L))).thenReturn(List.of(vista(2L)));
+
+        
+        Cambios<ReservaVista, Long> resultado = reservaService.cambiosDesde(version);
+
+        
+        assertFalse(resultado.completo());
+        assertEquals(List.of(2L), resultado.cambiados().stream().map(ReservaVista::id).toList());
+        assertEquals(List.of(1L), resultado.eliminados());
+        assertNotEquals(version, resultado.version());
+        verify(reservaRepository, never()).buscarVistasVigentes(any());
+    }
+
+    @Test
+    void testCambiosDesde_LasQueYaTerminaronVanComoEliminadas() {
+        
+        String version = cambiosReservas.version();
+        cambiosReservas.registrar(1L, false);
+        cambiosReservas.registrar(2L, false);
+        LocalDate hoy = LocalDate.now();
+        ReservaVista terminada = new ReservaVista(1L, FechaUtils.aDate(hoy.minusDays(2)), FechaUtils.aDate(hoy),
+            101, EstadoHabitacion.LIBRE, 1L, "Simple", null, 1, 1L, "Juan", "Pérez", "12345678", false);
+        ReservaVista vigente = new ReservaVista(2L, FechaUtils.aDate(hoy), FechaUtils.aDate(hoy.plusDays(1)),
+            102, EstadoHabitacion.OCUPADA, 1L, "Simple", null, 1, 1L, "Juan", "Pérez", "12345678", false);
+        when(reservaRepository.buscarVistasPorIds(List.of(1L, 2L))).thenReturn(List.of(terminada, vigente));
+
+        
+        Cambios<ReservaVista, Long> resultado = reservaService.cambiosDesde(version);
+
+        
+        assertEquals(List.of(2L), resultado.cambiados().stream().map(ReservaVista::id).toList());
+        assertEquals(List.of(1L), resultado.eliminados());
+    }
+
+    @Test
+    void testRegistrarTerminadas_LasQueEgresanHoySeEliminan() {
+        
+        String version = cambiosReservas.version();
+        LocalDate hoy = LocalDate.now();
+        when(reservaRepository.buscarIdsConEgresoEntre(FechaUtils.aDate(hoy.minusDays(1)), FechaUtils.aDate(hoy)))
+            .thenReturn(List.of(5L, 7L));
+
+        
+        reservaService.registrarTerminadas();
+
+        
+        Cambios<ReservaVista, Long> resultado = reservaService.cambiosDesde(version);
+        assertTrue(resultado.cambiados().isEmpty());
+        assertEquals(List.of(5L, 7L), resultado.eliminados());
+    }
+
+    @Test
+    void testCambiosDesde_SinCambiosNoConsultaLaBase() {
+        
+        Cambios<ReservaVista, Long> resultado = reservaService.cambiosDesde(cambiosReservas.version());
+
+        
+        assertFalse(resultado.completo());
+        assertTrue(resultado.cambiados().isEmpty());
+        verifyNoInteractions(reservaRepository);
+    }
+
+    private static ReservaVista vista(Long id) {
+        return new ReservaVista(id, null, null, 101, EstadoHabitacion.RESERVADA, 1L, "Simple", null, 1,
+            1L, "Juan", "Pérez", "12345678", false);
+    }
+
+    private static PasajeroDeReserva pasajeroDeReserva(Long reservaId, Long id, String nombre) {
+        return new PasajeroDeReserva() {
+            public Long getReservaId() { return reservaId; }
+            public Long getId() { return id; }
+            public String getNombre() { return nombre; }
+            public String getApellido() { return "Pérez"; }
+            public String getNroDocumento() { return null; }
+        };
     }
 }
@@ -0,0 +1,68 @@
+package com.reservas.hotel.api_gestion_hotelera.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.hotel.api_gestion_hotelera.entities.Reserva;
+import com.reservas.hotel.api_gestion_hotelera.indice.CalendarioDisponibilidad;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las conversiones no dependen de la zona del servidor: se prueban con zonas al oeste y al este
+ * de UTC como zona por defecto de la JVM.
+ */
+class FechaUtilsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TimeZone zonaOriginal;
+
+    @BeforeEach
+    void setUp() {
+        zonaOriginal = TimeZone.getDefault();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TimeZone.setDefault(zonaOriginal);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"America/Argentina/Buenos_Aires", "America/Los_Angeles", "Asia/Tokyo", "UTC"})
+    void testFechasDelPedido_MismasNochesEnCualquierZona(String zona) throws Exception {
+        TimeZone.setDefault(TimeZone.getTimeZone(zona));
+
+        // Como llega a POST /api/reservas/crear
+        Reserva reserva = objectMapper.readValue(
+            "{\"fechaIngreso\":\"2025-03-10\",\"fechaEgreso\":\"2025-03-12\"}", Reserva.class);
+        LocalDate ingreso = FechaUtils.aLocalDate(reserva.getFechaIngreso());
+        LocalDate egreso = FechaUtils.aLocalDate(reserva.getFechaEgreso());
+
+        assertEquals(LocalDate.of(2025, 3, 10), ingreso);
+        assertEquals(LocalDate.of(2025, 3, 12), egreso);
+
+        // La estadía ocupa las noches del 10 y el 11: el 9 y el 12 quedan libres
+        CalendarioDisponibilidad calendario = new CalendarioDisponibilidad();
+        calendario.ocupar(101, ingreso, egreso);
+        assertTrue(calendario.estaDisponible(101, LocalDate.of(2025, 3, 9), LocalDate.of(2025, 3, 10)));
+        assertTrue(calendario.estaDisponible(101, LocalDate.of(2025, 3, 12), LocalDate.of(2025, 3, 13)));
+        assertFalse(calendario.estaDisponible(101, LocalDate.of(2025, 3, 11), LocalDate.of(2025, 3, 12)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"America/Argentina/Buenos_Aires", "Asia/Tokyo"})
+    void testADate_IdaYVuelta(String zona) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zona));
+        LocalDate fecha = LocalDate.of(2025, 12, 31);
+
+        assertEquals(fecha, FechaUtils.aLocalDate(FechaUtils.aDate(fecha)));
+        assertEquals(fecha, FechaUtils.aLocalDate(java.sql.Date.valueOf(fecha)));
+        assertNull(FechaUtils.aLocalDate(null));
+        assertNull(FechaUtils.aDate(null));
+    }
+}
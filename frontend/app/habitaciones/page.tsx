@@ -4,7 +4,7 @@ import { useState, useEffect } from "react"
 import { Card, CardContent, CardDescription, CardHeader, CardTitle } from "@/components/ui/card"
 import { Badge } from "@/components/ui/badge"
 import { DashboardLayout } from "@/components/dashboard-layout"
-import { obtenerTodasHabitaciones, Habitacion } from "@/lib/api/habitaciones"
+import { obtenerTodasHabitaciones, suscribirCambiosHabitaciones, Habitacion } from "@/lib/api/habitaciones"
 
 type HabitacionDisplay = {
   numero: string
@@ -75,6 +75,19 @@ export default function EstadoHabitaciones() {
     }
 
     cargarHabitaciones()
+
+    // En vez de volver a pedir el listado, se aplican los cambios que manda el backend
+    const cancelar = suscribirCambiosHabitaciones(
+      (cambios) =>
+        setHabitaciones((actuales) =>
+          actuales.map((h) => {
+            const cambio = cambios.find((c) => String(c.numero) === String(h.numero))
+            return cambio ? { ...h, estado: convertirEstado(cambio.estado) } : h
+          })
+        ),
+      cargarHabitaciones
+    )
+    return cancelar
   }, [])
 
   const libres = habitaciones.filter((h) => h.estado === "libre").length
@@ -1,5 +1,5 @@
 // Peticiones relacionadas con habitaciones
-import { apiFetch } from "./fetch"
+import { apiFetch, NEXT_PUBLIC_API_BASE_URL } from "./fetch"
 
 export type TipoHabitacion = {
   id?: number
@@ -16,9 +16,83 @@ export type Habitacion = {
   tipoHabitacion: TipoHabitacion
 }
 
-export function obtenerTodasHabitaciones() {
-  return apiFetch<Habitacion[]>("/habitaciones/listar", {
-    method: "GET",
-  })
+export type Pagina<T> = {
+  elementos: T[]
+  siguiente: number | null
 }
 
+// El listado viene paginado por número de habitación; se piden páginas hasta que no haya siguiente
+export async function obtenerTodasHabitaciones() {
+  const habitaciones: Habitacion[] = []
+  let despues: number | null = null
+  do {
+    const params = new URLSearchParams({ tamano: "200" })
+    if (despues !== null) params.set("despues", String(despues))
+    const pagina: Pagina<Habitacion> = await apiFetch<Pagina<Habitacion>>(`/habitaciones/listar?${params}`, {
+      method: "GET",
+    })
+    habitaciones.push(...pagina.elementos)
+    despues = pagina.siguiente
+  } while (despues !== null)
+  return habitaciones
+}
+
+
+export type CantidadPorEstado = Record<Habitacion["estado"], number>
+
+export type ResumenHabitaciones = {
+  total: number
+  porEstado: CantidadPorEstado
+  porTipo: { tipoId: number; nombre: string; total: number; porEstado: CantidadPorEstado }[]
+}
+
+// Cantidades por estado y por tipo, calculadas en memoria por el backend
+export async function obtenerResumenHabitaciones() {
+  return apiFetch<ResumenHabitaciones>("/habitaciones/resumen", { method: "GET" })
+}
+
+export type CambioEstadoHabitacion = {
+  numero: number
+  anterior: Habitacion["estado"] | null
+  estado: Habitacion["estado"]
+}
+
+// Cambios de estado empujados por el backend (SSE) en lotes. EventSource reconecta solo; como
+// mientras estuvo cortado se pudieron perder cambios, al reconectar se avisa para recargar
+export function suscribirCambiosHabitaciones(
+  alCambiar: (cambios: CambioEstadoHabitacion[]) => void,
+  alReconectar: () => void
+) {
+  const fuente = new EventSource(`${NEXT_PUBLIC_API_BASE_URL}/habitaciones/eventos`)
+  let conectada = false
+  fuente.addEventListener("estados", (e) => alCambiar(JSON.parse((e as MessageEvent).data)))
+  fuente.onopen = () => {
+    if (conectada) alReconectar()
+    conectada = true
+  }
+  return () => fuente.close()
+}
+
+
+// Respuesta de /cambios: se guarda "version" y se manda como "desde" en el próximo pedido.
+// Con completo=true "cambiados" es el listado entero y reemplaza lo que se tenía
+export type Cambios<T, K> = {
+  version: string
+  completo: boolean
+  cambiados: T[]
+  eliminados: K[]
+}
+
+export async function obtenerCambiosHabitaciones(desde?: string) {
+  const params = desde ? `?${new URLSearchParams({ desde })}` : ""
+  return apiFetch<Cambios<Habitacion, number>>(`/habitaciones/cambios${params}`, { method: "GET" })
+}
+
+// Catálogo pre-serializado por el backend; el navegador lo pide en gzip y lo revalida con el ETag
+export async function obtenerTiposHabitacion() {
+  return apiFetch<TipoHabitacion[]>("/habitaciones/tipos", { method: "GET" })
+}
+
+export async function obtenerCatalogoHabitaciones() {
+  return apiFetch<Habitacion[]>("/habitaciones/catalogo", { method: "GET" })
+}
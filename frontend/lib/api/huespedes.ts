@@ -48,6 +48,19 @@ export function buscarHuesped(payload: BuscarHuespedRequest) {
   })
 }
 
+export type SugerenciaHuesped = {
+  id: number
+  nombre: string
+  apellido: string
+  nroDocumento: string
+}
+
+// Autocompletado por comienzo de apellido, nombre o DNI; devuelve a lo sumo k huéspedes
+export function sugerirHuespedes(q: string, k = 10) {
+  const params = new URLSearchParams({ q, k: String(k) })
+  return apiFetch<SugerenciaHuesped[]>(`/pasajeros/sugerencias?${params}`)
+}
+
 export function darAltaHuesped(payload: Huesped) {
   return apiFetch("/pasajeros/dar-alta", {
     method: "POST",
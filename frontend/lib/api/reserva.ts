@@ -1,4 +1,5 @@
 import { apiFetch } from "./fetch"
+import type { Cambios } from "./habitaciones"
 
 export type Reserva = {
   id: number
@@ -29,3 +30,9 @@ export function crearReserva(payload: CrearReservaRequest) {
     json: payload,
   })
 }
+
+// Solo las reservas que cambiaron o se borraron desde la versión; sin versión, las vigentes completas
+export function obtenerCambiosReservas(desde?: string) {
+  const params = desde ? `?${new URLSearchParams({ desde })}` : ""
+  return apiFetch<Cambios<Reserva, number>>(`/reservas/cambios${params}`, { method: "GET" })
+}
@@ -0,0 +1,29 @@
+/* RESERVAS SIN SOLAPAMIENTO
+   Agrega a reserva el rango de noches [fecha_ingreso, fecha_egreso) como columna generada
+   y una restricción de exclusión: dos reservas de la misma habitación no pueden compartir
+   una noche. La aplicación traduce la violación a un 409 (ConflictoReservaException).
+
+   Ejecutar una sola vez sobre la base existente. Si falla al crear la restricción es que
+   ya hay reservas solapadas: listarlas con la consulta del final y resolverlas a mano. */
+
+    create extension if not exists btree_gist;
+
+    alter table reserva
+       add column if not exists periodo daterange
+       generated always as (
+           case when fecha_ingreso::date < fecha_egreso::date
+                then daterange(fecha_ingreso::date, fecha_egreso::date, '[)')
+           end
+       ) stored;
+
+    alter table reserva
+       add constraint reserva_sin_solapamiento
+       exclude using gist (habitacion_id with =, periodo with &&);
+
+/* Reservas que impiden crear la restricción:
+
+    select a.id, b.id, a.habitacion_id, a.periodo, b.periodo
+    from reserva a
+    join reserva b on a.habitacion_id = b.habitacion_id and a.id < b.id
+    where a.periodo && b.periodo;
+*/
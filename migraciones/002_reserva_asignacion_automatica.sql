@@ -0,0 +1,20 @@
+/* ASIGNACIÓN AUTOMÁTICA DE HABITACIONES
+   Marca las reservas cuya habitación eligió el sistema (POST /api/reservas/por-tipo): el
+   optimizador nocturno puede moverlas a otra habitación del mismo tipo.
+
+   El optimizador aplica los cambios de un tipo en una sola transacción y puede intercambiar
+   dos reservas de habitación; para eso posterga la restricción de solapamiento hasta el
+   commit, que sigue rechazando cualquier solapamiento real.
+
+   Ejecutar una sola vez sobre la base existente. */
+
+    alter table reserva
+       add column if not exists asignacion_automatica boolean default false;
+
+    alter table reserva
+       drop constraint if exists reserva_sin_solapamiento;
+
+    alter table reserva
+       add constraint reserva_sin_solapamiento
+       exclude using gist (habitacion_id with =, periodo with &&)
+       deferrable initially immediate;
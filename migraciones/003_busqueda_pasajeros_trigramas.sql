@@ -0,0 +1,30 @@
+/* BÚSQUEDA DE HUÉSPEDES CON pg_trgm
+   Índices GIN de trigramas para que las búsquedas por subcadena (LIKE '%q%') de
+   PasajeroRepository y ReservaRepository.buscarPorNombreHuesped no recorran la tabla
+   entera. Los índices son sobre lower(nombre) y lower(apellido): las consultas tienen que
+   usar exactamente esa expresión para aprovecharlos.
+
+   Es la alternativa en base al índice en memoria (reservas.busqueda.pasajeros=base), pensada
+   para despliegues con más de una instancia de la aplicación.
+
+   Ejecutar una sola vez sobre la base existente. */
+
+    create extension if not exists pg_trgm;
+
+    create index if not exists pasajero_nombre_trgm
+       on pasajero using gin (lower(nombre) gin_trgm_ops);
+
+    create index if not exists pasajero_apellido_trgm
+       on pasajero using gin (lower(apellido) gin_trgm_ops);
+
+    create index if not exists pasajero_nro_documento_trgm
+       on pasajero using gin (nro_documento gin_trgm_ops);
+
+    /* Para llegar de los pasajeros encontrados a sus reservas sin recorrer reserva */
+    create index if not exists reserva_responsable_idx
+       on reserva (responsable_id);
+
+/* Verificación (debe mostrar Bitmap Index Scan on pasajero_apellido_trgm):
+
+    explain select * from pasajero where lower(apellido) like ('%' || lower('perez') || '%');
+*/
@@ -0,0 +1,25 @@
+/* DNI NORMALIZADO
+   Columna con el DNI reducido a letras y dígitos en mayúsculas ("12.345.678" -> "12345678"),
+   única, para que las reservas encuentren al responsable con una búsqueda exacta en lugar
+   de nro_documento LIKE '%q%'. La aplicación la mantiene al dar de alta y modificar pasajeros.
+
+   Ejecutar una sola vez sobre la base existente. Si falla la restricción única es que hay
+   pasajeros duplicados: listarlos con la consulta del final y unificarlos a mano. */
+
+    alter table pasajero
+       add column if not exists dni_normalizado varchar(255);
+
+    update pasajero
+       set dni_normalizado = nullif(upper(regexp_replace(nro_documento, '[^0-9A-Za-z]', '', 'g')), '')
+       where dni_normalizado is null;
+
+    alter table pasajero
+       add constraint pasajero_dni_normalizado_key unique (dni_normalizado);
+
+/* Pasajeros que impiden crear la restricción:
+
+    select dni_normalizado, array_agg(id)
+    from pasajero
+    group by dni_normalizado
+    having count(*) > 1 and dni_normalizado is not null;
+*/
@@ -0,0 +1,31 @@
+/* CLAVES DE BÚSQUEDA NORMALIZADAS
+   nombre_busqueda y apellido_busqueda guardan el nombre sin acentos y en minúsculas
+   ("Pérez" -> "perez"). La aplicación las calcula al guardar cada pasajero y normaliza las
+   consultas igual, así la búsqueda encuentra "Pérez" con "perez" y la base no tiene que
+   aplicar lower() a cada fila. Reemplazan a los índices sobre lower(nombre)/lower(apellido)
+   de la migración 003.
+
+   El relleno con unaccent es provisorio: no coincide con la normalización de la aplicación
+   (NFD sin marcas combinantes) en letras como ø, ß o ł. Al iniciar, la aplicación recalcula
+   las claves que difieren con su propio normalizador (ClavesBusquedaInitializer).
+
+   Ejecutar una sola vez sobre la base existente. */
+
+    create extension if not exists unaccent;
+
+    alter table pasajero
+       add column if not exists nombre_busqueda varchar(255),
+       add column if not exists apellido_busqueda varchar(255);
+
+    update pasajero
+       set nombre_busqueda = lower(unaccent(nombre)),
+           apellido_busqueda = lower(unaccent(apellido));
+
+    create index if not exists pasajero_nombre_busqueda_trgm
+       on pasajero using gin (nombre_busqueda gin_trgm_ops);
+
+    create index if not exists pasajero_apellido_busqueda_trgm
+       on pasajero using gin (apellido_busqueda gin_trgm_ops);
+
+    drop index if exists pasajero_nombre_trgm;
+    drop index if exists pasajero_apellido_trgm;
@@ -0,0 +1,28 @@
+/* CAPACIDAD DE LOS TIPOS DE HABITACIÓN
+   La columna capacidad (cantidad máxima de huéspedes) se agregó sin valor para los tipos ya
+   cargados. Se completa con la de los tipos de los datos iniciales y, para cualquier otro,
+   según el nombre: 1 para individuales, 4 para familiares y 2 en el resto de los casos. Revisar
+   después los tipos que no son de los datos iniciales.
+
+   Ejecutar una sola vez sobre la base existente. */
+
+    update tipo_habitacion
+       set capacidad = case
+               when nombre = 'Individual Estándar' then 1
+               when nombre in ('Doble Estándar', 'Doble Superior', 'Suite Doble') then 2
+               when nombre = 'Superior Family Plan' then 4
+               when lower(nombre) like '%individual%' or lower(nombre) like '%simple%' then 1
+               when lower(nombre) like '%family%' or lower(nombre) like '%familiar%' then 4
+               else 2
+           end
+       where capacidad is null;
+
+    alter table tipo_habitacion
+       alter column capacidad set not null;
+
+/* Tipos completados por nombre, para revisar:
+
+    select id, nombre, capacidad from tipo_habitacion
+    where nombre not in ('Individual Estándar', 'Doble Estándar', 'Doble Superior',
+                         'Superior Family Plan', 'Suite Doble');
+*/
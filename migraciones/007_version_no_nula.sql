@@ -0,0 +1,19 @@
+/* VERSIÓN NO NULA EN HABITACIÓN Y RESERVA
+   Las columnas version (concurrencia optimista, @Version) admitían NULL. Spring Data toma una
+   entidad con version null como nueva: una habitación o reserva anterior a la columna se
+   intentaba insertar (persist) en lugar de actualizar (merge). Se completan con 0 y dejan de
+   admitir NULL.
+
+   Ejecutar una sola vez sobre la base existente. */
+
+    update habitacion set version = 0 where version is null;
+
+    alter table habitacion
+       alter column version set default 0,
+       alter column version set not null;
+
+    update reserva set version = 0 where version is null;
+
+    alter table reserva
+       alter column version set default 0,
+       alter column version set not null;
@@ -0,0 +1,22 @@
+/* IDS DE RESERVA POR SECUENCIA
+   Reserva pasa de identity a la secuencia reserva_seq con bloques de 50 (@SequenceGenerator):
+   cada instancia pide un bloque de ids y los asigna en memoria, y los INSERT de una reserva
+   de grupo viajan en un solo lote JDBC (con identity Hibernate no puede agruparlos).
+
+   La secuencia arranca después del id más alto: las reservas existentes conservan su id.
+   Hibernate toma cada valor de la secuencia como el último de su bloque, por eso se suma 50
+   al máximo y no 1.
+
+   Ejecutar una sola vez sobre la base existente, con la aplicación detenida. */
+
+    create sequence if not exists reserva_seq start with 1 increment by 50;
+
+    select setval('reserva_seq', (select coalesce(max(id), 0) from reserva) + 50, false);
+
+    alter table reserva
+       alter column id drop identity if exists;
+
+/* Comprobación: el próximo bloque empieza después de la última reserva
+
+    select last_value, (select max(id) from reserva) from reserva_seq;
+*/
@@ -1,5 +1,13 @@
+    /* EXTENSIONES */
+
+    create extension if not exists btree_gist;
+    create extension if not exists pg_trgm;
+
     /* CREACIÓN DE LAS TABLAS */
     
+    /* Ids de reserva en bloques de 50 (ver @SequenceGenerator en Reserva) */
+    create sequence reserva_seq start with 1 increment by 50;
+
     create table conserje (
         id bigint generated by default as identity,
         apellido varchar(255),
@@ -35,6 +43,7 @@
         numero integer not null,
         tipo_habitacion_id bigint not null,
         estado varchar(255) not null check (estado in ('OCUPADA','RESERVADA','LIBRE','EN_MANTENIMIENTO')),
+        version bigint default 0 not null,
         primary key (numero)
     );
 
@@ -69,11 +78,14 @@
         fecha_de_nacimiento timestamp(6),
         id bigint generated by default as identity,
         apellido varchar(255),
+        apellido_busqueda varchar(255),
         cuit varchar(255),
         email varchar(255),
         estado varchar(255) check (estado in ('ACTIVO','INACTIVO')),
         nacionalidad varchar(255),
         nombre varchar(255),
+        nombre_busqueda varchar(255),
+        dni_normalizado varchar(255) unique,
         nro_documento varchar(255),
         ocupacion varchar(255),
         telefono varchar(255),
@@ -81,16 +93,36 @@
     );
 
     create table reserva (
+        asignacion_automatica boolean default false,
         habitacion_id integer not null,
         fecha_egreso timestamp(6),
         fecha_ingreso timestamp(6),
+        id bigint not null,
+        responsable_id bigint not null,
+        version bigint default 0 not null,
+        periodo daterange generated always as (
+            case when fecha_ingreso::date < fecha_egreso::date
+                 then daterange(fecha_ingreso::date, fecha_egreso::date, '[)')
+            end
+        ) stored,
+        primary key (id)
+    );
+
+    create table solicitud_espera (
+        fecha_egreso timestamp(6),
+        fecha_ingreso timestamp(6),
+        fecha_solicitud timestamp(6),
         id bigint generated by default as identity,
+        reserva_id bigint,
         responsable_id bigint not null,
+        tipo_habitacion_id bigint not null,
+        estado varchar(255) not null check (estado in ('PENDIENTE','ASIGNADA','CANCELADA','VENCIDA')),
         primary key (id)
     );
 
     create table tipo_habitacion (
         cantidad_disponible integer not null,
+        capacidad integer not null,
         costo_por_noche numeric(38,2) not null,
         id bigint generated by default as identity,
         nombre varchar(255) not null unique,
@@ -126,3 +158,27 @@
        add constraint FK4cmijq3mjvu3ug5gwq2nkrjb3 
        foreign key (responsable_id) 
        references pasajero;
+
+    alter table if exists solicitud_espera 
+       add constraint FK_solicitud_espera_responsable 
+       foreign key (responsable_id) 
+       references pasajero;
+
+    alter table if exists solicitud_espera 
+       add constraint FK_solicitud_espera_tipo_habitacion 
+       foreign key (tipo_habitacion_id) 
+       references tipo_habitacion;
+
+    /* Dos reservas de la misma habitación no pueden compartir una noche.
+       Postergable para que el optimizador de asignación pueda intercambiar habitaciones */
+    alter table if exists reserva
+       add constraint reserva_sin_solapamiento
+       exclude using gist (habitacion_id with =, periodo with &&)
+       deferrable initially immediate;
+
+    /* Búsquedas de huéspedes por subcadena (LIKE '%q%') con índices de trigramas sobre las
+       claves normalizadas (sin acentos, en minúsculas) */
+    create index pasajero_nombre_busqueda_trgm on pasajero using gin (nombre_busqueda gin_trgm_ops);
+    create index pasajero_apellido_busqueda_trgm on pasajero using gin (apellido_busqueda gin_trgm_ops);
+    create index pasajero_nro_documento_trgm on pasajero using gin (nro_documento gin_trgm_ops);
+    create index reserva_responsable_idx on reserva (responsable_id);